@@ -0,0 +1,125 @@
+package com.ecommerce.Filters;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.ecommerce.config.RateLimitProperties;
+import com.ecommerce.enums.RateLimitKey;
+import com.ecommerce.service.RateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies the configured rate limit policies to incoming requests and answers
+ * 429 with Retry-After once a client's bucket is empty. Runs after the JWT
+ * filter so per-user policies can see the authenticated user.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = req.getRequestURI().substring(req.getContextPath().length());
+        List<RateLimiter.Route> routes = rateLimiter.routesFor(req.getMethod(), path);
+        if (routes.isEmpty()) {
+            filterChain.doFilter(req, res);
+            return;
+        }
+
+        RateLimiter.Decision tightest = null;
+        for (RateLimiter.Route route : routes) {
+            String key = keyFor(route.keyBy(), req);
+            RateLimiter.Decision decision = rateLimiter.tryAcquire(route.policy(), key);
+            if (!decision.allowed()) {
+                log.debug("Rate limit {} exceeded by {} on {}", route.policy(), key, path);
+                reject(res, decision);
+                return;
+            }
+            if (tightest == null || decision.remaining() < tightest.remaining()) {
+                tightest = decision;
+            }
+        }
+
+        res.setHeader("X-RateLimit-Limit", String.valueOf(tightest.limit()));
+        res.setHeader("X-RateLimit-Remaining", String.valueOf(tightest.remaining()));
+        filterChain.doFilter(req, res);
+    }
+
+    private void reject(HttpServletResponse res, RateLimiter.Decision decision) throws IOException {
+        res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+        res.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+        res.setHeader("X-RateLimit-Remaining", "0");
+        res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(res.getOutputStream(), Map.of(
+                "success", false,
+                "message", "Too many requests. Please try again in " + decision.retryAfterSeconds() + " seconds."));
+    }
+
+    private String keyFor(RateLimitKey keyBy, HttpServletRequest req) {
+        if (keyBy == RateLimitKey.USER) {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+                return "user:" + truncate(auth.getName());
+            }
+        } else if (keyBy == RateLimitKey.TOKEN) {
+            String token = req.getParameter("token");
+            if (token != null && !token.isBlank()) {
+                return "token:" + truncate(token);
+            }
+        }
+        return "ip:" + clientAddress(req);
+    }
+
+    /**
+     * The connection address, or the X-Forwarded-For entry written by the
+     * outermost trusted proxy. Entries further left are set by the client and
+     * cannot be trusted.
+     */
+    private String clientAddress(HttpServletRequest req) {
+        int hops = properties.getTrustedProxyHops();
+        String forwardedFor = req.getHeader("X-Forwarded-For");
+        if (hops > 0 && forwardedFor != null && !forwardedFor.isBlank()) {
+            String[] addresses = forwardedFor.split(",");
+            String address = addresses[Math.max(0, addresses.length - hops)].trim();
+            if (!address.isEmpty()) {
+                return truncate(address);
+            }
+        }
+        return req.getRemoteAddr();
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_KEY_LENGTH ? value.substring(0, MAX_KEY_LENGTH) : value;
+    }
+}
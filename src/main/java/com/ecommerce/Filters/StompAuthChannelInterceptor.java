@@ -0,0 +1,123 @@
+package com.ecommerce.Filters;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.ServiceImpl.CustomUserDetails;
+import com.ecommerce.ServiceImpl.JwtService;
+import com.ecommerce.service.AgentLocationTracker;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Authenticates STOMP sessions with the same JWT as the REST API, sent in the
+ * CONNECT frame's Authorization header, and checks subscriptions to a delivery
+ * group's live location.
+ */
+@Slf4j
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    private static final Pattern GROUP_LOCATION_DESTINATION = Pattern
+            .compile("^/(?:topic|app)/delivery-groups/(\\d+)/location$");
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final AgentLocationTracker agentLocationTracker;
+
+    @Autowired
+    public StompAuthChannelInterceptor(JwtService jwtService, UserDetailsService userDetailsService,
+            @Lazy AgentLocationTracker agentLocationTracker) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.agentLocationTracker = agentLocationTracker;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT:
+                accessor.setUser(authenticate(accessor.getFirstNativeHeader("Authorization")));
+                break;
+            case SUBSCRIBE:
+                authorizeSubscription(accessor);
+                break;
+            case SEND:
+                if (currentUser(accessor) == null) {
+                    throw new AccessDeniedException("Authentication required");
+                }
+                break;
+            default:
+                break;
+        }
+        return message;
+    }
+
+    private UsernamePasswordAuthenticationToken authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            throw new AccessDeniedException("Missing bearer token");
+        }
+        String token = authHeader.substring(7);
+        try {
+            String username = jwtService.extractUsername(token);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (!jwtService.validateToken(token, userDetails)) {
+                throw new AccessDeniedException("Invalid or expired token");
+            }
+            log.debug("STOMP session authenticated for {}", username);
+            return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        } catch (AccessDeniedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("STOMP authentication failed: {}", e.getMessage());
+            throw new AccessDeniedException("Invalid or expired token");
+        }
+    }
+
+    private void authorizeSubscription(StompHeaderAccessor accessor) {
+        CustomUserDetails user = currentUser(accessor);
+        if (user == null) {
+            throw new AccessDeniedException("Authentication required");
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || destination.startsWith("/user/")) {
+            return;
+        }
+        Matcher matcher = GROUP_LOCATION_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            throw new AccessDeniedException("Unknown destination " + destination);
+        }
+        Long groupId = Long.valueOf(matcher.group(1));
+        if (!agentLocationTracker.canWatch(user, groupId)) {
+            log.warn("User {} denied subscription to delivery group {} location", user.getUserId(), groupId);
+            throw new AccessDeniedException("Not allowed to follow delivery group " + groupId);
+        }
+    }
+
+    private CustomUserDetails currentUser(StompHeaderAccessor accessor) {
+        if (accessor.getUser() instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user;
+        }
+        return null;
+    }
+}
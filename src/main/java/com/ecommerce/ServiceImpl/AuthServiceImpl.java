@@ -144,7 +144,7 @@ public class AuthServiceImpl implements AuthService {
             return false;
         }
         
-        User user = userRepository.findByResetToken(token)
+        User user = userRepository.findByResetTokenHash(User.hashResetToken(token))
                 .orElse(null);
         
         if (user == null) {
@@ -164,7 +164,7 @@ public class AuthServiceImpl implements AuthService {
             throw new CustomException("Password must be at least 8 characters long");
         }
         
-        User user = userRepository.findByResetToken(token)
+        User user = userRepository.findByResetTokenHash(User.hashResetToken(token))
                 .orElseThrow(() -> new CustomException("Invalid or expired reset token"));
         
         if (!user.isResetTokenValid(token)) {
@@ -1,12 +1,16 @@
 package com.ecommerce.ServiceImpl;
 
+import com.ecommerce.dto.CategoryBreadcrumbDTO;
 import com.ecommerce.dto.CategoryDTO;
 import com.ecommerce.dto.CategorySearchDTO;
+import com.ecommerce.dto.CategoryTreeNodeDTO;
 import com.ecommerce.entity.Category;
 import com.ecommerce.entity.Shop;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.CategoryRepository;
 import com.ecommerce.repository.ShopRepository;
 import com.ecommerce.service.CategoryService;
+import com.ecommerce.service.ReferenceDataCache;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -20,20 +24,30 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    // Cache key for the platform-wide category tree
+    private static final String PLATFORM_CATEGORIES_KEY = "platform";
+    private static final String TREE_KEY_PREFIX = "tree:";
+
     private final CategoryRepository categoryRepository;
     private final ShopRepository shopRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository, ShopRepository shopRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, ShopRepository shopRepository,
+            ReferenceDataCache referenceDataCache) {
         this.categoryRepository = categoryRepository;
         this.shopRepository = shopRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -50,6 +64,10 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category savedCategory = categoryRepository.save(category);
+        // The path ends with the category's own ID, so it is set once the ID exists
+        savedCategory.setPath(savedCategory.buildPath());
+        savedCategory.setDepth(savedCategory.getPathIds().size() - 1);
+        referenceDataCache.invalidate(ReferenceDataRegion.CATEGORIES);
         return convertToDTO(savedCategory);
     }
 
@@ -70,14 +88,19 @@ public class CategoryServiceImpl implements CategoryService {
         existingCategory.setMetaKeywords(categoryDTO.getMetaKeywords());
 
         // Update parent if changed
+        Long oldParentId = existingCategory.getParent() != null ? existingCategory.getParent().getId() : null;
         if (categoryDTO.getParentId() != null) {
             Category parent = categoryRepository.findById(categoryDTO.getParentId())
                     .orElseThrow(() -> new EntityNotFoundException(
                             "Parent category not found with id: " + categoryDTO.getParentId()));
+            if (parent.getId().equals(id) || parent.getPathIds().contains(id)) {
+                throw new IllegalArgumentException("A category cannot be moved under itself or its sub-categories");
+            }
             existingCategory.setParent(parent);
         } else {
             existingCategory.setParent(null);
         }
+        boolean moved = !Objects.equals(oldParentId, categoryDTO.getParentId()) || existingCategory.getPath() == null;
 
         // Generate slug if not provided
         if (categoryDTO.getSlug() == null || categoryDTO.getSlug().trim().isEmpty()) {
@@ -87,6 +110,20 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         Category updatedCategory = categoryRepository.save(existingCategory);
+        if (moved) {
+            String oldPath = updatedCategory.getPath();
+            int oldDepth = updatedCategory.getLevel();
+            updatedCategory.setPath(updatedCategory.buildPath());
+            updatedCategory.setDepth(updatedCategory.getPathIds().size() - 1);
+            if (oldPath != null) {
+                // One statement re-roots the whole subtree below the moved category
+                categoryRepository.rewriteDescendantPaths(oldPath, updatedCategory.getPath(),
+                        updatedCategory.getDepth() - oldDepth);
+                updatedCategory = categoryRepository.findById(id)
+                        .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
+            }
+        }
+        referenceDataCache.invalidate(ReferenceDataRegion.CATEGORIES);
         return convertToDTO(updatedCategory);
     }
 
@@ -108,6 +145,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.delete(category);
+        referenceDataCache.invalidate(ReferenceDataRegion.CATEGORIES);
     }
 
     @Override
@@ -135,15 +173,58 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     @Transactional(readOnly = true)
     public List<CategoryDTO> getTopLevelCategories(UUID shopId) {
-        List<Category> topLevelCategories;
-        if (shopId != null) {
-            topLevelCategories = categoryRepository.findByParentIsNullAndShopShopId(shopId);
-        } else {
-            topLevelCategories = categoryRepository.findByParentIsNullAndShopIsNull();
+        Object cacheKey = shopId != null ? shopId : PLATFORM_CATEGORIES_KEY;
+        return referenceDataCache.get(ReferenceDataRegion.CATEGORIES, cacheKey, () -> {
+            List<Category> topLevelCategories;
+            if (shopId != null) {
+                topLevelCategories = categoryRepository.findByParentIsNullAndShopShopId(shopId);
+            } else {
+                topLevelCategories = categoryRepository.findByParentIsNullAndShopIsNull();
+            }
+            return topLevelCategories.stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toUnmodifiableList());
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategoryBreadcrumbDTO> getBreadcrumbs(Long id) {
+        Category category = categoryRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Category not found with id: " + id));
+        if (category.getPath() == null) {
+            category.setPath(category.buildPath());
         }
-        return topLevelCategories.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+
+        // All ancestors in one query, then ordered by their position in the path
+        List<Long> pathIds = category.getPathIds();
+        Map<Long, Category> byId = new HashMap<>();
+        for (Category ancestor : categoryRepository.findAllById(pathIds)) {
+            byId.put(ancestor.getId(), ancestor);
+        }
+
+        List<CategoryBreadcrumbDTO> breadcrumbs = new ArrayList<>(pathIds.size());
+        for (Long pathId : pathIds) {
+            Category step = byId.get(pathId);
+            if (step != null) {
+                breadcrumbs.add(CategoryBreadcrumbDTO.builder()
+                        .id(step.getId())
+                        .name(step.getName())
+                        .slug(step.getSlug())
+                        .level(breadcrumbs.size())
+                        .build());
+            }
+        }
+        return breadcrumbs;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategoryTreeNodeDTO> getCategoryTree(UUID shopId) {
+        String cacheKey = TREE_KEY_PREFIX + (shopId != null ? shopId : PLATFORM_CATEGORIES_KEY);
+        return referenceDataCache.get(ReferenceDataRegion.CATEGORIES, cacheKey, () -> buildCategoryTree(
+                shopId != null ? categoryRepository.findAllByShopForTree(shopId)
+                        : categoryRepository.findAllPlatformForTree()));
     }
 
     @Override
@@ -264,6 +345,42 @@ public class CategoryServiceImpl implements CategoryService {
         return categories.map(this::convertToDTO);
     }
 
+    // Builds the tree from one flat list; inactive categories are left out
+    // together with everything below them
+    private List<CategoryTreeNodeDTO> buildCategoryTree(List<Category> categories) {
+        Map<Long, List<Category>> childrenByParentId = new HashMap<>();
+        List<Category> roots = new ArrayList<>();
+        for (Category category : categories) {
+            if (!category.isActive()) {
+                continue;
+            }
+            if (category.getParent() == null) {
+                roots.add(category);
+            } else {
+                childrenByParentId.computeIfAbsent(category.getParent().getId(), k -> new ArrayList<>()).add(category);
+            }
+        }
+        return toTreeNodes(roots, childrenByParentId, 0);
+    }
+
+    private List<CategoryTreeNodeDTO> toTreeNodes(List<Category> categories,
+            Map<Long, List<Category>> childrenByParentId, int level) {
+        List<CategoryTreeNodeDTO> nodes = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            nodes.add(CategoryTreeNodeDTO.builder()
+                    .id(category.getId())
+                    .name(category.getName())
+                    .slug(category.getSlug())
+                    .imageUrl(category.getImageUrl())
+                    .level(level)
+                    .featured(category.isFeatured())
+                    .children(toTreeNodes(childrenByParentId.getOrDefault(category.getId(), List.of()),
+                            childrenByParentId, level + 1))
+                    .build());
+        }
+        return List.copyOf(nodes);
+    }
+
     @Override
     public CategoryDTO convertToDTO(Category category) {
         if (category == null) {
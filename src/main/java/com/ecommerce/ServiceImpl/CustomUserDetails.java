@@ -32,6 +32,10 @@ public class CustomUserDetails implements UserDetails {
         return userId;
     }
 
+    public UserRole getRole() {
+        return role;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         String authority = "ROLE_" + role.name();
@@ -22,7 +22,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -196,16 +198,21 @@ public class DeliveryAgentReturnServiceImpl implements DeliveryAgentReturnServic
             User deliveryAgent = userRepository.findById(deliveryAgentId)
                     .orElseThrow(() -> new RuntimeException("Delivery agent not found"));
 
-            // Get counts for each delivery status
-            long totalAssigned = returnRequestRepository.countByDeliveryAgentId(deliveryAgentId);
-            long pickupScheduled = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                    deliveryAgentId, ReturnRequest.DeliveryStatus.PICKUP_SCHEDULED);
-            long pickupInProgress = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                    deliveryAgentId, ReturnRequest.DeliveryStatus.PICKUP_IN_PROGRESS);
-            long pickupCompleted = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                    deliveryAgentId, ReturnRequest.DeliveryStatus.PICKUP_COMPLETED);
-            long pickupFailed = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                    deliveryAgentId, ReturnRequest.DeliveryStatus.PICKUP_FAILED);
+            // Get counts for each delivery status from one grouped query
+            long totalAssigned = 0;
+            Map<ReturnRequest.DeliveryStatus, Long> byStatus = new EnumMap<>(ReturnRequest.DeliveryStatus.class);
+            for (Object[] row : returnRequestRepository.countAgentDeliveryBreakdown(
+                    deliveryAgentId, LocalDateTime.now())) {
+                long count = ((Number) row[1]).longValue();
+                totalAssigned += count;
+                if (row[0] != null) {
+                    byStatus.put(ReturnRequest.DeliveryStatus.valueOf((String) row[0]), count);
+                }
+            }
+            long pickupScheduled = byStatus.getOrDefault(ReturnRequest.DeliveryStatus.PICKUP_SCHEDULED, 0L);
+            long pickupInProgress = byStatus.getOrDefault(ReturnRequest.DeliveryStatus.PICKUP_IN_PROGRESS, 0L);
+            long pickupCompleted = byStatus.getOrDefault(ReturnRequest.DeliveryStatus.PICKUP_COMPLETED, 0L);
+            long pickupFailed = byStatus.getOrDefault(ReturnRequest.DeliveryStatus.PICKUP_FAILED, 0L);
 
             // Calculate success rate
             double successRate = totalAssigned > 0 ? (double) pickupCompleted / totalAssigned * 100 : 0.0;
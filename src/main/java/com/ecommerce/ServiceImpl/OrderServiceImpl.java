@@ -102,11 +102,6 @@ public class OrderServiceImpl implements OrderService {
         this.userPointsRepository = userPointsRepository;
     }
 
-    @Override
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
-    }
-
     @Override
     public Page<Order> getAllOrders(Pageable pageable) {
         return orderRepository.findAll(pageable);
@@ -287,10 +282,9 @@ public class OrderServiceImpl implements OrderService {
 
     // Delivery agency methods
     @Override
-    public List<DeliveryOrderDTO> getDeliveryOrders() {
-        return shopOrderRepository.findAll().stream()
-                .map(this::toDeliveryOrderDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<DeliveryOrderDTO> getDeliveryOrders(Pageable pageable) {
+        return shopOrderRepository.findAll(pageable).map(this::toDeliveryOrderDTO);
     }
 
     @Override
@@ -13,13 +13,19 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -33,7 +39,6 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
 
     private final OrderRepository orderRepository;
     private final OrderTrackingTokenRepository tokenRepository;
-    private final ReturnRequestRepository returnRequestRepository;
     private final EmailService emailService;
 
     @Value("${app.frontend.url:https://shopsphere-frontend.vercel.app/}")
@@ -42,15 +47,21 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
     private static final int TOKEN_EXPIRY_MINUTES = 60;
     private static final SecureRandom secureRandom = new SecureRandom();
 
+    // Tracking pages validate the token on every request; a valid token is
+    // remembered briefly so repeated page loads skip the lookup. Entries never
+    // outlive the token itself.
+    private static final Duration TOKEN_CACHE_TTL = Duration.ofSeconds(60);
+    private static final int TOKEN_CACHE_MAX_ENTRIES = 10_000;
+
+    private final Map<String, CachedToken> tokenCache = new ConcurrentHashMap<>();
+
     @Override
     public OrderTrackingResponseDTO requestTrackingAccess(OrderTrackingRequestDTO request) {
-        String email = request.getEmail().toLowerCase().trim();
+        String email = OrderCustomerInfo.normalizeEmail(request.getEmail());
 
         try {
             // Check if there are any orders for this email
-            List<Order> orders = orderRepository.findByCustomerInfoEmail(email);
-
-            if (orders.isEmpty()) {
+            if (!orderRepository.existsByCustomerEmail(email)) {
                 return new OrderTrackingResponseDTO(
                         false,
                         "No orders found for this email address",
@@ -79,6 +90,7 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
                 String newToken = generateSecureToken();
                 LocalDateTime newExpiresAt = LocalDateTime.now().plusMinutes(TOKEN_EXPIRY_MINUTES);
 
+                tokenCache.remove(existingToken.getToken());
                 existingToken.setToken(newToken);
                 existingToken.setExpiresAt(newExpiresAt);
                 existingToken.setUsed(false);
@@ -88,7 +100,7 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
                 tokenRepository.save(existingToken);
 
                 String trackingUrl = frontendUrl + "/track-order?token=" + newToken;
-                sendTrackingEmail(email, trackingUrl, newExpiresAt, orders.size());
+                sendTrackingEmailAfterCommit(email, trackingUrl, newExpiresAt);
 
                 return new OrderTrackingResponseDTO(
                         true,
@@ -110,7 +122,7 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
             tokenRepository.save(trackingToken);
 
             String trackingUrl = frontendUrl + "/track-order?token=" + token;
-            sendTrackingEmail(email, trackingUrl, expiresAt, orders.size());
+            sendTrackingEmailAfterCommit(email, trackingUrl, expiresAt);
 
             return new OrderTrackingResponseDTO(
                     true,
@@ -131,55 +143,31 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
     @Override
     @Transactional(readOnly = true)
     public Page<OrderSummaryDTO> getOrdersByToken(String token, Pageable pageable) {
-        // Validate token
-        Optional<OrderTrackingToken> trackingToken = tokenRepository
-                .findValidToken(token, LocalDateTime.now());
-
-        if (trackingToken.isEmpty()) {
-            throw new IllegalArgumentException("Invalid or expired tracking token");
-        }
-
-        String email = trackingToken.get().getEmail();
+        String email = requireTokenEmail(token);
 
-        // Get orders for this email with pagination
-        Page<Order> orders = orderRepository.findByCustomerInfoEmailWithPagination(email, pageable);
+        // Summaries come straight from the tracking projection, no order graphs
+        Page<Object[]> rows = orderRepository.findTrackingSummariesByCustomerEmail(email, pageable);
 
-        // Convert to DTOs
-        List<OrderSummaryDTO> orderSummaries = orders.getContent().stream()
-                .map(this::convertToOrderSummary)
+        List<OrderSummaryDTO> orderSummaries = rows.getContent().stream()
+                .map(this::toOrderSummary)
                 .collect(Collectors.toList());
 
-        return new PageImpl<>(orderSummaries, pageable, orders.getTotalElements());
+        return new PageImpl<>(orderSummaries, pageable, rows.getTotalElements());
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderResponseDTO getOrderByTokenAndId(String token, Long orderId) {
-        // Validate token
-        Optional<OrderTrackingToken> trackingToken = tokenRepository
-                .findValidToken(token, LocalDateTime.now());
-
-        if (trackingToken.isEmpty()) {
-            throw new IllegalArgumentException("Invalid or expired tracking token");
-        }
-
-        String email = trackingToken.get().getEmail();
-
-        // Get order and verify it belongs to this email
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-
-        if (orderOpt.isEmpty()) {
-            throw new IllegalArgumentException("Order not found");
-        }
+        String email = requireTokenEmail(token);
 
-        Order order = orderOpt.get();
-
-        // Verify order belongs to the email associated with token
-        if (order.getOrderCustomerInfo() == null ||
-                !email.equalsIgnoreCase(order.getOrderCustomerInfo().getEmail())) {
+        // Verify order belongs to the email associated with token before loading it
+        if (!orderRepository.existsByOrderIdAndCustomerEmail(orderId, email)) {
             throw new IllegalArgumentException("Order does not belong to this email address");
         }
 
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+
         // Convert to detailed DTO
         return convertToOrderResponseDTO(order);
     }
@@ -187,21 +175,20 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
     @Override
     @Transactional(readOnly = true)
     public boolean isValidToken(String token) {
-        return tokenRepository.findValidToken(token, LocalDateTime.now()).isPresent();
+        return resolveTokenEmail(token) != null;
     }
 
     @Override
     @Transactional(readOnly = true)
     public String getEmailByToken(String token) {
-        return tokenRepository.findValidToken(token, LocalDateTime.now())
-                .map(OrderTrackingToken::getEmail)
-                .orElse(null);
+        return resolveTokenEmail(token);
     }
 
     @Override
     @Transactional
     public void cleanupExpiredTokens() {
         tokenRepository.deleteExpiredTokens(LocalDateTime.now());
+        evictExpiredCachedTokens();
         log.info("Cleaned up expired tracking tokens");
     }
 
@@ -214,43 +201,111 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
 
-    private void sendTrackingEmail(String email, String trackingUrl, LocalDateTime expiresAt, int orderCount) {
+    /**
+     * Queue the tracking email once the token it links to is committed. The
+     * email service sends on its own executor, so the request does not wait
+     * for the mail server.
+     */
+    private void sendTrackingEmailAfterCommit(String email, String trackingUrl, LocalDateTime expiresAt) {
+        Runnable send = () -> sendTrackingEmail(email, trackingUrl, expiresAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send.run();
+                }
+            });
+        } else {
+            send.run();
+        }
+    }
+
+    private void sendTrackingEmail(String email, String trackingUrl, LocalDateTime expiresAt) {
         try {
             String token = trackingUrl.substring(trackingUrl.lastIndexOf("token=") + 6);
             String formattedExpiryTime = expiresAt.toString().replace("T", " ");
 
             emailService.sendOrderTrackingEmail(email, token, trackingUrl, formattedExpiryTime);
-            log.info("Tracking email sent successfully to: {}", email);
+            log.info("Tracking email queued for: {}", email);
 
         } catch (Exception e) {
-            log.error("Failed to send tracking email to: {}", email, e);
-            throw new Error("Failed to send the tracking email to the customer");
+            log.error("Failed to queue tracking email to: {}", email, e);
         }
     }
 
     /**
-     * Convert Order to OrderSummaryDTO
+     * Email of a valid tracking token, or an IllegalArgumentException
      */
-    private OrderSummaryDTO convertToOrderSummary(Order order) {
-        OrderSummaryDTO summary = new OrderSummaryDTO();
-        summary.setId(order.getId());
-        summary.setOrderNumber(order.getOrderCode());
-        summary.setStatus(order.getStatus().toString());
-        summary.setCreatedAt(order.getCreatedAt());
-        summary.setTotal(order.getTotalAmount());
-        summary.setItemCount(order.getAllItems() != null ? order.getAllItems().size() : 0);
+    private String requireTokenEmail(String token) {
+        String email = resolveTokenEmail(token);
+        if (email == null) {
+            throw new IllegalArgumentException("Invalid or expired tracking token");
+        }
+        return email;
+    }
 
-        if (order.getOrderCustomerInfo() != null) {
-            summary.setCustomerName(order.getOrderCustomerInfo().getFullName());
-            summary.setCustomerEmail(order.getOrderCustomerInfo().getEmail());
+    /**
+     * Normalized email of a valid tracking token, or null when the token is
+     * unknown, used or expired
+     */
+    private String resolveTokenEmail(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
         }
+        long now = System.currentTimeMillis();
+        CachedToken cached = tokenCache.get(token);
+        if (cached != null && cached.cachedUntil() >= now) {
+            return cached.expiresAt().isAfter(LocalDateTime.now()) ? cached.email() : null;
+        }
+
+        Optional<OrderTrackingToken> trackingToken = tokenRepository.findValidToken(token, LocalDateTime.now());
+        if (trackingToken.isEmpty()) {
+            tokenCache.remove(token);
+            return null;
+        }
+        String email = OrderCustomerInfo.normalizeEmail(trackingToken.get().getEmail());
+        if (tokenCache.size() >= TOKEN_CACHE_MAX_ENTRIES) {
+            evictExpiredCachedTokens();
+        }
+        if (tokenCache.size() < TOKEN_CACHE_MAX_ENTRIES) {
+            tokenCache.put(token, new CachedToken(email, trackingToken.get().getExpiresAt(),
+                    now + TOKEN_CACHE_TTL.toMillis()));
+        }
+        return email;
+    }
 
-        // Check if order has return request
-        summary.setHasReturnRequest(hasReturnRequest(order.getOrderCode()));
+    private void evictExpiredCachedTokens() {
+        long now = System.currentTimeMillis();
+        LocalDateTime current = LocalDateTime.now();
+        tokenCache.entrySet().removeIf(entry -> entry.getValue().cachedUntil() < now
+                || !entry.getValue().expiresAt().isAfter(current));
+    }
 
+    /**
+     * Row of {@link OrderRepository#findTrackingSummariesByCustomerEmail} to
+     * OrderSummaryDTO
+     */
+    private OrderSummaryDTO toOrderSummary(Object[] row) {
+        OrderSummaryDTO summary = new OrderSummaryDTO();
+        summary.setId(((Number) row[0]).longValue());
+        summary.setOrderNumber((String) row[1]);
+        summary.setStatus((String) row[2]);
+        summary.setCreatedAt(toLocalDateTime(row[3]));
+        summary.setTotal((BigDecimal) row[4]);
+        summary.setItemCount(((Number) row[5]).intValue());
+        summary.setCustomerName(row[6] + " " + row[7]);
+        summary.setCustomerEmail((String) row[8]);
+        summary.setHasReturnRequest(Boolean.TRUE.equals(row[9]));
         return summary;
     }
 
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
     /**
      * Convert Order to detailed OrderResponseDTO
      */
@@ -445,18 +500,6 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
         return dto;
     }
 
-    /**
-     * Check if order has return request
-     */
-    private boolean hasReturnRequest(String orderNumber) {
-        try {
-            return returnRequestRepository.findByOrderNumber(orderNumber).isPresent();
-        } catch (Exception e) {
-            log.warn("Error checking return request for order: {}", orderNumber, e);
-            return false;
-        }
-    }
-
     @Override
     public String getEmailFromToken(String token) {
         return getEmailByToken(token);
@@ -465,29 +508,19 @@ public class OrderTrackingServiceImpl implements OrderTrackingService {
     @Override
     @Transactional(readOnly = true)
     public OrderResponseDTO getOrderByNumberWithToken(String orderNumber, String token) {
-        Optional<OrderTrackingToken> trackingToken = tokenRepository
-                .findValidToken(token, LocalDateTime.now());
-
-        if (trackingToken.isEmpty()) {
-            throw new IllegalArgumentException("Invalid or expired tracking token");
-        }
-
-        String email = trackingToken.get().getEmail();
-
-        // Find order by order number and verify it belongs to the email
-        Optional<Order> orderOpt = orderRepository.findByOrderCode(orderNumber);
-        if (orderOpt.isEmpty()) {
-            throw new IllegalArgumentException("Order not found");
-        }
+        String email = requireTokenEmail(token);
 
-        Order order = orderOpt.get();
-
-        // Verify the order belongs to the email associated with the token
-        if (order.getOrderCustomerInfo() == null ||
-                !email.equalsIgnoreCase(order.getOrderCustomerInfo().getEmail())) {
+        // Verify the order belongs to the email associated with the token before loading it
+        if (!orderRepository.existsByOrderCodeAndCustomerEmail(orderNumber, email)) {
             throw new IllegalArgumentException("Order not found for this email");
         }
 
+        Order order = orderRepository.findByOrderCode(orderNumber)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found"));
+
         return convertToOrderResponseDTO(order);
     }
+
+    private record CachedToken(String email, LocalDateTime expiresAt, long cachedUntil) {
+    }
 }
@@ -3,8 +3,10 @@ package com.ecommerce.ServiceImpl;
 import com.ecommerce.dto.ProductAttributeTypeDTO;
 import com.ecommerce.dto.ProductAttributeTypeRequestDTO;
 import com.ecommerce.entity.ProductAttributeType;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.ProductAttributeTypeRepository;
 import com.ecommerce.service.ProductAttributeTypeService;
+import com.ecommerce.service.ReferenceDataCache;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -18,11 +20,16 @@ import java.util.stream.Collectors;
 @Service
 public class ProductAttributeTypeServiceImpl implements ProductAttributeTypeService {
 
+    private static final String ALL_ATTRIBUTE_TYPES_KEY = "all-attribute-types";
+
     private final ProductAttributeTypeRepository attributeTypeRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public ProductAttributeTypeServiceImpl(ProductAttributeTypeRepository attributeTypeRepository) {
+    public ProductAttributeTypeServiceImpl(ProductAttributeTypeRepository attributeTypeRepository,
+            ReferenceDataCache referenceDataCache) {
         this.attributeTypeRepository = attributeTypeRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -40,6 +47,7 @@ public class ProductAttributeTypeServiceImpl implements ProductAttributeTypeServ
         attributeType.setRequired(requestDTO.isRequired());
 
         ProductAttributeType savedAttributeType = attributeTypeRepository.save(attributeType);
+        referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
 
         return convertToDTO(savedAttributeType);
     }
@@ -64,6 +72,7 @@ public class ProductAttributeTypeServiceImpl implements ProductAttributeTypeServ
         attributeType.setRequired(requestDTO.isRequired());
 
         ProductAttributeType updatedAttributeType = attributeTypeRepository.save(attributeType);
+        referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
 
         return convertToDTO(updatedAttributeType);
     }
@@ -89,11 +98,10 @@ public class ProductAttributeTypeServiceImpl implements ProductAttributeTypeServ
     @Override
     @Transactional(readOnly = true)
     public List<ProductAttributeTypeDTO> getAllAttributeTypes() {
-        List<ProductAttributeType> attributeTypes = attributeTypeRepository.findAll();
-
-        return attributeTypes.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return referenceDataCache.get(ReferenceDataRegion.PRODUCT_ATTRIBUTES, ALL_ATTRIBUTE_TYPES_KEY,
+                () -> attributeTypeRepository.findAll().stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toUnmodifiableList()));
     }
 
     @Override
@@ -128,6 +136,7 @@ public class ProductAttributeTypeServiceImpl implements ProductAttributeTypeServ
 
         // Delete the attribute type
         attributeTypeRepository.deleteById(id);
+        referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
         return true;
     }
 
@@ -4,9 +4,11 @@ import com.ecommerce.dto.ProductAttributeValueDTO;
 import com.ecommerce.dto.ProductAttributeValueRequestDTO;
 import com.ecommerce.entity.ProductAttributeType;
 import com.ecommerce.entity.ProductAttributeValue;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.ProductAttributeTypeRepository;
 import com.ecommerce.repository.ProductAttributeValueRepository;
 import com.ecommerce.service.ProductAttributeValueService;
+import com.ecommerce.service.ReferenceDataCache;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -22,12 +24,14 @@ public class ProductAttributeValueServiceImpl implements ProductAttributeValueSe
 
     private final ProductAttributeValueRepository attributeValueRepository;
     private final ProductAttributeTypeRepository attributeTypeRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
     public ProductAttributeValueServiceImpl(ProductAttributeValueRepository attributeValueRepository,
-            ProductAttributeTypeRepository attributeTypeRepository) {
+            ProductAttributeTypeRepository attributeTypeRepository, ReferenceDataCache referenceDataCache) {
         this.attributeValueRepository = attributeValueRepository;
         this.attributeTypeRepository = attributeTypeRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -50,6 +54,7 @@ public class ProductAttributeValueServiceImpl implements ProductAttributeValueSe
         attributeValue.setAttributeType(attributeType);
 
         ProductAttributeValue savedAttributeValue = attributeValueRepository.save(attributeValue);
+        referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
 
         return convertToDTO(savedAttributeValue);
     }
@@ -84,6 +89,7 @@ public class ProductAttributeValueServiceImpl implements ProductAttributeValueSe
         attributeValue.setAttributeType(attributeType);
 
         ProductAttributeValue updatedAttributeValue = attributeValueRepository.save(attributeValue);
+        referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
 
         return convertToDTO(updatedAttributeValue);
     }
@@ -100,14 +106,16 @@ public class ProductAttributeValueServiceImpl implements ProductAttributeValueSe
     @Override
     @Transactional(readOnly = true)
     public List<ProductAttributeValueDTO> getAttributeValuesByTypeId(Long attributeTypeId) {
-        ProductAttributeType attributeType = attributeTypeRepository.findById(attributeTypeId)
-                .orElseThrow(() -> new EntityNotFoundException("Attribute type not found with id: " + attributeTypeId));
+        return referenceDataCache.get(ReferenceDataRegion.PRODUCT_ATTRIBUTES, "values-of-type:" + attributeTypeId, () -> {
+            ProductAttributeType attributeType = attributeTypeRepository.findById(attributeTypeId)
+                    .orElseThrow(() -> new EntityNotFoundException("Attribute type not found with id: " + attributeTypeId));
 
-        List<ProductAttributeValue> attributeValues = attributeValueRepository.findByAttributeType(attributeType);
+            List<ProductAttributeValue> attributeValues = attributeValueRepository.findByAttributeType(attributeType);
 
-        return attributeValues.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+            return attributeValues.stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toUnmodifiableList());
+        });
     }
 
     @Override
@@ -125,11 +133,10 @@ public class ProductAttributeValueServiceImpl implements ProductAttributeValueSe
     @Override
     @Transactional(readOnly = true)
     public List<ProductAttributeValueDTO> getAllAttributeValues() {
-        List<ProductAttributeValue> attributeValues = attributeValueRepository.findAll();
-
-        return attributeValues.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return referenceDataCache.get(ReferenceDataRegion.PRODUCT_ATTRIBUTES, "all-attribute-values",
+                () -> attributeValueRepository.findAll().stream()
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toUnmodifiableList()));
     }
 
     @Override
@@ -177,6 +184,7 @@ public class ProductAttributeValueServiceImpl implements ProductAttributeValueSe
 
         // Delete the attribute value
         attributeValueRepository.deleteById(id);
+        referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
         return true;
     }
 
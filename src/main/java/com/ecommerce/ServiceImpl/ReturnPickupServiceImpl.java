@@ -6,6 +6,7 @@ import com.ecommerce.entity.*;
 import com.ecommerce.repository.*;
 import com.ecommerce.service.MoneyFlowService;
 import com.ecommerce.service.ReturnPickupService;
+import com.ecommerce.service.ReturnRestockService;
 import com.ecommerce.service.RewardService;
 import com.ecommerce.service.StripeService;
 import com.stripe.exception.StripeException;
@@ -32,13 +33,13 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
     private final ReturnRequestRepository returnRequestRepository;
     private final ReturnItemRepository returnItemRepository;
     private final OrderItemBatchRepository orderItemBatchRepository;
-    private final StockBatchRepository stockBatchRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
     private final RewardService rewardService;
     private final StripeService stripeService;
     private final ShippingCostRepository shippingCostRepository;
     private final MoneyFlowService moneyFlowService;
+    private final ReturnRestockService returnRestockService;
 
     @Override
     public ReturnPickupResponseDTO processReturnPickup(ReturnPickupRequestDTO pickupRequest, UUID deliveryAgentId) {
@@ -54,13 +55,16 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
                             "Return request not found with ID: " + pickupRequest.getReturnRequestId()));
 
             List<ReturnPickupResponseDTO.ReturnItemProcessingResult> itemResults = new ArrayList<>();
+            List<PendingRestock> pendingRestocks = new ArrayList<>();
 
             for (ReturnPickupRequestDTO.ReturnItemPickupDTO pickupItem : pickupRequest.getReturnItems()) {
                 ReturnPickupResponseDTO.ReturnItemProcessingResult result = processReturnItem(
-                        pickupItem, returnRequest);
+                        pickupItem, returnRequest, pendingRestocks);
                 itemResults.add(result);
             }
 
+            restockPickup(pendingRestocks);
+
             updateOrderStatus(returnRequest.getShopOrder().getOrder());
 
             updateReturnRequestStatus(returnRequest);
@@ -151,7 +155,8 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
 
     private ReturnPickupResponseDTO.ReturnItemProcessingResult processReturnItem(
             ReturnPickupRequestDTO.ReturnItemPickupDTO pickupItem,
-            ReturnRequest returnRequest) {
+            ReturnRequest returnRequest,
+            List<PendingRestock> pendingRestocks) {
 
         try {
             log.debug("Processing return item {} with status {}",
@@ -170,19 +175,19 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
                 return createFailedResult(returnItem, "No batch information found for this item");
             }
 
-            // Process restocking based on pickup status
+            // Restockable items are only allocated here; the whole pickup is
+            // applied at once and the result is completed afterwards
             boolean restockedSuccessfully = false;
             String warehouseName = "";
             String batchNumber = "";
             String message = "";
+            ReturnRestockService.Allocation allocation = null;
 
             if (shouldRestock(pickupItem.getPickupStatus())) {
-                RestockResult restockResult = restockReturnedItem(returnItem, orderItemBatches,
-                        pickupItem.getPickupStatus());
-                restockedSuccessfully = restockResult.isSuccess();
-                warehouseName = restockResult.getWarehouseName();
-                batchNumber = restockResult.getBatchNumber();
-                message = restockResult.getMessage();
+                allocation = returnRestockService.allocate(returnItem, orderItemBatches);
+                warehouseName = allocation.getWarehouseName();
+                batchNumber = allocation.getBatchNumbers();
+                message = "Restock pending";
             } else {
                 message = "Item not restocked due to status: " + pickupItem.getPickupStatus();
                 // Get warehouse info for display
@@ -191,7 +196,8 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
                 }
             }
 
-            return new ReturnPickupResponseDTO.ReturnItemProcessingResult(
+            ReturnPickupResponseDTO.ReturnItemProcessingResult result =
+                    new ReturnPickupResponseDTO.ReturnItemProcessingResult(
                     pickupItem.getReturnItemId(),
                     getProductName(returnItem),
                     getVariantName(returnItem),
@@ -201,6 +207,10 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
                     warehouseName,
                     batchNumber,
                     message);
+            if (allocation != null) {
+                pendingRestocks.add(new PendingRestock(allocation, result));
+            }
+            return result;
 
         } catch (Exception e) {
             log.error("Error processing return item {}: {}", pickupItem.getReturnItemId(), e.getMessage(), e);
@@ -213,53 +223,33 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
         return status == ReturnPickupRequestDTO.ReturnItemPickupStatus.UNDAMAGED;
     }
 
-    private RestockResult restockReturnedItem(ReturnItem returnItem, List<OrderItemBatch> orderItemBatches,
-            ReturnPickupRequestDTO.ReturnItemPickupStatus pickupStatus) {
-        try {
-            int remainingQuantityToRestock = returnItem.getReturnQuantity();
-            StringBuilder batchNumbers = new StringBuilder();
-            String warehouseName = "";
-
-            for (OrderItemBatch orderItemBatch : orderItemBatches) {
-                if (remainingQuantityToRestock <= 0) {
-                    break;
-                }
-
-                StockBatch stockBatch = orderItemBatch.getStockBatch();
-                int quantityToRestock = Math.min(remainingQuantityToRestock, orderItemBatch.getQuantityUsed());
-
-                // Increase the stock batch quantity
-                stockBatch.increaseQuantity(quantityToRestock);
-                stockBatchRepository.save(stockBatch);
-
-                remainingQuantityToRestock -= quantityToRestock;
-
-                if (batchNumbers.length() > 0) {
-                    batchNumbers.append(", ");
-                }
-                batchNumbers.append(stockBatch.getBatchNumber());
-
-                if (warehouseName.isEmpty()) {
-                    warehouseName = orderItemBatch.getWarehouse().getName();
-                }
+    /**
+     * Restock every allocated item of the pickup in one batch and record the
+     * outcome on each item's result
+     */
+    private void restockPickup(List<PendingRestock> pendingRestocks) {
+        if (pendingRestocks.isEmpty()) {
+            return;
+        }
+        List<ReturnRestockService.Allocation> allocations = new ArrayList<>();
+        for (PendingRestock pending : pendingRestocks) {
+            allocations.add(pending.allocation());
+        }
 
-                log.debug("Restocked {} units to batch {} in warehouse {}",
-                        quantityToRestock, stockBatch.getBatchNumber(), warehouseName);
-            }
+        Set<Long> restockedBatchIds = returnRestockService.apply(allocations);
 
-            if (remainingQuantityToRestock > 0) {
-                log.warn("Could not restock {} units for return item {}",
-                        remainingQuantityToRestock, returnItem.getId());
-                return new RestockResult(false, warehouseName, batchNumbers.toString(),
-                        "Partially restocked. " + remainingQuantityToRestock + " units could not be restocked.");
+        for (PendingRestock pending : pendingRestocks) {
+            ReturnRestockService.Allocation allocation = pending.allocation();
+            ReturnPickupResponseDTO.ReturnItemProcessingResult result = pending.result();
+            int missing = allocation.unrestocked(restockedBatchIds);
+            if (missing > 0) {
+                log.warn("Could not restock {} units for return item {}", missing, allocation.getReturnItemId());
+                result.setRestockedSuccessfully(false);
+                result.setMessage("Partially restocked. " + missing + " units could not be restocked.");
+            } else {
+                result.setRestockedSuccessfully(true);
+                result.setMessage("Successfully restocked " + allocation.getRequested() + " units");
             }
-
-            return new RestockResult(true, warehouseName, batchNumbers.toString(),
-                    "Successfully restocked " + returnItem.getReturnQuantity() + " units");
-
-        } catch (Exception e) {
-            log.error("Error restocking return item {}: {}", returnItem.getId(), e.getMessage(), e);
-            return new RestockResult(false, "", "", "Restocking failed: " + e.getMessage());
         }
     }
 
@@ -1236,35 +1226,10 @@ public class ReturnPickupServiceImpl implements ReturnPickupService {
     }
 
     /**
-     * Helper class for restock operation results
+     * A restockable item of the current pickup and the result to complete
+     * once the pickup's restock has been applied
      */
-    private static class RestockResult {
-        private final boolean success;
-        private final String warehouseName;
-        private final String batchNumber;
-        private final String message;
-
-        public RestockResult(boolean success, String warehouseName, String batchNumber, String message) {
-            this.success = success;
-            this.warehouseName = warehouseName;
-            this.batchNumber = batchNumber;
-            this.message = message;
-        }
-
-        public boolean isSuccess() {
-            return success;
-        }
-
-        public String getWarehouseName() {
-            return warehouseName;
-        }
-
-        public String getBatchNumber() {
-            return batchNumber;
-        }
-
-        public String getMessage() {
-            return message;
-        }
+    private record PendingRestock(ReturnRestockService.Allocation allocation,
+            ReturnPickupResponseDTO.ReturnItemProcessingResult result) {
     }
 }
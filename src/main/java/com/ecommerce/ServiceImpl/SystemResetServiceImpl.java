@@ -3,7 +3,10 @@ package com.ecommerce.ServiceImpl;
 import com.ecommerce.dto.SystemResetRequest;
 import com.ecommerce.dto.SystemResetResponse;
 import com.ecommerce.dto.SystemResetResponse.SystemResetStats;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.*;
+import com.ecommerce.service.CartReadModel;
+import com.ecommerce.service.ReferenceDataCache;
 import com.ecommerce.service.SystemResetService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +29,9 @@ public class SystemResetServiceImpl implements SystemResetService {
     private final RewardSystemRepository rewardSystemRepository;
     private final ShippingCostRepository shippingCostRepository;
     private final MoneyFlowRepository moneyFlowRepository;
+    private final MoneyFlowRollupRepository moneyFlowRollupRepository;
+    private final MoneyFlowBalanceRepository moneyFlowBalanceRepository;
+    private final MoneyFlowCheckpointRepository moneyFlowCheckpointRepository;
     private final CategoryRepository categoryRepository;
     private final BrandRepository brandRepository;
     private final WarehouseRepository warehouseRepository;
@@ -34,12 +40,15 @@ public class SystemResetServiceImpl implements SystemResetService {
     private final ProductVariantRepository productVariantRepository;
     private final ProductImageRepository productImageRepository;
     private final ProductVideoRepository productVideoRepository;
+    private final CatalogIdentifierRepository catalogIdentifierRepository;
+    private final ProductKeywordRepository productKeywordRepository;
     private final StockRepository stockRepository;
     private final StockBatchRepository stockBatchRepository;
     private final CartItemRepository cartItemRepository;
     private final ReviewRepository reviewRepository;
     private final RewardRangeRepository rewardRangeRepository;
     private final UserPointsRepository userPointsRepository;
+    private final UserPointsBalanceRepository userPointsBalanceRepository;
     
     // Order-related repositories
     private final OrderDeliveryNoteRepository orderDeliveryNoteRepository;
@@ -50,6 +59,9 @@ public class SystemResetServiceImpl implements SystemResetService {
     private final ReturnMediaRepository returnMediaRepository;
     private final ReturnAppealRepository returnAppealRepository;
 
+    private final ReferenceDataCache referenceDataCache;
+    private final CartReadModel cartReadModel;
+
     @Override
     public SystemResetResponse performSystemReset(SystemResetRequest request) {
         log.info("Starting system reset operation");
@@ -271,6 +283,11 @@ public class SystemResetServiceImpl implements SystemResetService {
             long count = productRepository.count();
             productRepository.deleteAll();
             log.info("Deleted {} products", count);
+
+            // Their slugs and SKUs are free again, and their keywords match nothing
+            catalogIdentifierRepository.deleteAllInBatch();
+            productKeywordRepository.deleteAllInBatch();
+            cartReadModel.invalidateAll();
             
             return count;
         } catch (Exception e) {
@@ -298,6 +315,7 @@ public class SystemResetServiceImpl implements SystemResetService {
             
             long count = discountRepository.count();
             discountRepository.deleteAll();
+            cartReadModel.invalidateAll();
             log.info("Deleted {} discounts", count);
             
             return count;
@@ -373,10 +391,12 @@ public class SystemResetServiceImpl implements SystemResetService {
             
             // Delete user points
             userPointsRepository.deleteAll();
+            userPointsBalanceRepository.deleteAllInBatch();
             log.info("Deleted all user points");
             
             long count = rewardSystemRepository.count();
             rewardSystemRepository.deleteAll();
+            referenceDataCache.invalidate(ReferenceDataRegion.REWARD_SYSTEMS);
             log.info("Deleted {} reward systems", count);
             
             return count;
@@ -394,6 +414,7 @@ public class SystemResetServiceImpl implements SystemResetService {
         try {
             long count = shippingCostRepository.count();
             shippingCostRepository.deleteAll();
+            referenceDataCache.invalidate(ReferenceDataRegion.SHIPPING_COSTS);
             log.info("Deleted {} shipping costs", count);
             
             return count;
@@ -409,8 +430,13 @@ public class SystemResetServiceImpl implements SystemResetService {
         log.info("Deleting all money flow records");
         
         try {
+            // Zero the counter first: its row lock keeps writers from
+            // applying a movement to a ledger that is being emptied
+            moneyFlowBalanceRepository.resetBalance();
             long count = moneyFlowRepository.count();
             moneyFlowRepository.deleteAll();
+            moneyFlowRollupRepository.deleteAllInBatch();
+            moneyFlowCheckpointRepository.deleteAllInBatch();
             log.info("Deleted {} money flow records", count);
             
             return count;
@@ -434,6 +460,7 @@ public class SystemResetServiceImpl implements SystemResetService {
             
             long count = categoryRepository.count();
             categoryRepository.deleteAll();
+            referenceDataCache.invalidate(ReferenceDataRegion.CATEGORIES);
             log.info("Deleted {} categories", count);
             
             return count;
@@ -457,6 +484,7 @@ public class SystemResetServiceImpl implements SystemResetService {
             
             long count = brandRepository.count();
             brandRepository.deleteAll();
+            referenceDataCache.invalidate(ReferenceDataRegion.BRANDS);
             log.info("Deleted {} brands", count);
             
             return count;
@@ -483,6 +511,8 @@ public class SystemResetServiceImpl implements SystemResetService {
             // JPA cascading will handle WarehouseImages due to CascadeType.ALL and orphanRemoval
             long count = warehouseRepository.count();
             warehouseRepository.deleteAll();
+            referenceDataCache.invalidate(ReferenceDataRegion.WAREHOUSES);
+            cartReadModel.invalidateAll();
             log.info("Deleted {} warehouses with all cascading relationships", count);
             
             return count;
@@ -7,6 +7,8 @@
     import com.ecommerce.repository.UserRepository;
     import com.ecommerce.service.UserService;
     import lombok.RequiredArgsConstructor;
+    import org.springframework.data.domain.Page;
+    import org.springframework.data.domain.Pageable;
     import org.springframework.stereotype.Service;
     import org.springframework.beans.factory.annotation.Autowired;
     import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,6 +21,9 @@
         private final PasswordEncoder passwordEncoder;
         private final com.ecommerce.service.EmailService emailService;
 
+        private static final java.util.List<UserRole> STAFF_ROLES = java.util.List.of(UserRole.DELIVERY_AGENT,
+                UserRole.EMPLOYEE);
+
         @Override
         public User createUserWithRole(CreateUserDTO dto) {
             if (dto.getEmail() == null || dto.getPassword() == null || dto.getRole() == null) {
@@ -51,9 +56,12 @@
 
         @Override
         public java.util.List<User> getAllAgentsAndEmployees() {
-            return userRepository.findAll().stream()
-                    .filter(u -> u.getRole() == UserRole.DELIVERY_AGENT || u.getRole() == UserRole.EMPLOYEE)
-                    .toList();
+            return userRepository.findByRoleIn(STAFF_ROLES);
+        }
+
+        @Override
+        public Page<User> getAgentsAndEmployees(Pageable pageable) {
+            return userRepository.findByRoleIn(STAFF_ROLES, pageable);
         }
 
         @Override
@@ -114,10 +122,8 @@
 
         @Override
         public void resetPasswordWithToken(String token, String newPassword) {
-            User user = userRepository.findAll().stream()
-                    .filter(u -> (u.getRole() == UserRole.DELIVERY_AGENT || u.getRole() == UserRole.EMPLOYEE)
-                            && u.isResetTokenValid(token))
-                    .findFirst()
+            User user = userRepository.findByResetTokenHashAndRoleIn(User.hashResetToken(token), STAFF_ROLES)
+                    .filter(u -> u.isResetTokenValid(token))
                     .orElseThrow(() -> new IllegalArgumentException("Invalid or expired token."));
             user.setPassword(passwordEncoder.encode(newPassword));
             user.clearResetToken();
@@ -1,12 +1,13 @@
 package com.ecommerce.config;
 
+import com.ecommerce.entity.UserPointsBalance;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * @author Isaac-1-lang
@@ -21,88 +22,304 @@ import org.springframework.transaction.annotation.Transactional;
 public class DatabaseMigrationConfig {
 
     private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Run database migrations after the application is fully started.
      * This uses ApplicationReadyEvent to ensure all beans are initialized.
+     *
+     * Each step commits or rolls back on its own. On PostgreSQL a failed
+     * statement aborts the rest of its transaction, so sharing one would let
+     * a single failure silently undo every later step.
      */
     @EventListener(ApplicationReadyEvent.class)
-    @Transactional
     public void runDatabaseMigrations() {
         log.info("Starting database migrations...");
-        
-        try {
-            addHybridPaymentMethodSupport();
+
+        int failed = 0;
+        failed += runStep("HYBRID payment method constraint", this::addHybridPaymentMethodSupport);
+        failed += runStep("category paths", this::backfillCategoryPaths);
+        failed += runStep("product keywords", this::backfillProductKeywords);
+        failed += runStep("product keyword trigram index", this::addProductKeywordTrigramIndex);
+        failed += runStep("money flow rollups", this::backfillMoneyFlowRollups);
+        failed += runStep("user points balances", this::backfillUserPointsBalances);
+        failed += runStep("dashboard indexes", this::addDashboardIndexes);
+        failed += runStep("normalized customer emails", this::backfillNormalizedCustomerEmails);
+        failed += runStep("activity log order ids", this::backfillActivityLogOrderIds);
+        failed += runStep("catalog identifiers", this::backfillCatalogIdentifiers);
+
+        if (failed == 0) {
             log.info("Database migrations completed successfully");
+        } else {
+            log.error("{} database migration step(s) failed; see the errors above", failed);
+        }
+    }
+
+    /**
+     * Run one step in its own transaction
+     *
+     * @return 1 if the step failed and was rolled back, 0 otherwise
+     */
+    private int runStep(String name, Runnable step) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> step.run());
+            return 0;
         } catch (Exception e) {
-            log.error("Error running database migrations: {}", e.getMessage(), e);
-            // Don't throw exception - let the application start even if migration fails
-            // This prevents startup failures if the constraint already exists
+            // Don't throw - let the application start even if a migration fails
+            log.error("Database migration step '{}' failed: {}", name, e.getMessage(), e);
+            return 1;
+        }
+    }
+
+    /**
+     * Fill in or repair the materialized path and depth of every category from
+     * its parent links, and add the prefix index used for subtree queries.
+     * This migration is idempotent - rows that are already correct are not touched.
+     */
+    private void backfillCategoryPaths() {
+        int updated = jdbcTemplate.update(
+            "WITH RECURSIVE tree AS (" +
+            "  SELECT id, '/' || id || '/' AS path, 0 AS depth FROM categories WHERE parent_id IS NULL" +
+            "  UNION ALL" +
+            "  SELECT c.id, t.path || c.id || '/', t.depth + 1 FROM categories c JOIN tree t ON c.parent_id = t.id" +
+            ") " +
+            "UPDATE categories c SET path = t.path, depth = t.depth FROM tree t " +
+            "WHERE c.id = t.id AND (c.path IS DISTINCT FROM t.path OR c.depth IS DISTINCT FROM t.depth)");
+        if (updated > 0) {
+            log.info("Backfilled materialized paths of {} categories", updated);
+        }
+
+        // text_pattern_ops lets LIKE 'prefix%' use the index under any collation
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_categories_path ON categories (path text_pattern_ops)");
+    }
+
+    /**
+     * Fill the normalized product_keywords table from the comma-separated meta
+     * and search keywords of existing product details. The backfill only runs
+     * while the table is empty; afterwards the application keeps it in sync.
+     */
+    private void backfillProductKeywords() {
+        Boolean empty = jdbcTemplate.queryForObject(
+            "SELECT NOT EXISTS (SELECT 1 FROM product_keywords)", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            int inserted = jdbcTemplate.update(
+                "INSERT INTO product_keywords (product_id, keyword) " +
+                "SELECT DISTINCT pd.product_id, LEFT(LOWER(TRIM(k.keyword)), 255) " +
+                "FROM product_details pd " +
+                "CROSS JOIN LATERAL unnest(string_to_array(" +
+                "  COALESCE(pd.meta_keywords, '') || ',' || COALESCE(pd.search_keywords, ''), ',')) AS k(keyword) " +
+                "WHERE TRIM(k.keyword) <> '' " +
+                "ON CONFLICT DO NOTHING");
+            if (inserted > 0) {
+                log.info("Backfilled {} normalized product keywords", inserted);
+            }
+        }
+    }
+
+    /**
+     * Add a trigram index so substring keyword matches can use an index.
+     * Keyword matching works without pg_trgm, just without an index for
+     * '%term%', so only what the database allows is attempted.
+     */
+    private void addProductKeywordTrigramIndex() {
+        Boolean installable = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_available_extensions WHERE name = 'pg_trgm') " +
+            "AND has_database_privilege(current_database(), 'CREATE')", Boolean.class);
+        if (Boolean.TRUE.equals(installable)) {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+        }
+        Boolean installed = jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class);
+        if (Boolean.TRUE.equals(installed)) {
+            jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_product_keywords_keyword_trgm " +
+                "ON product_keywords USING gin (keyword gin_trgm_ops)");
+        } else {
+            log.info("pg_trgm is not available; product keyword substring matches are not indexed");
+        }
+    }
+
+    /**
+     * Build the minute, hour and day money flow rollups from the existing
+     * ledger. Only runs while the rollup table is empty; afterwards every
+     * ledger write maintains it.
+     */
+    private void backfillMoneyFlowRollups() {
+        Boolean needed = jdbcTemplate.queryForObject(
+            "SELECT NOT EXISTS (SELECT 1 FROM money_flow_rollups) AND EXISTS (SELECT 1 FROM money_flow)",
+            Boolean.class);
+        if (!Boolean.TRUE.equals(needed)) {
+            return;
+        }
+        // Ledger writers update the balance counter first; holding its row
+        // lock keeps an entry from being counted both here and by its writer
+        jdbcTemplate.queryForList("SELECT id FROM money_flow_balance WHERE id = 1 FOR UPDATE");
+        int inserted = jdbcTemplate.update(
+            "INSERT INTO money_flow_rollups (granularity, bucket_start, total_inflow, total_outflow, entry_count) " +
+            "SELECT grain, DATE_TRUNC(grain, created_at), " +
+            "       COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0), " +
+            "       COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0), " +
+            "       COUNT(*) " +
+            "FROM money_flow CROSS JOIN (VALUES ('day'), ('hour'), ('minute')) AS grains(grain) " +
+            "GROUP BY grain, DATE_TRUNC(grain, created_at) " +
+            "ON CONFLICT (granularity, bucket_start) DO NOTHING");
+        log.info("Backfilled {} money flow rollup buckets", inserted);
+    }
+
+    /**
+     * Create the user_points_balances rows from the user_points ledger. Runs
+     * only while the table is empty; afterwards every ledger write keeps it
+     * current and the reconciliation job repairs any drift.
+     */
+    private void backfillUserPointsBalances() {
+        String neededSql =
+            "SELECT NOT EXISTS (SELECT 1 FROM user_points_balances) AND EXISTS (SELECT 1 FROM user_points)";
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(neededSql, Boolean.class))) {
+            return;
+        }
+
+        // Writers update their balance row before inserting into the ledger;
+        // blocking them keeps a ledger row from being counted twice. The lock
+        // lasts until this step commits, and the check is repeated under it in
+        // case another node backfilled in the meantime.
+        jdbcTemplate.execute("LOCK TABLE user_points_balances IN SHARE ROW EXCLUSIVE MODE");
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(neededSql, Boolean.class))) {
+            return;
+        }
+        int inserted = jdbcTemplate.update(
+            "INSERT INTO user_points_balances (user_id, shop_id, balance, total_earned, total_spent, updated_at) " +
+            "SELECT user_id, COALESCE(shop_id, ?), SUM(points), " +
+            "       SUM(CASE WHEN points > 0 THEN points ELSE 0 END), " +
+            "       SUM(CASE WHEN points < 0 THEN -points ELSE 0 END), " +
+            "       NOW() " +
+            "FROM user_points " +
+            "GROUP BY user_id, COALESCE(shop_id, ?) " +
+            "ON CONFLICT (user_id, shop_id) DO NOTHING",
+            UserPointsBalance.NO_SHOP, UserPointsBalance.NO_SHOP);
+        log.info("Backfilled {} user points balances", inserted);
+    }
+
+    /**
+     * Partial indexes behind the appeal and return dashboards: the pending
+     * appeal backlog by age, and each delivery agent's returns by delivery
+     * status. JPA cannot declare partial indexes, so they are created here.
+     */
+    private void addDashboardIndexes() {
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_return_appeals_pending_submitted_at " +
+            "ON return_appeals (submitted_at) WHERE status = 'PENDING'");
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_return_requests_agent_delivery_status " +
+            "ON return_requests (delivery_agent_id, delivery_status) WHERE delivery_agent_id IS NOT NULL");
+    }
+
+    /**
+     * Fill in email_normalized for customer info rows written before the column
+     * existed, or edited outside JPA. Guest order tracking matches on it alone.
+     */
+    private void backfillNormalizedCustomerEmails() {
+        int updated = jdbcTemplate.update(
+            "UPDATE order_customer_info SET email_normalized = LOWER(TRIM(email)) " +
+            "WHERE email_normalized IS DISTINCT FROM LOWER(TRIM(email))");
+        if (updated > 0) {
+            log.info("Normalized {} order customer emails", updated);
+        }
+    }
+
+    /**
+     * Copy order_id into order_id_value where it is missing. Timeline reads
+     * filter on order_id_value alone, through its (order_id_value, timestamp)
+     * index.
+     */
+    private void backfillActivityLogOrderIds() {
+        int updated = jdbcTemplate.update(
+            "UPDATE order_activity_logs SET order_id_value = order_id " +
+            "WHERE order_id_value IS NULL AND order_id IS NOT NULL");
+        if (updated > 0) {
+            log.info("Backfilled order_id_value of {} order activity logs", updated);
         }
     }
 
+    /**
+     * Claim the slugs and SKUs of products and variants that are not yet in
+     * catalog_identifiers, e.g. those written before the table existed, and
+     * add the index behind the LIKE 'base%' suffix lookups. Idempotent.
+     */
+    private void backfillCatalogIdentifiers() {
+        int inserted = jdbcTemplate.update(
+            "INSERT INTO catalog_identifiers (kind, value, created_at) " +
+            "SELECT 'PRODUCT_SLUG', slug, NOW() FROM products WHERE slug IS NOT NULL " +
+            "UNION ALL SELECT 'PRODUCT_SKU', sku, NOW() FROM products " +
+            "UNION ALL SELECT 'VARIANT_SKU', variant_sku, NOW() FROM product_variants " +
+            "WHERE variant_sku IS NOT NULL " +
+            "ON CONFLICT DO NOTHING");
+        if (inserted > 0) {
+            log.info("Backfilled {} catalog identifiers", inserted);
+        }
+
+        // text_pattern_ops lets LIKE 'prefix%' use the index under any collation
+        jdbcTemplate.execute(
+            "CREATE INDEX IF NOT EXISTS idx_catalog_identifiers_kind_value_pattern " +
+            "ON catalog_identifiers (kind, value text_pattern_ops)");
+    }
+
     /**
      * Add HYBRID payment method to the order_transactions payment_method check constraint.
      * This migration is idempotent - it can be run multiple times safely.
      */
     private void addHybridPaymentMethodSupport() {
-        try {
-            log.info("Checking if HYBRID payment method constraint needs to be updated...");
-            
-            // Check if the constraint exists
-            String checkConstraintSql = 
-                "SELECT COUNT(*) FROM information_schema.constraint_column_usage " +
-                "WHERE constraint_name = 'order_transactions_payment_method_check' " +
-                "AND table_name = 'order_transactions'";
-            
-            Integer constraintExists = jdbcTemplate.queryForObject(checkConstraintSql, Integer.class);
+        log.info("Checking if HYBRID payment method constraint needs to be updated...");
+        
+        // Check if the constraint exists
+        String checkConstraintSql = 
+            "SELECT COUNT(*) FROM information_schema.constraint_column_usage " +
+            "WHERE constraint_name = 'order_transactions_payment_method_check' " +
+            "AND table_name = 'order_transactions'";
+        
+        Integer constraintExists = jdbcTemplate.queryForObject(checkConstraintSql, Integer.class);
+        
+        if (constraintExists != null && constraintExists > 0) {
+            log.info("Payment method constraint exists, updating to include HYBRID...");
             
-            if (constraintExists != null && constraintExists > 0) {
-                log.info("Payment method constraint exists, updating to include HYBRID...");
-                
-                // Drop the existing constraint
-                String dropConstraintSql = 
-                    "ALTER TABLE order_transactions DROP CONSTRAINT IF EXISTS order_transactions_payment_method_check";
-                jdbcTemplate.execute(dropConstraintSql);
-                log.info("Dropped existing payment_method constraint");
-                
-                // Add the new constraint with HYBRID included
-                String addConstraintSql = 
-                    "ALTER TABLE order_transactions " +
-                    "ADD CONSTRAINT order_transactions_payment_method_check " +
-                    "CHECK (payment_method IN ('CREDIT_CARD', 'DEBIT_CARD', 'POINTS', 'HYBRID'))";
-                jdbcTemplate.execute(addConstraintSql);
-                log.info("Added new payment_method constraint with HYBRID support");
-                
-            } else {
-                log.info("Payment method constraint does not exist, creating it...");
-                
-                // Create the constraint with HYBRID included
-                String addConstraintSql = 
-                    "ALTER TABLE order_transactions " +
-                    "ADD CONSTRAINT order_transactions_payment_method_check " +
-                    "CHECK (payment_method IN ('CREDIT_CARD', 'DEBIT_CARD', 'POINTS', 'HYBRID'))";
-                jdbcTemplate.execute(addConstraintSql);
-                log.info("Created payment_method constraint with HYBRID support");
-            }
+            // Drop the existing constraint
+            String dropConstraintSql = 
+                "ALTER TABLE order_transactions DROP CONSTRAINT IF EXISTS order_transactions_payment_method_check";
+            jdbcTemplate.execute(dropConstraintSql);
+            log.info("Dropped existing payment_method constraint");
             
-            // Verify the constraint was created successfully
-            String verifyConstraintSql = 
-                "SELECT pg_get_constraintdef(oid) " +
-                "FROM pg_constraint " +
-                "WHERE conrelid = 'order_transactions'::regclass " +
-                "AND conname = 'order_transactions_payment_method_check'";
+            // Add the new constraint with HYBRID included
+            String addConstraintSql = 
+                "ALTER TABLE order_transactions " +
+                "ADD CONSTRAINT order_transactions_payment_method_check " +
+                "CHECK (payment_method IN ('CREDIT_CARD', 'DEBIT_CARD', 'POINTS', 'HYBRID'))";
+            jdbcTemplate.execute(addConstraintSql);
+            log.info("Added new payment_method constraint with HYBRID support");
             
-            try {
-                String constraintDef = jdbcTemplate.queryForObject(verifyConstraintSql, String.class);
-                log.info("Payment method constraint verified: {}", constraintDef);
-            } catch (Exception e) {
-                log.warn("Could not verify constraint (might not be PostgreSQL): {}", e.getMessage());
-            }
+        } else {
+            log.info("Payment method constraint does not exist, creating it...");
             
+            // Create the constraint with HYBRID included
+            String addConstraintSql = 
+                "ALTER TABLE order_transactions " +
+                "ADD CONSTRAINT order_transactions_payment_method_check " +
+                "CHECK (payment_method IN ('CREDIT_CARD', 'DEBIT_CARD', 'POINTS', 'HYBRID'))";
+            jdbcTemplate.execute(addConstraintSql);
+            log.info("Created payment_method constraint with HYBRID support");
+        }
+        
+        // Verify the constraint was created successfully
+        String verifyConstraintSql = 
+            "SELECT pg_get_constraintdef(oid) " +
+            "FROM pg_constraint " +
+            "WHERE conrelid = 'order_transactions'::regclass " +
+            "AND conname = 'order_transactions_payment_method_check'";
+        
+        try {
+            String constraintDef = jdbcTemplate.queryForObject(verifyConstraintSql, String.class);
+            log.info("Payment method constraint verified: {}", constraintDef);
         } catch (Exception e) {
-            // Log the error but don't fail the application startup
-            log.warn("Could not update payment method constraint (it might already be correct): {}", e.getMessage());
+            log.warn("Could not verify constraint (might not be PostgreSQL): {}", e.getMessage());
         }
     }
 }
@@ -0,0 +1,64 @@
+package com.ecommerce.config;
+
+import com.ecommerce.enums.RateLimitKey;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route request rate limits for the expensive public endpoints, and the
+ * optional shared store that makes them hold across nodes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    /**
+     * Client keys tracked across all policies; split evenly among the
+     * policies that do not set their own bound
+     */
+    private int maxKeys = 100_000;
+    /**
+     * Number of trusted proxies in front of the application. The client
+     * address is taken this many entries from the right of X-Forwarded-For;
+     * 0 uses the connection address.
+     */
+    private int trustedProxyHops = 0;
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+    private SharedStore sharedStore = new SharedStore();
+
+    @Data
+    public static class Policy {
+        /**
+         * Ant-style request paths the policy applies to
+         */
+        private List<String> paths = new ArrayList<>();
+        /**
+         * HTTP methods the policy applies to; all when empty
+         */
+        private List<String> methods = new ArrayList<>();
+        private RateLimitKey keyBy = RateLimitKey.IP;
+        /**
+         * Requests allowed in a burst
+         */
+        private int capacity = 60;
+        private double refillPerMinute = 60;
+        /**
+         * Client keys tracked for this policy; 0 takes its share of the
+         * global max-keys
+         */
+        private int maxKeys = 0;
+    }
+
+    @Data
+    public static class SharedStore {
+        private boolean enabled = false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.config;
+
+import com.ecommerce.enums.ReferenceDataRegion;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings for the in-process reference-data cache and its optional
+ * cross-node invalidation channel.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.reference-cache")
+@Data
+public class ReferenceDataCacheProperties {
+
+    private boolean enabled = true;
+    private long defaultTtlSeconds = 300;
+    private Map<ReferenceDataRegion, Long> ttlSeconds = new EnumMap<>(ReferenceDataRegion.class);
+    private int maxEntriesPerRegion = 1000;
+    private CrossNode crossNode = new CrossNode();
+
+    public long ttlSecondsFor(ReferenceDataRegion region) {
+        return ttlSeconds.getOrDefault(region, defaultTtlSeconds);
+    }
+
+    @Data
+    public static class CrossNode {
+        private boolean enabled = false;
+        private long pollIntervalMs = 2000;
+        private int retentionMinutes = 60;
+    }
+}
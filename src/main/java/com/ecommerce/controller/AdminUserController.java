@@ -9,6 +9,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
@@ -53,6 +56,18 @@ public class AdminUserController {
         return ResponseEntity.ok(userService.getAllAgentsAndEmployees());
     }
 
+    @Operation(summary = "Get agents and employees (paginated)", description = "Admin fetches users with role DELIVERY_AGENT or EMPLOYEE one page at a time.", responses = {
+            @ApiResponse(responseCode = "200", description = "Page of users")
+    })
+    @GetMapping("/paged")
+    public ResponseEntity<?> getUsersPaged(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100),
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+        return ResponseEntity.ok(userService.getAgentsAndEmployees(pageable));
+    }
+
     @Operation(summary = "Get user by ID", description = "Admin fetches user by ID.", responses = {
             @ApiResponse(responseCode = "200", description = "User found", content = @Content(schema = @Schema(implementation = User.class))),
             @ApiResponse(responseCode = "404", description = "User not found")
@@ -0,0 +1,83 @@
+package com.ecommerce.controller;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+
+import com.ecommerce.ServiceImpl.CustomUserDetails;
+import com.ecommerce.dto.AgentLocationDTO;
+import com.ecommerce.dto.AgentLocationUpdateDTO;
+import com.ecommerce.service.AgentLocationTracker;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * STOMP handlers for live delivery agent positions. Subscriptions are
+ * authorized in {@link com.ecommerce.Filters.StompAuthChannelInterceptor}.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class AgentLocationSocketController {
+
+    private final AgentLocationTracker agentLocationTracker;
+
+    /**
+     * Agent pushes its current position; it is fanned out to
+     * /topic/delivery-groups/{groupId}/location
+     */
+    @MessageMapping("/delivery-groups/{groupId}/location")
+    public void publishLocation(@DestinationVariable Long groupId,
+            @Payload @Validated AgentLocationUpdateDTO update, Principal principal) {
+        CustomUserDetails user = toUser(principal);
+        agentLocationTracker.record(user.getUserId(), groupId, update);
+    }
+
+    /**
+     * One-off reply with the latest known position, so a new subscriber does
+     * not wait for the agent's next update
+     */
+    @SubscribeMapping("/delivery-groups/{groupId}/location")
+    public AgentLocationDTO currentLocation(@DestinationVariable Long groupId) {
+        return agentLocationTracker.getLatest(groupId).orElse(null);
+    }
+
+    @MessageExceptionHandler
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleException(Exception e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        if (e instanceof AccessDeniedException) {
+            response.put("errorCode", "ACCESS_DENIED");
+            response.put("message", e.getMessage());
+        } else if (e instanceof org.springframework.messaging.handler.annotation.support.MethodArgumentNotValidException) {
+            response.put("errorCode", "VALIDATION_ERROR");
+            response.put("message", "Invalid location payload");
+        } else {
+            log.error("Error handling agent location message: {}", e.getMessage(), e);
+            response.put("errorCode", "INTERNAL_ERROR");
+            response.put("message", "Failed to process location update");
+        }
+        return response;
+    }
+
+    private CustomUserDetails toUser(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user;
+        }
+        throw new AccessDeniedException("Authentication required");
+    }
+}
@@ -0,0 +1,237 @@
+package com.ecommerce.controller;
+
+import com.ecommerce.entity.ProductImportError;
+import com.ecommerce.entity.ProductImportJob;
+import com.ecommerce.enums.ImportFormat;
+import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CatalogImportService;
+import com.ecommerce.service.ShopAuthorizationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/products/imports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Catalog Import", description = "Bulk product imports from CSV or NDJSON files")
+@SecurityRequirement(name = "bearerAuth")
+@PreAuthorize("hasAnyRole('VENDOR', 'EMPLOYEE')")
+public class CatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+    private final ShopAuthorizationService shopAuthorizationService;
+    private final UserRepository userRepository;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Start a catalog import", description = "Upload a CSV or NDJSON file with one row per "
+            + "product, variant, warehouse or batch; consecutive rows with the same product_sku make one product. "
+            + "The import runs in the background; poll the job for progress and its errors for rejected rows.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Import queued"),
+                    @ApiResponse(responseCode = "400", description = "Empty file or unknown format"),
+                    @ApiResponse(responseCode = "403", description = "Forbidden - Not authorized to manage this shop"),
+                    @ApiResponse(responseCode = "500", description = "Internal server error")
+            })
+    public ResponseEntity<?> startImport(
+            @RequestParam UUID shopId,
+            @RequestPart("file") MultipartFile file,
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean publish) {
+        try {
+            shopAuthorizationService.assertCanManageShop(getCurrentUserId(), shopId);
+            ImportFormat fileFormat = format != null ? ImportFormat.fromName(format) : null;
+            ProductImportJob job = catalogImportService.submit(shopId, file, fileFormat, publish,
+                    SecurityContextHolder.getContext().getAuthentication().getName());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(success(toJobMap(job)));
+        } catch (com.ecommerce.Exception.CustomException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error("FORBIDDEN", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error("VALIDATION_ERROR", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error starting catalog import for shop {}: {}", shopId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error("INTERNAL_ERROR", "Failed to start import: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping
+    @Operation(summary = "List catalog imports of a shop")
+    public ResponseEntity<?> getImports(
+            @RequestParam UUID shopId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            shopAuthorizationService.assertCanManageShop(getCurrentUserId(), shopId);
+            Page<ProductImportJob> jobs = catalogImportService.getJobs(shopId,
+                    PageRequest.of(page, Math.min(Math.max(size, 1), 100)));
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("content", jobs.getContent().stream().map(this::toJobMap).toList());
+            data.put("page", jobs.getNumber());
+            data.put("size", jobs.getSize());
+            data.put("totalElements", jobs.getTotalElements());
+            data.put("totalPages", jobs.getTotalPages());
+            return ResponseEntity.ok(success(data));
+        } catch (com.ecommerce.Exception.CustomException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error("FORBIDDEN", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error listing catalog imports for shop {}: {}", shopId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error("INTERNAL_ERROR", "Failed to list imports: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get the progress of a catalog import")
+    public ResponseEntity<?> getImport(@PathVariable Long jobId) {
+        try {
+            ProductImportJob job = authorizedJob(jobId);
+            return ResponseEntity.ok(success(toJobMap(job)));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error("NOT_FOUND", e.getMessage()));
+        } catch (com.ecommerce.Exception.CustomException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error("FORBIDDEN", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error getting catalog import {}: {}", jobId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error("INTERNAL_ERROR", "Failed to get import: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}/errors")
+    @Operation(summary = "Get the error report of a catalog import", description = "Rejected rows in file order")
+    public ResponseEntity<?> getImportErrors(
+            @PathVariable Long jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        try {
+            authorizedJob(jobId);
+            Page<ProductImportError> errors = catalogImportService.getErrors(jobId,
+                    PageRequest.of(page, Math.min(Math.max(size, 1), 1000)));
+            List<Map<String, Object>> rows = errors.getContent().stream().map(e -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("row", e.getRowNumber());
+                row.put("sku", e.getSku());
+                row.put("message", e.getMessage());
+                return row;
+            }).toList();
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("content", rows);
+            data.put("page", errors.getNumber());
+            data.put("size", errors.getSize());
+            data.put("totalElements", errors.getTotalElements());
+            data.put("totalPages", errors.getTotalPages());
+            return ResponseEntity.ok(success(data));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error("NOT_FOUND", e.getMessage()));
+        } catch (com.ecommerce.Exception.CustomException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error("FORBIDDEN", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error getting errors of catalog import {}: {}", jobId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error("INTERNAL_ERROR", "Failed to get import errors: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{jobId}/resume")
+    @Operation(summary = "Resume a catalog import", description = "Continues a failed or abandoned import after "
+            + "its last committed chunk")
+    public ResponseEntity<?> resumeImport(@PathVariable Long jobId) {
+        try {
+            authorizedJob(jobId);
+            ProductImportJob job = catalogImportService.resume(jobId);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(success(toJobMap(job)));
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error("NOT_FOUND", e.getMessage()));
+        } catch (com.ecommerce.Exception.CustomException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(error("FORBIDDEN", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(error("CONFLICT", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error resuming catalog import {}: {}", jobId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(error("INTERNAL_ERROR", "Failed to resume import: " + e.getMessage()));
+        }
+    }
+
+    private ProductImportJob authorizedJob(Long jobId) {
+        ProductImportJob job = catalogImportService.getJob(jobId);
+        shopAuthorizationService.assertCanManageShop(getCurrentUserId(), job.getShopId());
+        return job;
+    }
+
+    private UUID getCurrentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new RuntimeException("User not authenticated");
+        }
+        if (auth.getPrincipal() instanceof com.ecommerce.entity.User user && user.getId() != null) {
+            return user.getId();
+        }
+        String email = auth.getName();
+        return userRepository.findByUserEmail(email)
+                .map(com.ecommerce.entity.User::getId)
+                .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+    }
+
+    private Map<String, Object> toJobMap(ProductImportJob job) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", job.getId());
+        map.put("shopId", job.getShopId());
+        map.put("fileName", job.getFileName());
+        map.put("format", job.getFormat());
+        map.put("publish", job.isPublish());
+        map.put("status", job.getStatus());
+        map.put("rowsProcessed", job.getRowsProcessed());
+        map.put("rowsFailed", job.getRowsFailed());
+        map.put("productsImported", job.getProductsImported());
+        map.put("variantsImported", job.getVariantsImported());
+        map.put("errorMessage", job.getErrorMessage());
+        map.put("createdAt", job.getCreatedAt());
+        map.put("startedAt", job.getStartedAt());
+        map.put("finishedAt", job.getFinishedAt());
+        return map;
+    }
+
+    private Map<String, Object> success(Object data) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", data);
+        return response;
+    }
+
+    private Map<String, Object> error(String errorCode, String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("errorCode", errorCode);
+        response.put("message", message);
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+}
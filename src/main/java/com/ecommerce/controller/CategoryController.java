@@ -1,7 +1,9 @@
 package com.ecommerce.controller;
 
+import com.ecommerce.dto.CategoryBreadcrumbDTO;
 import com.ecommerce.dto.CategoryDTO;
 import com.ecommerce.dto.CategorySearchDTO;
+import com.ecommerce.dto.CategoryTreeNodeDTO;
 import com.ecommerce.service.CategoryService;
 import com.ecommerce.service.ShopAuthorizationService;
 import com.ecommerce.ServiceImpl.CustomUserDetails;
@@ -177,6 +179,18 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    @GetMapping("/tree")
+    @Operation(summary = "Get category tree", description = "Retrieve the full navigation tree of active categories")
+    public ResponseEntity<List<CategoryTreeNodeDTO>> getCategoryTree(@RequestParam(required = false) UUID shopId) {
+        return ResponseEntity.ok(categoryService.getCategoryTree(shopId));
+    }
+
+    @GetMapping("/{id}/breadcrumbs")
+    @Operation(summary = "Get category breadcrumbs", description = "Retrieve the path from the top-level category down to the given category")
+    public ResponseEntity<List<CategoryBreadcrumbDTO>> getBreadcrumbs(@PathVariable Long id) {
+        return ResponseEntity.ok(categoryService.getBreadcrumbs(id));
+    }
+
     @GetMapping("/sub-categories/{parentId}")
     @Operation(summary = "Get sub-categories", description = "Retrieve all sub-categories of a given parent category")
     public ResponseEntity<List<CategoryDTO>> getSubCategories(@PathVariable Long parentId) {
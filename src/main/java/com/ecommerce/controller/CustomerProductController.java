@@ -135,14 +135,15 @@ public class CustomerProductController {
 
     @GetMapping("/category/{categoryId}")
     @Operation(summary = "Get products by category for customers", 
-               description = "Returns products in a specific category available to customers")
+               description = "Returns products in a specific category and, by default, its subcategories available to customers")
     @ApiResponse(responseCode = "200", description = "Category products retrieved successfully")
     public ResponseEntity<Page<ManyProductsDto>> getProductsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = "true") boolean includeSubcategories) {
         
         try {
             log.info("Getting products by category {} for customers - page: {}, size: {}", categoryId, page, size);
@@ -150,7 +151,8 @@ public class CustomerProductController {
             Sort sort = Sort.by(Sort.Direction.fromString(sortDirection), sortBy);
             PageRequest pageRequest = PageRequest.of(page, size, sort);
             
-            Page<ManyProductsDto> products = productService.getProductsByCategoryForCustomers(categoryId, pageRequest);
+            Page<ManyProductsDto> products = productService.getProductsByCategoryForCustomers(categoryId,
+                    includeSubcategories, pageRequest);
             
             log.info("Retrieved {} products in category {} for customers", products.getTotalElements(), categoryId);
             return ResponseEntity.ok(products);
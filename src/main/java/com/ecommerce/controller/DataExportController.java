@@ -0,0 +1,102 @@
+package com.ecommerce.controller;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecommerce.enums.ExportDataset;
+import com.ecommerce.enums.ExportFormat;
+import com.ecommerce.service.DataExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admin endpoint streaming whole tables as CSV or NDJSON downloads.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/exports")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Data Export", description = "Admin endpoints for bulk data exports")
+@PreAuthorize("hasRole('ADMIN')")
+public class DataExportController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final DataExportService dataExportService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/{dataset}")
+    @Operation(summary = "Export a dataset",
+               description = "Streams orders, money-flow, warehouse-stock or return-requests as a CSV or NDJSON "
+                       + "download, optionally gzipped and bounded by creation time (update time for stock)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export streamed"),
+        @ApiResponse(responseCode = "400", description = "Unknown dataset or format"),
+        @ApiResponse(responseCode = "403", description = "Access denied - Admin role required"),
+        @ApiResponse(responseCode = "429", description = "Too many exports running")
+    })
+    public void export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        ExportDataset target;
+        ExportFormat exportFormat;
+        try {
+            target = ExportDataset.valueOf(dataset.toUpperCase().replace('-', '_'));
+            exportFormat = ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Unknown dataset or format: " + dataset + ", " + format);
+            return;
+        }
+
+        String fileName = target.name().toLowerCase().replace('_', '-') + "-"
+                + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + exportFormat.getExtension()
+                + (gzip ? ".gz" : "");
+        response.setContentType(gzip ? "application/gzip" : exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+
+        try {
+            dataExportService.export(target, exportFormat, gzip, from, to, response.getOutputStream());
+        } catch (IllegalStateException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            writeError(response, HttpStatus.TOO_MANY_REQUESTS, e.getMessage());
+        } catch (IOException e) {
+            // The client stopped reading; nothing left to tell it
+            log.warn("Export of {} aborted: {}", target, e.getMessage());
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), Map.of(
+                "success", false,
+                "message", message));
+    }
+}
@@ -74,6 +74,28 @@ public class DeliveryAgentController {
         }
     }
 
+    @Operation(summary = "Get optimized route for a delivery group", description = "Get the group's stops in optimized delivery order, starting at the group's warehouse by default")
+    @ApiResponse(responseCode = "200", description = "Route computed successfully", content = @Content(schema = @Schema(implementation = DeliveryRouteDTO.class)))
+    @GetMapping("/groups/{groupId}/route")
+    @PreAuthorize("hasRole('DELIVERY_AGENT')")
+    public ResponseEntity<DeliveryRouteDTO> getRouteForGroup(
+            @PathVariable Long groupId,
+            @RequestParam(defaultValue = "true") boolean startAtWarehouse,
+            Authentication authentication) {
+        try {
+            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+            UUID agentId = userDetails.getUserId();
+
+            DeliveryRouteDTO route = readyForDeliveryGroupService.getDeliveryRouteForAgent(groupId, agentId,
+                    startAtWarehouse);
+
+            return ResponseEntity.ok(route);
+        } catch (Exception e) {
+            log.error("Error computing route for group {}: {}", groupId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @Operation(summary = "Mark delivery as started", description = "Mark that delivery has started for a group")
     @ApiResponse(responseCode = "200", description = "Delivery marked as started successfully")
     @PutMapping("/groups/{groupId}/start-delivery")
@@ -6,6 +6,10 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -24,17 +28,35 @@ import java.util.Map;
 @PreAuthorize("hasRole('DELIVERY')")
 public class DeliveryOrderController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final OrderService orderService;
 
     @GetMapping
-    @Operation(summary = "Get delivery orders", description = "Retrieve all orders for delivery")
-    public ResponseEntity<?> getDeliveryOrders() {
+    @Operation(summary = "Get delivery orders", description = "Retrieve orders for delivery, newest first, one page at a time")
+    public ResponseEntity<?> getDeliveryOrders(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
         try {
-            List<DeliveryOrderDTO> orders = orderService.getDeliveryOrders();
+            if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "success", false,
+                        "message", "page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE));
+            }
+
+            Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+            Page<DeliveryOrderDTO> ordersPage = orderService.getDeliveryOrders(pageable);
 
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("data", orders);
+            response.put("data", ordersPage.getContent());
+            response.put("pagination", Map.of(
+                    "currentPage", ordersPage.getNumber(),
+                    "totalPages", ordersPage.getTotalPages(),
+                    "totalElements", ordersPage.getTotalElements(),
+                    "pageSize", ordersPage.getSize(),
+                    "hasNext", ordersPage.hasNext(),
+                    "hasPrevious", ordersPage.hasPrevious()));
 
             return ResponseEntity.ok(response);
 
@@ -267,7 +267,8 @@ public class DiscountController {
             @Parameter(description = "Number of items per page", example = "10") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Field to sort by", example = "createdAt") @RequestParam(defaultValue = "createdAt") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "desc") @RequestParam(defaultValue = "desc") String sortDirection,
-            @Parameter(description = "Filter to show only active discounts", example = "false") @RequestParam(defaultValue = "false") boolean activeOnly) {
+            @Parameter(description = "Filter to show only active discounts", example = "false") @RequestParam(defaultValue = "false") boolean activeOnly,
+            @Parameter(description = "Search by discount name or code", example = "SUMMER") @RequestParam(required = false) String search) {
 
         log.info("Fetching discounts for shop: {} - page: {}, size: {}, sortBy: {}, sortDirection: {}, activeOnly: {}",
                 shopId, page, size, sortBy, sortDirection, activeOnly);
@@ -277,7 +278,9 @@ public class DiscountController {
             Pageable pageable = PageRequest.of(page, size, sort);
 
             Page<DiscountDTO> discounts;
-            if (activeOnly) {
+            if (search != null && !search.isBlank()) {
+                discounts = discountService.searchDiscounts(shopId, activeOnly ? Boolean.TRUE : null, search, pageable);
+            } else if (activeOnly) {
                 discounts = discountService.getActiveDiscounts(shopId, pageable);
             } else {
                 discounts = discountService.getAllDiscounts(shopId, pageable);
@@ -16,6 +16,8 @@ import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +38,8 @@ import java.util.Map;
 @SecurityRequirement(name = "bearerAuth")
 public class MoneyFlowController {
 
+    private static final int MAX_BUCKET_PAGE_SIZE = 500;
+
     private final MoneyFlowService moneyFlowService;
 
     @PostMapping
@@ -91,7 +95,9 @@ public class MoneyFlowController {
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
     @Operation(summary = "Get money flow data with automatic aggregation", 
-               description = "Retrieve money flow data between two dates. The system automatically determines the best aggregation granularity based on the time range.")
+               description = "Retrieve money flow totals between two dates. The system automatically determines the best aggregation granularity based on the time range. "
+                       + "Responses carry only bucket totals unless includeTransactions is set (minute and hour granularity only); "
+                       + "use /buckets/transactions to page through the transactions of one bucket.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Money flow data retrieved successfully", 
                         content = @Content(schema = @Schema(implementation = MoneyFlowResponseDTO.class))),
@@ -102,7 +108,8 @@ public class MoneyFlowController {
     })
     public ResponseEntity<?> getMoneyFlow(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "false") boolean includeTransactions) {
         
         Map<String, Object> response = new HashMap<>();
 
@@ -115,7 +122,7 @@ public class MoneyFlowController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            MoneyFlowResponseDTO data = moneyFlowService.getMoneyFlow(start, end);
+            MoneyFlowResponseDTO data = moneyFlowService.getMoneyFlow(start, end, includeTransactions);
 
             response.put("success", true);
             response.put("message", "Money flow data retrieved successfully");
@@ -182,6 +189,59 @@ public class MoneyFlowController {
         }
     }
 
+    @GetMapping("/buckets/transactions")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    @Operation(summary = "Get the transactions of one aggregation bucket", 
+               description = "Page through the transactions of the minute, hour, day, week, month or year bucket containing bucketStart, oldest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Transactions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid granularity or paging parameters"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+            @ApiResponse(responseCode = "403", description = "Forbidden - Insufficient privileges"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getBucketTransactions(
+            @RequestParam String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime bucketStart,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            if (page < 0 || size < 1 || size > MAX_BUCKET_PAGE_SIZE) {
+                response.put("success", false);
+                response.put("message", "Page must be 0 or more and size between 1 and " + MAX_BUCKET_PAGE_SIZE);
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            Page<MoneyFlowDTO> transactions = moneyFlowService.getBucketTransactions(granularity, bucketStart,
+                    PageRequest.of(page, size));
+
+            response.put("success", true);
+            response.put("message", "Transactions retrieved successfully");
+            response.put("data", transactions.getContent());
+            response.put("currentPage", transactions.getNumber());
+            response.put("totalPages", transactions.getTotalPages());
+            response.put("totalElements", transactions.getTotalElements());
+            response.put("hasNext", transactions.hasNext());
+
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for bucket transactions: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+
+        } catch (Exception e) {
+            log.error("Error fetching bucket transactions: {}", e.getMessage(), e);
+            response.put("success", false);
+            response.put("message", "Failed to retrieve transactions");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     @GetMapping("/balance")
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
     @Operation(summary = "Get current account balance", 
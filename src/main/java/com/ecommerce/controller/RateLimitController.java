@@ -0,0 +1,41 @@
+package com.ecommerce.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecommerce.service.RateLimiter;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Admin endpoint for inspecting the public endpoint rate limits.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/rate-limits")
+@RequiredArgsConstructor
+@Tag(name = "Rate Limits", description = "Admin endpoints for request rate limiting")
+@PreAuthorize("hasRole('ADMIN')")
+public class RateLimitController {
+
+    private final RateLimiter rateLimiter;
+
+    @GetMapping
+    @Operation(summary = "Get rate limit statistics",
+               description = "Returns allowed and rejected request counts per policy and the number of tracked clients")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved rate limit statistics"),
+        @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(rateLimiter.getStats());
+    }
+}
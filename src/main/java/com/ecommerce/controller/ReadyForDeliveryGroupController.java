@@ -7,6 +7,7 @@ import com.ecommerce.dto.AddOrdersToGroupDTO;
 import com.ecommerce.dto.BulkAddResult;
 import com.ecommerce.dto.AgentDto;
 import com.ecommerce.dto.DeliveryGroupDto;
+import com.ecommerce.dto.DeliveryRouteDTO;
 import com.ecommerce.dto.OrderDTO;
 import com.ecommerce.service.ReadyForDeliveryGroupService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -360,6 +361,46 @@ public class ReadyForDeliveryGroupController {
         }
     }
 
+    @GetMapping("/{groupId}/route")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE', 'VENDOR')")
+    @Operation(summary = "Get optimized delivery route", description = "Get the group's stops in optimized delivery order with leg and total distances", responses = {
+            @ApiResponse(responseCode = "200", description = "Route computed successfully", content = @Content(schema = @Schema(implementation = DeliveryRouteDTO.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden"),
+            @ApiResponse(responseCode = "404", description = "Group not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getDeliveryRoute(@PathVariable Long groupId,
+            @RequestParam(defaultValue = "true") boolean startAtWarehouse) {
+        try {
+            validateShopAccessForGroup(groupId);
+            DeliveryRouteDTO route = deliveryGroupService.getDeliveryRoute(groupId, startAtWarehouse);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Route computed successfully");
+            response.put("data", route);
+            return ResponseEntity.ok(response);
+
+        } catch (EntityNotFoundException e) {
+            log.warn("Entity not found: {}", e.getMessage());
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Resource not found: " + e.getMessage());
+            response.put("errorCode", "NOT_FOUND");
+            response.put("details", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+
+        } catch (Exception e) {
+            log.error("Error computing route for group {}: {}", groupId, e.getMessage(), e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "An unexpected error occurred while computing the route.");
+            response.put("errorCode", "INTERNAL_ERROR");
+            response.put("details", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE', 'VENDOR')")
     @Operation(summary = "Get all groups", description = "Get all ready for delivery groups with pagination for a specific shop", responses = {
@@ -0,0 +1,71 @@
+package com.ecommerce.controller;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ecommerce.enums.ReferenceDataRegion;
+import com.ecommerce.service.ReferenceDataCache;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admin endpoints for inspecting and flushing the reference-data cache.
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reference-cache")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Reference Data Cache", description = "Admin endpoints for the reference-data cache")
+@PreAuthorize("hasRole('ADMIN')")
+public class ReferenceDataCacheController {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    @GetMapping
+    @Operation(summary = "Get reference-data cache statistics",
+               description = "Returns size, hits, misses, hit ratio, invalidations and TTL for each cached region")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Successfully retrieved cache statistics"),
+        @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(referenceDataCache.getStats());
+    }
+
+    @DeleteMapping("/{region}")
+    @Operation(summary = "Flush a reference-data cache region",
+               description = "Drops every cached entry of the region on all nodes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Region flushed"),
+        @ApiResponse(responseCode = "400", description = "Unknown region"),
+        @ApiResponse(responseCode = "403", description = "Access denied - Admin role required")
+    })
+    public ResponseEntity<Map<String, Object>> flushRegion(@PathVariable String region) {
+        ReferenceDataRegion target;
+        try {
+            target = ReferenceDataRegion.valueOf(region.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "success", false,
+                    "message", "Unknown cache region: " + region));
+        }
+
+        referenceDataCache.invalidate(target);
+        log.info("Reference-data cache region {} flushed by admin", target);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Cache region " + target + " flushed"));
+    }
+}
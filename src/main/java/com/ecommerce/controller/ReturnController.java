@@ -305,6 +305,57 @@ public class ReturnController {
                 }
         }
 
+        /**
+         * Get return requests with filtering using keyset pagination (Admin/Employee only)
+         */
+        @GetMapping("/admin/cursor")
+        @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE', 'VENDOR')")
+        @Operation(summary = "Get return requests by cursor (Admin)", description = "Keyset-paginated list of return requests with the same filters as /admin/all. Pass nextCursor from the previous response to get the following page.", security = @SecurityRequirement(name = "bearerAuth"))
+        @ApiResponses(value = {
+                        @ApiResponse(responseCode = "200", description = "Return requests retrieved successfully"),
+                        @ApiResponse(responseCode = "400", description = "Invalid status, date or cursor parameter"),
+                        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+                        @ApiResponse(responseCode = "403", description = "Forbidden - Admin/Employee role required")
+        })
+        public ResponseEntity<?> getReturnRequestsByCursor(
+                        @Parameter(description = "Filter by return status") @RequestParam(required = false) String status,
+                        @Parameter(description = "Filter by customer type (REGISTERED/GUEST)") @RequestParam(required = false) String customerType,
+                        @Parameter(description = "Search by order number") @RequestParam(required = false) String search,
+                        @Parameter(description = "Filter by date from (ISO format)") @RequestParam(required = false) String dateFrom,
+                        @Parameter(description = "Filter by date to (ISO format)") @RequestParam(required = false) String dateTo,
+                        @Parameter(description = "Cursor returned by the previous page") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+                        Authentication authentication) {
+
+                try {
+                        ReturnRequest.ReturnStatus returnStatus = null;
+                        if (status != null && !status.isEmpty() && !"ALL".equalsIgnoreCase(status)) {
+                                try {
+                                        returnStatus = ReturnRequest.ReturnStatus.valueOf(status.toUpperCase());
+                                } catch (IllegalArgumentException e) {
+                                        return ResponseEntity.badRequest()
+                                                        .body(createErrorResponse("INVALID_STATUS",
+                                                                        "Invalid return status: " + status));
+                                }
+                        }
+
+                        CursorPageDTO<ReturnRequestDTO> returnRequests = returnService.getReturnRequestsAfterCursor(
+                                        returnStatus, customerType, search, dateFrom, dateTo, cursor, size);
+
+                        return ResponseEntity.ok(returnRequests);
+
+                } catch (IllegalArgumentException e) {
+                        return ResponseEntity.badRequest()
+                                        .body(createErrorResponse("INVALID_FILTER", e.getMessage()));
+                } catch (Exception e) {
+                        log.error("Error retrieving return requests by cursor for admin {}: {}",
+                                        authentication.getName(), e.getMessage(), e);
+                        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                        .body(createErrorResponse("RETRIEVAL_ERROR",
+                                                        "Failed to retrieve return requests"));
+                }
+        }
+
         /**
          * Get return requests by status (Admin/Employee only)
          */
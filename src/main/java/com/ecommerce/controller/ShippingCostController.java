@@ -4,6 +4,8 @@ import com.ecommerce.dto.CreateShippingCostDTO;
 import com.ecommerce.dto.ShippingCostDTO;
 import com.ecommerce.dto.UpdateShippingCostDTO;
 import com.ecommerce.dto.CalculateOrderShippingRequest;
+import com.ecommerce.dto.ShippingQuoteDTO;
+import com.ecommerce.dto.ShippingQuoteRequest;
 import com.ecommerce.service.ShopAuthorizationService;
 import com.ecommerce.service.ShippingCostService;
 import com.ecommerce.ServiceImpl.CustomUserDetails;
@@ -34,6 +36,8 @@ public class ShippingCostController {
     private final ShopAuthorizationService shopAuthorizationService;
     private final UserRepository userRepository;
 
+    private static final int MAX_QUOTES_PER_REQUEST = 100;
+
     @PostMapping
     @PreAuthorize("hasAnyRole('VENDOR','EMPLOYEE')")
     public ResponseEntity<ShippingCostDTO> createShippingCost(
@@ -188,6 +192,22 @@ public class ShippingCostController {
         }
     }
 
+    @PostMapping("/quotes")
+    public ResponseEntity<List<ShippingQuoteDTO>> quoteShipping(@RequestBody ShippingQuoteRequest request) {
+        if (request.getQuotes() == null || request.getQuotes().isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        if (request.getQuotes().size() > MAX_QUOTES_PER_REQUEST) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try {
+            return ResponseEntity.ok(shippingCostService.quoteShipping(request.getQuotes()));
+        } catch (Exception e) {
+            log.error("Error quoting shipping: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     private void assertStaffCanManageShop(UUID shopId) {
         if (shopId == null) {
             throw new IllegalArgumentException("shopId is required");
@@ -14,6 +14,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -280,6 +282,29 @@ public class StockBatchController {
         }
     }
 
+    @GetMapping("/expiring-soon/paged")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    @Operation(summary = "Get batches expiring soon (paginated)", description = "Retrieve a page of batches expiring within a specified number of days, optionally for one warehouse", responses = {
+            @ApiResponse(responseCode = "200", description = "Expiring batches retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    public ResponseEntity<?> getBatchesExpiringSoonPaged(
+            @RequestParam(defaultValue = "30") int daysThreshold,
+            @RequestParam(required = false) Long warehouseId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        try {
+            Page<StockBatchDTO> batches = stockBatchService.getBatchesExpiringSoon(daysThreshold, warehouseId,
+                    PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+            return ResponseEntity.ok(batches);
+        } catch (Exception e) {
+            log.error("Error retrieving expiring batches page: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(createErrorResponse("INTERNAL_ERROR", "Failed to retrieve expiring batches"));
+        }
+    }
+
     private Map<String, Object> createErrorResponse(String errorCode, String message) {
         return Map.of(
                 "error", errorCode,
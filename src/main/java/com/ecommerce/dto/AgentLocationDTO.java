@@ -0,0 +1,24 @@
+package com.ecommerce.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latest known position of the agent delivering a group, as sent to
+ * subscribers of the group's location topic.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentLocationDTO {
+    private Long deliveryGroupId;
+    private Double latitude;
+    private Double longitude;
+    private String areaName;
+    private LocalDateTime lastUpdated;
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One step of a category breadcrumb, from the top-level category down to the
+ * requested one.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryBreadcrumbDTO {
+    private Long id;
+    private String name;
+    private String slug;
+    private int level;
+}
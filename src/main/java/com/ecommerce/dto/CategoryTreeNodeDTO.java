@@ -0,0 +1,22 @@
+package com.ecommerce.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable node of the category navigation tree. Snapshots of the tree are
+ * shared between requests, so neither nodes nor their child lists can change.
+ */
+@Value
+@Builder
+public class CategoryTreeNodeDTO {
+    Long id;
+    String name;
+    String slug;
+    String imageUrl;
+    int level;
+    boolean featured;
+    List<CategoryTreeNodeDTO> children;
+}
@@ -28,4 +28,6 @@ public class DeliveryGroupDto {
     private Boolean hasDeliveryFinished;
     private LocalDateTime deliveryFinishedAt;
     private String status;
+    // Set on the agent dashboard, where orderIds follow the optimized route
+    private Double routeDistanceKm;
 }
@@ -0,0 +1,28 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Optimized stop sequence for a delivery group. The start warehouse fields
+ * are set only when the route starts at the group's warehouse.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryRouteDTO {
+    private Long deliveryGroupId;
+    private Long startWarehouseId;
+    private String startWarehouseName;
+    private Double startLatitude;
+    private Double startLongitude;
+    private int stopCount;
+    private int unlocatedStopCount;
+    private double totalDistanceKm;
+    private List<DeliveryRouteStopDTO> stops;
+}
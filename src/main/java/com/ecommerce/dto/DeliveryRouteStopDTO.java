@@ -0,0 +1,29 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stop of a sequenced delivery route. Stops without coordinates are
+ * listed after the routed stops with located = false and no distances.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryRouteStopDTO {
+    private int sequence;
+    private Long shopOrderId;
+    private Long orderId;
+    private String orderCode;
+    private String street;
+    private String region;
+    private String country;
+    private Double latitude;
+    private Double longitude;
+    private boolean located;
+    private Double legDistanceKm;
+    private Double cumulativeDistanceKm;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
@@ -14,8 +15,10 @@ import java.util.List;
 @AllArgsConstructor
 public class MoneyFlowAggregationDTO {
     private String period;           // e.g., "2025-10-15 19:35", "Oct 10", "Week 35", "May 2025", "2024"
+    private LocalDateTime bucketStart; // Pass to the bucket transactions endpoint to drill down
     private BigDecimal totalInflow;
     private BigDecimal totalOutflow;
     private BigDecimal netBalance;   // totalInflow - totalOutflow
-    private List<MoneyFlowDTO> transactions; // Detailed transactions (only for minute/hour granularity)
+    private Long transactionCount;
+    private List<MoneyFlowDTO> transactions; // Detailed transactions (only on request, minute/hour granularity)
 }
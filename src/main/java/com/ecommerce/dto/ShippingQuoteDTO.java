@@ -0,0 +1,20 @@
+package com.ecommerce.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One result of a batch shipping quote. Exactly one of shippingDetails and
+ * error is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShippingQuoteDTO {
+    private int index;
+    private ShippingDetailsDTO shippingDetails;
+    private String error;
+}
@@ -0,0 +1,39 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.enums.CatalogIdentifierKind;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product slug or SKU that is taken. Rows are claimed with
+ * INSERT ... ON CONFLICT DO NOTHING inside the transaction that writes the
+ * product, so two concurrent writers can never both get the same value and
+ * a rolled back product gives its values back.
+ */
+@Entity
+@Table(name = "catalog_identifiers", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_catalog_identifiers_kind_value", columnNames = { "kind", "value" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogIdentifier {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 20)
+    private CatalogIdentifierKind kind;
+
+    @Column(name = "value", nullable = false)
+    private String value;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
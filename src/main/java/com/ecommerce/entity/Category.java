@@ -42,6 +42,16 @@ public class Category {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_id")
     private Category parent;
+
+    // Materialized path of ancestor IDs ending with this category's ID, e.g.
+    // "/3/17/42/". A subtree is every category whose path starts with this one.
+    @Column(name = "path", length = 1000)
+    private String path;
+
+    // Number of ancestors; 0 for top-level categories
+    @Column(name = "depth")
+    private Integer depth;
+
     @OneToMany(mappedBy = "parent", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Category> children = new ArrayList<>();
 
@@ -127,12 +137,48 @@ public class Category {
     }
 
     public int getLevel() {
+        if (depth != null) {
+            return depth;
+        }
         if (isRoot()) {
             return 0;
         }
         return parent.getLevel() + 1;
     }
 
+    /**
+     * Builds the materialized path of this category from its parent. The
+     * category must already have an ID.
+     *
+     * @return The path, e.g. "/3/17/42/"
+     */
+    public String buildPath() {
+        if (isRoot()) {
+            return "/" + id + "/";
+        }
+        String parentPath = parent.getPath() != null ? parent.getPath() : parent.buildPath();
+        return parentPath + id + "/";
+    }
+
+    /**
+     * IDs from the top-level ancestor down to this category, read from the
+     * materialized path
+     *
+     * @return The ancestor IDs followed by this category's ID
+     */
+    public List<Long> getPathIds() {
+        List<Long> ids = new ArrayList<>();
+        if (path == null) {
+            return ids;
+        }
+        for (String part : path.split("/")) {
+            if (!part.isEmpty()) {
+                ids.add(Long.valueOf(part));
+            }
+        }
+        return ids;
+    }
+
     public List<Category> getAllChildren() {
         List<Category> allChildren = new ArrayList<>();
         for (Category child : children) {
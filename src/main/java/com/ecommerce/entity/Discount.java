@@ -18,7 +18,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "discounts")
+@Table(name = "discounts", indexes = {
+        @Index(name = "idx_discounts_shop_created_at", columnList = "shop_id, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
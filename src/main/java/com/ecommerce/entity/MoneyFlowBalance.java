@@ -0,0 +1,42 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Single-row running total of the money_flow ledger. Every ledger insert
+ * adds its amount here in one atomic UPDATE, so balance reads never scan
+ * the ledger and concurrent writers never compute from a stale snapshot.
+ */
+@Entity
+@Table(name = "money_flow_balance")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoneyFlowBalance {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "total_inflow", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInflow;
+
+    @Column(name = "total_outflow", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalOutflow;
+
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
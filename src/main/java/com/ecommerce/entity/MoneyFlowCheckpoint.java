@@ -0,0 +1,47 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic snapshot of the money flow balance counter, covering every
+ * ledger entry up to and including lastEntryId.
+ */
+@Entity
+@Table(name = "money_flow_checkpoints", indexes = {
+    @Index(name = "idx_money_flow_checkpoints_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoneyFlowCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    @Column(name = "total_inflow", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInflow;
+
+    @Column(name = "total_outflow", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalOutflow;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(name = "drift", precision = 19, scale = 2)
+    private BigDecimal drift;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,45 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of the money_flow ledger per minute, hour and day bucket.
+ * Every ledger insert or delete adds its amount to the three buckets it
+ * falls in, in the same transaction, so range views read a handful of
+ * rollup rows instead of aggregating the ledger.
+ */
+@Entity
+@Table(name = "money_flow_rollups", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_money_flow_rollups_bucket", columnNames = {"granularity", "bucket_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoneyFlowRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // "minute", "hour" or "day"
+    @Column(nullable = false, length = 10)
+    private String granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "total_inflow", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalInflow;
+
+    @Column(name = "total_outflow", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalOutflow;
+
+    @Column(name = "entry_count", nullable = false)
+    private Long entryCount;
+}
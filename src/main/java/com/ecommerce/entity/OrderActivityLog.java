@@ -15,7 +15,8 @@ import java.time.LocalDateTime;
 @Table(name = "order_activity_logs", indexes = {
         @Index(name = "idx_order_id", columnList = "order_id"),
         @Index(name = "idx_activity_type", columnList = "activity_type"),
-        @Index(name = "idx_timestamp", columnList = "timestamp")
+        @Index(name = "idx_timestamp", columnList = "timestamp"),
+        @Index(name = "idx_order_activity_logs_order_timestamp", columnList = "order_id_value, timestamp")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Data
@@ -0,0 +1,57 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order activity log entries written in the business transaction that logged
+ * them, waiting to be moved to order_activity_logs. Written and drained with
+ * JDBC by OrderActivityLogWriter; it has no foreign keys and no index beyond
+ * its key, so the insert stays cheap and cannot fail on an entry's content.
+ */
+@Entity
+@Table(name = "order_activity_log_outbox")
+@Data
+@NoArgsConstructor
+public class OrderActivityLogOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "activity_type", columnDefinition = "TEXT")
+    private String activityType;
+
+    @Column(name = "title", columnDefinition = "TEXT")
+    private String title;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "actor_type", columnDefinition = "TEXT")
+    private String actorType;
+
+    @Column(name = "actor_id", columnDefinition = "TEXT")
+    private String actorId;
+
+    @Column(name = "actor_name", columnDefinition = "TEXT")
+    private String actorName;
+
+    @Column(name = "metadata", columnDefinition = "TEXT")
+    private String metadata;
+
+    @Column(name = "reference_id", columnDefinition = "TEXT")
+    private String referenceId;
+
+    @Column(name = "reference_type", columnDefinition = "TEXT")
+    private String referenceType;
+}
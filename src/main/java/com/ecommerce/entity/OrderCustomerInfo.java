@@ -10,9 +10,12 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "order_customer_info")
+@Table(name = "order_customer_info", indexes = {
+        @Index(name = "idx_order_customer_info_email_normalized", columnList = "email_normalized")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +44,13 @@ public class OrderCustomerInfo {
     @Column(name = "email", nullable = false)
     private String email;
 
+    /**
+     * Trimmed, lower-cased copy of the email that guest order tracking looks
+     * orders up by; kept in step with {@link #email} on every write
+     */
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
     @Column(name = "phone_number", nullable = false)
     private String phoneNumber;
 
@@ -66,11 +76,20 @@ public class OrderCustomerInfo {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        emailNormalized = normalizeEmail(email);
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        emailNormalized = normalizeEmail(email);
+    }
+
+    /**
+     * The form emails are stored in {@code email_normalized} and matched in
+     */
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
     }
 
     /**
@@ -20,7 +20,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category_id", columnList = "category_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
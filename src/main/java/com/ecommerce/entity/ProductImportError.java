@@ -0,0 +1,36 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One rejected row of a catalog import. Every row of a rejected product is
+ * skipped; the error points at the row that caused it.
+ */
+@Entity
+@Table(name = "product_import_errors", indexes = {
+    @Index(name = "idx_product_import_errors_job_row", columnList = "job_id, source_row")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private Long jobId;
+
+    @Column(name = "source_row", nullable = false)
+    private long rowNumber;
+
+    @Column(name = "sku")
+    private String sku;
+
+    @Column(name = "message", nullable = false, length = 1000)
+    private String message;
+}
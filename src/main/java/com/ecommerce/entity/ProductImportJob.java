@@ -0,0 +1,87 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.enums.ImportFormat;
+import com.ecommerce.enums.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A bulk catalog import of one shop. The uploaded file is kept until the job
+ * completes; rowsProcessed counts the rows covered by committed chunks, so a
+ * failed or interrupted job resumes right after them.
+ */
+@Entity
+@Table(name = "product_import_jobs", indexes = {
+    @Index(name = "idx_product_import_jobs_shop_created", columnList = "shop_id, created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "shop_id", nullable = false)
+    private UUID shopId;
+
+    @Column(name = "requested_by")
+    private String requestedBy;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "format", nullable = false, length = 10)
+    private ImportFormat format;
+
+    @Column(name = "storage_path", length = 1000)
+    private String storagePath;
+
+    /**
+     * Whether imported products go live right away instead of as drafts
+     */
+    @Column(name = "publish", nullable = false)
+    private boolean publish;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ImportJobStatus status = ImportJobStatus.QUEUED;
+
+    @Column(name = "rows_processed", nullable = false)
+    private long rowsProcessed;
+
+    @Column(name = "rows_failed", nullable = false)
+    private long rowsFailed;
+
+    @Column(name = "products_imported", nullable = false)
+    private long productsImported;
+
+    @Column(name = "variants_imported", nullable = false)
+    private long variantsImported;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
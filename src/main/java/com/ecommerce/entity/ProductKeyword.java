@@ -0,0 +1,44 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * One normalized search keyword of a product, taken from the comma-separated
+ * meta and search keywords of its {@link ProductDetail}. Kept in sync by
+ * {@link com.ecommerce.service.ProductKeywordIndexService} so keyword searches
+ * run as an indexed lookup instead of splitting strings in memory.
+ */
+@Entity
+@Table(name = "product_keywords", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_product_keywords_product_keyword", columnNames = { "product_id", "keyword" })
+}, indexes = {
+        @Index(name = "idx_product_keywords_keyword", columnList = "keyword")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductKeyword {
+
+    public static final int MAX_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private UUID productId;
+
+    // Trimmed and lower-cased
+    @Column(name = "keyword", nullable = false, length = MAX_LENGTH)
+    private String keyword;
+
+    public ProductKeyword(UUID productId, String keyword) {
+        this.productId = productId;
+        this.keyword = keyword;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token bucket shared by all application nodes, used when the rate limiter's
+ * shared store is enabled. Like the in-memory buckets it only records when
+ * the bucket will be full again, in epoch milliseconds; rows of full buckets
+ * are deleted by the sweep.
+ */
+@Entity
+@Table(name = "rate_limit_buckets", indexes = {
+    @Index(name = "idx_rate_limit_buckets_full_at", columnList = "full_at_ms")
+})
+@Data
+@NoArgsConstructor
+public class RateLimitBucket {
+
+    @Id
+    @Column(name = "bucket_key", length = 200)
+    private String bucketKey;
+
+    @Column(name = "full_at_ms", nullable = false)
+    private long fullAtMs;
+}
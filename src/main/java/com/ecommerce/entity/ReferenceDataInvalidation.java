@@ -0,0 +1,37 @@
+package com.ecommerce.entity;
+
+import com.ecommerce.enums.ReferenceDataRegion;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One reference-data change broadcast to the other application nodes.
+ * Rows are read in id order by every node and pruned after a short retention.
+ */
+@Entity
+@Table(name = "reference_data_invalidations", indexes = {
+    @Index(name = "idx_reference_data_invalidations_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class ReferenceDataInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "region", nullable = false, length = 40)
+    private ReferenceDataRegion region;
+
+    @Column(name = "origin", nullable = false)
+    private String origin;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
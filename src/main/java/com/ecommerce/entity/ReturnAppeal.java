@@ -14,7 +14,9 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "return_appeals")
+@Table(name = "return_appeals", indexes = {
+        @Index(name = "idx_return_appeals_status_submitted_at", columnList = "status, submitted_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
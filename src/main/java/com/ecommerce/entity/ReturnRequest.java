@@ -16,7 +16,11 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "return_requests")
+@Table(name = "return_requests", indexes = {
+        @Index(name = "idx_return_requests_submitted_at_id", columnList = "submitted_at, id"),
+        @Index(name = "idx_return_requests_status_submitted_at", columnList = "status, submitted_at, id"),
+        @Index(name = "idx_return_requests_customer_id", columnList = "customer_id")
+})
 @Data
 @ToString(exclude = { "returnMedia", "returnItems", "returnAppeal", "shopOrder", "customer" })
 @NoArgsConstructor
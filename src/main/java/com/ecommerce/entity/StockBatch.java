@@ -19,7 +19,9 @@ import java.time.LocalDateTime;
  * the lifecycle of a particular batch of products
  */
 @Entity
-@Table(name = "stock_batches")
+@Table(name = "stock_batches", indexes = {
+        @Index(name = "idx_stock_batches_expiry_date", columnList = "expiry_date, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
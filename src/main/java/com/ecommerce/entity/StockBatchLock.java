@@ -7,7 +7,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "stock_batch_locks")
+@Table(name = "stock_batch_locks", indexes = {
+        @Index(name = "idx_stock_batch_locks_expires_at", columnList = "expires_at"),
+        @Index(name = "idx_stock_batch_locks_session_id", columnList = "session_id")
+})
 @Getter
 @Setter
 public class StockBatchLock {
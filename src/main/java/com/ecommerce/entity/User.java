@@ -16,14 +16,22 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_role", columnList = "role"),
+        @Index(name = "idx_users_created_at", columnList = "created_at"),
+        @Index(name = "idx_users_reset_token_hash", columnList = "reset_token_hash")
+})
 @Getter
 @Setter
 @Builder
@@ -107,6 +115,13 @@ public class User implements UserDetails {
     @Column(name = "reset_token")
     private String resetToken;
 
+    /**
+     * SHA-256 hex digest of the active reset token. Lookups go through this
+     * indexed column so the raw token is never stored or scanned for.
+     */
+    @Column(name = "reset_token_hash", length = 64)
+    private String resetTokenHash;
+
     @Column(name = "reset_token_expiry")
     private LocalDateTime resetTokenExpiry;
 
@@ -188,18 +203,38 @@ public class User implements UserDetails {
     }
 
     public void createResetToken(String token) {
-        this.resetToken = token;
+        this.resetToken = null;
+        this.resetTokenHash = hashResetToken(token);
         this.resetTokenExpiry = LocalDateTime.now().plusMinutes(15);
     }
 
     public boolean isResetTokenValid(String token) {
-        return this.resetToken != null && this.resetToken.equals(token)
+        return token != null && this.resetTokenHash != null
+                && this.resetTokenHash.equals(hashResetToken(token))
+                && this.resetTokenExpiry != null
                 && this.resetTokenExpiry.isAfter(LocalDateTime.now());
     }
 
     public void clearResetToken() {
         this.resetToken = null;
+        this.resetTokenHash = null;
         this.resetTokenExpiry = null;
     }
 
+    /**
+     * Hash a raw reset token into the value stored in {@code reset_token_hash}.
+     */
+    public static String hashResetToken(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.ecommerce.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Running points balance of one user at one shop, kept next to the
+ * user_points ledger. Every ledger insert adjusts its row in the same
+ * transaction, so balance checks read one row instead of summing the
+ * user's whole history. Ledger rows without a shop are kept under
+ * {@link #NO_SHOP} because a unique key treats NULLs as distinct.
+ */
+@Entity
+@Table(name = "user_points_balances", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_points_balances_user_shop", columnNames = { "user_id", "shop_id" })
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPointsBalance {
+
+    public static final UUID NO_SHOP = new UUID(0L, 0L);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "shop_id", nullable = false)
+    private UUID shopId;
+
+    @Column(nullable = false)
+    private Integer balance;
+
+    @Column(name = "total_earned", nullable = false)
+    private Integer totalEarned;
+
+    @Column(name = "total_spent", nullable = false)
+    private Integer totalSpent;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public static UUID keyOf(UUID shopId) {
+        return shopId != null ? shopId : NO_SHOP;
+    }
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.enums;
+
+/**
+ * Kinds of catalog identifier that must be unique across all shops
+ */
+public enum CatalogIdentifierKind {
+    /**
+     * URL slug of a product
+     */
+    PRODUCT_SLUG,
+
+    /**
+     * SKU of a product
+     */
+    PRODUCT_SKU,
+
+    /**
+     * SKU of a product variant
+     */
+    VARIANT_SKU
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.enums;
+
+/**
+ * Tables an admin can export in full
+ */
+public enum ExportDataset {
+    /**
+     * Orders with their customer details and totals
+     */
+    ORDERS,
+
+    /**
+     * Money flow ledger entries
+     */
+    MONEY_FLOW,
+
+    /**
+     * Stock levels per warehouse and product or variant
+     */
+    WAREHOUSE_STOCK,
+
+    /**
+     * Return requests with their decision and refund state
+     */
+    RETURN_REQUESTS
+}
@@ -0,0 +1,32 @@
+package com.ecommerce.enums;
+
+/**
+ * Output formats of a data export
+ */
+public enum ExportFormat {
+    /**
+     * Comma separated values with a header row
+     */
+    CSV("text/csv", "csv"),
+
+    /**
+     * One JSON object per line
+     */
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
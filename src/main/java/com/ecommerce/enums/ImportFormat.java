@@ -0,0 +1,41 @@
+package com.ecommerce.enums;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * File formats a catalog import reads
+ */
+public enum ImportFormat {
+    /**
+     * Comma separated values with a header row
+     */
+    CSV("csv"),
+
+    /**
+     * One flat JSON object per line
+     */
+    NDJSON("ndjson");
+
+    private final String extension;
+
+    ImportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the supported formats when the
+     *                                  name is not one of them
+     */
+    public static ImportFormat fromName(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equals(name.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown import format: " + name
+                        + ", pass format=CSV or NDJSON"));
+    }
+}
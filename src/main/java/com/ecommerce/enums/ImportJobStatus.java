@@ -0,0 +1,26 @@
+package com.ecommerce.enums;
+
+/**
+ * Lifecycle of a bulk catalog import job
+ */
+public enum ImportJobStatus {
+    /**
+     * Accepted and waiting for an import thread
+     */
+    QUEUED,
+
+    /**
+     * Chunks are being written
+     */
+    RUNNING,
+
+    /**
+     * Every row was read; rejected rows are listed in the error report
+     */
+    COMPLETED,
+
+    /**
+     * Stopped by an unexpected error; can be resumed from the last committed chunk
+     */
+    FAILED
+}
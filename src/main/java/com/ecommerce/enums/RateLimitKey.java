@@ -0,0 +1,22 @@
+package com.ecommerce.enums;
+
+/**
+ * What a rate limit policy counts requests by. Keys that cannot be resolved
+ * for a request fall back to the client address.
+ */
+public enum RateLimitKey {
+    /**
+     * Client address
+     */
+    IP,
+
+    /**
+     * Authenticated user name
+     */
+    USER,
+
+    /**
+     * The {@code token} request parameter, e.g. a guest order tracking token
+     */
+    TOKEN
+}
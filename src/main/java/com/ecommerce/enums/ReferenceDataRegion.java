@@ -0,0 +1,37 @@
+package com.ecommerce.enums;
+
+/**
+ * Regions of the reference-data cache. Each region is invalidated as a whole
+ * when any of its source rows change.
+ */
+public enum ReferenceDataRegion {
+    /**
+     * Active warehouses, the countries they serve and the distance matrix
+     */
+    WAREHOUSES,
+
+    /**
+     * Category listings
+     */
+    CATEGORIES,
+
+    /**
+     * Active and featured brand listings
+     */
+    BRANDS,
+
+    /**
+     * Active shipping cost configurations
+     */
+    SHIPPING_COSTS,
+
+    /**
+     * Active reward system per shop
+     */
+    REWARD_SYSTEMS,
+
+    /**
+     * Product attribute types and values
+     */
+    PRODUCT_ATTRIBUTES
+}
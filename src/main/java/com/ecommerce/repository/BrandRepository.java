@@ -3,6 +3,7 @@ package com.ecommerce.repository;
 import com.ecommerce.entity.Brand;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -22,4 +23,8 @@ public interface BrandRepository extends JpaRepository<Brand, UUID>, JpaSpecific
 
     // Search suggestion method
     List<Brand> findTop5ByBrandNameContainingIgnoreCase(String brandName);
+
+    // ID and name of every active brand, for the suggestion index
+    @Query("SELECT b.brandId, b.brandName FROM Brand b WHERE b.isActive = true")
+    List<Object[]> findActiveIdsAndNames();
 }
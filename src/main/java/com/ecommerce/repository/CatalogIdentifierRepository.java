@@ -0,0 +1,13 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.CatalogIdentifier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Claims are made and released through CatalogIdentifierService; this
+ * repository only serves bulk maintenance such as the system reset.
+ */
+@Repository
+public interface CatalogIdentifierRepository extends JpaRepository<CatalogIdentifier, Long> {
+}
@@ -5,6 +5,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -105,4 +106,47 @@ public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSp
 
     // Search suggestion method
     List<Category> findTop5ByNameContainingIgnoreCase(String name);
+
+    /**
+     * ID and name of every active category, for the suggestion index
+     * 
+     * @return rows of [id, name]
+     */
+    @Query("SELECT c.id, c.name FROM Category c WHERE c.isActive = true")
+    List<Object[]> findActiveIdsAndNames();
+
+    /**
+     * Re-root the paths of every category below a moved category, keeping the
+     * part of each path below the old prefix
+     *
+     * @param oldPrefix  the moved category's path before the move
+     * @param newPrefix  the moved category's path after the move
+     * @param depthDelta change in depth of the moved category
+     * @return number of descendants updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE categories SET path = :newPrefix || substring(path from char_length(:oldPrefix) + 1), "
+            + "depth = depth + :depthDelta, updated_at = NOW() "
+            + "WHERE path LIKE :oldPrefix || '%' AND path <> :oldPrefix", nativeQuery = true)
+    int rewriteDescendantPaths(@Param("oldPrefix") String oldPrefix, @Param("newPrefix") String newPrefix,
+            @Param("depthDelta") int depthDelta);
+
+    /**
+     * Find all platform-wide categories ordered for building the navigation tree
+     *
+     * @return flat list of categories, parents before children
+     */
+    @Query("SELECT c FROM Category c LEFT JOIN FETCH c.parent WHERE c.shop IS NULL "
+            + "ORDER BY c.depth, c.sortOrder, c.name")
+    List<Category> findAllPlatformForTree();
+
+    /**
+     * Find all categories of a shop ordered for building the navigation tree
+     *
+     * @param shopId the shop ID
+     * @return flat list of categories, parents before children
+     */
+    @Query("SELECT c FROM Category c LEFT JOIN FETCH c.parent WHERE c.shop.shopId = :shopId "
+            + "ORDER BY c.depth, c.sortOrder, c.name")
+    List<Category> findAllByShopForTree(@Param("shopId") java.util.UUID shopId);
 }
\ No newline at end of file
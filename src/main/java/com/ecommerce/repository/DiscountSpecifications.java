@@ -0,0 +1,39 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.Discount;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.UUID;
+
+/**
+ * Specification fragments for discount admin listings.
+ */
+public final class DiscountSpecifications {
+
+    private DiscountSpecifications() {
+    }
+
+    public static Specification<Discount> forShop(UUID shopId) {
+        if (shopId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("shop").get("shopId"), shopId);
+    }
+
+    public static Specification<Discount> isActive(Boolean active) {
+        if (active == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("isActive"), active);
+    }
+
+    public static Specification<Discount> nameOrCodeContains(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + search.trim().toLowerCase() + "%";
+        return (root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("name")), pattern),
+                cb.like(cb.lower(root.get("discountCode")), pattern));
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Generic keyset (seek) pagination on top of JPA Specifications.
+ * <p>
+ * Rows are ordered by {@code (timeField, idField)} and the next page is
+ * selected with a row-value comparison against the cursor, so every page
+ * costs the same index range scan no matter how deep the admin scrolls.
+ * No COUNT query is issued.
+ */
+@Repository
+public class KeysetPaginator {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Fetch up to {@code limit + 1} rows after {@code after}. The extra row
+     * only tells the caller whether another page exists.
+     */
+    public <T> List<T> fetch(Class<T> entityType, Specification<T> spec, String timeField, String idField,
+            KeysetCursor after, boolean descending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(entityType);
+        Root<T> root = query.from(entityType);
+
+        Predicate where = spec != null ? spec.toPredicate(root, query, cb) : null;
+        if (after != null) {
+            Predicate seek = seekPredicate(cb, root.get(timeField), root.get(idField), after, descending);
+            where = where == null ? seek : cb.and(where, seek);
+        }
+        if (where != null) {
+            query.where(where);
+        }
+
+        if (descending) {
+            query.orderBy(cb.desc(root.get(timeField)), cb.desc(root.get(idField)));
+        } else {
+            query.orderBy(cb.asc(root.get(timeField)), cb.asc(root.get(idField)));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList();
+    }
+
+    private Predicate seekPredicate(CriteriaBuilder cb, Path<LocalDateTime> time, Path<Long> id,
+            KeysetCursor after, boolean descending) {
+        if (descending) {
+            return cb.or(
+                    cb.lessThan(time, after.timestamp()),
+                    cb.and(cb.equal(time, after.timestamp()), cb.lessThan(id, after.id())));
+        }
+        return cb.or(
+                cb.greaterThan(time, after.timestamp()),
+                cb.and(cb.equal(time, after.timestamp()), cb.greaterThan(id, after.id())));
+    }
+}
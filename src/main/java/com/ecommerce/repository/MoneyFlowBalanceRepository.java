@@ -0,0 +1,76 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.MoneyFlowBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@Repository
+public interface MoneyFlowBalanceRepository extends JpaRepository<MoneyFlowBalance, Long> {
+
+    /**
+     * Atomically apply one ledger movement to the counter row and return the
+     * resulting balance. The row lock is held until the caller commits, so
+     * concurrent writers each see the balance produced by the writer before
+     * them. Returns null when the counter row has not been created yet.
+     */
+    @Query(value = """
+        UPDATE money_flow_balance
+        SET balance = balance + :inflow - :outflow,
+            total_inflow = total_inflow + :inflow,
+            total_outflow = total_outflow + :outflow,
+            entry_count = entry_count + :entries,
+            updated_at = NOW()
+        WHERE id = 1
+        RETURNING balance
+        """, nativeQuery = true)
+    BigDecimal addToBalance(@Param("inflow") BigDecimal inflow,
+                            @Param("outflow") BigDecimal outflow,
+                            @Param("entries") long entries);
+
+    /**
+     * Create the counter row from the existing ledger. Safe to call from
+     * several transactions at once; only the first insert wins.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO money_flow_balance (id, balance, total_inflow, total_outflow, entry_count, updated_at)
+        SELECT 1,
+               COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE -amount END), 0),
+               COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0),
+               COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0),
+               COUNT(*),
+               NOW()
+        FROM money_flow
+        ON CONFLICT (id) DO NOTHING
+        """, nativeQuery = true)
+    int initializeFromLedger();
+
+    /**
+     * Zero the counter row for an emptied ledger. Takes the row lock, so
+     * writers already applying a movement finish first and later ones start
+     * again from zero.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE money_flow_balance
+        SET balance = 0,
+            total_inflow = 0,
+            total_outflow = 0,
+            entry_count = 0,
+            updated_at = NOW()
+        WHERE id = 1
+        """, nativeQuery = true)
+    int resetBalance();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from MoneyFlowBalance b where b.id = :id")
+    Optional<MoneyFlowBalance> findByIdForUpdate(@Param("id") Long id);
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.MoneyFlowCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MoneyFlowCheckpointRepository extends JpaRepository<MoneyFlowCheckpoint, Long> {
+
+    Optional<MoneyFlowCheckpoint> findTopByOrderByIdDesc();
+}
@@ -2,6 +2,8 @@ package com.ecommerce.repository;
 
 import com.ecommerce.entity.MoneyFlow;
 import com.ecommerce.enums.MoneyFlowType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,134 +23,16 @@ public interface MoneyFlowRepository extends JpaRepository<MoneyFlow, Long> {
     List<MoneyFlow> findByCreatedAtBetweenOrderByCreatedAtAsc(LocalDateTime start, LocalDateTime end);
 
     /**
-     * Get the latest money flow to determine current balance
-     */
-    Optional<MoneyFlow> findTopByOrderByCreatedAtDesc();
-
-    /**
-     * Aggregate by minute - PostgreSQL specific
-     */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('minute', created_at), 'YYYY-MM-DD HH24:MI') as period,
-            COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) as total_inflow,
-            COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) as total_outflow
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        GROUP BY DATE_TRUNC('minute', created_at)
-        ORDER BY DATE_TRUNC('minute', created_at)
-        """, nativeQuery = true)
-    List<Object[]> aggregateByMinute(@Param("startDate") LocalDateTime startDate, 
-                                     @Param("endDate") LocalDateTime endDate);
-
-    /**
-     * Aggregate by hour - PostgreSQL specific
+     * Page through the money flows of one bucket, start inclusive, end exclusive
      */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('hour', created_at), 'YYYY-MM-DD HH24:00') as period,
-            COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) as total_inflow,
-            COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) as total_outflow
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        GROUP BY DATE_TRUNC('hour', created_at)
-        ORDER BY DATE_TRUNC('hour', created_at)
-        """, nativeQuery = true)
-    List<Object[]> aggregateByHour(@Param("startDate") LocalDateTime startDate, 
-                                   @Param("endDate") LocalDateTime endDate);
+    Page<MoneyFlow> findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscIdAsc(
+            LocalDateTime start, LocalDateTime end, Pageable pageable);
 
     /**
-     * Aggregate by day - PostgreSQL specific
-     */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('day', created_at), 'YYYY-MM-DD') as period,
-            COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) as total_inflow,
-            COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) as total_outflow
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        GROUP BY DATE_TRUNC('day', created_at)
-        ORDER BY DATE_TRUNC('day', created_at)
-        """, nativeQuery = true)
-    List<Object[]> aggregateByDay(@Param("startDate") LocalDateTime startDate, 
-                                  @Param("endDate") LocalDateTime endDate);
-
-    /**
-     * Aggregate by week - PostgreSQL specific
-     */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('week', created_at), 'IYYY-"W"IW') as period,
-            COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) as total_inflow,
-            COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) as total_outflow
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        GROUP BY DATE_TRUNC('week', created_at)
-        ORDER BY DATE_TRUNC('week', created_at)
-        """, nativeQuery = true)
-    List<Object[]> aggregateByWeek(@Param("startDate") LocalDateTime startDate, 
-                                   @Param("endDate") LocalDateTime endDate);
-
-    /**
-     * Aggregate by month - PostgreSQL specific
-     */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('month', created_at), 'YYYY-MM') as period,
-            COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) as total_inflow,
-            COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) as total_outflow
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        GROUP BY DATE_TRUNC('month', created_at)
-        ORDER BY DATE_TRUNC('month', created_at)
-        """, nativeQuery = true)
-    List<Object[]> aggregateByMonth(@Param("startDate") LocalDateTime startDate, 
-                                    @Param("endDate") LocalDateTime endDate);
-
-    /**
-     * Aggregate by year - PostgreSQL specific
-     */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('year', created_at), 'YYYY') as period,
-            COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) as total_inflow,
-            COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) as total_outflow
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        GROUP BY DATE_TRUNC('year', created_at)
-        ORDER BY DATE_TRUNC('year', created_at)
-        """, nativeQuery = true)
-    List<Object[]> aggregateByYear(@Param("startDate") LocalDateTime startDate, 
-                                   @Param("endDate") LocalDateTime endDate);
-
-    /**
-     * Get transactions grouped by minute for detailed view
+     * Get the latest money flow to determine current balance
      */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('minute', created_at), 'YYYY-MM-DD HH24:MI') as period,
-            id, description, type, amount, remaining_balance, created_at
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        ORDER BY created_at
-        """, nativeQuery = true)
-    List<Object[]> getDetailedTransactionsByMinute(@Param("startDate") LocalDateTime startDate, 
-                                                    @Param("endDate") LocalDateTime endDate);
+    Optional<MoneyFlow> findTopByOrderByCreatedAtDesc();
 
-    /**
-     * Get transactions grouped by hour for detailed view
-     */
-    @Query(value = """
-        SELECT 
-            TO_CHAR(DATE_TRUNC('hour', created_at), 'YYYY-MM-DD HH24:00') as period,
-            id, description, type, amount, remaining_balance, created_at
-        FROM money_flow
-        WHERE created_at BETWEEN :startDate AND :endDate
-        ORDER BY created_at
-        """, nativeQuery = true)
-    List<Object[]> getDetailedTransactionsByHour(@Param("startDate") LocalDateTime startDate, 
-                                                  @Param("endDate") LocalDateTime endDate);
-    
     /**
      * Calculate total inflow (all IN transactions)
      */
@@ -174,4 +58,18 @@ public interface MoneyFlowRepository extends JpaRepository<MoneyFlow, Long> {
      */
     @Query("SELECT mf.remainingBalance FROM MoneyFlow mf WHERE mf.createdAt < :timestamp ORDER BY mf.createdAt DESC LIMIT 1")
     Optional<BigDecimal> findBalanceBeforeTime(@Param("timestamp") LocalDateTime timestamp);
+
+    /**
+     * Highest ledger id, used as the upper bound of a checkpoint
+     */
+    @Query("SELECT MAX(mf.id) FROM MoneyFlow mf")
+    Optional<Long> findMaxId();
+
+    /**
+     * Net movement (inflow minus outflow) of the ledger entries with
+     * afterId < id <= upToId
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN mf.type = 'IN' THEN mf.amount ELSE -mf.amount END), 0) " +
+           "FROM MoneyFlow mf WHERE mf.id > :afterId AND mf.id <= :upToId")
+    BigDecimal sumNetBetweenIds(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
 }
@@ -0,0 +1,60 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.MoneyFlowRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MoneyFlowRollupRepository extends JpaRepository<MoneyFlowRollup, Long> {
+
+    /**
+     * Add one ledger movement to the minute, hour and day buckets containing
+     * the given time, creating the buckets as needed. Callers already hold
+     * the balance counter lock, which orders concurrent writers.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO money_flow_rollups (granularity, bucket_start, total_inflow, total_outflow, entry_count)
+        SELECT grain, DATE_TRUNC(grain, CAST(:at AS timestamp)), :inflow, :outflow, :entries
+        FROM (VALUES ('day'), ('hour'), ('minute')) AS grains(grain)
+        ON CONFLICT (granularity, bucket_start) DO UPDATE
+        SET total_inflow = money_flow_rollups.total_inflow + EXCLUDED.total_inflow,
+            total_outflow = money_flow_rollups.total_outflow + EXCLUDED.total_outflow,
+            entry_count = money_flow_rollups.entry_count + EXCLUDED.entry_count
+        """, nativeQuery = true)
+    int addToBuckets(@Param("at") LocalDateTime at,
+                     @Param("inflow") BigDecimal inflow,
+                     @Param("outflow") BigDecimal outflow,
+                     @Param("entries") long entries);
+
+    /**
+     * Totals per {@code unit} bucket overlapping [startDate, endDate], summed
+     * from the stored {@code source} buckets; unit must be source or coarser.
+     * Buckets whose entries were all deleted are skipped.
+     * Columns: bucket start, total inflow, total outflow, entry count.
+     */
+    @Query(value = """
+        SELECT DATE_TRUNC(:unit, bucket_start) AS bucket,
+               SUM(total_inflow) AS total_inflow,
+               SUM(total_outflow) AS total_outflow,
+               SUM(entry_count) AS entry_count
+        FROM money_flow_rollups
+        WHERE granularity = :source
+          AND bucket_start >= DATE_TRUNC(:unit, CAST(:startDate AS timestamp))
+          AND bucket_start <= :endDate
+        GROUP BY 1
+        HAVING SUM(entry_count) > 0
+        ORDER BY 1
+        """, nativeQuery = true)
+    List<Object[]> sumBuckets(@Param("source") String source,
+                              @Param("unit") String unit,
+                              @Param("startDate") LocalDateTime startDate,
+                              @Param("endDate") LocalDateTime endDate);
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.repository;
 
 import com.ecommerce.entity.OrderActivityLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,9 +15,11 @@ import java.util.List;
 public interface OrderActivityLogRepository extends JpaRepository<OrderActivityLog, Long> {
 
        /**
-        * Find all activity logs for a specific order, ordered by timestamp
+        * Find all activity logs for a specific order, ordered by timestamp.
+        * Every writer sets order_id_value, and the queries on it are served by
+        * idx_order_activity_logs_order_timestamp.
         */
-       @Query("SELECT oal FROM OrderActivityLog oal WHERE (oal.order.orderId = :orderId OR oal.orderIdValue = :orderId) "
+       @Query("SELECT oal FROM OrderActivityLog oal WHERE oal.orderIdValue = :orderId "
                      +
                      "ORDER BY oal.timestamp ASC")
        List<OrderActivityLog> findByOrderIdOrderByTimestampAsc(@Param("orderId") Long orderId);
@@ -28,7 +32,7 @@ public interface OrderActivityLogRepository extends JpaRepository<OrderActivityL
        /**
         * Find all activity logs for a specific order within a date range
         */
-       @Query("SELECT oal FROM OrderActivityLog oal WHERE (oal.order.orderId = :orderId OR oal.orderIdValue = :orderId) "
+       @Query("SELECT oal FROM OrderActivityLog oal WHERE oal.orderIdValue = :orderId "
                      +
                      "AND oal.timestamp BETWEEN :startDate AND :endDate " +
                      "ORDER BY oal.timestamp ASC")
@@ -40,7 +44,7 @@ public interface OrderActivityLogRepository extends JpaRepository<OrderActivityL
        /**
         * Find activity logs by order ID and activity type
         */
-       @Query("SELECT oal FROM OrderActivityLog oal WHERE (oal.order.orderId = :orderId OR oal.orderIdValue = :orderId) "
+       @Query("SELECT oal FROM OrderActivityLog oal WHERE oal.orderIdValue = :orderId "
                      +
                      "AND oal.activityType = :activityType " +
                      "ORDER BY oal.timestamp ASC")
@@ -51,15 +55,15 @@ public interface OrderActivityLogRepository extends JpaRepository<OrderActivityL
        /**
         * Find recent activity logs for an order (last N entries)
         */
-       @Query("SELECT oal FROM OrderActivityLog oal WHERE (oal.order.orderId = :orderId OR oal.orderIdValue = :orderId) "
+       @Query("SELECT oal FROM OrderActivityLog oal WHERE oal.orderIdValue = :orderId "
                      +
                      "ORDER BY oal.timestamp DESC")
-       List<OrderActivityLog> findRecentByOrderId(@Param("orderId") Long orderId);
+       List<OrderActivityLog> findRecentByOrderId(@Param("orderId") Long orderId, Pageable pageable);
 
        /**
         * Count total activities for an order
         */
-       @Query("SELECT COUNT(oal) FROM OrderActivityLog oal WHERE (oal.order.orderId = :orderId OR oal.orderIdValue = :orderId)")
+       @Query("SELECT COUNT(oal) FROM OrderActivityLog oal WHERE oal.orderIdValue = :orderId")
        long countByOrderId(@Param("orderId") Long orderId);
 
        /**
@@ -73,6 +77,7 @@ public interface OrderActivityLogRepository extends JpaRepository<OrderActivityL
        /**
         * Delete all logs for a specific order (for cleanup/GDPR)
         */
-       @Query("DELETE FROM OrderActivityLog oal WHERE (oal.order.orderId = :orderId OR oal.orderIdValue = :orderId)")
+       @Modifying
+       @Query("DELETE FROM OrderActivityLog oal WHERE oal.orderIdValue = :orderId")
        void deleteByOrderId(@Param("orderId") Long orderId);
 }
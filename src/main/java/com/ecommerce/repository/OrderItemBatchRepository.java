@@ -43,4 +43,15 @@ public interface OrderItemBatchRepository extends JpaRepository<OrderItemBatch,
            "JOIN ReturnItem ri ON ri.orderItem.orderItemId = oi.orderItemId " +
            "WHERE ri.id IN :returnItemIds")
     List<OrderItemBatch> findByReturnItemIds(@Param("returnItemIds") List<Long> returnItemIds);
+
+    /**
+     * Warehouses that supplied a delivery group's orders, most used first.
+     * Columns: warehouse id, name, latitude, longitude, units supplied.
+     */
+    @Query("SELECT w.id, w.name, w.latitude, w.longitude, SUM(oib.quantityUsed) FROM OrderItemBatch oib " +
+           "JOIN oib.warehouse w " +
+           "WHERE oib.orderItem.shopOrder.readyForDeliveryGroup.deliveryGroupId = :groupId " +
+           "GROUP BY w.id, w.name, w.latitude, w.longitude " +
+           "ORDER BY SUM(oib.quantityUsed) DESC")
+    List<Object[]> findSupplyingWarehousesByGroupId(@Param("groupId") Long groupId);
 }
@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -188,6 +189,43 @@ public interface OrderRepository extends JpaRepository<Order, Long>, OrderReposi
        List<Order> findAbandonedPendingOrders(@Param("cutoffTime") LocalDateTime cutoffTime,
                      Pageable pageable);
 
+       /**
+        * Claim up to {@code limit} abandoned pending orders for the current
+        * transaction. Rows already claimed by another node are skipped rather
+        * than waited on, so several reapers can run side by side.
+        */
+       @Query(value = """
+                     SELECT o.order_id FROM orders o
+                     JOIN order_transactions tx ON tx.order_id = o.order_id
+                     WHERE tx.status = 'PENDING'
+                     AND o.created_at < :cutoffTime
+                     ORDER BY o.created_at
+                     LIMIT :limit
+                     FOR UPDATE OF o SKIP LOCKED
+                     """, nativeQuery = true)
+       List<Long> claimAbandonedPendingOrderIds(@Param("cutoffTime") LocalDateTime cutoffTime,
+                     @Param("limit") int limit);
+
+       /**
+        * Claim the given orders if they are still abandoned and not locked by
+        * another transaction.
+        */
+       @Query(value = """
+                     SELECT o.order_id FROM orders o
+                     JOIN order_transactions tx ON tx.order_id = o.order_id
+                     WHERE tx.status = 'PENDING'
+                     AND o.created_at < :cutoffTime
+                     AND o.order_id IN (:orderIds)
+                     FOR UPDATE OF o SKIP LOCKED
+                     """, nativeQuery = true)
+       List<Long> claimAbandonedPendingOrderIds(@Param("cutoffTime") LocalDateTime cutoffTime,
+                     @Param("orderIds") Collection<Long> orderIds);
+
+       @Query("SELECT o FROM Order o " +
+                     "LEFT JOIN FETCH o.orderTransaction tx " +
+                     "WHERE o.orderId IN :orderIds")
+       List<Order> findAllWithTransactionByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
        /**
         * Count abandoned pending orders older than the specified cutoff time
         */
@@ -208,16 +246,55 @@ public interface OrderRepository extends JpaRepository<Order, Long>, OrderReposi
        boolean isOrderAbandoned(@Param("orderId") Long orderId, @Param("cutoffTime") LocalDateTime cutoffTime);
 
        /**
-        * Find orders by customer email
+        * Whether any order was placed with the given normalized email
+        */
+       @Query(value = "SELECT EXISTS (SELECT 1 FROM order_customer_info ci " +
+                     "WHERE ci.email_normalized = :email)", nativeQuery = true)
+       boolean existsByCustomerEmail(@Param("email") String normalizedEmail);
+
+       /**
+        * Whether an order belongs to the given normalized customer email
+        */
+       @Query(value = "SELECT EXISTS (SELECT 1 FROM order_customer_info ci " +
+                     "WHERE ci.email_normalized = :email AND ci.order_id = :orderId)", nativeQuery = true)
+       boolean existsByOrderIdAndCustomerEmail(@Param("orderId") Long orderId,
+                     @Param("email") String normalizedEmail);
+
+       /**
+        * Whether the order with the given code belongs to the given normalized
+        * customer email
         */
-       @Query("SELECT o FROM Order o JOIN o.orderCustomerInfo ci WHERE LOWER(ci.email) = LOWER(:email)")
-       List<Order> findByCustomerInfoEmail(@Param("email") String email);
+       @Query(value = "SELECT EXISTS (SELECT 1 FROM order_customer_info ci " +
+                     "JOIN orders o ON o.order_id = ci.order_id " +
+                     "WHERE ci.email_normalized = :email AND o.order_code = :orderCode)", nativeQuery = true)
+       boolean existsByOrderCodeAndCustomerEmail(@Param("orderCode") String orderCode,
+                     @Param("email") String normalizedEmail);
 
        /**
-        * Find orders by customer email with pagination
+        * Guest order tracking list for a normalized customer email, newest first,
+        * without loading the order graphs. The total mirrors
+        * {@link Order#getTotalAmount()}.
+        * Columns: order id, order code, status, created at, total, item count,
+        * first name, last name, email, has return request
         */
-       @Query("SELECT o FROM Order o JOIN o.orderCustomerInfo ci WHERE LOWER(ci.email) = LOWER(:email) ORDER BY o.createdAt DESC")
-       Page<Order> findByCustomerInfoEmailWithPagination(@Param("email") String email, Pageable pageable);
+       @Query(value = "SELECT o.order_id, o.order_code, o.order_status, o.created_at, " +
+                     "COALESCE(oi.total_amount + COALESCE(oi.tax_amount, 0) - COALESCE(oi.discount_amount, 0) " +
+                     "         + COALESCE(oi.shipping_cost, 0), " +
+                     "         (SELECT COALESCE(SUM(so.total_amount), 0) FROM shop_orders so " +
+                     "          WHERE so.order_id = o.order_id)) AS total, " +
+                     "(SELECT COUNT(*) FROM order_items it JOIN shop_orders so ON so.shop_order_id = it.shop_order_id " +
+                     " WHERE so.order_id = o.order_id) AS item_count, " +
+                     "ci.first_name, ci.last_name, ci.email, " +
+                     "EXISTS (SELECT 1 FROM return_requests rr JOIN shop_orders so ON so.shop_order_id = rr.shop_order_id " +
+                     "        WHERE so.order_id = o.order_id) AS has_return_request " +
+                     "FROM order_customer_info ci " +
+                     "JOIN orders o ON o.order_id = ci.order_id " +
+                     "LEFT JOIN order_info oi ON oi.order_id = o.order_id " +
+                     "WHERE ci.email_normalized = :email " +
+                     "ORDER BY o.created_at DESC, o.order_id DESC",
+                     countQuery = "SELECT COUNT(*) FROM order_customer_info ci WHERE ci.email_normalized = :email",
+                     nativeQuery = true)
+       Page<Object[]> findTrackingSummariesByCustomerEmail(@Param("email") String normalizedEmail, Pageable pageable);
 
        /**
         * Count orders for a specific shop (orders containing products from that shop)
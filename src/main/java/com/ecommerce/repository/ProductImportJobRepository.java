@@ -0,0 +1,61 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ProductImportJob;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ProductImportJobRepository extends JpaRepository<ProductImportJob, Long> {
+
+    Page<ProductImportJob> findByShopIdOrderByCreatedAtDesc(UUID shopId, Pageable pageable);
+
+    /**
+     * Take the job for running on this node. Only queued or failed jobs, or
+     * running ones whose progress has not moved since {@code staleBefore}
+     * because the node running them went away, can be taken, so two nodes
+     * never run the same job.
+     *
+     * @return 1 if the job was taken, 0 otherwise
+     */
+    @Modifying
+    @Query(value = "UPDATE product_import_jobs SET status = 'RUNNING', error_message = NULL, " +
+            "started_at = COALESCE(started_at, NOW()), updated_at = NOW() " +
+            "WHERE id = :jobId AND (status IN ('QUEUED', 'FAILED') " +
+            "OR (status = 'RUNNING' AND updated_at < :staleBefore))", nativeQuery = true)
+    int claim(@Param("jobId") Long jobId, @Param("staleBefore") LocalDateTime staleBefore);
+
+    /**
+     * Move the job past a committed chunk. Runs in the chunk's transaction,
+     * so the progress and the chunk's rows are committed together.
+     */
+    @Modifying
+    @Query(value = "UPDATE product_import_jobs SET rows_processed = :rowsProcessed, " +
+            "rows_failed = rows_failed + :rowsFailed, " +
+            "products_imported = products_imported + :products, " +
+            "variants_imported = variants_imported + :variants, " +
+            "updated_at = NOW() WHERE id = :jobId", nativeQuery = true)
+    int recordChunk(@Param("jobId") Long jobId,
+                    @Param("rowsProcessed") long rowsProcessed,
+                    @Param("rowsFailed") long rowsFailed,
+                    @Param("products") long products,
+                    @Param("variants") long variants);
+
+    /**
+     * Close a run of the job; finishedAt is only set once the job completes
+     */
+    @Modifying
+    @Query(value = "UPDATE product_import_jobs SET status = :status, error_message = :errorMessage, " +
+            "finished_at = CASE WHEN :status = 'COMPLETED' THEN NOW() ELSE finished_at END, " +
+            "updated_at = NOW() WHERE id = :jobId", nativeQuery = true)
+    int finish(@Param("jobId") Long jobId,
+               @Param("status") String status,
+               @Param("errorMessage") String errorMessage);
+}
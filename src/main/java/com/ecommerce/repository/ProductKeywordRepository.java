@@ -0,0 +1,31 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ProductKeyword;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProductKeywordRepository extends JpaRepository<ProductKeyword, Long> {
+
+    List<ProductKeyword> findByProductId(UUID productId);
+
+    // Columns: product id, keyword
+    @Query("SELECT k.productId, k.keyword FROM ProductKeyword k")
+    List<Object[]> findAllProductIdsAndKeywords();
+
+    @Modifying
+    @Query("DELETE FROM ProductKeyword k WHERE k.productId = :productId")
+    int deleteByProductId(@Param("productId") UUID productId);
+
+    @Modifying
+    @Query("DELETE FROM ProductKeyword k WHERE k.productId = :productId AND k.keyword IN :keywords")
+    int deleteByProductIdAndKeywordIn(@Param("productId") UUID productId,
+            @Param("keywords") Collection<String> keywords);
+}
@@ -14,6 +14,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,6 +47,46 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
         List<Product> findTop10ByProductNameContainingIgnoreCaseOrProductDetail_MetaKeywordsContainingIgnoreCase(
                         @Param("query") String query, @Param("metaQuery") String metaQuery);
 
+        // Suggestion index sources of customer-visible products. Columns: product id,
+        // name, brand id, brand name, category id, category name, meta keywords,
+        // search keywords.
+        @Query("SELECT p.productId, p.productName, b.brandId, b.brandName, c.id, c.name, pd.metaKeywords, pd.searchKeywords " +
+                        "FROM Product p LEFT JOIN p.brand b LEFT JOIN p.category c LEFT JOIN p.productDetail pd " +
+                        "WHERE p.isActive = true AND p.displayToCustomers = true")
+        List<Object[]> findSuggestionSources();
+
+        @Query("SELECT p.productId, p.productName, b.brandId, b.brandName, c.id, c.name, pd.metaKeywords, pd.searchKeywords " +
+                        "FROM Product p LEFT JOIN p.brand b LEFT JOIN p.category c LEFT JOIN p.productDetail pd " +
+                        "WHERE p.isActive = true AND p.displayToCustomers = true AND p.productId IN :productIds")
+        List<Object[]> findSuggestionSourcesByIds(@Param("productIds") Collection<UUID> productIds);
+
+        // Units sold per product since a date, counting variant sales towards their product
+        @Query("SELECT COALESCE(p.productId, vp.productId), SUM(oi.quantity) FROM OrderItem oi " +
+                        "LEFT JOIN oi.product p LEFT JOIN oi.productVariant v LEFT JOIN v.product vp " +
+                        "WHERE oi.createdAt >= :since " +
+                        "GROUP BY COALESCE(p.productId, vp.productId)")
+        List<Object[]> sumUnitsSoldByProductSince(@Param("since") java.time.LocalDateTime since);
+
+        // Similarity model sources of customer-visible products. Columns: product id,
+        // category id, brand id, price.
+        @Query("SELECT p.productId, c.id, b.brandId, p.price " +
+                        "FROM Product p LEFT JOIN p.category c LEFT JOIN p.brand b " +
+                        "WHERE p.isActive = true AND p.displayToCustomers = true")
+        List<Object[]> findSimilaritySources();
+
+        // One row per order line of orders placed after a date, grouped by order.
+        // Columns: order id, order creation time, product id (variant sales count
+        // towards their product).
+        @Query("SELECT o.orderId, o.createdAt, COALESCE(p.productId, vp.productId) FROM OrderItem oi " +
+                        "JOIN oi.shopOrder so JOIN so.order o " +
+                        "LEFT JOIN oi.product p LEFT JOIN oi.productVariant v LEFT JOIN v.product vp " +
+                        "WHERE o.createdAt > :since ORDER BY o.orderId")
+        List<Object[]> findOrderedProductsSince(@Param("since") java.time.LocalDateTime since);
+
+        @Query("SELECT DISTINCT s.product.productId FROM Stock s " +
+                        "WHERE s.product.productId IN :productIds AND s.quantity > 0")
+        List<UUID> findInStockProductIds(@Param("productIds") Collection<UUID> productIds);
+
         @Query("SELECT DISTINCT pd.metaKeywords FROM ProductDetail pd " +
                         "WHERE pd.metaKeywords IS NOT NULL " +
                         "AND LOWER(pd.metaKeywords) LIKE LOWER(CONCAT('%', :query, '%'))")
@@ -76,18 +117,6 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
                         "AND p.isActive = true")
         Page<Product> findProductsByComprehensiveSearch(@Param("searchTerm") String searchTerm, Pageable pageable);
 
-        // Method to find products with comma-separated keyword matching
-        @Query("SELECT DISTINCT p FROM Product p LEFT JOIN p.productDetail pd " +
-                        "WHERE p.isActive = true " +
-                        "AND (LOWER(p.productName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                        "OR LOWER(p.shortDescription) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                        "OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                        "OR LOWER(p.barcode) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                        "OR LOWER(p.slug) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                        "OR LOWER(pd.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-                        "OR LOWER(pd.metaDescription) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-        List<Product> findProductsForKeywordSearch(@Param("searchTerm") String searchTerm);
-
         @Query("SELECT p FROM Product p WHERE p.productId IN " +
                         "(SELECT r.product.productId FROM Review r GROUP BY r.product.productId " +
                         "HAVING AVG(r.rating) >= :minRating AND AVG(r.rating) <= :maxRating)")
@@ -202,6 +231,19 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
                         "OR (p.variants IS NOT EMPTY AND v.isActive = true AND sb.status = 'ACTIVE' AND sb.quantity > 0))")
         Page<Product> findByCategoryForCustomersWithStock(@Param("category") Category category, Pageable pageable);
 
+        // Same as findByCategoryForCustomersWithStock, but for a category and all of
+        // its descendants, matched by materialized path prefix
+        @Query("SELECT DISTINCT p FROM Product p " +
+                        "JOIN p.category c " +
+                        "LEFT JOIN p.variants v " +
+                        "LEFT JOIN Stock s ON (s.product = p OR s.productVariant = v) " +
+                        "LEFT JOIN StockBatch sb ON sb.stock = s " +
+                        "WHERE c.path LIKE CONCAT(:pathPrefix, '%') AND p.isActive = true AND p.displayToCustomers = true " +
+                        "AND ((p.variants IS EMPTY AND sb.status = 'ACTIVE' AND sb.quantity > 0) " +
+                        "OR (p.variants IS NOT EMPTY AND v.isActive = true AND sb.status = 'ACTIVE' AND sb.quantity > 0))")
+        Page<Product> findByCategorySubtreeForCustomersWithStock(@Param("pathPrefix") String pathPrefix,
+                        Pageable pageable);
+
         @Query("SELECT DISTINCT p FROM Product p " +
                         "LEFT JOIN p.variants v " +
                         "LEFT JOIN Stock s ON (s.product = p OR s.productVariant = v) " +
@@ -279,4 +321,11 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
 
         @Query("SELECT COUNT(p) FROM Product p WHERE p.shop.shopId = :shopId AND p.isActive = true")
         long countActiveByShopId(@Param("shopId") UUID shopId);
+
+        /**
+         * Shipping weights for the given products. Rows are [productId, weightKg];
+         * weightKg is null when the product has no detail record.
+         */
+        @Query("SELECT p.productId, pd.weightKg FROM Product p LEFT JOIN p.productDetail pd WHERE p.productId IN :productIds")
+        List<Object[]> findWeightsByProductIds(@Param("productIds") Collection<UUID> productIds);
 }
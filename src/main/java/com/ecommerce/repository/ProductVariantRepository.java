@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -34,4 +35,11 @@ public interface ProductVariantRepository extends JpaRepository<ProductVariant,
     Page<ProductVariant> findByDiscount(Discount discount, Pageable pageable);
 
     long countByDiscount(Discount discount);
+
+    /**
+     * Shipping weights for the given variants, taken from their parent product.
+     * Rows are [variantId, weightKg].
+     */
+    @Query("SELECT v.id, pd.weightKg FROM ProductVariant v JOIN v.product p LEFT JOIN p.productDetail pd WHERE v.id IN :variantIds")
+    List<Object[]> findWeightsByVariantIds(@Param("variantIds") Collection<Long> variantIds);
 }
@@ -21,6 +21,14 @@ public interface ReadyForDeliveryGroupRepository extends JpaRepository<ReadyForD
         @Query("SELECT g FROM ReadyForDeliveryGroup g LEFT JOIN FETCH g.deliverer WHERE g.deliveryGroupId = :id")
         Optional<ReadyForDeliveryGroup> findByIdWithDeliverer(@Param("id") Long id);
 
+        /**
+         * Deliverer ID, shop ID and finished flag of a group, for access checks
+         * on its live location
+         */
+        @Query("SELECT d.id, s.shopId, g.hasDeliveryFinished FROM ReadyForDeliveryGroup g "
+                        + "LEFT JOIN g.deliverer d LEFT JOIN g.shop s WHERE g.deliveryGroupId = :id")
+        List<Object[]> findAccessInfoById(@Param("id") Long id);
+
         @Query("SELECT g FROM ReadyForDeliveryGroup g LEFT JOIN FETCH g.shopOrders LEFT JOIN FETCH g.deliverer")
         List<ReadyForDeliveryGroup> findAllWithOrdersAndDeliverer();
 
@@ -0,0 +1,25 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ReferenceDataInvalidation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReferenceDataInvalidationRepository extends JpaRepository<ReferenceDataInvalidation, Long> {
+
+    List<ReferenceDataInvalidation> findByIdGreaterThanOrderByIdAsc(Long id);
+
+    @Query("SELECT MAX(r.id) FROM ReferenceDataInvalidation r")
+    Optional<Long> findMaxId();
+
+    @Modifying
+    @Query("DELETE FROM ReferenceDataInvalidation r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -127,10 +127,20 @@ public interface ReturnAppealRepository
     boolean existsByReturnRequestId(Long returnRequestId);
 
     /**
-     * Find recent appeals (last 30 days)
-     */
-    @Query("SELECT ra FROM ReturnAppeal ra WHERE ra.submittedAt >= :thirtyDaysAgo ORDER BY ra.submittedAt DESC")
-    List<ReturnAppeal> findRecentAppeals(@Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
+     * Appeal counts per status and age bucket in one pass, for the moderation
+     * dashboard. Columns: status, total, submitted since recentSince,
+     * submitted at or before agedBefore
+     */
+    @Query(value = """
+        SELECT status,
+               COUNT(*),
+               COUNT(*) FILTER (WHERE submitted_at >= :recentSince),
+               COUNT(*) FILTER (WHERE submitted_at <= :agedBefore)
+        FROM return_appeals
+        GROUP BY status
+        """, nativeQuery = true)
+    List<Object[]> countByStatusAndAge(@Param("recentSince") LocalDateTime recentSince,
+            @Param("agedBefore") LocalDateTime agedBefore);
 
     /**
      * Find recent appeals by customer (last 30 days)
@@ -352,4 +352,38 @@ public interface ReturnRequestRepository
        @Query("SELECT rr FROM ReturnRequest rr JOIN rr.shopOrder so JOIN so.order o WHERE o.orderCode = :orderNumber")
        Optional<ReturnRequest> findByOrderNumber(@Param("orderNumber") String orderNumber);
 
+       /**
+        * Return request counts grouped by return status, delivery status and
+        * whether an agent is assigned, in one pass for the delivery dashboard.
+        * Columns: status, delivery status, has agent, total, pickups started
+        * after since, pickups completed after since
+        */
+       @Query(value = """
+              SELECT status,
+                     delivery_status,
+                     delivery_agent_id IS NOT NULL,
+                     COUNT(*),
+                     COUNT(*) FILTER (WHERE pickup_started_at > :since),
+                     COUNT(*) FILTER (WHERE pickup_completed_at > :since)
+              FROM return_requests
+              GROUP BY status, delivery_status, delivery_agent_id IS NOT NULL
+              """, nativeQuery = true)
+       List<Object[]> countDeliveryBreakdown(@Param("since") LocalDateTime since);
+
+       /**
+        * One delivery agent's return requests grouped by delivery status.
+        * Columns: delivery status, total, pickups started after since,
+        * pickups completed after since
+        */
+       @Query(value = """
+              SELECT delivery_status,
+                     COUNT(*),
+                     COUNT(*) FILTER (WHERE pickup_started_at > :since),
+                     COUNT(*) FILTER (WHERE pickup_completed_at > :since)
+              FROM return_requests
+              WHERE delivery_agent_id = :deliveryAgentId
+              GROUP BY delivery_status
+              """, nativeQuery = true)
+       List<Object[]> countAgentDeliveryBreakdown(@Param("deliveryAgentId") UUID deliveryAgentId,
+                     @Param("since") LocalDateTime since);
 }
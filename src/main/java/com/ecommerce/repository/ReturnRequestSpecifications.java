@@ -0,0 +1,93 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.ReturnRequest;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Reusable Specification fragments for the admin return request listing.
+ * Each method returns null when its filter is not set, which
+ * {@link Specification#and} treats as "no restriction".
+ */
+public final class ReturnRequestSpecifications {
+
+    private ReturnRequestSpecifications() {
+    }
+
+    public static Specification<ReturnRequest> withFilters(ReturnRequest.ReturnStatus status, String customerType,
+            String search, String dateFrom, String dateTo) {
+        return Specification.where(hasStatus(status))
+                .and(hasCustomerType(customerType))
+                .and(orderCodeContains(search))
+                .and(submittedFrom(parseDate(dateFrom, false)))
+                .and(submittedBefore(parseDate(dateTo, true)));
+    }
+
+    public static Specification<ReturnRequest> hasStatus(ReturnRequest.ReturnStatus status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<ReturnRequest> hasCustomerType(String customerType) {
+        if ("REGISTERED".equalsIgnoreCase(customerType)) {
+            return (root, query, cb) -> cb.isNotNull(root.get("customerId"));
+        }
+        if ("GUEST".equalsIgnoreCase(customerType)) {
+            return (root, query, cb) -> cb.isNull(root.get("customerId"));
+        }
+        return null;
+    }
+
+    public static Specification<ReturnRequest> orderCodeContains(String search) {
+        if (search == null || search.trim().isEmpty()) {
+            return null;
+        }
+        String pattern = "%" + search.trim().toLowerCase() + "%";
+        return (root, query, cb) -> {
+            Join<Object, Object> shopOrder = root.join("shopOrder", JoinType.LEFT);
+            Join<Object, Object> order = shopOrder.join("order", JoinType.LEFT);
+            return cb.or(
+                    cb.like(cb.lower(shopOrder.get("shopOrderCode")), pattern),
+                    cb.like(cb.lower(order.get("orderCode")), pattern));
+        };
+    }
+
+    public static Specification<ReturnRequest> submittedFrom(LocalDateTime from) {
+        if (from == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("submittedAt"), from);
+    }
+
+    public static Specification<ReturnRequest> submittedBefore(LocalDateTime to) {
+        if (to == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.lessThan(root.get("submittedAt"), to);
+    }
+
+    /**
+     * Accepts either an ISO date ({@code 2026-01-31}) or date-time. A bare
+     * upper-bound date is made inclusive by moving to the next midnight.
+     */
+    private static LocalDateTime parseDate(String value, boolean upperBound) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            if (value.length() <= 10) {
+                LocalDate date = LocalDate.parse(value);
+                return upperBound ? date.plusDays(1).atStartOfDay() : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid date filter: " + value, e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Take or renew the named lease. The row is only overwritten when the
+     * current lease has run out or is already held by the same owner, so
+     * exactly one node wins a contested lease. Times come from the database
+     * clock so nodes with skewed clocks agree on expiry.
+     *
+     * @return 1 if the lease is now held by {@code owner}, 0 otherwise
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO scheduler_leases (name, owner, lease_until, updated_at)
+        VALUES (:name, :owner, NOW() + (:seconds * INTERVAL '1 second'), NOW())
+        ON CONFLICT (name) DO UPDATE
+        SET owner = EXCLUDED.owner,
+            lease_until = EXCLUDED.lease_until,
+            updated_at = NOW()
+        WHERE scheduler_leases.lease_until < NOW()
+           OR scheduler_leases.owner = EXCLUDED.owner
+        """, nativeQuery = true)
+    int tryAcquire(@Param("name") String name,
+                   @Param("owner") String owner,
+                   @Param("seconds") long seconds);
+}
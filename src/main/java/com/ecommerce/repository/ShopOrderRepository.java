@@ -4,6 +4,7 @@ import com.ecommerce.entity.ShopOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -79,4 +80,33 @@ public interface ShopOrderRepository extends JpaRepository<ShopOrder, Long> {
         org.springframework.data.domain.Page<ShopOrder> findByReadyForDeliveryGroup_DeliveryGroupId(
                         Long deliveryGroupId,
                         org.springframework.data.domain.Pageable pageable);
+
+        // Candidates for a bulk group assignment; each requested ID may be a shop
+        // order ID or, within the shop, a main order ID
+        @Query("SELECT so FROM ShopOrder so JOIN FETCH so.order JOIN FETCH so.shop "
+                        + "LEFT JOIN FETCH so.readyForDeliveryGroup "
+                        + "WHERE so.id IN :ids OR (so.order.orderId IN :ids AND so.shop.shopId = :shopId)")
+        List<ShopOrder> findBulkAssignmentCandidates(@Param("ids") Collection<Long> ids,
+                        @Param("shopId") UUID shopId);
+
+        // Assigns only shop orders that are still unassigned, and only while the group
+        // has not started delivery. Returns the IDs that were actually assigned.
+        @Query(value = "UPDATE shop_orders SET ready_group_id = :groupId, updated_at = NOW() "
+                        + "WHERE shop_order_id IN (:ids) AND ready_group_id IS NULL "
+                        + "AND EXISTS (SELECT 1 FROM ready_for_delivery_groups g "
+                        + "WHERE g.delivery_group_id = :groupId AND g.has_delivery_started = false FOR SHARE) "
+                        + "RETURNING shop_order_id", nativeQuery = true)
+        List<Long> assignToGroupIfUnassigned(@Param("groupId") Long groupId, @Param("ids") Collection<Long> ids);
+
+        // Stops of a delivery group for route sequencing. Columns: shop order id,
+        // order id, order code, latitude, longitude, street, regions, country.
+        @Query("SELECT so.id, o.orderId, o.orderCode, a.latitude, a.longitude, a.street, a.regions, a.country "
+                        + "FROM ShopOrder so JOIN so.order o LEFT JOIN o.orderAddress a "
+                        + "WHERE so.readyForDeliveryGroup.deliveryGroupId = :groupId")
+        List<Object[]> findRouteStopsByGroupId(@Param("groupId") Long groupId);
+
+        // Whether a customer has an order in the delivery group (live location access)
+        @Query("SELECT CASE WHEN COUNT(so) > 0 THEN true ELSE false END FROM ShopOrder so "
+                        + "WHERE so.readyForDeliveryGroup.deliveryGroupId = :groupId AND so.order.user.id = :userId")
+        boolean existsByGroupIdAndCustomerId(@Param("groupId") Long groupId, @Param("userId") UUID userId);
 }
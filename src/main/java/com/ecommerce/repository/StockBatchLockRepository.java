@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -40,4 +41,77 @@ public interface StockBatchLockRepository extends JpaRepository<StockBatchLock,
 
     @Query("SELECT sbl FROM StockBatchLock sbl WHERE sbl.expiresAt < :cutoffTime")
     List<StockBatchLock> findExpiredLocks(@Param("cutoffTime") LocalDateTime cutoffTime);
+
+    /**
+     * Release every lock held by the given sessions in one statement: the lock
+     * rows are deleted and their quantities are summed per batch and added
+     * back to stock_batches. Because only rows actually deleted here are
+     * restored, two nodes releasing the same session can never double-restore.
+     *
+     * @return number of stock batches whose quantity was restored
+     */
+    @Modifying
+    @Query(value = """
+        WITH released AS (
+            DELETE FROM stock_batch_locks
+            WHERE session_id IN (:sessionIds)
+            RETURNING stock_batch_id, locked_quantity
+        ), restored AS (
+            SELECT stock_batch_id, SUM(locked_quantity) AS quantity
+            FROM released
+            GROUP BY stock_batch_id
+        )
+        UPDATE stock_batches sb
+        SET quantity = sb.quantity + restored.quantity,
+            status = CASE
+                WHEN sb.status = 'EMPTY' AND (sb.expiry_date IS NULL OR sb.expiry_date >= NOW()) THEN 'ACTIVE'
+                WHEN sb.status = 'EMPTY' THEN 'EXPIRED'
+                ELSE sb.status
+            END,
+            updated_at = NOW()
+        FROM restored
+        WHERE sb.id = restored.stock_batch_id
+        """, nativeQuery = true)
+    int releaseLocksForSessions(@Param("sessionIds") Collection<String> sessionIds);
+
+    /**
+     * Restore and delete one chunk of expired locks in a single statement.
+     * Expired rows are claimed with SKIP LOCKED so concurrent releases of the
+     * same session are never waited on or double-counted, their quantities are
+     * summed per batch and added back, and the rows are deleted in the same
+     * statement.
+     *
+     * @return number of stock batches whose quantity was restored; 0 once no
+     *         expired locks are left
+     */
+    @Modifying
+    @Query(value = """
+        WITH expired AS (
+            SELECT id FROM stock_batch_locks
+            WHERE expires_at < :now
+            ORDER BY expires_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        ), released AS (
+            DELETE FROM stock_batch_locks l
+            USING expired
+            WHERE l.id = expired.id
+            RETURNING l.stock_batch_id, l.locked_quantity
+        ), restored AS (
+            SELECT stock_batch_id, SUM(locked_quantity) AS quantity
+            FROM released
+            GROUP BY stock_batch_id
+        )
+        UPDATE stock_batches sb
+        SET quantity = sb.quantity + restored.quantity,
+            status = CASE
+                WHEN sb.status = 'EMPTY' AND (sb.expiry_date IS NULL OR sb.expiry_date >= NOW()) THEN 'ACTIVE'
+                WHEN sb.status = 'EMPTY' THEN 'EXPIRED'
+                ELSE sb.status
+            END,
+            updated_at = NOW()
+        FROM restored
+        WHERE sb.id = restored.stock_batch_id
+        """, nativeQuery = true)
+    int restoreExpiredLocks(@Param("now") LocalDateTime now, @Param("limit") int limit);
 }
@@ -3,18 +3,33 @@ package com.ecommerce.repository;
 import com.ecommerce.entity.StockBatch;
 import com.ecommerce.entity.Stock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface StockBatchRepository extends JpaRepository<StockBatch, Long> {
+public interface StockBatchRepository extends JpaRepository<StockBatch, Long>, JpaSpecificationExecutor<StockBatch> {
 
         List<StockBatch> findByStock(Stock stock);
 
+        /**
+         * Load a batch holding its row lock until the transaction ends, so a
+         * read-modify-write of its quantity cannot overwrite a concurrent
+         * relative update
+         */
+        @Lock(LockModeType.PESSIMISTIC_WRITE)
+        @Query("SELECT sb FROM StockBatch sb WHERE sb.id = :id")
+        Optional<StockBatch> findByIdForUpdate(@Param("id") Long id);
+
         List<StockBatch> findByStockOrderByCreatedAtDesc(Stock stock);
 
         @Query("SELECT sb FROM StockBatch sb WHERE sb.stock = :stock AND sb.status = 'ACTIVE'")
@@ -53,4 +68,29 @@ public interface StockBatchRepository extends JpaRepository<StockBatch, Long> {
 
         @Query("SELECT sb FROM StockBatch sb WHERE sb.stock = :stock AND NOT EXISTS (SELECT 1 FROM OrderItemBatch oib WHERE oib.stockBatch = sb)")
         List<StockBatch> findUnreferencedBatchesByStock(@Param("stock") Stock stock);
-}
\ No newline at end of file
+
+        /**
+         * Available quantity per warehouse for the given products (non-variant
+         * stock), summed over active, unexpired batches. Rows are
+         * [warehouseId, productId, quantity].
+         */
+        @Query("SELECT s.warehouse.id, s.product.productId, SUM(sb.quantity) FROM StockBatch sb JOIN sb.stock s " +
+                        "WHERE s.product.productId IN :productIds AND s.productVariant IS NULL " +
+                        "AND sb.status = 'ACTIVE' AND sb.quantity > 0 " +
+                        "AND (sb.expiryDate IS NULL OR sb.expiryDate > :now) " +
+                        "GROUP BY s.warehouse.id, s.product.productId")
+        List<Object[]> sumAvailableByWarehouseForProducts(@Param("productIds") Collection<java.util.UUID> productIds,
+                        @Param("now") LocalDateTime now);
+
+        /**
+         * Available quantity per warehouse for the given variants, summed over
+         * active, unexpired batches. Rows are [warehouseId, variantId, quantity].
+         */
+        @Query("SELECT s.warehouse.id, s.productVariant.id, SUM(sb.quantity) FROM StockBatch sb JOIN sb.stock s " +
+                        "WHERE s.productVariant.id IN :variantIds " +
+                        "AND sb.status = 'ACTIVE' AND sb.quantity > 0 " +
+                        "AND (sb.expiryDate IS NULL OR sb.expiryDate > :now) " +
+                        "GROUP BY s.warehouse.id, s.productVariant.id")
+        List<Object[]> sumAvailableByWarehouseForVariants(@Param("variantIds") Collection<Long> variantIds,
+                        @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,34 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.StockBatch;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specification fragments for stock batch admin listings.
+ */
+public final class StockBatchSpecifications {
+
+    private StockBatchSpecifications() {
+    }
+
+    /**
+     * Batches whose expiry falls in (now, now + daysThreshold), i.e. not yet
+     * expired but about to. Matches {@link StockBatch#isExpiringSoon(int)}.
+     */
+    public static Specification<StockBatch> expiringWithin(int daysThreshold) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime threshold = now.plusDays(daysThreshold);
+        return (root, query, cb) -> cb.and(
+                cb.greaterThanOrEqualTo(root.get("expiryDate"), now),
+                cb.lessThan(root.get("expiryDate"), threshold));
+    }
+
+    public static Specification<StockBatch> inWarehouse(Long warehouseId) {
+        if (warehouseId == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("stock").get("warehouse").get("id"), warehouseId);
+    }
+}
@@ -7,10 +7,12 @@ import com.ecommerce.entity.Warehouse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -142,4 +144,14 @@ public interface StockRepository extends JpaRepository<Stock, Long> {
          */
         @Query("SELECT s FROM Stock s WHERE s.productVariant.id = :variantId AND s.warehouse.id = :warehouseId")
         List<Stock> findByProductVariantIdAndWarehouseId(@Param("variantId") Long variantId, @Param("warehouseId") Long warehouseId);
+
+        /**
+         * Recompute the quantity counter of the given stock rows from their
+         * active batches in one statement
+         */
+        @Modifying
+        @Query(value = "UPDATE stocks s SET quantity = COALESCE((SELECT SUM(sb.quantity) FROM stock_batches sb " +
+                        "WHERE sb.stock_id = s.id AND sb.status = 'ACTIVE' AND sb.quantity > 0), 0), " +
+                        "updated_at = NOW() WHERE s.id IN (:stockIds)", nativeQuery = true)
+        int refreshQuantitiesFromBatches(@Param("stockIds") Collection<Long> stockIds);
 }
@@ -0,0 +1,145 @@
+package com.ecommerce.repository;
+
+import com.ecommerce.entity.UserPointsBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserPointsBalanceRepository extends JpaRepository<UserPointsBalance, Long> {
+
+    Optional<UserPointsBalance> findByUserIdAndShopId(UUID userId, UUID shopId);
+
+    @Query("SELECT COALESCE(SUM(b.balance), 0) FROM UserPointsBalance b WHERE b.userId = :userId")
+    Integer sumBalanceByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT COALESCE(SUM(b.totalEarned), 0) FROM UserPointsBalance b WHERE b.userId = :userId")
+    Integer sumTotalEarnedByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT COALESCE(SUM(b.totalSpent), 0) FROM UserPointsBalance b WHERE b.userId = :userId")
+    Integer sumTotalSpentByUserId(@Param("userId") UUID userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM UserPointsBalance b WHERE b.userId = :userId")
+    List<UserPointsBalance> findAllByUserIdForUpdate(@Param("userId") UUID userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM UserPointsBalance b WHERE b.userId = :userId AND b.shopId = :shopId")
+    Optional<UserPointsBalance> findByUserIdAndShopIdForUpdate(@Param("userId") UUID userId,
+            @Param("shopId") UUID shopId);
+
+    /**
+     * Add a signed amount to a balance row, creating it on first use, and
+     * return the resulting balance. The row lock is held until the caller
+     * commits, so concurrent writers for the same user and shop queue up.
+     */
+    @Query(value = """
+        INSERT INTO user_points_balances (user_id, shop_id, balance, total_earned, total_spent, updated_at)
+        VALUES (:userId, :shopId, :delta, GREATEST(:delta, 0), GREATEST(-:delta, 0), NOW())
+        ON CONFLICT (user_id, shop_id) DO UPDATE
+        SET balance = user_points_balances.balance + EXCLUDED.balance,
+            total_earned = user_points_balances.total_earned + EXCLUDED.total_earned,
+            total_spent = user_points_balances.total_spent + EXCLUDED.total_spent,
+            updated_at = NOW()
+        RETURNING balance
+        """, nativeQuery = true)
+    Integer addPoints(@Param("userId") UUID userId, @Param("shopId") UUID shopId, @Param("delta") int delta);
+
+    /**
+     * Take points from a balance row only if it holds enough of them. Returns
+     * the resulting balance, or null when the balance is missing or too low,
+     * so two concurrent spends can never both succeed against the same points.
+     */
+    @Query(value = """
+        UPDATE user_points_balances
+        SET balance = balance - :points,
+            total_spent = total_spent + :points,
+            updated_at = NOW()
+        WHERE user_id = :userId AND shop_id = :shopId AND balance >= :points
+        RETURNING balance
+        """, nativeQuery = true)
+    Integer spendPoints(@Param("userId") UUID userId, @Param("shopId") UUID shopId, @Param("points") int points);
+
+    /**
+     * Credit the points refunded for a set of abandoned orders, matching the
+     * unscoped ledger rows written by
+     * {@link UserPointsRepository#insertAbandonedOrderRefunds(Collection)}.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_points_balances (user_id, shop_id, balance, total_earned, total_spent, updated_at)
+        SELECT o.user_id, :noShop, SUM(tx.points_used), SUM(tx.points_used), 0, NOW()
+        FROM orders o
+        JOIN order_transactions tx ON tx.order_id = o.order_id
+        WHERE o.order_id IN (:orderIds)
+        AND o.user_id IS NOT NULL
+        AND tx.points_used > 0
+        GROUP BY o.user_id
+        ON CONFLICT (user_id, shop_id) DO UPDATE
+        SET balance = user_points_balances.balance + EXCLUDED.balance,
+            total_earned = user_points_balances.total_earned + EXCLUDED.total_earned,
+            updated_at = NOW()
+        """, nativeQuery = true)
+    int addAbandonedOrderRefunds(@Param("orderIds") Collection<Long> orderIds, @Param("noShop") UUID noShop);
+
+    /**
+     * Balance rows that disagree with the ledger, or ledger groups without a
+     * row. Columns: user id, shop id
+     */
+    @Query(value = """
+        SELECT COALESCE(l.user_id, b.user_id), COALESCE(l.shop_id, b.shop_id)
+        FROM (
+            SELECT user_id, COALESCE(shop_id, :noShop) AS shop_id,
+                   SUM(points) AS balance,
+                   SUM(CASE WHEN points > 0 THEN points ELSE 0 END) AS total_earned,
+                   SUM(CASE WHEN points < 0 THEN -points ELSE 0 END) AS total_spent
+            FROM user_points
+            GROUP BY user_id, COALESCE(shop_id, :noShop)
+        ) l
+        FULL OUTER JOIN user_points_balances b ON b.user_id = l.user_id AND b.shop_id = l.shop_id
+        WHERE b.id IS NULL
+        OR l.user_id IS NULL AND (b.balance <> 0 OR b.total_earned <> 0 OR b.total_spent <> 0)
+        OR b.balance <> l.balance
+        OR b.total_earned <> l.total_earned
+        OR b.total_spent <> l.total_spent
+        """, nativeQuery = true)
+    List<Object[]> findDriftedBalances(@Param("noShop") UUID noShop);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_points_balances (user_id, shop_id, balance, total_earned, total_spent, updated_at)
+        VALUES (:userId, :shopId, 0, 0, 0, NOW())
+        ON CONFLICT (user_id, shop_id) DO NOTHING
+        """, nativeQuery = true)
+    int insertIfMissing(@Param("userId") UUID userId, @Param("shopId") UUID shopId);
+
+    /**
+     * Overwrite one balance row with the totals of its ledger rows. The caller
+     * must hold the row lock so no writer slips a ledger row in between.
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE user_points_balances b
+        SET balance = l.balance, total_earned = l.total_earned, total_spent = l.total_spent, updated_at = NOW()
+        FROM (
+            SELECT COALESCE(SUM(points), 0) AS balance,
+                   COALESCE(SUM(CASE WHEN points > 0 THEN points ELSE 0 END), 0) AS total_earned,
+                   COALESCE(SUM(CASE WHEN points < 0 THEN -points ELSE 0 END), 0) AS total_spent
+            FROM user_points
+            WHERE user_id = :userId AND COALESCE(shop_id, :noShop) = :shopId
+        ) l
+        WHERE b.user_id = :userId AND b.shop_id = :shopId
+        AND (b.balance <> l.balance OR b.total_earned <> l.total_earned OR b.total_spent <> l.total_spent)
+        """, nativeQuery = true)
+    int recomputeFromLedger(@Param("userId") UUID userId, @Param("shopId") UUID shopId,
+            @Param("noShop") UUID noShop);
+}
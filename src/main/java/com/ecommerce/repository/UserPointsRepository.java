@@ -5,11 +5,13 @@ import com.ecommerce.entity.UserPoints.PointsType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -42,47 +44,40 @@ public interface UserPointsRepository extends JpaRepository<UserPoints, Long> {
     @Query("SELECT COUNT(up) > 0 FROM UserPoints up WHERE up.orderId = :orderId AND up.shop.shopId = :shopId AND up.pointsType = 'EARNED_PURCHASE'")
     boolean existsByOrderIdAndShopId(@Param("orderId") Long orderId, @Param("shopId") UUID shopId);
 
-    /**
-     * Calculate total points earned by a user
-     */
-    @Query("SELECT COALESCE(SUM(up.points), 0) FROM UserPoints up WHERE up.user.id = :userId AND up.points > 0")
-    Integer calculateTotalPointsEarned(@Param("userId") UUID userId);
-
-    /**
-     * Calculate total points spent by a user
-     */
-    @Query("SELECT COALESCE(ABS(SUM(up.points)), 0) FROM UserPoints up WHERE up.user.id = :userId AND up.points < 0")
-    Integer calculateTotalPointsSpent(@Param("userId") UUID userId);
-
-    /**
-     * Calculate current point balance for a user - DEPRECATED
-     * Use User.points field instead for better performance
-     */
-    @Deprecated
-    @Query("SELECT COALESCE(SUM(up.points), 0) FROM UserPoints up WHERE up.user.id = :userId")
-    Integer calculateCurrentBalance(@Param("userId") UUID userId);
-
-    /**
-     * Calculate current point balance for a user scoped to a specific shop
-     */
-    @Query("SELECT COALESCE(SUM(up.points), 0) FROM UserPoints up WHERE up.user.id = :userId AND up.shop.shopId = :shopId")
-    Integer calculateCurrentBalanceByShop(@Param("userId") UUID userId, @Param("shopId") UUID shopId);
-
-    /**
-     * Calculate total points earned by a user for a specific shop
-     */
-    @Query("SELECT COALESCE(SUM(up.points), 0) FROM UserPoints up WHERE up.user.id = :userId AND up.shop.shopId = :shopId AND up.points > 0")
-    Integer calculateTotalPointsEarnedByShop(@Param("userId") UUID userId, @Param("shopId") UUID shopId);
-
-    /**
-     * Calculate total points spent by a user for a specific shop
-     */
-    @Query("SELECT COALESCE(ABS(SUM(up.points)), 0) FROM UserPoints up WHERE up.user.id = :userId AND up.shop.shopId = :shopId AND up.points < 0")
-    Integer calculateTotalPointsSpentByShop(@Param("userId") UUID userId, @Param("shopId") UUID shopId);
-
     /**
      * Find points transactions within a date range
      */
     List<UserPoints> findByUserIdAndCreatedAtBetweenOrderByCreatedAtDesc(
             UUID userId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Refund the points used by a set of abandoned orders with a single
+     * INSERT ... SELECT. Must run after
+     * {@link UserPointsBalanceRepository#addAbandonedOrderRefunds}: balance_after
+     * is the user's balance before those refunds plus the running sum of refunds
+     * in this statement, so a user with several abandoned orders in one chunk
+     * still gets consistent balances.
+     *
+     * @return number of ledger rows inserted
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO user_points (user_id, points, points_type, description, order_id, points_value, balance_after, created_at)
+        SELECT o.user_id,
+               tx.points_used,
+               'ADJUSTMENT',
+               'Points refunded for cancelled hybrid payment (Order #' || o.order_code || ')',
+               o.order_id,
+               tx.points_value,
+               COALESCE((SELECT SUM(b.balance) FROM user_points_balances b WHERE b.user_id = o.user_id), 0)
+                   - SUM(tx.points_used) OVER (PARTITION BY o.user_id)
+                   + SUM(tx.points_used) OVER (PARTITION BY o.user_id ORDER BY o.order_id),
+               NOW()
+        FROM orders o
+        JOIN order_transactions tx ON tx.order_id = o.order_id
+        WHERE o.order_id IN (:orderIds)
+        AND o.user_id IS NOT NULL
+        AND tx.points_used > 0
+        """, nativeQuery = true)
+    int insertAbandonedOrderRefunds(@Param("orderIds") Collection<Long> orderIds);
 }
@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -73,7 +75,33 @@ public interface UserRepository extends JpaRepository<User, UUID> {
         boolean existsByUserEmail(String email);
 
         /**
-         * Find user by reset token
+         * Find user by the SHA-256 hash of their reset token (indexed)
          */
-        Optional<User> findByResetToken(String resetToken);
+        Optional<User> findByResetTokenHash(String resetTokenHash);
+
+        /**
+         * Find user by reset token hash restricted to the given roles
+         */
+        @Query("SELECT u FROM User u WHERE u.resetTokenHash = :resetTokenHash AND u.role IN :roles")
+        Optional<User> findByResetTokenHashAndRoleIn(@Param("resetTokenHash") String resetTokenHash,
+                        @Param("roles") Collection<UserRole> roles);
+
+        /**
+         * Find users having any of the given roles with pagination
+         */
+        @Query(value = "SELECT u FROM User u WHERE u.role IN :roles",
+                        countQuery = "SELECT COUNT(u) FROM User u WHERE u.role IN :roles")
+        Page<User> findByRoleIn(@Param("roles") Collection<UserRole> roles, Pageable pageable);
+
+        /**
+         * Find all users having any of the given roles
+         */
+        @Query("SELECT u FROM User u WHERE u.role IN :roles ORDER BY u.createdAt DESC")
+        List<User> findByRoleIn(@Param("roles") Collection<UserRole> roles);
+
+        /**
+         * Count users registered in [from, to)
+         */
+        @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :from AND u.createdAt < :to")
+        long countCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
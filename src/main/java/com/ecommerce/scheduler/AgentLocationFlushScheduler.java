@@ -0,0 +1,29 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.AgentLocationTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically writes the live agent positions held in memory to
+ * delivery_agent_locations. Every node flushes its own positions, so no lease
+ * is taken.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgentLocationFlushScheduler {
+
+    private final AgentLocationTracker agentLocationTracker;
+
+    @Scheduled(fixedDelayString = "${app.agent-location.flush-interval-ms:5000}")
+    public void flushLocations() {
+        try {
+            agentLocationTracker.flush();
+        } catch (Exception e) {
+            log.error("Error flushing agent locations: {}", e.getMessage(), e);
+        }
+    }
+}
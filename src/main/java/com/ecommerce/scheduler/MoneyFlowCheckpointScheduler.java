@@ -0,0 +1,36 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.MoneyFlowService;
+import com.ecommerce.service.SchedulerLeaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MoneyFlowCheckpointScheduler {
+
+    private static final String LEASE_NAME = "money-flow-checkpoint";
+
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(55);
+
+    private final MoneyFlowService moneyFlowService;
+    private final SchedulerLeaseService schedulerLeaseService;
+
+    @Scheduled(cron = "0 0 * * * *")
+    public void checkpointMoneyFlowBalance() {
+        try {
+            if (!schedulerLeaseService.tryAcquire(LEASE_NAME, LEASE_DURATION)) {
+                log.debug("Money flow checkpoint lease held by another node, skipping");
+                return;
+            }
+            moneyFlowService.createCheckpoint();
+        } catch (Exception e) {
+            log.error("Error during money flow checkpoint: {}", e.getMessage(), e);
+        }
+    }
+}
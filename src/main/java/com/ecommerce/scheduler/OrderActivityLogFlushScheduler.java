@@ -0,0 +1,30 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.OrderActivityLogWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically moves order activity logs from the shared
+ * order_activity_log_outbox into order_activity_logs. Every node drains the
+ * outbox; rows are claimed with FOR UPDATE SKIP LOCKED, so two nodes never
+ * move the same rows and no lease is taken.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderActivityLogFlushScheduler {
+
+    private final OrderActivityLogWriter orderActivityLogWriter;
+
+    @Scheduled(fixedDelayString = "${app.activity-log.flush-interval-ms:500}")
+    public void flushActivityLogs() {
+        try {
+            orderActivityLogWriter.flush();
+        } catch (Exception e) {
+            log.error("Error flushing order activity logs: {}", e.getMessage(), e);
+        }
+    }
+}
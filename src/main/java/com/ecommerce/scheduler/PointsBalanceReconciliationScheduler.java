@@ -0,0 +1,47 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.PointsBalanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodically compares the points balance table with the user_points ledger
+ * and recomputes any row that drifted, e.g. after a manual ledger edit. Each
+ * row is fixed in its own transaction under its row lock.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PointsBalanceReconciliationScheduler {
+
+    private final PointsBalanceService pointsBalanceService;
+
+    @Scheduled(initialDelayString = "${app.points.reconcile-initial-delay-ms:120000}",
+            fixedDelayString = "${app.points.reconcile-interval-ms:3600000}")
+    public void reconcileBalances() {
+        try {
+            List<UUID[]> drifted = pointsBalanceService.findDriftedBalances();
+            int corrected = 0;
+            for (UUID[] balance : drifted) {
+                try {
+                    if (pointsBalanceService.reconcile(balance[0], balance[1])) {
+                        corrected++;
+                    }
+                } catch (Exception e) {
+                    log.error("Error reconciling points balance of user {} at shop {}: {}",
+                            balance[0], balance[1], e.getMessage(), e);
+                }
+            }
+            if (corrected > 0) {
+                log.info("Points balance reconciliation corrected {} of {} flagged rows", corrected, drifted.size());
+            }
+        } catch (Exception e) {
+            log.error("Error during points balance reconciliation: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.ProductSimilarityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the product similarity model current: new orders are folded in every
+ * few minutes and the whole model is rebuilt periodically, the first time
+ * shortly after startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSimilarityRefreshScheduler {
+
+    private final ProductSimilarityService productSimilarityService;
+
+    @Scheduled(initialDelayString = "${app.similarity.refresh-interval-ms:300000}",
+            fixedDelayString = "${app.similarity.refresh-interval-ms:300000}")
+    public void applyNewOrders() {
+        try {
+            productSimilarityService.applyNewOrders();
+        } catch (Exception e) {
+            log.error("Error applying new orders to the product similarity model: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.similarity.initial-delay-ms:60000}",
+            fixedDelayString = "${app.similarity.full-rebuild-interval-ms:21600000}")
+    public void rebuildAll() {
+        try {
+            productSimilarityService.rebuildAll();
+        } catch (Exception e) {
+            log.error("Error rebuilding the product similarity model: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.RateLimiter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically drops rate limit buckets that have refilled, from memory and,
+ * when enabled, from the shared store. The delete is idempotent, so every node
+ * sweeps without a lease.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitSweepScheduler {
+
+    private final RateLimiter rateLimiter;
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.sweep-interval-ms:60000}")
+    public void sweepBuckets() {
+        try {
+            rateLimiter.sweep();
+        } catch (Exception e) {
+            log.error("Error sweeping rate limit buckets: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.entity.ReferenceDataInvalidation;
+import com.ecommerce.repository.ReferenceDataInvalidationRepository;
+import com.ecommerce.service.ReferenceDataCache;
+import com.ecommerce.service.SchedulerLeaseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Applies reference-data invalidations recorded by other nodes. Only active
+ * when app.reference-cache.cross-node.enabled is true.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.reference-cache.cross-node", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataInvalidationPoller {
+
+    private final ReferenceDataInvalidationRepository invalidationRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final SchedulerLeaseService schedulerLeaseService;
+
+    @Value("${app.reference-cache.cross-node.retention-minutes:60}")
+    private int retentionMinutes;
+
+    // Highest invalidation id already applied; -1 until the first poll. Each
+    // row is inserted in its own short transaction, and the region TTL covers
+    // the rare row that commits after a higher id was already read.
+    private long lastSeenId = -1;
+
+    @Scheduled(fixedDelayString = "${app.reference-cache.cross-node.poll-interval-ms:2000}")
+    public void applyRemoteInvalidations() {
+        try {
+            if (lastSeenId < 0) {
+                // Start from the current tail: this node's cache is empty anyway
+                lastSeenId = invalidationRepository.findMaxId().orElse(0L);
+                return;
+            }
+
+            List<ReferenceDataInvalidation> invalidations =
+                    invalidationRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId);
+            String self = schedulerLeaseService.getInstanceId();
+            for (ReferenceDataInvalidation invalidation : invalidations) {
+                if (!self.equals(invalidation.getOrigin())) {
+                    referenceDataCache.evictLocal(invalidation.getRegion());
+                    log.debug("Applied {} cache invalidation from {}",
+                            invalidation.getRegion(), invalidation.getOrigin());
+                }
+                lastSeenId = invalidation.getId();
+            }
+        } catch (Exception e) {
+            log.warn("Error polling reference data invalidations: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    @Transactional
+    public void pruneInvalidations() {
+        try {
+            int deleted = invalidationRepository.deleteCreatedBefore(LocalDateTime.now().minusMinutes(retentionMinutes));
+            if (deleted > 0) {
+                log.debug("Pruned {} reference data invalidations", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Error pruning reference data invalidations: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.scheduler;
+
+import com.ecommerce.service.SearchSuggestionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the in-memory search suggestion index current: changed products are
+ * applied every few seconds and the whole index is rebuilt periodically, the
+ * first time right after startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestionRefreshScheduler {
+
+    private final SearchSuggestionService searchSuggestionService;
+
+    @Scheduled(fixedDelayString = "${app.search-suggestions.refresh-interval-ms:5000}")
+    public void applyPendingChanges() {
+        try {
+            searchSuggestionService.applyPendingChanges();
+        } catch (Exception e) {
+            log.error("Error applying product changes to the search suggestion index: {}", e.getMessage(), e);
+        }
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.search-suggestions.full-rebuild-interval-ms:1800000}")
+    public void rebuildAll() {
+        try {
+            searchSuggestionService.rebuildAll();
+        } catch (Exception e) {
+            log.error("Error rebuilding the search suggestion index: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,24 +1,37 @@
 package com.ecommerce.scheduler;
 
-import com.ecommerce.service.StockLockService;
+import com.ecommerce.service.EnhancedStockLockService;
+import com.ecommerce.service.SchedulerLeaseService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class StockLockCleanupScheduler {
 
-    private final StockLockService stockLockService;
+    private static final String LEASE_NAME = "stock-lock-cleanup";
+
+    // Slightly shorter than the schedule so the next run can always take it
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(4);
+
+    private final EnhancedStockLockService enhancedStockLockService;
+    private final SchedulerLeaseService schedulerLeaseService;
 
     @Scheduled(fixedRate = 300000)
     public void cleanupExpiredStockLocks() {
         try {
+            if (!schedulerLeaseService.tryAcquire(LEASE_NAME, LEASE_DURATION)) {
+                log.debug("Stock lock cleanup lease held by another node, skipping");
+                return;
+            }
             log.debug("Starting cleanup of expired stock batch locks");
-            stockLockService.cleanupExpiredLocks();
-            log.debug("Completed cleanup of expired stock batch locks");
+            int restored = enhancedStockLockService.cleanupExpiredLocks();
+            log.debug("Completed cleanup of expired stock batch locks, {} batches restored", restored);
         } catch (Exception e) {
             log.error("Error during stock lock cleanup: {}", e.getMessage(), e);
         }
@@ -1,17 +1,23 @@
 package com.ecommerce.service;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.ecommerce.config.AbandonedOrderProperties;
 import com.ecommerce.entity.Order;
+import com.ecommerce.entity.UserPointsBalance;
 import com.ecommerce.repository.OrderRepository;
+import com.ecommerce.repository.StockBatchLockRepository;
+import com.ecommerce.repository.UserPointsBalanceRepository;
+import com.ecommerce.repository.UserPointsRepository;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,10 +28,19 @@ import lombok.extern.slf4j.Slf4j;
 public class AbandonedOrderCleanupService {
 
     private final OrderRepository orderRepository;
-    private final RewardService rewardService;
-    private final EnhancedStockLockService enhancedStockLockService;
+    private final StockBatchLockRepository stockBatchLockRepository;
+    private final UserPointsRepository userPointsRepository;
+    private final UserPointsBalanceRepository userPointsBalanceRepository;
+    private final AbandonedOrderProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    // Scheduled runs only touch orders older than this to avoid racing checkouts in progress
+    private static final int SCHEDULED_CUTOFF_MINUTES = 10;
+    private static final int MANUAL_CUTOFF_MINUTES = 30;
+
     /**
-     * Clean up a single abandoned order
+     * Clean up a single abandoned order in the caller's transaction.
+     * Uses the same set-based statements as the bulk reaper.
      */
     @Transactional
     public void cleanupSingleAbandonedOrder(Order order) {
@@ -33,13 +48,7 @@ public class AbandonedOrderCleanupService {
             log.info("Cleaning up abandoned order: {} (created: {})",
                     order.getOrderId(), order.getCreatedAt());
 
-            refundPointsForAbandonedOrder(order);
-
-            // Unlock stock batches for this order
-            unlockStockBatchesForOrder(order);
-
-            // Delete the order
-            orderRepository.delete(order);
+            reapOrders(List.of(order));
 
             log.info("Successfully cleaned up abandoned order: {}", order.getOrderId());
 
@@ -50,39 +59,25 @@ public class AbandonedOrderCleanupService {
     }
 
     /**
-     * Scheduled cleanup of abandoned orders - runs every 5 minutes
+     * Scheduled cleanup of abandoned orders.
      * Only cleans up orders that are older than 10 minutes to avoid deleting orders
-     * that are currently being processed
+     * that are currently being processed. Each chunk is claimed with
+     * FOR UPDATE SKIP LOCKED and committed on its own, so a large backlog never
+     * becomes one long transaction and several nodes can run this concurrently.
      */
     @Scheduled(fixedRate = 50000)
-    @Transactional
     public void scheduledCleanupAbandonedOrders() {
+        if (!properties.isEnabled()) {
+            return;
+        }
         try {
             log.info("🔄 SCHEDULED CLEANUP STARTED - Looking for abandoned orders...");
 
-            LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(10);
-
-            List<Order> abandonedOrders;
-            int totalCleaned = 0;
+            LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(SCHEDULED_CUTOFF_MINUTES);
+            CleanupResult result = reapAbandonedOrders(cutoffTime);
 
-            do {
-                Pageable pageable = PageRequest.of(0, 20);
-                abandonedOrders = orderRepository.findAbandonedPendingOrders(cutoffTime, pageable);
-
-                for (Order order : abandonedOrders) {
-                    try {
-                        cleanupSingleAbandonedOrder(order);
-                        totalCleaned++;
-                    } catch (Exception e) {
-                        log.error("Failed to cleanup abandoned order {} during scheduled cleanup: {}",
-                                order.getOrderId(), e.getMessage());
-                    }
-                }
-
-            } while (!abandonedOrders.isEmpty());
-
-            if (totalCleaned > 0) {
-                log.info("SCHEDULED CLEANUP COMPLETED: cleaned up {} abandoned orders", totalCleaned);
+            if (result.getSuccessful() > 0) {
+                log.info("SCHEDULED CLEANUP COMPLETED: {}", result);
             } else {
                 log.info(" SCHEDULED CLEANUP COMPLETED: no abandoned orders found (cutoff: {})", cutoffTime);
             }
@@ -93,72 +88,120 @@ public class AbandonedOrderCleanupService {
     }
 
     /**
-     * Unlock stock batches for an abandoned order
+     * Reap every order abandoned before the cutoff, one chunk per transaction.
+     * A chunk that fails as a whole is retried order by order so one bad row
+     * cannot stall the rest of the backlog.
      */
-    private void unlockStockBatchesForOrder(Order order) {
-        try {
-            if (order.getOrderTransaction() != null && order.getOrderTransaction().getStripeSessionId() != null) {
-                String sessionId = order.getOrderTransaction().getStripeSessionId();
-                enhancedStockLockService.unlockAllBatches(sessionId);
-                log.debug("Unlocked stock batches for session: {}", sessionId);
-            } else {
-                // For orders without stripe session, try to unlock using order ID as session
-                String tempSessionId = "temp_" + order.getOrderId().toString();
-                enhancedStockLockService.unlockAllBatches(tempSessionId);
-                log.debug("Unlocked stock batches for temp session: {}", tempSessionId);
-
-                // Also try guest session format
-                String tempGuestSessionId = "temp_guest_" + order.getOrderId().toString();
-                enhancedStockLockService.unlockAllBatches(tempGuestSessionId);
-                log.debug("Unlocked stock batches for temp guest session: {}", tempGuestSessionId);
+    private CleanupResult reapAbandonedOrders(LocalDateTime cutoffTime) {
+        int chunkSize = Math.max(1, properties.getBatchSize());
+        int processed = 0;
+        int successful = 0;
+        int errors = 0;
+        Set<Long> failed = new HashSet<>();
+
+        while (true) {
+            List<Long> claimed;
+            try {
+                claimed = transactionTemplate.execute(status -> reapChunk(cutoffTime, chunkSize, failed));
+            } catch (ChunkFailedException e) {
+                log.warn("Bulk reap of {} orders failed, retrying individually: {}",
+                        e.getOrderIds().size(), e.getCause().getMessage());
+                for (Long orderId : e.getOrderIds()) {
+                    processed++;
+                    try {
+                        transactionTemplate.executeWithoutResult(
+                                status -> reapClaimed(orderRepository.claimAbandonedPendingOrderIds(
+                                        cutoffTime, List.of(orderId))));
+                        successful++;
+                    } catch (Exception single) {
+                        errors++;
+                        failed.add(orderId);
+                        log.error("Failed to cleanup abandoned order {}: {}", orderId, single.getMessage());
+                    }
+                }
+                continue;
+            }
+
+            if (claimed == null || claimed.isEmpty()) {
+                break;
+            }
+            processed += claimed.size();
+            successful += claimed.size();
+            if (claimed.size() < chunkSize) {
+                break;
             }
-        } catch (Exception e) {
-            log.error("Error unlocking stock batches for abandoned order {}: {}",
-                    order.getOrderId(), e.getMessage());
-            // Don't throw exception here - we still want to clean up the order
         }
+
+        return new CleanupResult(processed, successful, errors);
     }
 
-    private void refundPointsForAbandonedOrder(Order order) {
+    /**
+     * Claim and reap one chunk. Orders that already failed individually in
+     * this run are skipped so the loop always makes progress.
+     */
+    private List<Long> reapChunk(LocalDateTime cutoffTime, int chunkSize, Set<Long> failed) {
+        List<Long> orderIds = orderRepository.claimAbandonedPendingOrderIds(cutoffTime, chunkSize + failed.size());
+        orderIds = orderIds.stream().filter(id -> !failed.contains(id)).limit(chunkSize).toList();
+        if (orderIds.isEmpty()) {
+            return orderIds;
+        }
         try {
-            if (order.getOrderTransaction() == null) {
-                return; // No transaction, no points to refund
-            }
+            reapClaimed(orderIds);
+            return orderIds;
+        } catch (RuntimeException e) {
+            throw new ChunkFailedException(orderIds, e);
+        }
+    }
 
-            Integer pointsUsed = order.getOrderTransaction().getPointsUsed();
-            if (pointsUsed == null || pointsUsed <= 0) {
-                return; // No points were used, nothing to refund
-            }
+    private void reapClaimed(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        reapOrders(orderRepository.findAllWithTransactionByOrderIdIn(orderIds));
+    }
 
-            if (order.getUser() == null) {
-                log.warn("Cannot refund points for order {} - no user associated", order.getOrderId());
-                return;
-            }
+    /**
+     * Release batch locks, refund points and delete the given orders using
+     * one statement per step for the whole set.
+     */
+    private void reapOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<Long> orderIds = orders.stream().map(Order::getOrderId).toList();
 
-            // This was a hybrid payment that was abandoned/cancelled
-            String refundDescription = String.format("Points refunded for cancelled hybrid payment (Order #%s)",
-                    order.getOrderCode() != null ? order.getOrderCode() : order.getOrderId().toString());
+        Set<String> sessionIds = new HashSet<>();
+        for (Order order : orders) {
+            sessionIds.addAll(lockSessionIdsFor(order));
+        }
+        int restoredBatches = stockBatchLockRepository.releaseLocksForSessions(sessionIds);
+        userPointsBalanceRepository.addAbandonedOrderRefunds(orderIds, UserPointsBalance.NO_SHOP);
+        int refunds = userPointsRepository.insertAbandonedOrderRefunds(orderIds);
 
-            rewardService.refundPointsForCancelledOrder(
-                    order.getUser().getId(),
-                    pointsUsed,
-                    refundDescription);
+        orderRepository.deleteAll(orders);
+        orderRepository.flush();
 
-            log.info("Refunded {} points to user {} for abandoned hybrid payment order {}",
-                    pointsUsed, order.getUser().getId(), order.getOrderId());
+        log.info("Reaped {} abandoned orders ({} batches restored, {} points refunds)",
+                orders.size(), restoredBatches, refunds);
+    }
 
-        } catch (Exception e) {
-            log.error("Error refunding points for abandoned order {}: {}",
-                    order.getOrderId(), e.getMessage(), e);
-            // Don't throw exception here - we still want to clean up the order
+    /**
+     * Session ids a checkout may have used to lock stock for this order:
+     * the Stripe session once known, otherwise the temporary ids used before
+     * the Stripe session is created.
+     */
+    private List<String> lockSessionIdsFor(Order order) {
+        if (order.getOrderTransaction() != null && order.getOrderTransaction().getStripeSessionId() != null) {
+            return List.of(order.getOrderTransaction().getStripeSessionId());
         }
+        return List.of("temp_" + order.getOrderId(), "temp_guest_" + order.getOrderId());
     }
 
     /**
      * Get count of abandoned orders for monitoring
      */
     public long getAbandonedOrderCount() {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(30); // 30 minutes default
+        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(MANUAL_CUTOFF_MINUTES);
         return orderRepository.countAbandonedPendingOrders(cutoffTime);
     }
 
@@ -166,45 +209,18 @@ public class AbandonedOrderCleanupService {
      * Check if a specific order is considered abandoned
      */
     public boolean isOrderAbandoned(Long orderId) {
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(30); // 30 minutes default
+        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(MANUAL_CUTOFF_MINUTES);
         return orderRepository.isOrderAbandoned(orderId, cutoffTime);
     }
 
     /**
      * Manual cleanup method for admin use - cleans up all abandoned orders
      */
-    @Transactional
     public CleanupResult manualCleanupAllAbandonedOrders() {
         log.info("Starting manual cleanup of all abandoned orders");
 
-        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(30);
-
-        int totalProcessed = 0;
-        int totalSuccessful = 0;
-        int totalErrors = 0;
-
-        List<Order> abandonedOrders;
-
-        // Process in batches to avoid memory issues
-        do {
-            Pageable pageable = PageRequest.of(0, 50); // 50 batch size default
-            abandonedOrders = orderRepository.findAbandonedPendingOrders(cutoffTime, pageable);
-
-            for (Order order : abandonedOrders) {
-                totalProcessed++;
-                try {
-                    cleanupSingleAbandonedOrder(order);
-                    totalSuccessful++;
-                } catch (Exception e) {
-                    totalErrors++;
-                    log.error("Failed to cleanup order {} during manual cleanup: {}",
-                            order.getOrderId(), e.getMessage());
-                }
-            }
-
-        } while (!abandonedOrders.isEmpty());
-
-        CleanupResult result = new CleanupResult(totalProcessed, totalSuccessful, totalErrors);
+        LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(MANUAL_CUTOFF_MINUTES);
+        CleanupResult result = reapAbandonedOrders(cutoffTime);
         log.info("Manual cleanup completed: {}", result);
 
         return result;
@@ -228,6 +244,19 @@ public class AbandonedOrderCleanupService {
         }
     }
  
+    private static class ChunkFailedException extends RuntimeException {
+        private final List<Long> orderIds;
+
+        ChunkFailedException(List<Long> orderIds, Throwable cause) {
+            super(cause);
+            this.orderIds = orderIds;
+        }
+
+        List<Long> getOrderIds() {
+            return orderIds;
+        }
+    }
+
     public static class CleanupResult {
         private final int totalProcessed;
         private final int successful;
@@ -0,0 +1,253 @@
+package com.ecommerce.service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+
+import com.ecommerce.Enum.UserRole;
+import com.ecommerce.ServiceImpl.CustomUserDetails;
+import com.ecommerce.dto.AgentLocationDTO;
+import com.ecommerce.dto.AgentLocationUpdateDTO;
+import com.ecommerce.repository.ReadyForDeliveryGroupRepository;
+import com.ecommerce.repository.ShopOrderRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live positions of delivery agents.
+ *
+ * The latest position of each group is kept in memory and sent straight to the
+ * group's topic subscribers; the database only sees it when
+ * {@link #flush()} writes every position that changed since the previous flush
+ * in one batched upsert. An agent pushing every second therefore costs one row
+ * write per flush interval instead of one per update.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AgentLocationTracker {
+
+    public static final String TOPIC_PREFIX = "/topic/delivery-groups/";
+    public static final String TOPIC_SUFFIX = "/location";
+
+    private static final Duration ACCESS_CACHE_TTL = Duration.ofSeconds(60);
+    private static final Duration IDLE_EVICTION = Duration.ofMinutes(30);
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    // Only overwrite a stored position with a newer one, so a late flush from
+    // another node cannot move the agent back in time
+    private static final String UPSERT_SQL = "INSERT INTO delivery_agent_locations "
+            + "(delivery_group_id, latitude, longitude, area_name, last_updated) VALUES (?, ?, ?, ?, ?) "
+            + "ON CONFLICT (delivery_group_id) DO UPDATE SET latitude = EXCLUDED.latitude, "
+            + "longitude = EXCLUDED.longitude, "
+            + "area_name = COALESCE(EXCLUDED.area_name, delivery_agent_locations.area_name), "
+            + "last_updated = EXCLUDED.last_updated "
+            + "WHERE delivery_agent_locations.last_updated IS NULL "
+            + "OR delivery_agent_locations.last_updated < EXCLUDED.last_updated";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadyForDeliveryGroupRepository readyForDeliveryGroupRepository;
+    private final ShopOrderRepository shopOrderRepository;
+    private final ShopAuthorizationService shopAuthorizationService;
+
+    private final Map<Long, AgentLocationDTO> latest = new ConcurrentHashMap<>();
+    private final Map<Long, AgentLocationDTO> dirty = new ConcurrentHashMap<>();
+    private final Map<Long, CachedAccess> accessCache = new ConcurrentHashMap<>();
+
+    /**
+     * Record a position pushed by the agent of a group and fan it out to the
+     * group's subscribers.
+     *
+     * @throws AccessDeniedException when the user is not the group's active deliverer
+     */
+    public AgentLocationDTO record(UUID agentId, Long groupId, AgentLocationUpdateDTO update) {
+        GroupAccess access = getAccess(groupId);
+        if (access == null || access.finished() || !agentId.equals(access.delivererId())) {
+            throw new AccessDeniedException("You are not the active delivery agent of group " + groupId);
+        }
+
+        AgentLocationDTO location = AgentLocationDTO.builder()
+                .deliveryGroupId(groupId)
+                .latitude(update.getLatitude())
+                .longitude(update.getLongitude())
+                .areaName(update.getAreaName())
+                .lastUpdated(LocalDateTime.now())
+                .build();
+        latest.put(groupId, location);
+        dirty.put(groupId, location);
+
+        messagingTemplate.convertAndSend(topicFor(groupId), location);
+        return location;
+    }
+
+    /**
+     * Latest position of a group, from memory or else from the last flushed row
+     */
+    public Optional<AgentLocationDTO> getLatest(Long groupId) {
+        AgentLocationDTO location = latest.get(groupId);
+        if (location != null) {
+            return Optional.of(location);
+        }
+        List<AgentLocationDTO> stored = jdbcTemplate.query(
+                "SELECT latitude, longitude, area_name, last_updated FROM delivery_agent_locations "
+                        + "WHERE delivery_group_id = ?",
+                (rs, rowNum) -> AgentLocationDTO.builder()
+                        .deliveryGroupId(groupId)
+                        .latitude(rs.getDouble("latitude"))
+                        .longitude(rs.getDouble("longitude"))
+                        .areaName(rs.getString("area_name"))
+                        .lastUpdated(rs.getTimestamp("last_updated") != null
+                                ? rs.getTimestamp("last_updated").toLocalDateTime()
+                                : null)
+                        .build(),
+                groupId);
+        return stored.stream().findFirst();
+    }
+
+    /**
+     * Whether the user may follow the group's position: staff of the group's
+     * shop and admins, the group's deliverer, and customers with an order in
+     * the group.
+     */
+    public boolean canWatch(CustomUserDetails user, Long groupId) {
+        GroupAccess access = getAccess(groupId);
+        if (access == null) {
+            return false;
+        }
+        UUID userId = user.getUserId();
+        UserRole role = user.getRole();
+        if (role == null) {
+            return false;
+        }
+        switch (role) {
+            case ADMIN:
+                return true;
+            case DELIVERY_AGENT:
+                return userId.equals(access.delivererId());
+            case VENDOR:
+            case EMPLOYEE:
+                return access.shopId() != null && shopAuthorizationService.hasAccessToShop(userId, access.shopId());
+            case CUSTOMER:
+                return shopOrderRepository.existsByGroupIdAndCustomerId(groupId, userId);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Write every position changed since the last flush in one batched upsert,
+     * then drop positions nobody has updated for a while.
+     *
+     * @return the number of positions written
+     */
+    public int flush() {
+        List<AgentLocationDTO> batch = new ArrayList<>(dirty.size());
+        for (Long groupId : dirty.keySet()) {
+            AgentLocationDTO location = dirty.remove(groupId);
+            if (location != null) {
+                batch.add(location);
+            }
+        }
+
+        int written = 0;
+        if (!batch.isEmpty()) {
+            // Fixed lock order so concurrent flushes from several nodes cannot deadlock
+            batch.sort(Comparator.comparing(AgentLocationDTO::getDeliveryGroupId));
+            for (int from = 0; from < batch.size(); from += FLUSH_BATCH_SIZE) {
+                written += writeBatch(batch.subList(from, Math.min(from + FLUSH_BATCH_SIZE, batch.size())));
+            }
+            log.debug("Flushed {} agent locations", written);
+        }
+
+        evictIdle();
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush agent locations on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public static String topicFor(Long groupId) {
+        return TOPIC_PREFIX + groupId + TOPIC_SUFFIX;
+    }
+
+    private int writeBatch(List<AgentLocationDTO> batch) {
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch, batch.size(), (ps, location) -> {
+                ps.setLong(1, location.getDeliveryGroupId());
+                ps.setDouble(2, location.getLatitude());
+                ps.setDouble(3, location.getLongitude());
+                ps.setString(4, location.getAreaName());
+                ps.setTimestamp(5, Timestamp.valueOf(location.getLastUpdated()));
+            });
+            return batch.size();
+        } catch (DataAccessException e) {
+            // A group deleted since its last update fails the whole batch on the
+            // foreign key; retry row by row so the other positions still land
+            log.warn("Batched agent location flush failed, retrying row by row: {}", e.getMessage());
+            int written = 0;
+            for (AgentLocationDTO location : batch) {
+                try {
+                    jdbcTemplate.update(UPSERT_SQL, location.getDeliveryGroupId(), location.getLatitude(),
+                            location.getLongitude(), location.getAreaName(),
+                            Timestamp.valueOf(location.getLastUpdated()));
+                    written++;
+                } catch (DataAccessException rowError) {
+                    log.warn("Dropping location of delivery group {}: {}", location.getDeliveryGroupId(),
+                            rowError.getMessage());
+                    latest.remove(location.getDeliveryGroupId(), location);
+                }
+            }
+            return written;
+        }
+    }
+
+    private void evictIdle() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(IDLE_EVICTION);
+        latest.entrySet().removeIf(entry -> entry.getValue().getLastUpdated().isBefore(cutoff)
+                && !dirty.containsKey(entry.getKey()));
+        long now = System.currentTimeMillis();
+        accessCache.entrySet().removeIf(entry -> entry.getValue().expiresAt() < now);
+    }
+
+    private GroupAccess getAccess(Long groupId) {
+        long now = System.currentTimeMillis();
+        CachedAccess cached = accessCache.get(groupId);
+        if (cached != null && cached.expiresAt() >= now) {
+            return cached.access();
+        }
+        List<Object[]> rows = readyForDeliveryGroupRepository.findAccessInfoById(groupId);
+        GroupAccess access = rows.isEmpty() ? null
+                : new GroupAccess((UUID) rows.get(0)[0], (UUID) rows.get(0)[1],
+                        Boolean.TRUE.equals(rows.get(0)[2]));
+        accessCache.put(groupId, new CachedAccess(access, now + ACCESS_CACHE_TTL.toMillis()));
+        return access;
+    }
+
+    private record GroupAccess(UUID delivererId, UUID shopId, boolean finished) {
+    }
+
+    private record CachedAccess(GroupAccess access, long expiresAt) {
+    }
+}
@@ -288,19 +288,22 @@ public class AppealService {
     public AppealStatisticsDTO getAppealStatistics() {
         AppealStatisticsDTO stats = new AppealStatisticsDTO();
 
-        stats.setPendingCount(returnAppealRepository.countByStatus(ReturnAppeal.AppealStatus.PENDING));
-        stats.setApprovedCount(returnAppealRepository.countByStatus(ReturnAppeal.AppealStatus.APPROVED));
-        stats.setDeniedCount(returnAppealRepository.countByStatus(ReturnAppeal.AppealStatus.DENIED));
-
-        // Recent appeals (last 30 days)
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        List<ReturnAppeal> recentAppeals = returnAppealRepository.findRecentAppeals(thirtyDaysAgo);
-        stats.setRecentCount(recentAppeals.size());
-
-        // Appeals needing urgent attention (pending for more than 7 days)
-        List<ReturnAppeal> urgentAppeals = returnAppealRepository.findAppealsNeedingDecision(
-                LocalDateTime.now().minusDays(7));
-        stats.setUrgentCount(urgentAppeals.size());
+        // One grouped query: counts per status, recent (last 30 days) and
+        // urgent (pending for more than 7 days)
+        LocalDateTime now = LocalDateTime.now();
+        for (Object[] row : returnAppealRepository.countByStatusAndAge(now.minusDays(30), now.minusDays(7))) {
+            ReturnAppeal.AppealStatus status = ReturnAppeal.AppealStatus.valueOf((String) row[0]);
+            long total = ((Number) row[1]).longValue();
+            stats.setRecentCount(stats.getRecentCount() + ((Number) row[2]).longValue());
+            switch (status) {
+                case PENDING -> {
+                    stats.setPendingCount(total);
+                    stats.setUrgentCount(((Number) row[3]).longValue());
+                }
+                case APPROVED -> stats.setApprovedCount(total);
+                case DENIED -> stats.setDeniedCount(total);
+            }
+        }
 
         // Calculate approval rate
         long totalDecided = stats.getApprovedCount() + stats.getDeniedCount();
@@ -0,0 +1,464 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.StockBatch;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Priced cart lines read in a fixed number of queries.
+ *
+ * One query returns every line of a cart with its product, variant, primary
+ * image, discounts and available stock (the sum of ACTIVE batch quantities);
+ * a second one reads the attributes of the variants among them. Effective
+ * prices are worked out here with the same rules as the cart entities, so
+ * views cost two queries whatever the number of items.
+ *
+ * Carts are kept per user as snapshots. Cart writes call
+ * {@link #cartChanged(UUID)} and price, discount, image and stock writes call
+ * {@link #productChanged(UUID)}, which drops the snapshots holding that
+ * product once the writing transaction commits. Snapshots also expire when a
+ * discount they depend on starts or ends, and after a TTL for the stock
+ * writers that do not report their changes.
+ */
+@Service
+public class CartReadModel {
+
+    private static final String LINE_COLUMNS = "p.product_id, p.product_name, det.description, "
+            + "p.sku AS product_sku, p.price AS product_price, pv.id AS variant_id, pv.variant_sku, "
+            + "pv.price AS variant_price, "
+            + "vd.name AS vd_name, vd.percentage AS vd_percentage, vd.is_active AS vd_active, "
+            + "vd.start_date AS vd_start, vd.end_date AS vd_end, "
+            + "pd.name AS pd_name, pd.percentage AS pd_percentage, pd.is_active AS pd_active, "
+            + "pd.start_date AS pd_start, pd.end_date AS pd_end, "
+            + "(SELECT i.image_url FROM product_variant_images i WHERE i.product_variant_id = pv.id "
+            + "ORDER BY i.is_primary DESC, i.id LIMIT 1) AS variant_image, "
+            + "(SELECT i.image_url FROM product_images i WHERE i.product_id = p.product_id "
+            + "ORDER BY i.is_primary DESC, i.id LIMIT 1) AS product_image, "
+            + "CASE WHEN pv.id IS NOT NULL THEN "
+            + "(SELECT COALESCE(SUM(b.quantity), 0) FROM stocks s JOIN stock_batches b ON b.stock_id = s.id "
+            + "WHERE s.variant_id = pv.id AND b.status = 'ACTIVE') "
+            + "ELSE (SELECT COALESCE(SUM(b.quantity), 0) FROM stocks s JOIN stock_batches b ON b.stock_id = s.id "
+            + "WHERE b.status = 'ACTIVE' AND (s.variant_id IN "
+            + "(SELECT v.id FROM product_variants v WHERE v.product_id = p.product_id) "
+            + "OR (s.product_id = p.product_id AND NOT EXISTS "
+            + "(SELECT 1 FROM product_variants v WHERE v.product_id = p.product_id)))) END AS available_stock, "
+            + "(SELECT COALESCE(AVG(r.rating), 0) FROM reviews r WHERE r.product_id = p.product_id) AS average_rating, "
+            + "(SELECT COUNT(*) FROM reviews r WHERE r.product_id = p.product_id) AS review_count";
+
+    // Joined to a relation l with variant_id and product_id columns
+    private static final String LINE_JOINS = "LEFT JOIN product_variants pv ON pv.id = l.variant_id "
+            + "LEFT JOIN products p ON p.product_id = COALESCE(l.product_id, pv.product_id) "
+            + "LEFT JOIN product_details det ON det.product_id = p.product_id "
+            + "LEFT JOIN discounts vd ON vd.discount_id = pv.discount_id "
+            + "LEFT JOIN discounts pd ON pd.discount_id = p.discount_id ";
+
+    static final String CART_SQL = "SELECT c.id AS cart_id, c.created_at AS cart_created_at, "
+            + "c.updated_at AS cart_updated_at, l.id AS item_id, l.quantity, l.added_at, " + LINE_COLUMNS
+            + " FROM carts c LEFT JOIN cart_items l ON l.cart_id = c.id " + LINE_JOINS
+            + "WHERE c.user_id = ? ORDER BY l.added_at, l.id";
+
+    static final String LINES_SQL = "SELECT " + LINE_COLUMNS + " FROM ("
+            + "SELECT v.id AS variant_id, NULL::uuid AS product_id FROM unnest(?::bigint[]) AS v(id) "
+            + "UNION ALL SELECT NULL::bigint, u.id FROM unnest(?::uuid[]) AS u(id)) l " + LINE_JOINS
+            + "WHERE p.product_id IS NOT NULL";
+
+    static final String ATTRIBUTES_SQL = "SELECT vav.variant_id, t.name, v.value FROM variant_attribute_values vav "
+            + "JOIN product_attribute_values v ON v.attribute_value_id = vav.attribute_value_id "
+            + "JOIN product_attribute_types t ON t.attribute_type_id = v.attribute_type_id "
+            + "WHERE vav.variant_id = ANY(?) ORDER BY vav.variant_id, t.attribute_type_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<UUID>> usersByProduct = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public CartReadModel(JdbcTemplate jdbcTemplate,
+            @Value("${app.cart.snapshot-ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.cart.snapshot-max-entries:10000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, 0));
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * The user's cart with every line priced, from the snapshot when there is
+     * a current one
+     *
+     * @return null if the user has no cart
+     */
+    public CartView getCart(UUID userId) {
+        Snapshot snapshot = snapshots.get(userId);
+        if (snapshot != null && System.nanoTime() - snapshot.expiresAtNanos < 0) {
+            return snapshot.cart;
+        }
+
+        long loadedGeneration = generation.get();
+        LocalDateTime now = LocalDateTime.now();
+        CartView cart = loadCart(userId, now);
+        if (cart == null || ttlNanos == 0) {
+            return cart;
+        }
+
+        long expiresAtNanos = System.nanoTime() + ttlNanos;
+        LocalDateTime priceChangesAt = cart.lines().stream()
+                .map(CartLine::priceChangesAt)
+                .filter(Objects::nonNull)
+                .min(LocalDateTime::compareTo)
+                .orElse(null);
+        if (priceChangesAt != null && priceChangesAt.isBefore(now.plusNanos(ttlNanos))) {
+            expiresAtNanos = System.nanoTime() + Math.max(Duration.between(now, priceChangesAt).toNanos(), 0);
+        }
+
+        // A cart read while one of its products was being written may be stale
+        if (generation.get() == loadedGeneration) {
+            if (snapshots.size() >= maxEntries) {
+                snapshots.clear();
+                usersByProduct.clear();
+            }
+            Snapshot previous = snapshots.remove(userId);
+            if (previous != null) {
+                unindex(userId, previous.cart);
+            }
+            // Added inside compute, so it cannot land in a set unindex is dropping
+            for (CartLine line : cart.lines()) {
+                usersByProduct.compute(line.productId(), (productId, users) -> {
+                    Set<UUID> indexed = users != null ? users : ConcurrentHashMap.newKeySet();
+                    indexed.add(userId);
+                    return indexed;
+                });
+            }
+            snapshots.put(userId, new Snapshot(cart, expiresAtNanos));
+        }
+        return cart;
+    }
+
+    /**
+     * Price the given products and variants, e.g. for a guest cart kept in the
+     * browser. Products and variants that do not exist are left out.
+     */
+    public List<CartLine> getLines(Collection<UUID> productIds, Collection<Long> variantIds) {
+        if (productIds.isEmpty() && variantIds.isEmpty()) {
+            return List.of();
+        }
+        Long[] variants = new HashSet<>(variantIds).toArray(new Long[0]);
+        UUID[] products = new HashSet<>(productIds).toArray(new UUID[0]);
+        LocalDateTime now = LocalDateTime.now();
+        List<LineRow> rows = jdbcTemplate.query(LINES_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("bigint", variants));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", products));
+        }, (rs, i) -> LineRow.read(rs, null, 0, null));
+        return build(rows, now);
+    }
+
+    /**
+     * Drop the user's snapshot once the current transaction commits (and now,
+     * so the transaction's own reads miss)
+     */
+    public void cartChanged(UUID userId) {
+        if (userId == null) {
+            return;
+        }
+        evictUser(userId);
+        runAfterCommit(() -> evictUser(userId));
+    }
+
+    /**
+     * Drop the snapshots of every cart holding the product or one of its
+     * variants once the current transaction commits
+     */
+    public void productChanged(UUID productId) {
+        if (productId == null) {
+            return;
+        }
+        evictProduct(productId);
+        runAfterCommit(() -> evictProduct(productId));
+    }
+
+    /**
+     * Drop the snapshots of every cart holding the stock of these batches
+     */
+    public void stockChanged(Collection<StockBatch> batches) {
+        Set<UUID> productIds = new HashSet<>();
+        for (StockBatch batch : batches) {
+            Product product = batch.getStock() != null ? batch.getStock().getEffectiveProduct() : null;
+            if (product != null) {
+                productIds.add(product.getProductId());
+            }
+        }
+        productIds.forEach(this::productChanged);
+    }
+
+    /**
+     * Drop every snapshot, for changes such as a discount edit that reach
+     * too many products to list
+     */
+    public void invalidateAll() {
+        evictAll();
+        runAfterCommit(this::evictAll);
+    }
+
+    /**
+     * Number of products with carts indexed under them
+     */
+    int getIndexedProducts() {
+        return usersByProduct.size();
+    }
+
+    private CartView loadCart(UUID userId, LocalDateTime now) {
+        CartView[] header = new CartView[1];
+        List<LineRow> rows = new ArrayList<>();
+        jdbcTemplate.query(CART_SQL, rs -> {
+            if (header[0] == null) {
+                header[0] = new CartView(rs.getLong("cart_id"), toLocalDateTime(rs.getTimestamp("cart_created_at")),
+                        toLocalDateTime(rs.getTimestamp("cart_updated_at")), List.of());
+            }
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull() && rs.getObject("product_id") != null) {
+                rows.add(LineRow.read(rs, itemId, rs.getInt("quantity"),
+                        toLocalDateTime(rs.getTimestamp("added_at"))));
+            }
+        }, userId);
+        if (header[0] == null) {
+            return null;
+        }
+        return new CartView(header[0].cartId(), header[0].createdAt(), header[0].updatedAt(), build(rows, now));
+    }
+
+    /**
+     * Price the rows and attach their variant attributes, read in one query
+     */
+    private List<CartLine> build(List<LineRow> rows, LocalDateTime now) {
+        Map<Long, List<VariantAttribute>> attributes = new LinkedHashMap<>();
+        Long[] variantIds = rows.stream()
+                .map(LineRow::variantId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Long[]::new);
+        if (variantIds.length > 0) {
+            jdbcTemplate.query(ATTRIBUTES_SQL, ps -> ps.setArray(1,
+                    ps.getConnection().createArrayOf("bigint", variantIds)), rs -> {
+                attributes.computeIfAbsent(rs.getLong("variant_id"), id -> new ArrayList<>())
+                        .add(new VariantAttribute(rs.getString("name"), rs.getString("value")));
+            });
+        }
+
+        List<CartLine> lines = new ArrayList<>(rows.size());
+        for (LineRow row : rows) {
+            List<VariantAttribute> variantAttributes = row.variantId() != null
+                    ? attributes.getOrDefault(row.variantId(), List.of())
+                    : List.of();
+            lines.add(row.build(variantAttributes, now));
+        }
+        return lines;
+    }
+
+    private void evictUser(UUID userId) {
+        generation.incrementAndGet();
+        Snapshot snapshot = snapshots.remove(userId);
+        if (snapshot != null) {
+            unindex(userId, snapshot.cart);
+        }
+    }
+
+    private void evictProduct(UUID productId) {
+        generation.incrementAndGet();
+        Set<UUID> users = usersByProduct.remove(productId);
+        if (users != null) {
+            for (UUID userId : users) {
+                evictUser(userId);
+            }
+        }
+    }
+
+    /**
+     * Take the user out of the index entries of the cart's products, and
+     * drop the entries left empty, so the index only holds live snapshots
+     */
+    private void unindex(UUID userId, CartView cart) {
+        for (CartLine line : cart.lines()) {
+            usersByProduct.computeIfPresent(line.productId(), (productId, users) -> {
+                users.remove(userId);
+                return users.isEmpty() ? null : users;
+            });
+        }
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        snapshots.clear();
+        usersByProduct.clear();
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * A discount as it applies to a line, or null when the line has none
+     */
+    record AppliedDiscount(String name, BigDecimal percentage, boolean active, LocalDateTime startDate,
+            LocalDateTime endDate) {
+
+        static AppliedDiscount read(ResultSet rs, String prefix) throws SQLException {
+            String name = rs.getString(prefix + "_name");
+            if (name == null) {
+                return null;
+            }
+            return new AppliedDiscount(name, rs.getBigDecimal(prefix + "_percentage"),
+                    rs.getBoolean(prefix + "_active"), toLocalDateTime(rs.getTimestamp(prefix + "_start")),
+                    toLocalDateTime(rs.getTimestamp(prefix + "_end")));
+        }
+
+        /**
+         * Same window as the cart entities: both ends inclusive, open when unset
+         */
+        boolean isActiveAt(LocalDateTime now) {
+            return active
+                    && (startDate == null || !now.isBefore(startDate))
+                    && (endDate == null || !now.isAfter(endDate));
+        }
+
+        /**
+         * When this discount next starts or stops applying, or null if never
+         */
+        LocalDateTime nextChangeAfter(LocalDateTime now) {
+            if (!active) {
+                return null;
+            }
+            if (startDate != null && now.isBefore(startDate)) {
+                return startDate;
+            }
+            if (endDate != null && !now.isAfter(endDate)) {
+                return endDate.plusNanos(1000);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One row of the line query, before pricing
+     */
+    record LineRow(Long itemId, int quantity, LocalDateTime addedAt, UUID productId, String productName,
+            String description, String productSku, BigDecimal productPrice, Long variantId, String variantSku,
+            BigDecimal variantPrice, AppliedDiscount variantDiscount, AppliedDiscount productDiscount,
+            String variantImage, String productImage, int availableStock, double averageRating, int reviewCount) {
+
+        static LineRow read(ResultSet rs, Long itemId, int quantity, LocalDateTime addedAt) throws SQLException {
+            long variantId = rs.getLong("variant_id");
+            Long variant = rs.wasNull() ? null : variantId;
+            return new LineRow(itemId, quantity, addedAt, rs.getObject("product_id", UUID.class),
+                    rs.getString("product_name"), rs.getString("description"), rs.getString("product_sku"),
+                    rs.getBigDecimal("product_price"), variant, rs.getString("variant_sku"),
+                    rs.getBigDecimal("variant_price"),
+                    variant != null ? AppliedDiscount.read(rs, "vd") : null, AppliedDiscount.read(rs, "pd"),
+                    rs.getString("variant_image"), rs.getString("product_image"), rs.getInt("available_stock"),
+                    rs.getDouble("average_rating"), rs.getInt("review_count"));
+        }
+
+        CartLine build(List<VariantAttribute> attributes, LocalDateTime now) {
+            BigDecimal originalPrice = variantId != null ? variantPrice : productPrice;
+
+            // The variant's own discount wins over the product's
+            AppliedDiscount applied = null;
+            if (variantDiscount != null && variantDiscount.isActiveAt(now)) {
+                applied = variantDiscount;
+            } else if (productDiscount != null && productDiscount.isActiveAt(now)) {
+                applied = productDiscount;
+            }
+            BigDecimal effectivePrice = originalPrice;
+            BigDecimal discountPercentage = BigDecimal.ZERO;
+            if (applied != null && originalPrice != null && applied.percentage() != null) {
+                discountPercentage = applied.percentage();
+                effectivePrice = originalPrice.multiply(
+                        BigDecimal.ONE.subtract(discountPercentage.divide(BigDecimal.valueOf(100))));
+            }
+
+            LocalDateTime priceChangesAt = null;
+            for (AppliedDiscount discount : new AppliedDiscount[] { variantDiscount, productDiscount }) {
+                LocalDateTime change = discount != null ? discount.nextChangeAfter(now) : null;
+                if (change != null && (priceChangesAt == null || change.isBefore(priceChangesAt))) {
+                    priceChangesAt = change;
+                }
+            }
+
+            String variantName = attributes.stream()
+                    .map(VariantAttribute::value)
+                    .reduce((a, b) -> a + " - " + b)
+                    .orElse("");
+            return new CartLine(itemId, quantity, addedAt, productId, productName, description, productSku,
+                    variantId, variantSku, variantName, attributes, variantImage, productImage,
+                    originalPrice != null ? originalPrice : BigDecimal.ZERO,
+                    effectivePrice != null ? effectivePrice : BigDecimal.ZERO, discountPercentage,
+                    applied != null ? applied.name() : null, availableStock, averageRating, reviewCount,
+                    priceChangesAt);
+        }
+    }
+
+    /**
+     * A cart and its priced lines, oldest first
+     */
+    public record CartView(Long cartId, LocalDateTime createdAt, LocalDateTime updatedAt, List<CartLine> lines) {
+    }
+
+    /**
+     * A product or variant in a cart, priced at the time it was read.
+     * itemId, quantity and addedAt are only set for lines of a stored cart.
+     */
+    public record CartLine(Long itemId, int quantity, LocalDateTime addedAt, UUID productId, String productName,
+            String description, String productSku, Long variantId, String variantSku, String variantName,
+            List<VariantAttribute> attributes, String variantImage, String productImage, BigDecimal originalPrice,
+            BigDecimal effectivePrice, BigDecimal discountPercentage, String discountName, int availableStock,
+            double averageRating, int reviewCount, LocalDateTime priceChangesAt) {
+
+        public boolean isVariantBased() {
+            return variantId != null;
+        }
+
+        public boolean hasDiscount() {
+            return discountPercentage.compareTo(BigDecimal.ZERO) > 0;
+        }
+    }
+
+    public record VariantAttribute(String typeName, String value) {
+    }
+
+    private record Snapshot(CartView cart, long expiresAtNanos) {
+    }
+}
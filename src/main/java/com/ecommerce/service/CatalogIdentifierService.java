@@ -0,0 +1,235 @@
+package com.ecommerce.service;
+
+import com.ecommerce.enums.CatalogIdentifierKind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hands out product slugs and SKUs that nobody else holds.
+ *
+ * Values are claimed in catalog_identifiers, whose unique index on
+ * (kind, value) settles races: a claim is an INSERT ... ON CONFLICT DO
+ * NOTHING, and a writer that loses just moves on to the next candidate
+ * instead of failing on the products table's constraint at flush time.
+ * Claims are made in the caller's transaction, so they are released if it
+ * rolls back. Generated values take the first free numeric suffix
+ * (shirt, shirt-2, shirt-3, ...), found with one LIKE 'base%' query per set
+ * of bases rather than one existence check per candidate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogIdentifierService {
+
+    static final String RESERVE_SQL = "INSERT INTO catalog_identifiers (kind, value, created_at) "
+            + "SELECT ?, v.value, now() FROM unnest(?::text[]) AS v(value) "
+            + "ON CONFLICT DO NOTHING RETURNING value";
+    static final String EXISTING_WITH_PREFIX_SQL = "SELECT value FROM catalog_identifiers "
+            + "WHERE kind = ? AND value LIKE ANY(?)";
+    static final String RELEASE_SQL = "DELETE FROM catalog_identifiers WHERE kind = ? AND value = ANY(?)";
+
+    // Leaves room for a suffix within the 255 characters of the columns
+    private static final int MAX_BASE_LENGTH = 240;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claim a value given by a user
+     *
+     * @return false if it is already taken
+     */
+    public boolean reserve(CatalogIdentifierKind kind, String value) {
+        return reserve(kind, List.of(value)).isEmpty();
+    }
+
+    /**
+     * Claim many values in one statement
+     *
+     * @return the values that were already taken; all others are now held
+     */
+    public Set<String> reserve(CatalogIdentifierKind kind, Collection<String> values) {
+        if (values.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> taken = new LinkedHashSet<>(values);
+        String[] array = taken.toArray(new String[0]);
+        List<String> reserved = jdbcTemplate.query(RESERVE_SQL, ps -> {
+            ps.setString(1, kind.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("text", array));
+        }, (rs, i) -> rs.getString(1));
+        reserved.forEach(taken::remove);
+        return taken;
+    }
+
+    /**
+     * Give values back, e.g. when a product is deleted or its SKU changes
+     */
+    public void release(CatalogIdentifierKind kind, Collection<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        String[] array = values.toArray(new String[0]);
+        jdbcTemplate.update(RELEASE_SQL, ps -> {
+            ps.setString(1, kind.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("text", array));
+        });
+    }
+
+    public void release(CatalogIdentifierKind kind, String value) {
+        if (value != null) {
+            release(kind, List.of(value));
+        }
+    }
+
+    /**
+     * Claim a free product slug made from the given name or requested slug
+     */
+    public String reserveSlug(String text) {
+        return reserveSlugs(List.of(text)).get(0);
+    }
+
+    /**
+     * Claim a free product slug for each of the given names or requested
+     * slugs, in order. Products whose names make the same slug get
+     * consecutive suffixes.
+     */
+    public List<String> reserveSlugs(List<String> texts) {
+        List<String> bases = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            String slug = text != null ? slugify(text) : "";
+            bases.add(truncate(slug.isEmpty() ? "product" : slug));
+        }
+        return generate(CatalogIdentifierKind.PRODUCT_SLUG, bases);
+    }
+
+    /**
+     * Claim a placeholder SKU for a product created before its real SKU is
+     * known, e.g. TEMP-SHIRT or TEMP-SHIRT-2
+     */
+    public String reserveTemporarySku(String name) {
+        String letters = name != null ? name.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "") : "";
+        String base = "TEMP-" + (letters.isEmpty() ? "PRODUCT" : letters.substring(0, Math.min(letters.length(), 8)));
+        return generate(CatalogIdentifierKind.PRODUCT_SKU, List.of(base)).get(0);
+    }
+
+    public static String slugify(String text) {
+        return text.toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", "-")
+                .replaceAll("[^a-z0-9-]", "")
+                .replaceAll("-+", "-")
+                .replaceAll("^-|-$", "");
+    }
+
+    /**
+     * Whether the slug was made from the given name, with or without a
+     * numeric suffix, so renaming to the same name keeps it
+     */
+    public static boolean isSlugFor(String slug, String name) {
+        if (slug == null || name == null) {
+            return false;
+        }
+        String base = truncate(slugify(name));
+        if (slug.equals(base)) {
+            return true;
+        }
+        String suffix = slug.startsWith(base + "-") ? slug.substring(base.length() + 1) : "";
+        return !suffix.isEmpty() && suffix.chars().allMatch(Character::isDigit);
+    }
+
+    /**
+     * Claim base, or base-N with the lowest N above those in use, for each
+     * base. Candidates lost to a concurrent writer are worked out again.
+     */
+    private List<String> generate(CatalogIdentifierKind kind, List<String> bases) {
+        String[] result = new String[bases.size()];
+        List<Integer> pending = new ArrayList<>(bases.size());
+        for (int i = 0; i < bases.size(); i++) {
+            pending.add(i);
+        }
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            Set<String> taken = existingWithPrefix(kind, pending.stream().map(bases::get).toList());
+            Map<String, Integer> suffixes = new HashMap<>();
+            Map<String, Integer> candidates = new LinkedHashMap<>();
+            for (Integer index : pending) {
+                String base = bases.get(index);
+                String value = base;
+                if (taken.contains(base)) {
+                    int suffix = suffixes.computeIfAbsent(base, b -> highestSuffix(b, taken)) + 1;
+                    suffixes.put(base, suffix);
+                    value = base + "-" + suffix;
+                }
+                taken.add(value);
+                candidates.put(value, index);
+            }
+
+            Set<String> lost = reserve(kind, candidates.keySet());
+            pending = new ArrayList<>(lost.size());
+            for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+                if (lost.contains(candidate.getKey())) {
+                    pending.add(candidate.getValue());
+                } else {
+                    result[candidate.getValue()] = candidate.getKey();
+                }
+            }
+            if (!pending.isEmpty()) {
+                log.debug("{} of {} {} candidates were claimed concurrently, retrying", pending.size(),
+                        candidates.size(), kind);
+            }
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Could not reserve a unique " + kind + " for " + bases.get(pending.get(0)));
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Every held value starting with one of the bases, in one query
+     */
+    private Set<String> existingWithPrefix(CatalogIdentifierKind kind, Collection<String> bases) {
+        String[] patterns = new LinkedHashSet<>(bases).stream()
+                .map(base -> base.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%")
+                .toArray(String[]::new);
+        return new HashSet<>(jdbcTemplate.query(EXISTING_WITH_PREFIX_SQL, ps -> {
+            ps.setString(1, kind.name());
+            ps.setArray(2, ps.getConnection().createArrayOf("text", patterns));
+        }, (rs, i) -> rs.getString(1)));
+    }
+
+    /**
+     * @return the highest N of the base-N values among those taken, or 1
+     *         when only the base itself is taken
+     */
+    static int highestSuffix(String base, Collection<String> taken) {
+        String prefix = base + "-";
+        int highest = 1;
+        for (String value : taken) {
+            if (value.length() > prefix.length() && value.length() <= prefix.length() + 9
+                    && value.startsWith(prefix)) {
+                String suffix = value.substring(prefix.length());
+                if (suffix.chars().allMatch(Character::isDigit)) {
+                    highest = Math.max(highest, Integer.parseInt(suffix));
+                }
+            }
+        }
+        return highest;
+    }
+
+    private static String truncate(String base) {
+        return base.length() > MAX_BASE_LENGTH ? base.substring(0, MAX_BASE_LENGTH) : base;
+    }
+}
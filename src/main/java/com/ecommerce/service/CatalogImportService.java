@@ -0,0 +1,268 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.ProductImportError;
+import com.ecommerce.entity.ProductImportJob;
+import com.ecommerce.enums.ImportFormat;
+import com.ecommerce.enums.ImportJobStatus;
+import com.ecommerce.enums.ReferenceDataRegion;
+import com.ecommerce.repository.ProductImportErrorRepository;
+import com.ecommerce.repository.ProductImportJobRepository;
+import com.ecommerce.util.CatalogFileReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs bulk catalog imports of CSV or NDJSON files in the background.
+ *
+ * The file is stored under the work directory and read in chunks of whole
+ * products. Each chunk is written by CatalogImportWriter in its own
+ * transaction together with the job's progress, so a job that fails or whose
+ * node goes away resumes after its last committed chunk. Search suggestions
+ * are rebuilt once when a job completes rather than per product.
+ */
+@Service
+@Slf4j
+public class CatalogImportService {
+
+    private final ProductImportJobRepository jobRepository;
+    private final ProductImportErrorRepository errorRepository;
+    private final CatalogImportWriter writer;
+    private final SearchSuggestionService searchSuggestionService;
+    private final ReferenceDataCache referenceDataCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final Path workDir;
+    private final int chunkSize;
+    private final Duration staleAfter;
+
+    // Jobs running on this node
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+
+    public CatalogImportService(ProductImportJobRepository jobRepository,
+            ProductImportErrorRepository errorRepository,
+            CatalogImportWriter writer,
+            SearchSuggestionService searchSuggestionService,
+            ReferenceDataCache referenceDataCache,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("catalogImportExecutor") Executor executor,
+            @Value("${app.catalog-import.work-dir:${java.io.tmpdir}/catalog-imports}") String workDir,
+            @Value("${app.catalog-import.chunk-size:500}") int chunkSize,
+            @Value("${app.catalog-import.stale-after-minutes:10}") long staleAfterMinutes) {
+        this.jobRepository = jobRepository;
+        this.errorRepository = errorRepository;
+        this.writer = writer;
+        this.searchSuggestionService = searchSuggestionService;
+        this.referenceDataCache = referenceDataCache;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.workDir = Paths.get(workDir);
+        this.chunkSize = chunkSize;
+        this.staleAfter = Duration.ofMinutes(staleAfterMinutes);
+    }
+
+    /**
+     * Store the file and queue a job for it
+     *
+     * @param format CSV or NDJSON; taken from the file extension when null
+     */
+    public ProductImportJob submit(UUID shopId, MultipartFile file, ImportFormat format, boolean publish,
+            String requestedBy) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("The import file is empty");
+        }
+        ImportFormat fileFormat = format != null ? format : formatOf(file.getOriginalFilename());
+
+        ProductImportJob job = new ProductImportJob();
+        job.setShopId(shopId);
+        job.setRequestedBy(requestedBy);
+        job.setFileName(file.getOriginalFilename());
+        job.setFormat(fileFormat);
+        job.setPublish(publish);
+        job = jobRepository.save(job);
+
+        Files.createDirectories(workDir);
+        Path stored = workDir.resolve("job-" + job.getId() + "." + fileFormat.getExtension());
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, stored, StandardCopyOption.REPLACE_EXISTING);
+        }
+        job.setStoragePath(stored.toString());
+        job = jobRepository.save(job);
+
+        if (!start(job.getId())) {
+            log.warn("Import job {} left queued, too many imports waiting", job.getId());
+        }
+        log.info("Queued catalog import job {} of {} for shop {}", job.getId(), job.getFileName(), shopId);
+        return job;
+    }
+
+    /**
+     * Run a failed job again, or one left running by a node that went away,
+     * from its last committed chunk
+     */
+    public ProductImportJob resume(Long jobId) {
+        ProductImportJob job = getJob(jobId);
+        if (job.getStatus() == ImportJobStatus.COMPLETED) {
+            throw new IllegalStateException("Import job " + jobId + " has already completed");
+        }
+        if (running.contains(jobId)) {
+            throw new IllegalStateException("Import job " + jobId + " is already running");
+        }
+        if (!start(jobId)) {
+            throw new IllegalStateException("Too many imports are waiting, resume the job later");
+        }
+        return job;
+    }
+
+    public ProductImportJob getJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new jakarta.persistence.EntityNotFoundException(
+                        "Import job not found with id: " + jobId));
+    }
+
+    public Page<ProductImportJob> getJobs(UUID shopId, Pageable pageable) {
+        return jobRepository.findByShopIdOrderByCreatedAtDesc(shopId, pageable);
+    }
+
+    public Page<ProductImportError> getErrors(Long jobId, Pageable pageable) {
+        return errorRepository.findByJobIdOrderByRowNumberAsc(jobId, pageable);
+    }
+
+    /**
+     * @return false if the executor's queue is full; the job stays as it is
+     *         and can be resumed once the backlog clears
+     */
+    private boolean start(Long jobId) {
+        try {
+            executor.execute(() -> run(jobId));
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+
+    void run(Long jobId) {
+        if (!running.add(jobId)) {
+            return;
+        }
+        try {
+            Integer claimed = transactionTemplate.execute(status ->
+                    jobRepository.claim(jobId, LocalDateTime.now().minus(staleAfter)));
+            if (claimed == null || claimed == 0) {
+                log.info("Import job {} is completed or running elsewhere, not starting it", jobId);
+                return;
+            }
+            ProductImportJob job = getJob(jobId);
+            long started = System.currentTimeMillis();
+
+            CatalogImportWriter.ImportContext context = writer.loadContext(jobId, job.getShopId(), job.isPublish());
+            long products = importFile(job, context);
+
+            transactionTemplate.executeWithoutResult(status ->
+                    jobRepository.finish(jobId, ImportJobStatus.COMPLETED.name(), null));
+            deleteQuietly(job.getStoragePath());
+            if (products > 0) {
+                searchSuggestionService.rebuildAll();
+            }
+            if (context.isAttributesCreated()) {
+                referenceDataCache.invalidate(ReferenceDataRegion.PRODUCT_ATTRIBUTES);
+            }
+            log.info("Import job {} completed: {} products in {} ms", jobId, products,
+                    System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            log.error("Import job {} failed: {}", jobId, e.getMessage(), e);
+            String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            try {
+                transactionTemplate.executeWithoutResult(status -> jobRepository.finish(jobId,
+                        ImportJobStatus.FAILED.name(), message.length() > 1000 ? message.substring(0, 1000) : message));
+            } catch (Exception ignored) {
+                // Left running; it can be resumed once it is stale
+            }
+        } finally {
+            running.remove(jobId);
+        }
+    }
+
+    /**
+     * Read the job's file from where the last run stopped and write it chunk
+     * by chunk
+     *
+     * @return the number of products imported by this run
+     */
+    private long importFile(ProductImportJob job, CatalogImportWriter.ImportContext context) throws IOException {
+        long imported = 0;
+        try (CatalogFileReader reader = new CatalogFileReader(Files.newInputStream(Paths.get(job.getStoragePath())),
+                job.getFormat())) {
+            reader.skip(job.getRowsProcessed());
+
+            CatalogFileReader.Record next = reader.next();
+            while (next != null) {
+                // Whole products only, so a product never spans two chunks
+                List<CatalogImportWriter.ProductRows> chunk = new ArrayList<>(chunkSize);
+                while (next != null && chunk.size() < chunkSize) {
+                    List<CatalogFileReader.Record> records = new ArrayList<>();
+                    String sku = next.get("product_sku");
+                    do {
+                        records.add(next);
+                        next = reader.next();
+                    } while (next != null && sku != null && sku.equals(next.get("product_sku")));
+                    chunk.add(new CatalogImportWriter.ProductRows(records));
+                }
+
+                List<CatalogFileReader.Record> last = chunk.get(chunk.size() - 1).records();
+                long rowsProcessed = last.get(last.size() - 1).number();
+                CatalogImportWriter.ChunkResult result = transactionTemplate.execute(status -> {
+                    CatalogImportWriter.ChunkResult written = writer.writeChunk(context, chunk);
+                    jobRepository.recordChunk(job.getId(), rowsProcessed, written.rowsFailed(),
+                            written.products(), written.variants());
+                    return written;
+                });
+                imported += result.products();
+            }
+        }
+        return imported;
+    }
+
+    private static ImportFormat formatOf(String fileName) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv")) {
+            return ImportFormat.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            return ImportFormat.NDJSON;
+        }
+        throw new IllegalArgumentException("Cannot tell the format of " + fileName + ", pass format=CSV or NDJSON");
+    }
+
+    private static void deleteQuietly(String path) {
+        try {
+            if (path != null) {
+                Files.deleteIfExists(Paths.get(path));
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,692 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.Brand;
+import com.ecommerce.entity.Category;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.ProductDetail;
+import com.ecommerce.enums.CatalogIdentifierKind;
+import com.ecommerce.util.CatalogFileReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes chunks of a catalog import. The SKUs and slugs of a chunk are
+ * claimed as sets through CatalogIdentifierService - one statement per kind
+ * instead of one check per row - and rows are inserted with one JDBC batch
+ * per table, so the number of statements per chunk does not depend on its
+ * size. Ids of variants and stocks are drawn from their
+ * sequences up front, so child rows can reference them without reading
+ * generated keys back.
+ *
+ * Must be called inside a transaction; a chunk is all or nothing apart from
+ * the rows it rejects, which are recorded as import errors.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogImportWriter {
+
+    static final String INSERT_PRODUCT_SQL = "INSERT INTO products (product_id, product_name, sku, "
+            + "short_description, price, compare_at_price, cost_price, category_id, brand_id, shop_id, model, slug, "
+            + "is_active, is_featured, is_bestseller, is_new_arrival, is_on_sale, status, completion_percentage, "
+            + "display_to_customers, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, false, false, false, ?, ?, ?, ?, ?)";
+    static final String INSERT_DETAIL_SQL = "INSERT INTO product_details (product_id, description, meta_keywords, "
+            + "search_keywords, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    static final String INSERT_KEYWORD_SQL = "INSERT INTO product_keywords (product_id, keyword) VALUES (?, ?) "
+            + "ON CONFLICT DO NOTHING";
+    static final String INSERT_VARIANT_SQL = "INSERT INTO product_variants (id, product_id, variant_sku, price, "
+            + "compare_at_price, cost_price, is_active, sort_order, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, true, ?, ?, ?)";
+    static final String INSERT_VARIANT_ATTRIBUTE_SQL = "INSERT INTO variant_attribute_values (variant_id, "
+            + "attribute_value_id) VALUES (?, ?)";
+    static final String INSERT_STOCK_SQL = "INSERT INTO stocks (id, warehouse_id, product_id, variant_id, quantity, "
+            + "low_stock_threshold, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_BATCH_SQL = "INSERT INTO stock_batches (stock_id, batch_number, manufacture_date, "
+            + "expiry_date, quantity, status, supplier_name, supplier_batch_number, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, 'ACTIVE', ?, ?, ?, ?)";
+    static final String INSERT_ERROR_SQL = "INSERT INTO product_import_errors (job_id, source_row, sku, message) "
+            + "VALUES (?, ?, ?, ?)";
+
+    static final String NEXT_IDS_SQL = "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private static final int DEFAULT_LOW_STOCK_THRESHOLD = 5;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductStatusCalculationService productStatusCalculationService;
+    private final CatalogIdentifierService catalogIdentifierService;
+
+    /**
+     * Load what every chunk of a job validates against: the shop's
+     * warehouses, usable categories and brands, and the attribute catalogue
+     */
+    public ImportContext loadContext(Long jobId, UUID shopId, boolean publish) {
+        ImportContext context = new ImportContext(jobId, shopId, publish);
+        context.warehouseIds.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM warehouses WHERE shop_id = ?", Long.class, shopId));
+        context.categoryIds.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM categories WHERE COALESCE(is_active, true)", Long.class));
+        context.brandIds.addAll(jdbcTemplate.queryForList(
+                "SELECT brand_id FROM brands WHERE is_active", UUID.class));
+        jdbcTemplate.query("SELECT attribute_type_id, name FROM product_attribute_types", rs -> {
+            context.attributeTypes.put(rs.getString(2).trim().toLowerCase(Locale.ROOT), rs.getLong(1));
+        });
+        jdbcTemplate.query("SELECT attribute_value_id, attribute_type_id, value FROM product_attribute_values", rs -> {
+            context.attributeValues.putIfAbsent(
+                    attributeKey(rs.getLong(2), rs.getString(3)), rs.getLong(1));
+        });
+        return context;
+    }
+
+    /**
+     * Validate and insert one chunk of products
+     */
+    public ChunkResult writeChunk(ImportContext context, List<ProductRows> chunk) {
+        List<RejectedRow> rejected = new ArrayList<>();
+        List<ProductDraft> drafts = new ArrayList<>(chunk.size());
+        long rowsFailed = 0;
+
+        // Row-level checks and duplicates within the file
+        for (ProductRows rows : chunk) {
+            try {
+                ProductDraft draft = parse(rows);
+                checkReferences(context, draft);
+                checkDuplicatesInFile(context, draft);
+                drafts.add(draft);
+            } catch (RejectedRow e) {
+                rejected.add(e);
+                rowsFailed += rows.records().size();
+            }
+        }
+
+        // Claim the chunk's SKUs, one statement per kind
+        Set<String> productSkus = new HashSet<>();
+        Set<String> variantSkus = new HashSet<>();
+        for (ProductDraft draft : drafts) {
+            productSkus.add(draft.sku);
+            draft.variants.keySet().forEach(variantSkus::add);
+        }
+        Set<String> takenProductSkus = catalogIdentifierService.reserve(CatalogIdentifierKind.PRODUCT_SKU, productSkus);
+        Set<String> takenVariantSkus = catalogIdentifierService.reserve(CatalogIdentifierKind.VARIANT_SKU, variantSkus);
+
+        List<ProductDraft> accepted = new ArrayList<>(drafts.size());
+        List<String> unusedProductSkus = new ArrayList<>();
+        List<String> unusedVariantSkus = new ArrayList<>();
+        for (ProductDraft draft : drafts) {
+            String taken = takenProductSkus.contains(draft.sku) ? draft.sku
+                    : draft.variants.keySet().stream().filter(takenVariantSkus::contains).findFirst().orElse(null);
+            if (taken != null) {
+                rejected.add(new RejectedRow(draft.firstRow, draft.sku, "SKU " + taken + " already exists"));
+                rowsFailed += draft.rowCount;
+                // Give back what was claimed for a product that is not imported
+                if (!takenProductSkus.contains(draft.sku)) {
+                    unusedProductSkus.add(draft.sku);
+                }
+                draft.variants.keySet().stream().filter(sku -> !takenVariantSkus.contains(sku))
+                        .forEach(unusedVariantSkus::add);
+            } else {
+                accepted.add(draft);
+            }
+        }
+        catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SKU, unusedProductSkus);
+        catalogIdentifierService.release(CatalogIdentifierKind.VARIANT_SKU, unusedVariantSkus);
+
+        // Requested slugs, else ones made from the names, suffixed where taken
+        List<String> slugs = catalogIdentifierService.reserveSlugs(accepted.stream()
+                .map(draft -> draft.slug != null ? draft.slug : draft.name)
+                .toList());
+        for (int i = 0; i < accepted.size(); i++) {
+            accepted.get(i).slug = slugs.get(i);
+        }
+
+        long variants = insert(context, accepted);
+        insertErrors(context.jobId, rejected);
+        log.debug("Import job {} wrote {} products and {} variants, rejected {} rows", context.jobId,
+                accepted.size(), variants, rowsFailed);
+        return new ChunkResult(accepted.size(), variants, rowsFailed);
+    }
+
+    /**
+     * Turn the rows of one product into a draft, checking everything that
+     * can be checked without the database
+     */
+    static ProductDraft parse(ProductRows rows) throws RejectedRow {
+        CatalogFileReader.Record first = rows.records().get(0);
+        String sku = first.get("product_sku");
+        for (CatalogFileReader.Record record : rows.records()) {
+            if (record.error() != null) {
+                throw new RejectedRow(record.number(), sku, "Could not read row: " + record.error());
+            }
+        }
+        if (sku == null) {
+            throw new RejectedRow(first.number(), null, "product_sku is required");
+        }
+
+        ProductDraft draft = new ProductDraft(first.number(), rows.records().size(), sku);
+        draft.name = required(first, "product_name");
+        if (draft.name.length() < 2 || draft.name.length() > 255) {
+            throw new RejectedRow(first.number(), sku, "product_name must be between 2 and 255 characters");
+        }
+        draft.slug = first.get("slug");
+        draft.shortDescription = first.get("short_description");
+        draft.description = first.get("description");
+        draft.price = decimal(first, "price");
+        draft.compareAtPrice = decimal(first, "compare_at_price");
+        draft.costPrice = decimal(first, "cost_price");
+        draft.categoryId = longValue(first, "category_id");
+        draft.brandId = uuid(first, "brand_id");
+        draft.model = first.get("model");
+        draft.metaKeywords = first.get("meta_keywords");
+        draft.searchKeywords = first.get("search_keywords");
+
+        for (CatalogFileReader.Record record : rows.records()) {
+            String variantSku = record.get("variant_sku");
+            VariantDraft variant = null;
+            if (variantSku != null) {
+                variant = draft.variants.get(variantSku);
+                if (variant == null) {
+                    variant = parseVariant(record, variantSku, draft.variants.size());
+                    draft.variants.put(variantSku, variant);
+                }
+            }
+            Map<Long, StockDraft> stocks = variant != null ? variant.stocks : draft.stocks;
+            addStock(record, sku, stocks);
+        }
+
+        if (!draft.variants.isEmpty() && !draft.stocks.isEmpty()) {
+            throw new RejectedRow(first.number(), sku,
+                    "Stock of a product with variants must be given on its variant rows");
+        }
+        if (draft.price == null && !draft.variants.isEmpty()) {
+            // Products with variants are listed from their cheapest variant
+            draft.price = draft.variants.values().stream()
+                    .map(v -> v.price)
+                    .min(BigDecimal::compareTo)
+                    .orElse(null);
+        }
+        if (draft.price == null || draft.price.signum() <= 0) {
+            throw new RejectedRow(first.number(), sku, "price must be a positive number");
+        }
+        return draft;
+    }
+
+    private static VariantDraft parseVariant(CatalogFileReader.Record record, String variantSku, int sortOrder)
+            throws RejectedRow {
+        VariantDraft variant = new VariantDraft(variantSku, sortOrder);
+        variant.price = decimal(record, "variant_price");
+        if (variant.price == null) {
+            variant.price = decimal(record, "price");
+        }
+        if (variant.price == null || variant.price.signum() <= 0) {
+            throw new RejectedRow(record.number(), variantSku, "variant_price must be a positive number");
+        }
+        variant.compareAtPrice = decimal(record, "variant_compare_at_price");
+        variant.costPrice = decimal(record, "variant_cost_price");
+
+        String attributes = record.get("attributes");
+        if (attributes != null) {
+            for (String pair : attributes.split("\\|")) {
+                int separator = pair.indexOf(':');
+                String type = separator > 0 ? pair.substring(0, separator).trim() : "";
+                String value = separator > 0 ? pair.substring(separator + 1).trim() : "";
+                if (type.isEmpty() || value.isEmpty()) {
+                    throw new RejectedRow(record.number(), variantSku,
+                            "attributes must look like Color:Red|Size:M, got '" + attributes + "'");
+                }
+                variant.attributes.put(type.toLowerCase(Locale.ROOT), new String[] { type, value });
+            }
+        }
+        return variant;
+    }
+
+    private static void addStock(CatalogFileReader.Record record, String sku, Map<Long, StockDraft> stocks)
+            throws RejectedRow {
+        Long warehouseId = longValue(record, "warehouse_id");
+        if (warehouseId == null) {
+            if (record.get("quantity") != null) {
+                throw new RejectedRow(record.number(), sku, "quantity needs a warehouse_id");
+            }
+            return;
+        }
+        Integer quantity = intValue(record, "quantity");
+        if (quantity == null || quantity < 0) {
+            throw new RejectedRow(record.number(), sku, "quantity must be zero or more");
+        }
+
+        StockDraft stock = stocks.computeIfAbsent(warehouseId, id -> new StockDraft(id));
+        Integer threshold = intValue(record, "low_stock_threshold");
+        if (threshold != null) {
+            stock.lowStockThreshold = threshold;
+        }
+
+        String batchNumber = record.get("batch_number");
+        if (batchNumber == null) {
+            batchNumber = "IMPORT-" + record.number();
+        }
+        for (BatchDraft batch : stock.batches) {
+            if (batch.batchNumber.equals(batchNumber)) {
+                throw new RejectedRow(record.number(), sku,
+                        "Batch number '" + batchNumber + "' appears twice for warehouse " + warehouseId);
+            }
+        }
+        stock.batches.add(new BatchDraft(batchNumber, quantity, dateTime(record, "manufacture_date"),
+                dateTime(record, "expiry_date"), record.get("supplier_name"), record.get("supplier_batch_number")));
+    }
+
+    private static void checkReferences(ImportContext context, ProductDraft draft) throws RejectedRow {
+        if (draft.categoryId != null && !context.categoryIds.contains(draft.categoryId)) {
+            throw new RejectedRow(draft.firstRow, draft.sku, "Category " + draft.categoryId
+                    + " does not exist or is inactive");
+        }
+        if (draft.brandId != null && !context.brandIds.contains(draft.brandId)) {
+            throw new RejectedRow(draft.firstRow, draft.sku, "Brand " + draft.brandId
+                    + " does not exist or is inactive");
+        }
+        List<Long> warehouses = new ArrayList<>(draft.stocks.keySet());
+        draft.variants.values().forEach(v -> warehouses.addAll(v.stocks.keySet()));
+        for (Long warehouseId : warehouses) {
+            if (!context.warehouseIds.contains(warehouseId)) {
+                throw new RejectedRow(draft.firstRow, draft.sku, "Warehouse " + warehouseId
+                        + " does not belong to the shop");
+            }
+        }
+    }
+
+    private static void checkDuplicatesInFile(ImportContext context, ProductDraft draft) throws RejectedRow {
+        if (context.productSkus.contains(draft.sku)) {
+            throw new RejectedRow(draft.firstRow, draft.sku, "SKU " + draft.sku + " appears more than once "
+                    + "in the file; the rows of a product must be consecutive");
+        }
+        for (String variantSku : draft.variants.keySet()) {
+            if (context.variantSkus.contains(variantSku)) {
+                throw new RejectedRow(draft.firstRow, draft.sku, "Variant SKU " + variantSku
+                        + " appears on more than one product");
+            }
+        }
+        context.productSkus.add(draft.sku);
+        context.variantSkus.addAll(draft.variants.keySet());
+    }
+
+    /**
+     * @return the number of variants inserted
+     */
+    private long insert(ImportContext context, List<ProductDraft> drafts) {
+        if (drafts.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int variantCount = 0;
+        int stockCount = 0;
+        for (ProductDraft draft : drafts) {
+            draft.productId = UUID.randomUUID();
+            variantCount += draft.variants.size();
+            stockCount += draft.stocks.size();
+            for (VariantDraft variant : draft.variants.values()) {
+                stockCount += variant.stocks.size();
+            }
+        }
+        long[] variantIds = nextIds("product_variants", variantCount);
+        long[] stockIds = nextIds("stocks", stockCount);
+
+        List<Object[]> products = new ArrayList<>(drafts.size());
+        List<Object[]> details = new ArrayList<>();
+        List<Object[]> keywords = new ArrayList<>();
+        List<Object[]> variants = new ArrayList<>(variantCount);
+        List<Object[]> variantAttributes = new ArrayList<>();
+        List<Object[]> stocks = new ArrayList<>(stockCount);
+        List<Object[]> batches = new ArrayList<>();
+
+        int nextVariant = 0;
+        int nextStock = 0;
+        for (ProductDraft draft : drafts) {
+            Product scored = scoringView(context, draft);
+            products.add(new Object[] { draft.productId, draft.name, draft.sku, draft.shortDescription, draft.price,
+                    draft.compareAtPrice, draft.costPrice, draft.categoryId, draft.brandId, context.shopId,
+                    draft.model, draft.slug, context.publish,
+                    productStatusCalculationService.calculateProductStatus(scored).name(),
+                    productStatusCalculationService.calculateCompletionPercentage(scored), context.publish,
+                    now, now });
+
+            if (draft.hasDetail()) {
+                details.add(new Object[] { draft.productId, draft.description, draft.metaKeywords,
+                        draft.searchKeywords, now, now });
+                for (String keyword : ProductKeywordIndexService.parseKeywords(draft.metaKeywords,
+                        draft.searchKeywords)) {
+                    keywords.add(new Object[] { draft.productId, keyword });
+                }
+            }
+
+            for (StockDraft stock : draft.stocks.values()) {
+                addStockRows(stock, stockIds[nextStock++], draft.productId, null, now, stocks, batches);
+            }
+            for (VariantDraft variant : draft.variants.values()) {
+                long variantId = variantIds[nextVariant++];
+                variants.add(new Object[] { variantId, draft.productId, variant.sku, variant.price,
+                        variant.compareAtPrice, variant.costPrice, variant.sortOrder, now, now });
+                for (String[] attribute : variant.attributes.values()) {
+                    variantAttributes.add(new Object[] { variantId,
+                            attributeValueId(context, attribute[0], attribute[1]) });
+                }
+                for (StockDraft stock : variant.stocks.values()) {
+                    addStockRows(stock, stockIds[nextStock++], null, variantId, now, stocks, batches);
+                }
+            }
+        }
+
+        batchUpdate(INSERT_PRODUCT_SQL, products);
+        batchUpdate(INSERT_DETAIL_SQL, details);
+        batchUpdate(INSERT_KEYWORD_SQL, keywords);
+        batchUpdate(INSERT_VARIANT_SQL, variants);
+        batchUpdate(INSERT_VARIANT_ATTRIBUTE_SQL, variantAttributes);
+        batchUpdate(INSERT_STOCK_SQL, stocks);
+        batchUpdate(INSERT_BATCH_SQL, batches);
+        return variantCount;
+    }
+
+    private static void addStockRows(StockDraft stock, long stockId, UUID productId, Long variantId,
+            Timestamp now, List<Object[]> stocks, List<Object[]> batches) {
+        int quantity = 0;
+        for (BatchDraft batch : stock.batches) {
+            quantity += batch.quantity;
+            batches.add(new Object[] { stockId, batch.batchNumber, timestamp(batch.manufactureDate),
+                    timestamp(batch.expiryDate), batch.quantity, batch.supplierName, batch.supplierBatchNumber,
+                    now, now });
+        }
+        // The counter the stock would get from refreshQuantitiesFromBatches: all batches are active
+        stocks.add(new Object[] { stockId, stock.warehouseId, productId, variantId, quantity,
+                stock.lowStockThreshold, now, now });
+    }
+
+    /**
+     * A transient product carrying what the completion score looks at, so
+     * imported products are scored like those built up through the editor
+     */
+    private static Product scoringView(ImportContext context, ProductDraft draft) {
+        Product product = new Product();
+        product.setProductName(draft.name);
+        product.setSku(draft.sku);
+        product.setSlug(draft.slug);
+        product.setPrice(draft.price);
+        product.setShortDescription(draft.shortDescription);
+        product.setDisplayToCustomers(context.publish);
+        if (draft.categoryId != null) {
+            product.setCategory(new Category());
+        }
+        if (draft.brandId != null) {
+            product.setBrand(new Brand());
+        }
+        if (draft.hasDetail()) {
+            product.setProductDetail(new ProductDetail());
+        }
+        return product;
+    }
+
+    /**
+     * Id of the attribute value, creating its type and the value on first use
+     */
+    private Long attributeValueId(ImportContext context, String typeName, String value) {
+        String typeKey = typeName.trim().toLowerCase(Locale.ROOT);
+        Long typeId = context.attributeTypes.get(typeKey);
+        if (typeId == null) {
+            jdbcTemplate.update("INSERT INTO product_attribute_types (name, is_required) VALUES (?, false) "
+                    + "ON CONFLICT (name) DO NOTHING", typeName);
+            typeId = jdbcTemplate.queryForObject(
+                    "SELECT attribute_type_id FROM product_attribute_types WHERE name = ?", Long.class, typeName);
+            context.attributeTypes.put(typeKey, typeId);
+            context.attributesCreated = true;
+        }
+
+        String valueKey = attributeKey(typeId, value);
+        Long valueId = context.attributeValues.get(valueKey);
+        if (valueId == null) {
+            valueId = jdbcTemplate.queryForObject("INSERT INTO product_attribute_values (attribute_type_id, value) "
+                    + "VALUES (?, ?) RETURNING attribute_value_id", Long.class, typeId, value);
+            context.attributeValues.put(valueKey, valueId);
+            context.attributesCreated = true;
+        }
+        return valueId;
+    }
+
+    private void insertErrors(Long jobId, List<RejectedRow> rejected) {
+        List<Object[]> rows = new ArrayList<>(rejected.size());
+        for (RejectedRow row : rejected) {
+            String message = row.getMessage();
+            rows.add(new Object[] { jobId, row.getRow(), row.getSku(),
+                    message.length() > 1000 ? message.substring(0, 1000) : message });
+        }
+        batchUpdate(INSERT_ERROR_SQL, rows);
+    }
+
+    private long[] nextIds(String table, int count) {
+        if (count == 0) {
+            return new long[0];
+        }
+        return jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, table, count).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    private void batchUpdate(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private static String attributeKey(long typeId, String value) {
+        return typeId + ":" + value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static String required(CatalogFileReader.Record record, String column) throws RejectedRow {
+        String value = record.get(column);
+        if (value == null) {
+            throw new RejectedRow(record.number(), record.get("product_sku"), column + " is required");
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(CatalogFileReader.Record record, String column) throws RejectedRow {
+        String value = record.get(column);
+        try {
+            return value != null ? new BigDecimal(value) : null;
+        } catch (NumberFormatException e) {
+            throw invalid(record, column, value);
+        }
+    }
+
+    private static Long longValue(CatalogFileReader.Record record, String column) throws RejectedRow {
+        String value = record.get(column);
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw invalid(record, column, value);
+        }
+    }
+
+    private static Integer intValue(CatalogFileReader.Record record, String column) throws RejectedRow {
+        String value = record.get(column);
+        try {
+            return value != null ? Integer.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw invalid(record, column, value);
+        }
+    }
+
+    private static UUID uuid(CatalogFileReader.Record record, String column) throws RejectedRow {
+        String value = record.get(column);
+        try {
+            return value != null ? UUID.fromString(value) : null;
+        } catch (IllegalArgumentException e) {
+            throw invalid(record, column, value);
+        }
+    }
+
+    /**
+     * ISO date-time, or a plain ISO date meaning its start
+     */
+    private static LocalDateTime dateTime(CatalogFileReader.Record record, String column) throws RejectedRow {
+        String value = record.get(column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return value.length() <= 10 ? LocalDate.parse(value).atStartOfDay() : LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw invalid(record, column, value);
+        }
+    }
+
+    private static RejectedRow invalid(CatalogFileReader.Record record, String column, String value) {
+        return new RejectedRow(record.number(), record.get("product_sku"),
+                column + " has an invalid value '" + value + "'");
+    }
+
+    /**
+     * The consecutive rows of one product
+     */
+    public record ProductRows(List<CatalogFileReader.Record> records) {
+
+        public String sku() {
+            return records.get(0).get("product_sku");
+        }
+    }
+
+    public record ChunkResult(long products, long variants, long rowsFailed) {
+    }
+
+    /**
+     * What a job's chunks share: reference data loaded once per run, and the
+     * SKUs used so far. A chunk that fails fails the whole run, and
+     * a resumed run starts from a fresh context, so nothing here outlives a
+     * rolled back chunk.
+     */
+    public static final class ImportContext {
+
+        private final Long jobId;
+        private final UUID shopId;
+        private final boolean publish;
+        private final Set<Long> warehouseIds = new HashSet<>();
+        private final Set<Long> categoryIds = new HashSet<>();
+        private final Set<UUID> brandIds = new HashSet<>();
+        private final Map<String, Long> attributeTypes = new HashMap<>();
+        private final Map<String, Long> attributeValues = new HashMap<>();
+        private final Set<String> productSkus = new HashSet<>();
+        private final Set<String> variantSkus = new HashSet<>();
+        private boolean attributesCreated;
+
+        ImportContext(Long jobId, UUID shopId, boolean publish) {
+            this.jobId = jobId;
+            this.shopId = shopId;
+            this.publish = publish;
+        }
+
+        public boolean isAttributesCreated() {
+            return attributesCreated;
+        }
+    }
+
+    /**
+     * A row that cannot be imported, and with it every row of its product
+     */
+    static final class RejectedRow extends Exception {
+
+        private final long row;
+        private final String sku;
+
+        RejectedRow(long row, String sku, String message) {
+            super(message, null, false, false);
+            this.row = row;
+            this.sku = sku;
+        }
+
+        long getRow() {
+            return row;
+        }
+
+        String getSku() {
+            return sku;
+        }
+    }
+
+    static final class ProductDraft {
+        private final long firstRow;
+        private final int rowCount;
+        private final String sku;
+        private UUID productId;
+        private String name;
+        private String slug;
+        private String shortDescription;
+        private String description;
+        private BigDecimal price;
+        private BigDecimal compareAtPrice;
+        private BigDecimal costPrice;
+        private Long categoryId;
+        private UUID brandId;
+        private String model;
+        private String metaKeywords;
+        private String searchKeywords;
+        private final Map<String, VariantDraft> variants = new LinkedHashMap<>();
+        private final Map<Long, StockDraft> stocks = new LinkedHashMap<>();
+
+        ProductDraft(long firstRow, int rowCount, String sku) {
+            this.firstRow = firstRow;
+            this.rowCount = rowCount;
+            this.sku = sku;
+        }
+
+        boolean hasDetail() {
+            return description != null || metaKeywords != null || searchKeywords != null;
+        }
+    }
+
+    private static final class VariantDraft {
+        private final String sku;
+        private final int sortOrder;
+        private BigDecimal price;
+        private BigDecimal compareAtPrice;
+        private BigDecimal costPrice;
+        // Keyed by lower-cased type name, so a type is set once per variant
+        private final Map<String, String[]> attributes = new LinkedHashMap<>();
+        private final Map<Long, StockDraft> stocks = new LinkedHashMap<>();
+
+        VariantDraft(String sku, int sortOrder) {
+            this.sku = sku;
+            this.sortOrder = sortOrder;
+        }
+    }
+
+    private static final class StockDraft {
+        private final Long warehouseId;
+        private int lowStockThreshold = DEFAULT_LOW_STOCK_THRESHOLD;
+        private final List<BatchDraft> batches = new ArrayList<>();
+
+        StockDraft(Long warehouseId) {
+            this.warehouseId = warehouseId;
+        }
+    }
+
+    private record BatchDraft(String batchNumber, int quantity, LocalDateTime manufactureDate,
+            LocalDateTime expiryDate, String supplierName, String supplierBatchNumber) {
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecommerce.service;
 
+import com.ecommerce.dto.CategoryBreadcrumbDTO;
 import com.ecommerce.dto.CategoryDTO;
 import com.ecommerce.dto.CategorySearchDTO;
+import com.ecommerce.dto.CategoryTreeNodeDTO;
 import com.ecommerce.entity.Category;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -75,6 +77,24 @@ public interface CategoryService {
      */
     Page<CategoryDTO> searchCategories(CategorySearchDTO searchDTO);
 
+    /**
+     * Get the breadcrumb of a category, from its top-level ancestor down to
+     * the category itself
+     * 
+     * @param id the ID of the category
+     * @return the breadcrumb steps in order
+     */
+    List<CategoryBreadcrumbDTO> getBreadcrumbs(Long id);
+
+    /**
+     * Get the navigation tree of active categories. The returned tree is an
+     * immutable snapshot that is rebuilt after any category change.
+     * 
+     * @param shopId the shop ID, or null for platform-wide categories
+     * @return the top-level nodes of the tree
+     */
+    List<CategoryTreeNodeDTO> getCategoryTree(java.util.UUID shopId);
+
     /**
      * Convert a Category entity to a CategoryDTO
      * 
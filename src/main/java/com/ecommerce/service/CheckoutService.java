@@ -74,8 +74,6 @@ public class CheckoutService {
     private final RewardSystemRepository rewardSystemRepository;
     private final ShopOrderRepository shopOrderRepository;
     private final StripeService stripeService;
-    private final StockLockService stockLockService;
-    private final MultiWarehouseStockAllocator multiWarehouseStockAllocator;
     private final ShippingCostService shippingCostService;
     private final RewardService rewardService;
     private final ProductAvailabilityService productAvailabilityService;
@@ -85,6 +83,7 @@ public class CheckoutService {
     private final OrderEmailService orderEmailService;
     private final EnhancedStockLockService enhancedStockLockService;
     private final CartService cartService;
+    private final CartReadModel cartReadModel;
     private final MoneyFlowService moneyFlowService;
     private final RoadValidationService roadValidationService;
     private final OrderActivityLogService activityLogService;
@@ -501,7 +500,6 @@ public class CheckoutService {
 
         // Confirm stock locks
         enhancedStockLockService.confirmBatchLocks(sessionId);
-        stockLockService.confirmStock(sessionId);
 
         // Update discount usage (non-critical - wrap in try-catch to prevent
         // transaction rollback)
@@ -571,7 +569,6 @@ public class CheckoutService {
             refundPointsForFailedPayment(order);
             orderRepository.delete(order);
             enhancedStockLockService.unlockAllBatches(sessionId);
-            stockLockService.releaseStock(sessionId);
             log.info("Payment failed, order deleted and points refunded: {}", order.getOrderId());
             throw new IllegalStateException("Payment not completed or session expired");
         }
@@ -607,15 +604,12 @@ public class CheckoutService {
         recordPaymentInMoneyFlow(order, tx);
 
         log.info("Payment verification completed successfully for order: {}", order.getOrderId());
-        stockLockService.confirmStock(sessionId);
 
         String tempSessionId = "temp_" + order.getOrderId().toString();
         String tempGuestSessionId = "temp_guest_" + order.getOrderId().toString();
 
-        stockLockService.confirmBatchLocks(tempSessionId);
-        stockLockService.confirmStock(tempSessionId);
-        stockLockService.confirmBatchLocks(tempGuestSessionId);
-        stockLockService.confirmStock(tempGuestSessionId);
+        enhancedStockLockService.confirmBatchLocks(tempSessionId);
+        enhancedStockLockService.confirmBatchLocks(tempGuestSessionId);
 
         updateDiscountUsage(order);
 
@@ -677,7 +671,6 @@ public class CheckoutService {
             log.error("Error cleaning up failed order for session {}: {}", sessionId, e.getMessage(), e);
             try {
                 enhancedStockLockService.unlockAllBatches(sessionId);
-                stockLockService.releaseStock(sessionId);
                 log.info("Fallback stock unlock completed for session: {}", sessionId);
             } catch (Exception fallbackEx) {
                 log.error("Fallback stock unlock also failed for session {}: {}", sessionId, fallbackEx.getMessage());
@@ -694,7 +687,6 @@ public class CheckoutService {
         if (tx == null) {
             log.info("No transaction found for session: {} - may have already been cleaned up", sessionId);
             enhancedStockLockService.unlockAllBatches(sessionId);
-            stockLockService.releaseStock(sessionId);
             return;
         }
 
@@ -711,9 +703,6 @@ public class CheckoutService {
         log.info("CLEANUP: Unlocking enhanced batch locks for session: {}", sessionId);
         enhancedStockLockService.unlockAllBatches(sessionId);
 
-        log.info("CLEANUP: Unlocking general stock locks for session: {}", sessionId);
-        stockLockService.releaseStock(sessionId);
-
         Order order = tx.getOrder();
         Long orderId = order.getOrderId();
 
@@ -736,9 +725,7 @@ public class CheckoutService {
         String tempGuestSessionId = "temp_guest_" + orderId.toString();
 
         enhancedStockLockService.unlockAllBatches(tempSessionId);
-        stockLockService.releaseStock(tempSessionId);
         enhancedStockLockService.unlockAllBatches(tempGuestSessionId);
-        stockLockService.releaseStock(tempGuestSessionId);
 
         log.info("Cleaned up temporary session locks: {} and {}", tempSessionId, tempGuestSessionId);
 
@@ -774,6 +761,7 @@ public class CheckoutService {
                 }
 
                 stockBatchRepository.save(batch);
+                cartReadModel.stockChanged(List.of(batch));
 
                 String key = String.format("Batch %s (%s)",
                         batch.getBatchNumber(),
@@ -795,54 +783,6 @@ public class CheckoutService {
         }
     }
 
-    private boolean lockStockForItems(String sessionId, List<CartItemDTO> items, AddressDto address) {
-        try {
-            log.info("Starting stock locking for session {} with {} items", sessionId, items.size());
-            for (CartItemDTO item : items) {
-                log.info(
-                        "Item to lock: productId={}, variantId={}, isVariantBased={}, isVariantBasedItem={}, quantity={}",
-                        item.getProductId(), item.getVariantId(), item.isVariantBased(), item.isVariantBasedItem(),
-                        item.getQuantity());
-            }
-
-            Map<Long, List<MultiWarehouseStockAllocator.StockAllocation>> allocations = multiWarehouseStockAllocator
-                    .allocateStockAcrossWarehouses(items, address);
-
-            log.info("Stock allocation result: {} allocations", allocations.size());
-            for (Map.Entry<Long, List<MultiWarehouseStockAllocator.StockAllocation>> entry : allocations.entrySet()) {
-                log.info("Key {} has {} allocations", entry.getKey(), entry.getValue().size());
-                for (MultiWarehouseStockAllocator.StockAllocation allocation : entry.getValue()) {
-                    log.info("Allocation: warehouseId={}, stockId={}, quantity={}",
-                            allocation.getWarehouseId(), allocation.getStockId(), allocation.getQuantity());
-                }
-            }
-
-            if (allocations.isEmpty()) {
-                log.error("No stock allocation found for items");
-                return false;
-            }
-
-            boolean batchLocked = stockLockService.lockStockFromBatches(sessionId, allocations);
-            boolean generalLocked = stockLockService.lockStockFromMultipleWarehouses(sessionId, allocations);
-
-            if (!batchLocked || !generalLocked) {
-                log.error("Failed to lock stock - batch locked: {}, general locked: {}", batchLocked, generalLocked);
-                stockLockService.unlockAllBatches(sessionId);
-                stockLockService.releaseStock(sessionId);
-                return false;
-            }
-
-            log.info("Successfully allocated stock across {} warehouses for session {}",
-                    allocations.size(), sessionId);
-            return true;
-        } catch (Exception e) {
-            log.error("Error locking stock: {}", e.getMessage(), e);
-            stockLockService.unlockAllBatches(sessionId);
-            stockLockService.releaseStock(sessionId);
-            return false;
-        }
-    }
-
     public BigDecimal calculateShippingCost(AddressDto deliveryAddress, List<CartItemDTO> items,
             BigDecimal orderValue) {
         try {
@@ -0,0 +1,322 @@
+package com.ecommerce.service;
+
+import com.ecommerce.enums.ExportDataset;
+import com.ecommerce.enums.ExportFormat;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams whole tables to an output stream as CSV or NDJSON.
+ *
+ * Rows are read through a forward-only JDBC cursor with a fixed fetch size
+ * and written out as they arrive, so heap use does not grow with the size of
+ * the table. PostgreSQL only honours the fetch size inside a transaction,
+ * hence the read-only transaction around each export. The number of exports
+ * running at once is capped, as each holds a connection for its duration.
+ */
+@Service
+@Slf4j
+public class DataExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<ExportDataset, ExportQuery> QUERIES = new EnumMap<>(ExportDataset.class);
+
+    static {
+        QUERIES.put(ExportDataset.ORDERS, new ExportQuery(
+                "SELECT o.order_id, o.order_code, o.order_status, o.created_at, o.updated_at, "
+                        + "oci.first_name, oci.last_name, oci.email, oci.phone_number, oci.city, oci.country, "
+                        + "oi.subtotal, oi.shipping_cost, oi.discount_amount, oi.tax_amount, oi.total_amount "
+                        + "FROM orders o "
+                        + "LEFT JOIN order_customer_info oci ON oci.order_id = o.order_id "
+                        + "LEFT JOIN order_info oi ON oi.order_id = o.order_id",
+                "o.created_at", "o.order_id"));
+        QUERIES.put(ExportDataset.MONEY_FLOW, new ExportQuery(
+                "SELECT mf.id, mf.created_at, mf.type, mf.amount, mf.remaining_balance, mf.description "
+                        + "FROM money_flow mf",
+                "mf.created_at", "mf.id"));
+        QUERIES.put(ExportDataset.WAREHOUSE_STOCK, new ExportQuery(
+                "SELECT s.id AS stock_id, w.id AS warehouse_id, w.name AS warehouse_name, "
+                        + "p.product_id, p.product_name, p.sku, pv.id AS variant_id, pv.variant_sku, "
+                        + "s.quantity, s.low_stock_threshold, s.created_at, s.updated_at "
+                        + "FROM stocks s "
+                        + "JOIN warehouses w ON w.id = s.warehouse_id "
+                        + "LEFT JOIN product_variants pv ON pv.id = s.variant_id "
+                        + "LEFT JOIN products p ON p.product_id = COALESCE(s.product_id, pv.product_id)",
+                "s.updated_at", "s.id"));
+        QUERIES.put(ExportDataset.RETURN_REQUESTS, new ExportQuery(
+                "SELECT rr.id, rr.shop_order_id, so.shop_order_code, rr.customer_id, rr.status, "
+                        + "rr.delivery_status, rr.reason, rr.submitted_at, rr.decision_at, rr.decision_notes, "
+                        + "rr.pickup_completed_at, rr.refund_processed, rr.refund_amount, rr.refund_processed_at "
+                        + "FROM return_requests rr "
+                        + "LEFT JOIN shop_orders so ON so.shop_order_id = rr.shop_order_id",
+                "rr.submitted_at", "rr.id"));
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final Semaphore running;
+
+    public DataExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            @Value("${app.export.fetch-size:1000}") int fetchSize,
+            @Value("${app.export.max-concurrent:2}") int maxConcurrent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.running = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Write every row of the dataset created (or for stock, last updated)
+     * within the optional bounds to the stream. Nothing is written when the
+     * export is refused for being over the concurrency cap.
+     *
+     * @return the number of rows written
+     * @throws IllegalStateException if too many exports are already running
+     */
+    @Transactional(readOnly = true)
+    public long export(ExportDataset dataset, ExportFormat format, boolean gzip,
+            LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        if (!running.tryAcquire()) {
+            throw new IllegalStateException("Too many exports are running, try again shortly");
+        }
+        try {
+            long started = System.currentTimeMillis();
+            ExportQuery query = QUERIES.get(dataset);
+            List<Object> params = new ArrayList<>();
+            String sql = query.sql(from, to, params);
+
+            GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            OutputStream target = gzipOut != null ? gzipOut : out;
+            long rows;
+            try (RowSink sink = format == ExportFormat.CSV ? new CsvSink(target) : new NdjsonSink(target)) {
+                rows = stream(sql, params, sink);
+            }
+            if (gzipOut != null) {
+                gzipOut.finish();
+            }
+            out.flush();
+
+            log.info("Exported {} {} rows as {} in {} ms", rows, dataset, format,
+                    System.currentTimeMillis() - started);
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            running.release();
+        }
+    }
+
+    private long stream(String sql, List<Object> params, RowSink sink) {
+        Long rows = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return ps;
+        }, (ResultSetExtractor<Long>) rs -> {
+            try {
+                ResultSetMetaData metaData = rs.getMetaData();
+                String[] columns = new String[metaData.getColumnCount()];
+                for (int i = 0; i < columns.length; i++) {
+                    columns[i] = metaData.getColumnLabel(i + 1);
+                }
+                sink.header(columns);
+
+                Object[] values = new Object[columns.length];
+                long count = 0;
+                while (rs.next()) {
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getObject(i + 1);
+                    }
+                    sink.row(values);
+                    count++;
+                }
+                return count;
+            } catch (IOException e) {
+                // Usually the client going away; stop reading the cursor
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows != null ? rows : 0;
+    }
+
+    private static String text(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Base query of a dataset, the column its time bounds apply to and a
+     * unique column to order by, so repeated exports list rows the same way
+     */
+    private record ExportQuery(String select, String timeColumn, String orderBy) {
+
+        String sql(LocalDateTime from, LocalDateTime to, List<Object> params) {
+            StringBuilder sql = new StringBuilder(select);
+            String keyword = " WHERE ";
+            if (from != null) {
+                sql.append(keyword).append(timeColumn).append(" >= ?");
+                params.add(Timestamp.valueOf(from));
+                keyword = " AND ";
+            }
+            if (to != null) {
+                sql.append(keyword).append(timeColumn).append(" < ?");
+                params.add(Timestamp.valueOf(to));
+            }
+            return sql.append(" ORDER BY ").append(orderBy).toString();
+        }
+    }
+
+    private interface RowSink extends AutoCloseable {
+
+        void header(String[] columns) throws IOException;
+
+        void row(Object[] values) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    /**
+     * RFC 4180 CSV. Text cells starting with a formula character are prefixed
+     * with a quote so spreadsheets do not evaluate them.
+     */
+    private static final class CsvSink implements RowSink {
+
+        private final Writer writer;
+
+        CsvSink(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            line(columns);
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            line(values);
+        }
+
+        private void line(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                if (values[i] != null) {
+                    cell(values[i]);
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        private void cell(Object value) throws IOException {
+            String text = text(value);
+            if (value instanceof String && !text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0) {
+                text = "'" + text;
+            }
+            boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Flush only; the caller owns the stream
+            writer.flush();
+        }
+    }
+
+    /**
+     * One JSON object per row, keyed by column name
+     */
+    private final class NdjsonSink implements RowSink {
+
+        private final JsonGenerator generator;
+        private String[] columns;
+
+        NdjsonSink(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void header(String[] columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public void row(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < values.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Boolean bool) {
+                    generator.writeBoolean(bool);
+                } else {
+                    generator.writeString(text(value));
+                }
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The root separator only goes between objects; end the last line too
+            if (generator.getOutputContext().getEntryCount() > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.close();
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.ecommerce.service;
 
 import com.ecommerce.entity.Warehouse;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.WarehouseRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -18,7 +22,10 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DeliveryAvailabilityService {
 
+    private static final String ACTIVE_WAREHOUSE_SUMMARY_KEY = "active-warehouse-summary";
+
     private final WarehouseRepository warehouseRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * Check if delivery is available to a specific country
@@ -36,12 +43,12 @@ public class DeliveryAvailabilityService {
             String normalizedCountry = normalizeCountryName(country);
             
             // Check if there are any active warehouses in the specified country
-            List<Warehouse> warehouses = warehouseRepository.findByCountryIgnoreCaseAndIsActiveTrue(normalizedCountry);
+            int warehouseCount = getActiveWarehouseSummary().countIn(normalizedCountry);
             
-            boolean isAvailable = !warehouses.isEmpty();
+            boolean isAvailable = warehouseCount > 0;
             
             log.debug("Delivery availability check - Country: {}, Available: {}, Warehouse count: {}", 
-                    normalizedCountry, isAvailable, warehouses.size());
+                    normalizedCountry, isAvailable, warehouseCount);
             
             return isAvailable;
             
@@ -64,8 +71,7 @@ public class DeliveryAvailabilityService {
 
         try {
             String normalizedCountry = normalizeCountryName(country);
-            List<Warehouse> warehouses = warehouseRepository.findByCountryIgnoreCaseAndIsActiveTrue(normalizedCountry);
-            return warehouses.size();
+            return getActiveWarehouseSummary().countIn(normalizedCountry);
             
         } catch (Exception e) {
             log.error("Error getting warehouse count for country {}: {}", country, e.getMessage(), e);
@@ -80,13 +86,7 @@ public class DeliveryAvailabilityService {
      */
     public Set<String> getAvailableCountries() {
         try {
-            List<Warehouse> activeWarehouses = warehouseRepository.findByIsActiveTrue();
-            
-            Set<String> countries = activeWarehouses.stream()
-                    .map(Warehouse::getCountry)
-                    .filter(country -> country != null && !country.trim().isEmpty())
-                    .map(this::normalizeCountryName)
-                    .collect(Collectors.toSet());
+            Set<String> countries = getActiveWarehouseSummary().countries();
             
             log.debug("Found {} countries with delivery availability: {}", countries.size(), countries);
             
@@ -119,6 +119,27 @@ public class DeliveryAvailabilityService {
         }
     }
 
+    /**
+     * Active warehouse counts per country, held in the reference-data cache
+     * and rebuilt from one query whenever a warehouse is written
+     */
+    private ActiveWarehouseSummary getActiveWarehouseSummary() {
+        return referenceDataCache.get(ReferenceDataRegion.WAREHOUSES, ACTIVE_WAREHOUSE_SUMMARY_KEY, () -> {
+            Map<String, Integer> countsByCountry = new HashMap<>();
+            for (Warehouse warehouse : warehouseRepository.findByIsActiveTrue()) {
+                if (warehouse.getCountry() != null) {
+                    countsByCountry.merge(warehouse.getCountry().toLowerCase(Locale.ROOT), 1, Integer::sum);
+                }
+            }
+
+            Set<String> countries = countsByCountry.keySet().stream()
+                    .filter(country -> !country.trim().isEmpty())
+                    .map(this::normalizeCountryName)
+                    .collect(Collectors.toUnmodifiableSet());
+            return new ActiveWarehouseSummary(Map.copyOf(countsByCountry), countries);
+        });
+    }
+
     /**
      * Normalize country name for consistent comparison
      * Handles common variations and formatting
@@ -196,4 +217,11 @@ public class DeliveryAvailabilityService {
         
         return result.toString();
     }
+
+    private record ActiveWarehouseSummary(Map<String, Integer> countsByCountry, Set<String> countries) {
+        // Matches findByCountryIgnoreCaseAndIsActiveTrue: case-insensitive on the stored name
+        int countIn(String country) {
+            return countsByCountry.getOrDefault(country.toLowerCase(Locale.ROOT), 0);
+        }
+    }
 }
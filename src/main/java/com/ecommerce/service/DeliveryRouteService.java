@@ -0,0 +1,113 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.DeliveryRouteDTO;
+import com.ecommerce.dto.DeliveryRouteStopDTO;
+import com.ecommerce.repository.OrderItemBatchRepository;
+import com.ecommerce.repository.ShopOrderRepository;
+import com.ecommerce.util.RouteSequencer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plans the stop sequence of a delivery group from the coordinates of its
+ * order addresses. The route can start at the group's warehouse, which is the
+ * warehouse that supplied most of the group's units.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryRouteService {
+
+    private final ShopOrderRepository shopOrderRepository;
+    private final OrderItemBatchRepository orderItemBatchRepository;
+
+    @Transactional(readOnly = true)
+    public DeliveryRouteDTO planRoute(Long groupId, boolean startAtWarehouse) {
+        long started = System.nanoTime();
+
+        List<Object[]> rows = shopOrderRepository.findRouteStopsByGroupId(groupId);
+        List<Object[]> located = new ArrayList<>();
+        List<Object[]> unlocated = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[3] != null && row[4] != null) {
+                located.add(row);
+            } else {
+                unlocated.add(row);
+            }
+        }
+        // Stable input order so the same group always gets the same route
+        located.sort(Comparator.comparing(row -> (Long) row[0]));
+        unlocated.sort(Comparator.comparing(row -> (Long) row[0]));
+
+        DeliveryRouteDTO.DeliveryRouteDTOBuilder route = DeliveryRouteDTO.builder()
+                .deliveryGroupId(groupId)
+                .stopCount(rows.size())
+                .unlocatedStopCount(unlocated.size());
+
+        Double startLatitude = null;
+        Double startLongitude = null;
+        if (startAtWarehouse) {
+            for (Object[] warehouse : orderItemBatchRepository.findSupplyingWarehousesByGroupId(groupId)) {
+                if (warehouse[2] != null && warehouse[3] != null) {
+                    startLatitude = ((BigDecimal) warehouse[2]).doubleValue();
+                    startLongitude = ((BigDecimal) warehouse[3]).doubleValue();
+                    route.startWarehouseId((Long) warehouse[0])
+                            .startWarehouseName((String) warehouse[1])
+                            .startLatitude(startLatitude)
+                            .startLongitude(startLongitude);
+                    break;
+                }
+            }
+        }
+
+        double[] latitudes = new double[located.size()];
+        double[] longitudes = new double[located.size()];
+        for (int i = 0; i < located.size(); i++) {
+            latitudes[i] = (Double) located.get(i)[3];
+            longitudes[i] = (Double) located.get(i)[4];
+        }
+        RouteSequencer.Route sequenced = RouteSequencer.sequence(latitudes, longitudes, startLatitude, startLongitude);
+
+        List<DeliveryRouteStopDTO> stops = new ArrayList<>(rows.size());
+        double cumulative = 0.0;
+        for (int i = 0; i < sequenced.order().length; i++) {
+            double leg = sequenced.legDistancesKm()[i];
+            cumulative += leg;
+            stops.add(toStop(located.get(sequenced.order()[i]), stops.size() + 1, leg, cumulative));
+        }
+        for (Object[] row : unlocated) {
+            stops.add(toStop(row, stops.size() + 1, null, null));
+        }
+
+        log.debug("Planned route for group {}: {} stops, {} km in {} ms", groupId, stops.size(),
+                String.format("%.2f", sequenced.totalDistanceKm()), (System.nanoTime() - started) / 1_000_000);
+
+        return route.totalDistanceKm(sequenced.totalDistanceKm())
+                .stops(stops)
+                .build();
+    }
+
+    private DeliveryRouteStopDTO toStop(Object[] row, int sequence, Double legDistanceKm, Double cumulativeDistanceKm) {
+        return DeliveryRouteStopDTO.builder()
+                .sequence(sequence)
+                .shopOrderId((Long) row[0])
+                .orderId((Long) row[1])
+                .orderCode((String) row[2])
+                .latitude((Double) row[3])
+                .longitude((Double) row[4])
+                .street((String) row[5])
+                .region((String) row[6])
+                .country((String) row[7])
+                .located(legDistanceKm != null)
+                .legDistanceKm(legDistanceKm)
+                .cumulativeDistanceKm(cumulativeDistanceKm)
+                .build();
+    }
+}
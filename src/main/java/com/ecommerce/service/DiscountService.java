@@ -29,7 +29,7 @@ public interface DiscountService {
 
     boolean isDiscountCodeValid(String discountCode, UUID shopId);
 
-    List<Discount> getAllDiscountEntities();
+    Page<DiscountDTO> searchDiscounts(UUID shopId, Boolean active, String search, Pageable pageable);
 
     void saveAllDiscounts(List<Discount> discounts);
 }
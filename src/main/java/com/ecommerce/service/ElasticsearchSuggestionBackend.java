@@ -0,0 +1,161 @@
+package com.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+import com.ecommerce.util.PrefixSuggestionIndex;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
+import co.elastic.clients.elasticsearch.core.search.Suggestion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Elasticsearch completion-suggester backend for search suggestions. Entries
+ * are published as documents of their own index with one completion input per
+ * word suffix, matching the in-memory index. Only documents whose text or
+ * weight changed since the last publish are sent.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ElasticsearchSuggestionBackend {
+
+    private static final String INDEX = "product-suggestions";
+    private static final String SUGGESTER = "completion";
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    // Fingerprint of every published document by ID, as of the last bulk
+    // Elasticsearch confirmed. Documents sent in a bulk that failed map to
+    // null: they may or may not be in the index, so the next publish resends
+    // or deletes them.
+    private final Map<String, Integer> published = new HashMap<>();
+    private volatile boolean available;
+
+    /**
+     * Completion suggestions as response payloads, or empty when Elasticsearch
+     * is not available and the caller should fall back
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public Optional<List<Map<String, Object>>> suggest(String query, int limit) {
+        String prefix = PrefixSuggestionIndex.normalize(query);
+        if (!available || prefix.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            SearchResponse<Map> response = elasticsearchClient.search(s -> s
+                    .index(INDEX)
+                    .source(src -> src.filter(f -> f.includes("payload")))
+                    .suggest(sg -> sg.suggesters(SUGGESTER, fs -> fs
+                            .prefix(prefix)
+                            .completion(c -> c.field("suggest").size(limit).skipDuplicates(true)))),
+                    Map.class);
+
+            List<Map<String, Object>> suggestions = new ArrayList<>();
+            for (Suggestion<Map> suggestion : response.suggest().getOrDefault(SUGGESTER, List.of())) {
+                for (CompletionSuggestOption<Map> option : suggestion.completion().options()) {
+                    if (option.source() != null && option.source().get("payload") instanceof Map payload) {
+                        suggestions.add(payload);
+                    }
+                }
+            }
+            return Optional.of(suggestions);
+        } catch (Exception e) {
+            log.warn("Elasticsearch suggestions failed, using the in-memory index: {}", e.getMessage());
+            available = false;
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Bring the completion index in line with the given entries
+     */
+    public synchronized void publish(List<SearchSuggestionService.SuggestionEntry> entries) {
+        Set<String> sent = new HashSet<>();
+        try {
+            ensureIndex();
+
+            Map<String, Integer> current = new HashMap<>();
+            BulkRequest.Builder bulk = new BulkRequest.Builder();
+            for (SearchSuggestionService.SuggestionEntry entry : entries) {
+                int fingerprint = Objects.hash(entry.text(), entry.weight());
+                current.put(entry.id(), fingerprint);
+                if (!Integer.valueOf(fingerprint).equals(published.get(entry.id()))) {
+                    Map<String, Object> document = toDocument(entry);
+                    bulk.operations(op -> op.index(i -> i.index(INDEX).id(entry.id()).document(document)));
+                    sent.add(entry.id());
+                }
+            }
+            Set<String> removed = new HashSet<>(published.keySet());
+            removed.removeAll(current.keySet());
+            for (String id : removed) {
+                bulk.operations(op -> op.delete(d -> d.index(INDEX).id(id)));
+                sent.add(id);
+            }
+
+            if (!sent.isEmpty()) {
+                BulkResponse response = elasticsearchClient.bulk(bulk.build());
+                if (response.errors()) {
+                    throw new IllegalStateException("bulk request reported item errors");
+                }
+            }
+            published.clear();
+            published.putAll(current);
+            available = true;
+            log.debug("Published {} suggestion changes to Elasticsearch", sent.size());
+        } catch (Exception e) {
+            log.warn("Could not publish search suggestions to Elasticsearch: {}", e.getMessage());
+            // Part of the bulk may have been applied; what was not sent is
+            // still as last confirmed
+            sent.forEach(id -> published.put(id, null));
+            available = false;
+        }
+    }
+
+    private void ensureIndex() throws Exception {
+        boolean exists = elasticsearchClient.indices().exists(e -> e.index(INDEX)).value();
+        if (!exists) {
+            elasticsearchClient.indices().create(c -> c
+                    .index(INDEX)
+                    .mappings(m -> m
+                            .properties("suggest", p -> p.completion(cp -> cp.analyzer("simple")))
+                            .properties("payload", p -> p.object(o -> o.enabled(false)))));
+            published.clear();
+            log.info("Created Elasticsearch {} index", INDEX);
+        }
+    }
+
+    private Map<String, Object> toDocument(SearchSuggestionService.SuggestionEntry entry) {
+        String normalized = PrefixSuggestionIndex.normalize(entry.text());
+        Set<String> inputs = new LinkedHashSet<>();
+        int start = 0;
+        while (start >= 0) {
+            inputs.add(normalized.substring(start));
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+
+        Map<String, Object> suggest = new HashMap<>();
+        suggest.put("input", new ArrayList<>(inputs));
+        suggest.put("weight", (int) Math.min(entry.weight(), Integer.MAX_VALUE));
+
+        Map<String, Object> document = new HashMap<>();
+        document.put("suggest", suggest);
+        document.put("payload", entry.payload());
+        return document;
+    }
+}
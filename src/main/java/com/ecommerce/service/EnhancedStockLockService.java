@@ -2,13 +2,17 @@ package com.ecommerce.service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ecommerce.entity.StockBatch;
 import com.ecommerce.entity.StockBatchLock;
@@ -25,10 +29,17 @@ public class EnhancedStockLockService {
 
     private final StockBatchLockRepository stockBatchLockRepository;
     private final StockBatchRepository stockBatchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CartReadModel cartReadModel;
+    private final ReturnRestockService returnRestockService;
     
     // Lock expiration time in minutes
     private static final int LOCK_EXPIRY_MINUTES = 120; // 2 hours
 
+    // Expired locks restored per statement, and a cap on statements per sweep
+    private static final int SWEEP_CHUNK_SIZE = 500;
+    private static final int MAX_SWEEP_CHUNKS = 200;
+
     /**
      * Locks stock by temporarily reducing quantities from StockBatch entities
      */
@@ -46,9 +57,12 @@ public class EnhancedStockLockService {
                 log.warn("Session {} already has {} existing locks", sessionId, existingLocks.size());
                 return true; // Already locked
             }
-            // Process each lock request
-            for (BatchLockRequest request : lockRequests) {
-                StockBatch batch = stockBatchRepository.findById(request.getBatchId())
+            // Process each lock request in batch id order, the order return
+            // restocks lock the same rows in, so the two never deadlock
+            List<BatchLockRequest> orderedRequests = new ArrayList<>(lockRequests);
+            orderedRequests.sort(Comparator.comparing(BatchLockRequest::getBatchId));
+            for (BatchLockRequest request : orderedRequests) {
+                StockBatch batch = stockBatchRepository.findByIdForUpdate(request.getBatchId())
                     .orElseThrow(() -> new RuntimeException("StockBatch not found: " + request.getBatchId()));
                 
                 // Check if batch has enough available quantity
@@ -78,6 +92,7 @@ public class EnhancedStockLockService {
             // Save all locks and batch updates
             stockBatchLockRepository.saveAll(locksToCreate);
             stockBatchRepository.saveAll(batchesToUpdate);
+            cartReadModel.stockChanged(batchesToUpdate);
             
             log.info("Successfully locked stock for session {}: {} locks created, {} batches updated", 
                     sessionId, locksToCreate.size(), batchesToUpdate.size());
@@ -105,28 +120,33 @@ public class EnhancedStockLockService {
                 return;
             }
             
+            // Put the units back with relative updates in batch id order, so
+            // a restock or checkout writing the same batches meanwhile is not
+            // overwritten and the two lock rows in the same order
+            Map<Long, Integer> increments = new TreeMap<>();
+            Set<Long> stockIds = new TreeSet<>();
             List<StockBatch> batchesToUpdate = new ArrayList<>();
             
             int totalRestoredQuantity = 0;
             for (StockBatchLock lock : locks) {
                 StockBatch batch = lock.getStockBatch();
                 if (batch != null) {
-                    int previousQuantity = batch.getQuantity();
                     int quantityToRestore = lock.getLockedQuantity();
                     
-                    batch.increaseQuantity(quantityToRestore);
+                    increments.merge(batch.getId(), quantityToRestore, Integer::sum);
+                    stockIds.add(batch.getStock().getId());
                     batchesToUpdate.add(batch);
                     totalRestoredQuantity += quantityToRestore;
                     
-                    log.info("STOCK UNLOCK: Batch {} - Previous: {}, Restoring: {}, New: {} (Product: {}, Variant: {})", 
-                            batch.getBatchNumber(), previousQuantity, quantityToRestore, 
-                            batch.getQuantity(), lock.getProductName(), lock.getVariantName());
+                    log.info("STOCK UNLOCK: Batch {} - Restoring: {} (Product: {}, Variant: {})", 
+                            batch.getBatchNumber(), quantityToRestore, lock.getProductName(), lock.getVariantName());
                 }
             }
             
-            // Save batch updates and delete locks
-            stockBatchRepository.saveAll(batchesToUpdate);
+            // Restore batch quantities and delete locks
+            returnRestockService.restock(increments, stockIds);
             stockBatchLockRepository.deleteAll(locks);
+            cartReadModel.stockChanged(batchesToUpdate);
             
             log.info("Successfully unlocked {} batches for session: {} (Total quantity restored: {})", 
                     locks.size(), sessionId, totalRestoredQuantity);
@@ -233,42 +253,30 @@ public class EnhancedStockLockService {
     }
 
     /**
-     * Scheduled cleanup of expired locks
+     * Restores and deletes expired locks in chunks, each chunk one set-based
+     * statement committed on its own. Scheduling is owned by
+     * StockLockCleanupScheduler, which guards this with a cluster lease.
+     *
+     * @return number of stock batches whose quantity was restored
      */
-    @Scheduled(fixedRate = 300000)
-    @Transactional
-    public void cleanupExpiredLocks() {
-        try {
-            LocalDateTime cutoffTime = LocalDateTime.now().minusMinutes(LOCK_EXPIRY_MINUTES);
-            List<StockBatchLock> expiredLocks = stockBatchLockRepository.findExpiredLocks(cutoffTime);
-            
-            if (expiredLocks.isEmpty()) {
-                return;
+    public int cleanupExpiredLocks() {
+        LocalDateTime now = LocalDateTime.now();
+        int restoredBatches = 0;
+        for (int chunk = 0; chunk < MAX_SWEEP_CHUNKS; chunk++) {
+            Integer restored = transactionTemplate.execute(
+                    status -> stockBatchLockRepository.restoreExpiredLocks(now, SWEEP_CHUNK_SIZE));
+            if (restored == null || restored == 0) {
+                break;
             }
-            
-            log.info("Found {} expired batch locks to cleanup", expiredLocks.size());
-            
-            List<StockBatch> batchesToUpdate = new ArrayList<>();
-            
-            for (StockBatchLock lock : expiredLocks) {
-                StockBatch batch = lock.getStockBatch();
-                if (batch != null) {
-                    batch.increaseQuantity(lock.getLockedQuantity());
-                    batchesToUpdate.add(batch);
-                    
-                    log.debug("Restored {} units to batch {} from expired lock", 
-                            lock.getLockedQuantity(), batch.getBatchNumber());
-                }
-            }
-            
-            stockBatchRepository.saveAll(batchesToUpdate);
-            stockBatchLockRepository.deleteAll(expiredLocks);
-            
-            log.info("Successfully cleaned up {} expired batch locks", expiredLocks.size());
-            
-        } catch (Exception e) {
-            log.error("Error during expired lock cleanup: {}", e.getMessage(), e);
+            restoredBatches += restored;
+        }
+
+        if (restoredBatches > 0) {
+            log.info("Restored quantity to {} stock batches from expired locks", restoredBatches);
+            // The sweep does not say which products the batches belong to
+            cartReadModel.invalidateAll();
         }
+        return restoredBatches;
     }
 
     /**
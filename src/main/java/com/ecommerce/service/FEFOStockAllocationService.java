@@ -23,6 +23,7 @@ public class FEFOStockAllocationService {
 
     private final StockBatchRepository stockBatchRepository;
     private final StockRepository stockRepository;
+    private final CartReadModel cartReadModel;
 
     @Transactional
     public List<BatchAllocation> allocateStock(Product product, ProductVariant variant, int requestedQuantity, Long warehouseId) {
@@ -90,6 +91,7 @@ public class FEFOStockAllocationService {
             
             stockBatchRepository.save(batch);
         }
+        cartReadModel.stockChanged(allocations.stream().map(BatchAllocation::getStockBatch).toList());
     }
 
     private List<StockBatch> getAvailableBatchesFEFO(Stock stock) {
@@ -130,6 +132,7 @@ public class FEFOStockAllocationService {
         if (batch.getExpiryDate() != null && batch.getExpiryDate().isBefore(LocalDateTime.now())) {
             batch.setStatus(BatchStatus.EXPIRED);
             stockBatchRepository.save(batch);
+            cartReadModel.stockChanged(List.of(batch));
         }
     }
 
@@ -4,6 +4,9 @@ import com.ecommerce.dto.CreateMoneyFlowDTO;
 import com.ecommerce.dto.MoneyFlowDTO;
 import com.ecommerce.dto.MoneyFlowResponseDTO;
 import com.ecommerce.entity.MoneyFlow;
+import com.ecommerce.entity.MoneyFlowCheckpoint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -22,9 +25,19 @@ public interface MoneyFlowService {
      * Get money flow data with automatic granularity determination
      * @param start Start date/time
      * @param end End date/time
+     * @param includeTransactions Attach each bucket's transactions (minute and hour granularity only)
      * @return Aggregated money flow data
      */
-    MoneyFlowResponseDTO getMoneyFlow(LocalDateTime start, LocalDateTime end);
+    MoneyFlowResponseDTO getMoneyFlow(LocalDateTime start, LocalDateTime end, boolean includeTransactions);
+
+    /**
+     * Page through the transactions of one aggregation bucket
+     * @param granularity minute, hour, day, week, month or year
+     * @param bucketStart Any time within the bucket
+     * @param pageable Page to return
+     * @return The bucket's transactions, oldest first
+     */
+    Page<MoneyFlowDTO> getBucketTransactions(String granularity, LocalDateTime bucketStart, Pageable pageable);
 
     /**
      * Get all money flow transactions within a date range
@@ -59,4 +72,11 @@ public interface MoneyFlowService {
      * @return Net revenue amount
      */
     BigDecimal getNetRevenue();
+
+    /**
+     * Snapshot the balance counter and check it against the ledger entries
+     * recorded since the previous checkpoint
+     * @return The stored checkpoint
+     */
+    MoneyFlowCheckpoint createCheckpoint();
 }
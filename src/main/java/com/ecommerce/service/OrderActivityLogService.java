@@ -7,15 +7,24 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Records and reads the order activity timeline. Logged activities are handed
+ * to {@link OrderActivityLogWriter} and written once the calling transaction
+ * commits.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -26,9 +35,9 @@ public class OrderActivityLogService {
         private final com.ecommerce.repository.OrderTrackingTokenRepository orderTrackingTokenRepository;
         private final com.ecommerce.repository.OrderRepository orderRepository;
         private final com.ecommerce.repository.OrderDeliveryNoteRepository orderDeliveryNoteRepository;
+        private final OrderActivityLogWriter activityLogWriter;
 
-        @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
-        public OrderActivityLog logActivity(
+        public void logActivity(
                         Long orderId,
                         OrderActivityLog.ActivityType activityType,
                         String title,
@@ -39,70 +48,26 @@ public class OrderActivityLogService {
                         String referenceId,
                         String referenceType,
                         Map<String, Object> metadata) {
-                try {
-                        // Get the order entity for proper relationship
-                        com.ecommerce.entity.Order order = orderRepository.findById(orderId)
-                                        .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
-
-                        OrderActivityLog activityLog = OrderActivityLog.builder()
-                                        .order(order)
-                                        .activityType(activityType)
-                                        .title(title)
-                                        .description(description)
-                                        .timestamp(LocalDateTime.now())
-                                        .actorType(actorType)
-                                        .actorId(actorId)
-                                        .actorName(actorName)
-                                        .referenceId(referenceId)
-                                        .referenceType(referenceType)
-                                        .metadata(metadata != null ? objectMapper.writeValueAsString(metadata) : null)
-                                        .build();
-
-                        OrderActivityLog saved = activityLogRepository.save(activityLog);
-                        return saved;
-
-                } catch (JsonProcessingException e) {
-                        log.error("Failed to serialize metadata for order activity log: {}", e.getMessage());
-
-                        // Get the order entity for proper relationship
-                        com.ecommerce.entity.Order order = orderRepository.findById(orderId)
-                                        .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
-
-                        OrderActivityLog activityLog = OrderActivityLog.builder()
-                                        .order(order)
-                                        .activityType(activityType)
-                                        .title(title)
-                                        .description(description)
-                                        .timestamp(LocalDateTime.now())
-                                        .actorType(actorType)
-                                        .actorId(actorId)
-                                        .actorName(actorName)
-                                        .referenceId(referenceId)
-                                        .referenceType(referenceType)
-                                        .build();
-
-                        return activityLogRepository.save(activityLog);
-                }
+                activityLogWriter.write(List.of(entry(orderId, activityType, title, description, actorType,
+                                actorId, actorName, referenceId, referenceType, toJson(metadata))));
         }
 
         /**
          * Simplified method to log activity without metadata
          */
-        @Transactional
-        public OrderActivityLog logActivity(
+        public void logActivity(
                         Long orderId,
                         OrderActivityLog.ActivityType activityType,
                         String title,
                         String description) {
-                return logActivity(orderId, activityType, title, description,
+                logActivity(orderId, activityType, title, description,
                                 "SYSTEM", null, "System", null, null, null);
         }
 
         /**
          * Log activity with actor information
          */
-        @Transactional
-        public OrderActivityLog logActivityWithActor(
+        public void logActivityWithActor(
                         Long orderId,
                         OrderActivityLog.ActivityType activityType,
                         String title,
@@ -110,7 +75,7 @@ public class OrderActivityLogService {
                         String actorType,
                         String actorId,
                         String actorName) {
-                return logActivity(orderId, activityType, title, description,
+                logActivity(orderId, activityType, title, description,
                                 actorType, actorId, actorName, null, null, null);
         }
 
@@ -121,27 +86,44 @@ public class OrderActivityLogService {
         public List<OrderActivityLogDTO> getOrderTimeline(Long orderId) {
                 log.info("Fetching complete timeline for order {}", orderId);
                 List<OrderActivityLog> logs = activityLogRepository.findByOrderIdOrderByTimestampAsc(orderId);
-                return logs.stream()
-                                .map(OrderActivityLogDTO::fromEntity)
-                                .map(this::enrichWithDeliveryNote)
-                                .collect(Collectors.toList());
+                return toDTOs(logs);
         }
 
         /**
-         * Enrich activity DTO with delivery note details if applicable
+         * Map logs to DTOs, attaching the delivery notes they reference with
+         * one lookup for all of them
          */
-        private OrderActivityLogDTO enrichWithDeliveryNote(OrderActivityLogDTO dto) {
-                if ("DELIVERY_NOTE".equals(dto.getReferenceType()) && dto.getReferenceId() != null) {
-                        try {
-                                Long noteId = Long.parseLong(dto.getReferenceId());
-                                orderDeliveryNoteRepository.findById(noteId).ifPresent(note -> {
-                                        dto.setDeliveryNote(com.ecommerce.dto.OrderDeliveryNoteDTO.fromEntity(note));
-                                });
-                        } catch (NumberFormatException e) {
-                                log.warn("Invalid delivery note ID format: {}", dto.getReferenceId());
+        private List<OrderActivityLogDTO> toDTOs(List<OrderActivityLog> logs) {
+                List<OrderActivityLogDTO> dtos = logs.stream()
+                                .map(OrderActivityLogDTO::fromEntity)
+                                .collect(Collectors.toList());
+
+                Map<OrderActivityLogDTO, Long> noteIds = new IdentityHashMap<>();
+                for (OrderActivityLogDTO dto : dtos) {
+                        if ("DELIVERY_NOTE".equals(dto.getReferenceType()) && dto.getReferenceId() != null) {
+                                try {
+                                        noteIds.put(dto, Long.parseLong(dto.getReferenceId()));
+                                } catch (NumberFormatException e) {
+                                        log.warn("Invalid delivery note ID format: {}", dto.getReferenceId());
+                                }
                         }
                 }
-                return dto;
+                if (noteIds.isEmpty()) {
+                        return dtos;
+                }
+
+                Map<Long, com.ecommerce.entity.OrderDeliveryNote> notes = orderDeliveryNoteRepository
+                                .findAllById(noteIds.values().stream().distinct().toList())
+                                .stream()
+                                .collect(Collectors.toMap(com.ecommerce.entity.OrderDeliveryNote::getNoteId,
+                                                Function.identity()));
+                noteIds.forEach((dto, noteId) -> {
+                        com.ecommerce.entity.OrderDeliveryNote note = notes.get(noteId);
+                        if (note != null) {
+                                dto.setDeliveryNote(com.ecommerce.dto.OrderDeliveryNoteDTO.fromEntity(note));
+                        }
+                });
+                return dtos;
         }
 
         @Transactional(readOnly = true)
@@ -167,10 +149,7 @@ public class OrderActivityLogService {
                 }
 
                 List<OrderActivityLog> logs = activityLogRepository.findByOrderIdOrderByTimestampAsc(orderId);
-                return logs.stream()
-                                .map(OrderActivityLogDTO::fromEntity)
-                                .map(this::enrichWithDeliveryNote)
-                                .collect(Collectors.toList());
+                return toDTOs(logs);
         }
 
         @Transactional(readOnly = true)
@@ -181,10 +160,7 @@ public class OrderActivityLogService {
                 log.info("Fetching timeline for order {} between {} and {}", orderId, startDate, endDate);
                 List<OrderActivityLog> logs = activityLogRepository.findByOrderIdAndDateRange(
                                 orderId, startDate, endDate);
-                return logs.stream()
-                                .map(OrderActivityLogDTO::fromEntity)
-                                .map(this::enrichWithDeliveryNote)
-                                .collect(Collectors.toList());
+                return toDTOs(logs);
         }
 
         /**
@@ -197,10 +173,7 @@ public class OrderActivityLogService {
                 log.info("Fetching {} activities for order {}", activityType, orderId);
                 List<OrderActivityLog> logs = activityLogRepository
                                 .findByOrderIdAndActivityTypeOrderByTimestampAsc(orderId, activityType);
-                return logs.stream()
-                                .map(OrderActivityLogDTO::fromEntity)
-                                .map(this::enrichWithDeliveryNote)
-                                .collect(Collectors.toList());
+                return toDTOs(logs);
         }
 
         /**
@@ -209,12 +182,9 @@ public class OrderActivityLogService {
         @Transactional(readOnly = true)
         public List<OrderActivityLogDTO> getRecentActivities(Long orderId, int limit) {
                 log.info("Fetching {} recent activities for order {}", limit, orderId);
-                List<OrderActivityLog> logs = activityLogRepository.findRecentByOrderId(orderId);
-                return logs.stream()
-                                .limit(limit)
-                                .map(OrderActivityLogDTO::fromEntity)
-                                .map(this::enrichWithDeliveryNote)
-                                .collect(Collectors.toList());
+                List<OrderActivityLog> logs = activityLogRepository.findRecentByOrderId(orderId,
+                                PageRequest.of(0, Math.max(1, limit)));
+                return toDTOs(logs);
         }
 
         /**
@@ -240,7 +210,6 @@ public class OrderActivityLogService {
         /**
          * Log order placement
          */
-        @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
         public void logOrderPlaced(Long orderId, String customerName) {
                 logActivity(
                                 orderId,
@@ -255,7 +224,6 @@ public class OrderActivityLogService {
                                 null);
         }
 
-        @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
         public void logPaymentCompleted(Long orderId, String paymentMethod, Double amount) {
                 logActivity(
                                 orderId,
@@ -293,25 +261,56 @@ public class OrderActivityLogService {
                                                 "agentPhone", deliveryAgentPhone));
         }
 
+        /**
+         * Log ADDED_TO_DELIVERY_GROUP for many orders; the entries are written
+         * together in one batch
+         */
+        public void logAddedToDeliveryGroupBatch(
+                        List<Long> orderIds,
+                        String deliveryGroupName,
+                        String deliveryAgentName,
+                        String deliveryAgentPhone,
+                        Long deliveryGroupId) {
+                String description = String.format("Added to delivery group '%s' assigned to %s (%s)",
+                                deliveryGroupName, deliveryAgentName, deliveryAgentPhone);
+                String metadata = toJson(Map.of(
+                                "deliveryGroupName", deliveryGroupName,
+                                "agentName", deliveryAgentName,
+                                "agentPhone", deliveryAgentPhone));
+
+                activityLogWriter.write(orderIds.stream()
+                                .map(orderId -> entry(orderId, OrderActivityLog.ActivityType.ADDED_TO_DELIVERY_GROUP,
+                                                "Added to Delivery Group", description, "SYSTEM", null,
+                                                "Delivery System", String.valueOf(deliveryGroupId), "DELIVERY_GROUP",
+                                                metadata))
+                                .toList());
+        }
+
         /**
          * Log delivery started
          */
         public void logDeliveryStarted(Long orderId, String deliveryGroupName, String deliveryAgentName,
                         String agentId) {
-                logActivity(
-                                orderId,
-                                OrderActivityLog.ActivityType.DELIVERY_STARTED,
-                                "Delivery Started",
-                                String.format("Delivery agent %s started delivery for group '%s'", deliveryAgentName,
-                                                deliveryGroupName),
-                                "DELIVERY_AGENT",
-                                agentId,
-                                deliveryAgentName,
-                                deliveryGroupName,
-                                "DELIVERY_GROUP",
-                                Map.of(
-                                                "deliveryGroupName", deliveryGroupName,
-                                                "agentName", deliveryAgentName));
+                logDeliveryStartedBatch(List.of(orderId), deliveryGroupName, deliveryAgentName, agentId);
+        }
+
+        /**
+         * Log delivery started for every order of a delivery group; the entries
+         * are written together in one batch
+         */
+        public void logDeliveryStartedBatch(List<Long> orderIds, String deliveryGroupName, String deliveryAgentName,
+                        String agentId) {
+                String description = String.format("Delivery agent %s started delivery for group '%s'",
+                                deliveryAgentName, deliveryGroupName);
+                String metadata = toJson(Map.of(
+                                "deliveryGroupName", deliveryGroupName,
+                                "agentName", deliveryAgentName));
+
+                activityLogWriter.write(orderIds.stream()
+                                .map(orderId -> entry(orderId, OrderActivityLog.ActivityType.DELIVERY_STARTED,
+                                                "Delivery Started", description, "DELIVERY_AGENT", agentId,
+                                                deliveryAgentName, deliveryGroupName, "DELIVERY_GROUP", metadata))
+                                .toList());
         }
 
         /**
@@ -363,20 +362,16 @@ public class OrderActivityLogService {
                         metadata.put("category", noteCategory);
                 }
 
-                for (Long orderId : orderIds) {
-                        logActivity(
-                                        orderId,
-                                        OrderActivityLog.ActivityType.DELIVERY_NOTE_ADDED,
-                                        "Group Delivery Note Added",
-                                        String.format("Group note added by %s for delivery group '%s': %s",
-                                                        deliveryAgentName, deliveryGroupName, note),
-                                        "DELIVERY_AGENT",
-                                        agentId,
-                                        deliveryAgentName,
-                                        String.valueOf(deliveryNoteId),
-                                        "DELIVERY_NOTE",
-                                        metadata);
-                }
+                String description = String.format("Group note added by %s for delivery group '%s': %s",
+                                deliveryAgentName, deliveryGroupName, note);
+                String metadataJson = toJson(metadata);
+
+                activityLogWriter.write(orderIds.stream()
+                                .map(orderId -> entry(orderId, OrderActivityLog.ActivityType.DELIVERY_NOTE_ADDED,
+                                                "Group Delivery Note Added", description, "DELIVERY_AGENT", agentId,
+                                                deliveryAgentName, String.valueOf(deliveryNoteId), "DELIVERY_NOTE",
+                                                metadataJson))
+                                .toList());
         }
 
         /**
@@ -529,4 +524,33 @@ public class OrderActivityLogService {
                                 null,
                                 Map.of("amount", amount, "method", refundMethod));
         }
+
+        private OrderActivityLogWriter.Entry entry(
+                        Long orderId,
+                        OrderActivityLog.ActivityType activityType,
+                        String title,
+                        String description,
+                        String actorType,
+                        String actorId,
+                        String actorName,
+                        String referenceId,
+                        String referenceType,
+                        String metadata) {
+                Objects.requireNonNull(orderId, "orderId");
+                return new OrderActivityLogWriter.Entry(orderId, activityType, title, description,
+                                LocalDateTime.now(), actorType, actorId, actorName, metadata, referenceId,
+                                referenceType);
+        }
+
+        private String toJson(Map<String, Object> metadata) {
+                if (metadata == null) {
+                        return null;
+                }
+                try {
+                        return objectMapper.writeValueAsString(metadata);
+                } catch (JsonProcessingException e) {
+                        log.error("Failed to serialize metadata for order activity log: {}", e.getMessage());
+                        return null;
+                }
+        }
 }
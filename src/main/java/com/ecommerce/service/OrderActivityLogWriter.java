@@ -0,0 +1,255 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.OrderActivityLog;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write path of the order activity log.
+ *
+ * Entries logged inside a transaction are added to order_activity_log_outbox
+ * with one JDBC batch just before it commits, so they are stored if and only
+ * if the business change is, and survive a crash. The outbox has no foreign
+ * keys, so that insert does not fail on what an entry says. The flush
+ * scheduler moves outbox rows to order_activity_logs in batches of one
+ * statement each; when the log table rejects a batch its rows are moved one
+ * by one and the offending ones dropped. A transaction pays one batched
+ * insert however many entries it logs, and nothing at all if it logs none.
+ */
+@Service
+@Slf4j
+public class OrderActivityLogWriter {
+
+    static final String OUTBOX_INSERT_SQL = "INSERT INTO order_activity_log_outbox (order_id, activity_type, "
+            + "title, description, timestamp, actor_type, actor_id, actor_name, metadata, reference_id, "
+            + "reference_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Parameter: batch size. Rows another node is moving are skipped.
+    static final String MOVE_BATCH_SQL = moveSql(
+            "id IN (SELECT id FROM order_activity_log_outbox ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)");
+
+    static final String MOVE_ONE_SQL = moveSql("id = ?");
+
+    static final String DELETE_ONE_SQL = "DELETE FROM order_activity_log_outbox WHERE id = ?";
+
+    static final String NEXT_IDS_SQL = "SELECT id FROM order_activity_log_outbox ORDER BY id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final int batchSize;
+
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+
+    public OrderActivityLogWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            @Value("${app.activity-log.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Record entries with the current transaction, or right away when there
+     * is none. Never fails the caller.
+     */
+    public void write(Collection<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insertOutboxOrDrop(new ArrayList<>(entries));
+            return;
+        }
+
+        PendingEntries pending = (PendingEntries) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEntries();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.entries.addAll(entries);
+    }
+
+    /**
+     * Move everything in the outbox to the activity log, in batches. A batch
+     * the log table rejects as a whole is moved row by row and the offending
+     * rows are dropped; on any other failure the rows stay in the outbox for
+     * the next flush.
+     *
+     * @return the number of entries written
+     */
+    public int flush() {
+        if (!flushing.compareAndSet(false, true)) {
+            return 0;
+        }
+        int written = 0;
+        try {
+            while (true) {
+                int moved;
+                try {
+                    moved = jdbcTemplate.update(MOVE_BATCH_SQL, batchSize);
+                } catch (DataIntegrityViolationException e) {
+                    moved = moveOneByOne();
+                } catch (DataAccessException e) {
+                    log.warn("Could not flush order activity logs, will retry: {}", e.getMessage());
+                    break;
+                }
+                written += moved;
+                if (moved < batchSize) {
+                    break;
+                }
+            }
+        } finally {
+            flushing.set(false);
+        }
+        if (written > 0) {
+            log.debug("Flushed {} order activity logs", written);
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Could not flush order activity logs on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Move the next batch of outbox rows one at a time, deleting the rows the
+     * log table rejects
+     *
+     * @return the number of rows handled, moved or dropped
+     */
+    private int moveOneByOne() {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, batchSize);
+        for (Long id : ids) {
+            try {
+                jdbcTemplate.update(MOVE_ONE_SQL, id);
+            } catch (DataIntegrityViolationException e) {
+                jdbcTemplate.update(DELETE_ONE_SQL, id);
+                dropped.increment();
+                log.error("Dropping order activity log {} from the outbox: {}", id, e.getMessage());
+            }
+        }
+        return ids.size();
+    }
+
+    private void insertOutbox(List<Entry> entries) {
+        jdbcTemplate.batchUpdate(OUTBOX_INSERT_SQL, entries, entries.size(), OrderActivityLogWriter::bind);
+    }
+
+    private void insertOutboxOrDrop(List<Entry> entries) {
+        try {
+            insertOutbox(entries);
+        } catch (DataAccessException e) {
+            dropped.add(entries.size());
+            log.error("Dropping {} order activity logs, the outbox is unavailable: {}", entries.size(),
+                    e.getMessage());
+        }
+    }
+
+    private static String moveSql(String outboxRows) {
+        String columns = "order_id, activity_type, title, description, timestamp, actor_type, actor_id, "
+                + "actor_name, metadata, reference_id, reference_type";
+        return "WITH moved AS (DELETE FROM order_activity_log_outbox WHERE " + outboxRows
+                + " RETURNING " + columns + ") "
+                + "INSERT INTO order_activity_logs (order_id, order_id_value, activity_type, title, description, "
+                + "timestamp, actor_type, actor_id, actor_name, metadata, reference_id, reference_type, created_at) "
+                + "SELECT order_id, order_id, activity_type, title, description, timestamp, actor_type, actor_id, "
+                + "actor_name, metadata, reference_id, reference_type, timestamp FROM moved";
+    }
+
+    private static void bind(PreparedStatement ps, Entry entry) throws SQLException {
+        ps.setObject(1, entry.orderId());
+        ps.setString(2, entry.activityType().name());
+        ps.setString(3, entry.title());
+        ps.setString(4, entry.description());
+        ps.setTimestamp(5, Timestamp.valueOf(entry.timestamp()));
+        ps.setString(6, entry.actorType());
+        ps.setString(7, entry.actorId());
+        ps.setString(8, entry.actorName());
+        ps.setString(9, entry.metadata());
+        ps.setString(10, entry.referenceId());
+        ps.setString(11, entry.referenceType());
+    }
+
+    /**
+     * One activity log row, with its time taken when it was logged rather
+     * than when it is written
+     */
+    public record Entry(Long orderId, OrderActivityLog.ActivityType activityType, String title,
+            String description, LocalDateTime timestamp, String actorType, String actorId, String actorName,
+            String metadata, String referenceId, String referenceType) {
+    }
+
+    /**
+     * Entries logged by one transaction, added to the outbox with it. A
+     * read-only transaction cannot take the insert, so its entries are added
+     * after it commits, in a transaction of their own.
+     */
+    private final class PendingEntries implements TransactionSynchronization {
+
+        private final List<Entry> entries = new ArrayList<>();
+        private boolean afterCommit;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            if (readOnly) {
+                afterCommit = true;
+                return;
+            }
+            insertOutbox(entries);
+        }
+
+        @Override
+        public void afterCommit() {
+            if (!afterCommit) {
+                return;
+            }
+            try {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                transaction.executeWithoutResult(status -> insertOutbox(entries));
+            } catch (Exception e) {
+                dropped.add(entries.size());
+                log.error("Dropping {} order activity logs of a read-only transaction: {}", entries.size(),
+                        e.getMessage());
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OrderActivityLogWriter.this);
+        }
+    }
+}
@@ -13,8 +13,6 @@ import java.util.Map;
 import java.util.UUID;
 
 public interface OrderService {
-    List<Order> getAllOrders();
-
     Page<Order> getAllOrders(Pageable pageable);
 
     List<Order> getOrdersForUser(UUID userId);
@@ -55,7 +53,7 @@ public interface OrderService {
     com.ecommerce.entity.ShopOrder updateShopOrderStatus(Long shopOrderId, String status);
 
     // Delivery agency methods
-    List<DeliveryOrderDTO> getDeliveryOrders();
+    Page<DeliveryOrderDTO> getDeliveryOrders(Pageable pageable);
 
     List<DeliveryOrderDTO> getDeliveryOrdersByStatus(String status);
 
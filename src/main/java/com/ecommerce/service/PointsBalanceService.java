@@ -0,0 +1,122 @@
+package com.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.entity.UserPointsBalance;
+import com.ecommerce.repository.UserPointsBalanceRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads and maintains the user_points_balances table. Every user_points
+ * ledger insert must be preceded by {@link #applyChange(UUID, UUID, int)} in
+ * the same transaction: the balance row is locked first, so the ledger row and
+ * the balance it produces always commit together, and the resulting balance
+ * is the one to store as the ledger row's balance_after.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PointsBalanceService {
+
+    private final UserPointsBalanceRepository userPointsBalanceRepository;
+
+    /**
+     * Points the user holds across all shops
+     */
+    @Transactional(readOnly = true)
+    public int getBalance(UUID userId) {
+        Integer balance = userPointsBalanceRepository.sumBalanceByUserId(userId);
+        return balance != null ? balance : 0;
+    }
+
+    /**
+     * Points the user holds at one shop
+     */
+    @Transactional(readOnly = true)
+    public int getShopBalance(UUID userId, UUID shopId) {
+        return userPointsBalanceRepository.findByUserIdAndShopId(userId, UserPointsBalance.keyOf(shopId))
+                .map(UserPointsBalance::getBalance)
+                .orElse(0);
+    }
+
+    @Transactional(readOnly = true)
+    public int getTotalEarned(UUID userId) {
+        Integer total = userPointsBalanceRepository.sumTotalEarnedByUserId(userId);
+        return total != null ? total : 0;
+    }
+
+    @Transactional(readOnly = true)
+    public int getTotalSpent(UUID userId) {
+        Integer total = userPointsBalanceRepository.sumTotalSpentByUserId(userId);
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Apply a signed change to the user's balance ahead of writing its ledger
+     * row. Spends at a shop only succeed while that shop's balance covers
+     * them; unscoped spends are checked against the balance across all shops
+     * with every row of the user locked.
+     *
+     * @return the shop balance after the change, or the balance across all
+     *         shops when no shop is given
+     * @throws RuntimeException when the balance does not cover a spend
+     */
+    @Transactional
+    public int applyChange(UUID userId, UUID shopId, int delta) {
+        if (delta < 0 && shopId != null) {
+            Integer balance = userPointsBalanceRepository.spendPoints(userId, shopId, -delta);
+            if (balance == null) {
+                throw new RuntimeException("Insufficient points");
+            }
+            return balance;
+        }
+        if (delta < 0) {
+            int available = userPointsBalanceRepository.findAllByUserIdForUpdate(userId).stream()
+                    .mapToInt(UserPointsBalance::getBalance)
+                    .sum();
+            if (available < -delta) {
+                throw new RuntimeException("Insufficient points");
+            }
+            userPointsBalanceRepository.addPoints(userId, UserPointsBalance.NO_SHOP, delta);
+            return available + delta;
+        }
+        Integer balance = userPointsBalanceRepository.addPoints(userId, UserPointsBalance.keyOf(shopId), delta);
+        return shopId != null ? balance : getBalance(userId);
+    }
+
+    /**
+     * Balance rows that no longer match the ledger, as (user id, shop key) pairs
+     */
+    @Transactional(readOnly = true)
+    public List<UUID[]> findDriftedBalances() {
+        List<UUID[]> drifted = new ArrayList<>();
+        for (Object[] row : userPointsBalanceRepository.findDriftedBalances(UserPointsBalance.NO_SHOP)) {
+            drifted.add(new UUID[] { (UUID) row[0], (UUID) row[1] });
+        }
+        return drifted;
+    }
+
+    /**
+     * Recompute one balance row from the ledger under its row lock
+     *
+     * @return whether the row was corrected
+     */
+    @Transactional
+    public boolean reconcile(UUID userId, UUID shopKey) {
+        userPointsBalanceRepository.insertIfMissing(userId, shopKey);
+        userPointsBalanceRepository.findByUserIdAndShopIdForUpdate(userId, shopKey);
+        boolean corrected = userPointsBalanceRepository.recomputeFromLedger(userId, shopKey,
+                UserPointsBalance.NO_SHOP) > 0;
+        if (corrected) {
+            log.warn("Corrected drifted points balance of user {} at shop {}", userId, shopKey);
+        }
+        return corrected;
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.entity.ProductDetail;
+import com.ecommerce.entity.ProductKeyword;
+import com.ecommerce.repository.ProductKeywordRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Maintains the product_keywords table from the comma-separated meta and
+ * search keywords of product details. Callers sync a product whenever its
+ * keywords may have changed, in the same transaction as the detail update.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductKeywordIndexService {
+
+    private final ProductKeywordRepository productKeywordRepository;
+
+    /**
+     * Keywords in the form they are stored and matched in: trimmed,
+     * lower-cased, without duplicates or empty entries
+     */
+    public static Set<String> parseKeywords(String... commaSeparatedLists) {
+        Set<String> keywords = new LinkedHashSet<>();
+        for (String list : commaSeparatedLists) {
+            if (list == null) {
+                continue;
+            }
+            for (String keyword : list.split(",")) {
+                String normalized = normalize(keyword);
+                if (!normalized.isEmpty()) {
+                    keywords.add(normalized);
+                }
+            }
+        }
+        return keywords;
+    }
+
+    public static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        String normalized = keyword.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > ProductKeyword.MAX_LENGTH
+                ? normalized.substring(0, ProductKeyword.MAX_LENGTH)
+                : normalized;
+    }
+
+    /**
+     * Bring the stored keywords of the detail's product in line with its
+     * current meta and search keywords, touching only rows that changed
+     */
+    @Transactional
+    public void syncKeywords(ProductDetail detail) {
+        if (detail == null || detail.getProduct() == null || detail.getProduct().getProductId() == null) {
+            return;
+        }
+        UUID productId = detail.getProduct().getProductId();
+        Set<String> wanted = parseKeywords(detail.getMetaKeywords(), detail.getSearchKeywords());
+
+        Map<String, ProductKeyword> existing = new HashMap<>();
+        for (ProductKeyword keyword : productKeywordRepository.findByProductId(productId)) {
+            existing.put(keyword.getKeyword(), keyword);
+        }
+
+        List<String> removed = new ArrayList<>();
+        for (String keyword : existing.keySet()) {
+            if (!wanted.contains(keyword)) {
+                removed.add(keyword);
+            }
+        }
+        List<ProductKeyword> added = new ArrayList<>();
+        for (String keyword : wanted) {
+            if (!existing.containsKey(keyword)) {
+                added.add(new ProductKeyword(productId, keyword));
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            productKeywordRepository.deleteByProductIdAndKeywordIn(productId, removed);
+        }
+        if (!added.isEmpty()) {
+            productKeywordRepository.saveAll(added);
+        }
+        if (!removed.isEmpty() || !added.isEmpty()) {
+            log.debug("Synced keywords of product {}: {} added, {} removed", productId, added.size(),
+                    removed.size());
+        }
+    }
+
+    @Transactional
+    public void removeProduct(UUID productId) {
+        productKeywordRepository.deleteByProductId(productId);
+    }
+}
@@ -348,11 +348,13 @@ public interface ProductService {
         /**
          * Get products by category for customers
          * 
-         * @param categoryId The category ID
-         * @param pageable   Pagination information
+         * @param categoryId            The category ID
+         * @param includeSubcategories  Whether products of descendant categories are included
+         * @param pageable              Pagination information
          * @return Page of products in the category available to customers
          */
-        Page<ManyProductsDto> getProductsByCategoryForCustomers(Long categoryId, Pageable pageable);
+        Page<ManyProductsDto> getProductsByCategoryForCustomers(Long categoryId, boolean includeSubcategories,
+                        Pageable pageable);
 
         /**
          * Get products by brand for customers
@@ -0,0 +1,400 @@
+package com.ecommerce.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.repository.ProductKeywordRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.NeighbourTable;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Precomputed item-to-item similarity for the "similar products" section.
+ *
+ * A background job scores every customer-visible product against a bounded
+ * set of candidates: products bought in the same orders, the most ordered
+ * products of its category and brand, and products sharing a keyword that is
+ * not too common. The best neighbours of each product are kept in a
+ * {@link NeighbourTable}, so serving a product page is one in-memory lookup.
+ *
+ * The score combines co-purchase cosine similarity, same category, same
+ * brand, keyword overlap and price proximity. {@link #applyNewOrders()} folds
+ * orders placed since the last run into the co-purchase counts and recomputes
+ * only the products in them; {@link #rebuildAll()} reloads everything.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSimilarityService {
+
+    private static final double CO_PURCHASE_WEIGHT = 0.45;
+    private static final double CATEGORY_WEIGHT = 0.2;
+    private static final double KEYWORD_WEIGHT = 0.15;
+    private static final double BRAND_WEIGHT = 0.1;
+    private static final double PRICE_WEIGHT = 0.1;
+
+    // Candidate bounds that keep a build roughly linear in the catalogue size
+    private static final int GROUP_CANDIDATES = 100;
+    private static final int MAX_KEYWORD_PRODUCTS = 200;
+    private static final int MAX_ORDER_PRODUCTS = 50;
+
+    // Orders are re-read this far behind the newest one seen, so an order that
+    // commits after a later-created one is still counted
+    private static final long ORDER_OVERLAP_MINUTES = 10;
+
+    private final ProductRepository productRepository;
+    private final ProductKeywordRepository productKeywordRepository;
+
+    @Value("${app.similarity.neighbours:24}")
+    private int neighbourCount;
+
+    @Value("${app.similarity.co-purchase-window-days:180}")
+    private int coPurchaseWindowDays;
+
+    // Build state; only touched by the synchronized rebuild methods
+    private Features features;
+    private LocalDateTime orderWatermark;
+    private final Map<Long, LocalDateTime> countedOrders = new HashMap<>();
+
+    private volatile NeighbourTable table = NeighbourTable.empty();
+
+    /**
+     * Most similar products, best first. Empty when the product is not in the
+     * model yet, e.g. because it was created after the last full rebuild.
+     */
+    public List<UUID> getNeighbours(UUID productId) {
+        return table.neighboursOf(productId);
+    }
+
+    /**
+     * Reload products, keywords and the co-purchase window and recompute
+     * every product's neighbours
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuildAll() {
+        long started = System.currentTimeMillis();
+
+        Features loaded = loadFeatures();
+        orderWatermark = LocalDateTime.now().minusDays(coPurchaseWindowDays);
+        countedOrders.clear();
+        foldOrders(loaded, productRepository.findOrderedProductsSince(orderWatermark));
+        loaded.buildGroups();
+
+        Map<Integer, int[]> neighbours = new HashMap<>();
+        Map<Integer, float[]> scores = new HashMap<>();
+        int[] seen = new int[loaded.size()];
+        for (int row = 0; row < loaded.size(); row++) {
+            computeRow(loaded, row, seen, row + 1, neighbours, scores);
+        }
+        table = NeighbourTable.of(loaded.products).withRows(neighbours, scores);
+        features = loaded;
+
+        log.info("Built product similarity model for {} products from {} orders in {} ms",
+                loaded.size(), countedOrders.size(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Count orders placed since the last run and recompute the neighbours of
+     * the products in them
+     *
+     * @return the number of products recomputed
+     */
+    @Transactional(readOnly = true)
+    public synchronized int applyNewOrders() {
+        if (features == null) {
+            return 0;
+        }
+        Set<Integer> touched = foldOrders(features,
+                productRepository.findOrderedProductsSince(orderWatermark.minusMinutes(ORDER_OVERLAP_MINUTES)));
+        if (touched.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, int[]> neighbours = new HashMap<>();
+        Map<Integer, float[]> scores = new HashMap<>();
+        int[] seen = new int[features.size()];
+        int stamp = 0;
+        for (int row : touched) {
+            computeRow(features, row, seen, ++stamp, neighbours, scores);
+        }
+        table = table.withRows(neighbours, scores);
+        log.debug("Recomputed similar products of {} products after new orders", touched.size());
+        return touched.size();
+    }
+
+    private Features loadFeatures() {
+        List<Object[]> sources = productRepository.findSimilaritySources();
+        Features loaded = new Features(sources.size());
+
+        Map<Long, Integer> categoryIds = new HashMap<>();
+        Map<UUID, Integer> brandIds = new HashMap<>();
+        for (int row = 0; row < sources.size(); row++) {
+            Object[] source = sources.get(row);
+            loaded.products[row] = (UUID) source[0];
+            loaded.rows.put((UUID) source[0], row);
+            loaded.category[row] = source[1] == null ? -1
+                    : categoryIds.computeIfAbsent((Long) source[1], id -> categoryIds.size());
+            loaded.brand[row] = source[2] == null ? -1
+                    : brandIds.computeIfAbsent((UUID) source[2], id -> brandIds.size());
+            loaded.price[row] = source[3] == null ? 0 : ((BigDecimal) source[3]).doubleValue();
+        }
+
+        Map<String, Integer> keywordIds = new HashMap<>();
+        Map<Integer, Set<Integer>> productKeywords = new HashMap<>();
+        for (Object[] keyword : productKeywordRepository.findAllProductIdsAndKeywords()) {
+            Integer row = loaded.rows.get((UUID) keyword[0]);
+            if (row != null) {
+                int id = keywordIds.computeIfAbsent((String) keyword[1], k -> keywordIds.size());
+                productKeywords.computeIfAbsent(row, r -> new HashSet<>()).add(id);
+            }
+        }
+        for (Map.Entry<Integer, Set<Integer>> entry : productKeywords.entrySet()) {
+            int[] ids = entry.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+            loaded.keywords[entry.getKey()] = ids;
+        }
+        return loaded;
+    }
+
+    /**
+     * Add the co-purchases of orders not counted yet. Rows come ordered by
+     * order, one per order line.
+     *
+     * @return the rows of every product in a newly counted order
+     */
+    private Set<Integer> foldOrders(Features f, List<Object[]> lines) {
+        Set<Integer> touched = new HashSet<>();
+        int i = 0;
+        while (i < lines.size()) {
+            Long orderId = (Long) lines.get(i)[0];
+            LocalDateTime placedAt = (LocalDateTime) lines.get(i)[1];
+            Set<Integer> orderRows = new LinkedHashSet<>();
+            for (; i < lines.size() && orderId.equals(lines.get(i)[0]); i++) {
+                Integer row = lines.get(i)[2] == null ? null : f.rows.get((UUID) lines.get(i)[2]);
+                if (row != null && orderRows.size() < MAX_ORDER_PRODUCTS) {
+                    orderRows.add(row);
+                }
+            }
+            if (placedAt == null || countedOrders.putIfAbsent(orderId, placedAt) != null) {
+                continue;
+            }
+            if (placedAt.isAfter(orderWatermark)) {
+                orderWatermark = placedAt;
+            }
+
+            int[] items = orderRows.stream().mapToInt(Integer::intValue).toArray();
+            for (int a = 0; a < items.length; a++) {
+                f.orderCounts[items[a]]++;
+                touched.add(items[a]);
+                for (int b = a + 1; b < items.length; b++) {
+                    f.addCoPurchase(items[a], items[b]);
+                    f.addCoPurchase(items[b], items[a]);
+                }
+            }
+        }
+        LocalDateTime oldestKept = orderWatermark.minusMinutes(ORDER_OVERLAP_MINUTES);
+        countedOrders.values().removeIf(placedAt -> placedAt.isBefore(oldestKept));
+        return touched;
+    }
+
+    /**
+     * Score the candidates of one product and keep the best ones. {@code seen}
+     * marks candidates already scored with the given stamp, which must differ
+     * between calls sharing the array.
+     */
+    private void computeRow(Features f, int row, int[] seen, int stamp, Map<Integer, int[]> neighbours,
+            Map<Integer, float[]> scores) {
+        int limit = Math.max(0, neighbourCount);
+        int[] topRows = new int[limit];
+        float[] topScores = new float[limit];
+        int count = 0;
+
+        seen[row] = stamp;
+        for (int[] group : f.candidateGroups(row)) {
+            for (int candidate : group) {
+                if (seen[candidate] == stamp) {
+                    continue;
+                }
+                seen[candidate] = stamp;
+                float score = (float) score(f, row, candidate);
+                if (limit == 0 || score <= 0 || (count == limit && score <= topScores[count - 1])) {
+                    continue;
+                }
+                // Insertion into the descending top list
+                int position = count < limit ? count++ : limit - 1;
+                while (position > 0 && topScores[position - 1] < score) {
+                    topRows[position] = topRows[position - 1];
+                    topScores[position] = topScores[position - 1];
+                    position--;
+                }
+                topRows[position] = candidate;
+                topScores[position] = score;
+            }
+        }
+        neighbours.put(row, Arrays.copyOf(topRows, count));
+        scores.put(row, Arrays.copyOf(topScores, count));
+    }
+
+    private double score(Features f, int a, int b) {
+        double score = 0;
+
+        Map<Integer, Integer> together = f.coPurchases.get(a);
+        Integer coPurchases = together != null ? together.get(b) : null;
+        if (coPurchases != null) {
+            score += CO_PURCHASE_WEIGHT * coPurchases / Math.sqrt((double) f.orderCounts[a] * f.orderCounts[b]);
+        }
+        if (f.category[a] >= 0 && f.category[a] == f.category[b]) {
+            score += CATEGORY_WEIGHT;
+        }
+        if (f.brand[a] >= 0 && f.brand[a] == f.brand[b]) {
+            score += BRAND_WEIGHT;
+        }
+        score += KEYWORD_WEIGHT * jaccard(f.keywords[a], f.keywords[b]);
+        if (f.price[a] > 0 && f.price[b] > 0) {
+            score += PRICE_WEIGHT * Math.min(f.price[a], f.price[b]) / Math.max(f.price[a], f.price[b]);
+        }
+        return score;
+    }
+
+    // Overlap of two sorted keyword id arrays
+    private static double jaccard(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return 0;
+        }
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (double) shared / (a.length + b.length - shared);
+    }
+
+    /**
+     * Per-product features by row, plus the candidate lists derived from them
+     */
+    private static final class Features {
+
+        private static final int[] NONE = new int[0];
+
+        final UUID[] products;
+        final Map<UUID, Integer> rows;
+        final int[] category;
+        final int[] brand;
+        final double[] price;
+        final int[][] keywords;
+        final int[] orderCounts;
+        // Per row: co-purchased row -> number of orders with both, null until the first
+        final List<Map<Integer, Integer>> coPurchases;
+
+        Map<Integer, int[]> categoryMembers = Map.of();
+        Map<Integer, int[]> brandMembers = Map.of();
+        Map<Integer, int[]> keywordMembers = Map.of();
+
+        Features(int size) {
+            products = new UUID[size];
+            rows = new HashMap<>(size * 2);
+            category = new int[size];
+            brand = new int[size];
+            price = new double[size];
+            keywords = new int[size][];
+            Arrays.fill(keywords, NONE);
+            orderCounts = new int[size];
+            coPurchases = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                coPurchases.add(null);
+            }
+        }
+
+        int size() {
+            return products.length;
+        }
+
+        void addCoPurchase(int a, int b) {
+            Map<Integer, Integer> together = coPurchases.get(a);
+            if (together == null) {
+                together = new HashMap<>();
+                coPurchases.set(a, together);
+            }
+            together.merge(b, 1, Integer::sum);
+        }
+
+        /**
+         * Candidate lists per category and brand (their most ordered products)
+         * and per keyword (skipping keywords too common to tell products apart)
+         */
+        void buildGroups() {
+            Map<Integer, List<Integer>> byCategory = new HashMap<>();
+            Map<Integer, List<Integer>> byBrand = new HashMap<>();
+            Map<Integer, List<Integer>> byKeyword = new HashMap<>();
+            for (int row = 0; row < size(); row++) {
+                if (category[row] >= 0) {
+                    byCategory.computeIfAbsent(category[row], c -> new ArrayList<>()).add(row);
+                }
+                if (brand[row] >= 0) {
+                    byBrand.computeIfAbsent(brand[row], b -> new ArrayList<>()).add(row);
+                }
+                for (int keyword : keywords[row]) {
+                    byKeyword.computeIfAbsent(keyword, k -> new ArrayList<>()).add(row);
+                }
+            }
+            categoryMembers = mostOrdered(byCategory);
+            brandMembers = mostOrdered(byBrand);
+
+            Map<Integer, int[]> keywordGroups = new HashMap<>();
+            for (Map.Entry<Integer, List<Integer>> group : byKeyword.entrySet()) {
+                if (group.getValue().size() > 1 && group.getValue().size() <= MAX_KEYWORD_PRODUCTS) {
+                    keywordGroups.put(group.getKey(),
+                            group.getValue().stream().mapToInt(Integer::intValue).toArray());
+                }
+            }
+            keywordMembers = keywordGroups;
+        }
+
+        private Map<Integer, int[]> mostOrdered(Map<Integer, List<Integer>> groups) {
+            Map<Integer, int[]> result = new HashMap<>();
+            for (Map.Entry<Integer, List<Integer>> group : groups.entrySet()) {
+                result.put(group.getKey(), group.getValue().stream()
+                        .sorted((a, b) -> Integer.compare(orderCounts[b], orderCounts[a]))
+                        .limit(GROUP_CANDIDATES)
+                        .mapToInt(Integer::intValue)
+                        .toArray());
+            }
+            return result;
+        }
+
+        List<int[]> candidateGroups(int row) {
+            List<int[]> groups = new ArrayList<>();
+            Map<Integer, Integer> together = coPurchases.get(row);
+            if (together != null) {
+                groups.add(together.keySet().stream().mapToInt(Integer::intValue).toArray());
+            }
+            groups.add(categoryMembers.getOrDefault(category[row], NONE));
+            groups.add(brandMembers.getOrDefault(brand[row], NONE));
+            for (int keyword : keywords[row]) {
+                groups.add(keywordMembers.getOrDefault(keyword, NONE));
+            }
+            return groups;
+        }
+    }
+}
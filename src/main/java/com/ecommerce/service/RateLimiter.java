@@ -0,0 +1,279 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.RateLimitProperties;
+import com.ecommerce.enums.RateLimitKey;
+import com.ecommerce.util.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Token-bucket rate limits for the public endpoints configured under
+ * app.rate-limit.
+ *
+ * Each policy keeps its own in-memory {@link TokenBucket} per client key. The
+ * key maps are bounded per policy, so keys a client can mint freely, such as
+ * tracking tokens, cannot crowd out the buckets of other policies: buckets
+ * that have refilled completely are dropped, since a new bucket behaves the
+ * same, and while a policy's map is full of partly drained buckets its new
+ * keys share the policy's overflow bucket. With the shared
+ * store enabled a request that passes its local bucket must also pass the
+ * same bucket kept in rate_limit_buckets, so the limit holds across nodes.
+ */
+@Service
+@Slf4j
+public class RateLimiter {
+
+    private static final long EVICTION_MIN_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // The TokenBucket step in epoch milliseconds, as one atomic upsert.
+    // Parameters: key, now + interval, now, interval, now, interval, now, window.
+    // No row comes back when the bucket is empty.
+    static final String SHARED_TAKE_SQL = "INSERT INTO rate_limit_buckets (bucket_key, full_at_ms) VALUES (?, ?) "
+            + "ON CONFLICT (bucket_key) DO UPDATE "
+            + "SET full_at_ms = GREATEST(rate_limit_buckets.full_at_ms, ?) + ? "
+            + "WHERE GREATEST(rate_limit_buckets.full_at_ms, ?) + ? - ? <= ? "
+            + "RETURNING full_at_ms";
+
+    private final RateLimitProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Policy> policies;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    private final LongAdder sharedStoreErrors = new LongAdder();
+
+    public RateLimiter(RateLimitProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+
+        // Policies without their own bound split max-keys evenly
+        long unbounded = properties.getPolicies().values().stream().filter(config -> config.getMaxKeys() <= 0).count();
+        int defaultMaxKeys = (int) Math.max(1, properties.getMaxKeys() / Math.max(1, unbounded));
+        Map<String, Policy> configured = new LinkedHashMap<>();
+        properties.getPolicies().forEach((name, config) -> configured.put(name,
+                new Policy(name, config, config.getMaxKeys() > 0 ? config.getMaxKeys() : defaultMaxKeys)));
+        this.policies = configured;
+        log.info("Rate limiting {} with policies {}", properties.isEnabled() ? "enabled" : "disabled",
+                configured.keySet());
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && !policies.isEmpty();
+    }
+
+    /**
+     * Policies that apply to a request, in configuration order
+     */
+    public List<Route> routesFor(String method, String path) {
+        List<Route> routes = new ArrayList<>(1);
+        for (Policy policy : policies.values()) {
+            if (policy.matches(method, path, pathMatcher)) {
+                routes.add(new Route(policy.name, policy.keyBy));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Take one request from the client's bucket of a policy
+     */
+    public Decision tryAcquire(String policyName, String key) {
+        Policy policy = policies.get(policyName);
+        if (policy == null) {
+            throw new IllegalArgumentException("Unknown rate limit policy: " + policyName);
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = bucketFor(policy, key, now);
+        long wait = bucket.tryTake(now);
+        if (wait == 0 && properties.getSharedStore().isEnabled()) {
+            wait = takeShared(policy, policy.name + ":" + key);
+        }
+
+        if (wait > 0) {
+            policy.rejected.increment();
+            return new Decision(false, policy.capacity, 0, Math.max(1, (wait + 999_999_999L) / 1_000_000_000L));
+        }
+        policy.allowed.increment();
+        return new Decision(true, policy.capacity, bucket.available(now), 0);
+    }
+
+    /**
+     * Drop refilled buckets, here and in the shared store
+     */
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Policy policy : policies.values()) {
+            evictFullBuckets(policy, now, true);
+        }
+        if (properties.getSharedStore().isEnabled()) {
+            int deleted = jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE full_at_ms < ?",
+                    System.currentTimeMillis());
+            if (deleted > 0) {
+                log.debug("Deleted {} refilled shared rate limit buckets", deleted);
+            }
+        }
+    }
+
+    /**
+     * Per-policy allowed/rejected counters and the size of the key maps
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("sharedStore", properties.getSharedStore().isEnabled());
+        stats.put("trackedKeys", policies.values().stream().mapToInt(policy -> policy.buckets.size()).sum());
+        stats.put("maxKeys", policies.values().stream().mapToInt(policy -> policy.maxKeys).sum());
+        stats.put("overflowed", policies.values().stream().mapToLong(policy -> policy.overflowed.sum()).sum());
+        stats.put("sharedStoreErrors", sharedStoreErrors.sum());
+
+        Map<String, Object> policyStats = new LinkedHashMap<>();
+        for (Policy policy : policies.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("keyBy", policy.keyBy);
+            entry.put("capacity", policy.capacity);
+            entry.put("refillPerMinute", policy.refillPerMinute);
+            entry.put("allowed", policy.allowed.sum());
+            entry.put("rejected", policy.rejected.sum());
+            entry.put("trackedKeys", policy.buckets.size());
+            entry.put("maxKeys", policy.maxKeys);
+            entry.put("overflowed", policy.overflowed.sum());
+            policyStats.put(policy.name, entry);
+        }
+        stats.put("policies", policyStats);
+        return stats;
+    }
+
+    private TokenBucket bucketFor(Policy policy, String key, long now) {
+        TokenBucket bucket = policy.buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (policy.buckets.size() >= policy.maxKeys) {
+            evictFullBuckets(policy, now, false);
+            if (policy.buckets.size() >= policy.maxKeys) {
+                policy.overflowed.increment();
+                return policy.overflow;
+            }
+        }
+        return policy.buckets.computeIfAbsent(key,
+                k -> new TokenBucket(policy.capacity, policy.refillIntervalNanos, now));
+    }
+
+    /**
+     * Scan a policy's key map for refilled buckets. Outside the scheduled
+     * sweep a scan runs at most once a second per policy and never
+     * concurrently, so a flood of new keys cannot turn every request into a
+     * full scan. A request racing the removal may take from a dropped bucket,
+     * which costs one token.
+     */
+    private void evictFullBuckets(Policy policy, long now, boolean force) {
+        if (!force && now - policy.lastEviction.get() < EVICTION_MIN_INTERVAL_NANOS) {
+            return;
+        }
+        if (!policy.evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            policy.buckets.values().removeIf(bucket -> bucket.isFull(now));
+            policy.lastEviction.set(now);
+        } finally {
+            policy.evicting.set(false);
+        }
+    }
+
+    /**
+     * Take from the shared bucket; returns the nanoseconds to wait, one refill
+     * interval when it is empty. The store failing lets the request through on
+     * the local limit alone.
+     */
+    private long takeShared(Policy policy, String bucketKey) {
+        long now = System.currentTimeMillis();
+        long interval = Math.max(1, TimeUnit.NANOSECONDS.toMillis(policy.refillIntervalNanos));
+        long window = interval * policy.capacity;
+        try {
+            List<Long> taken = jdbcTemplate.query(SHARED_TAKE_SQL, (rs, rowNum) -> rs.getLong(1),
+                    bucketKey, now + interval, now, interval, now, interval, now, window);
+            return taken.isEmpty() ? policy.refillIntervalNanos : 0;
+        } catch (DataAccessException e) {
+            sharedStoreErrors.increment();
+            log.debug("Shared rate limit store unavailable: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * A policy matching a request and what its clients are told apart by
+     */
+    public record Route(String policy, RateLimitKey keyBy) {
+    }
+
+    /**
+     * Outcome of one request against one policy
+     */
+    public record Decision(boolean allowed, int limit, int remaining, long retryAfterSeconds) {
+    }
+
+    private static final class Policy {
+        final String name;
+        final List<String> paths;
+        final Set<String> methods;
+        final RateLimitKey keyBy;
+        final int capacity;
+        final double refillPerMinute;
+        final long refillIntervalNanos;
+        final int maxKeys;
+        final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        final TokenBucket overflow;
+        final AtomicBoolean evicting = new AtomicBoolean();
+        final AtomicLong lastEviction = new AtomicLong(System.nanoTime());
+        final LongAdder overflowed = new LongAdder();
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Policy(String name, RateLimitProperties.Policy config, int maxKeys) {
+            if (config.getCapacity() < 1 || config.getRefillPerMinute() <= 0) {
+                throw new IllegalArgumentException("Rate limit policy " + name
+                        + " needs a positive capacity and refill rate");
+            }
+            this.name = name;
+            this.paths = List.copyOf(config.getPaths());
+            this.methods = config.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            this.keyBy = config.getKeyBy();
+            this.capacity = config.getCapacity();
+            this.refillPerMinute = config.getRefillPerMinute();
+            this.refillIntervalNanos = Math.max(1, (long) (TimeUnit.MINUTES.toNanos(1) / refillPerMinute));
+            this.maxKeys = maxKeys;
+            this.overflow = new TokenBucket(capacity, refillIntervalNanos, System.nanoTime());
+        }
+
+        boolean matches(String method, String path, AntPathMatcher pathMatcher) {
+            if (!methods.isEmpty() && !methods.contains(method.toUpperCase(Locale.ROOT))) {
+                return false;
+            }
+            for (String pattern : paths) {
+                if (pathMatcher.match(pattern, path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -50,6 +50,10 @@ public interface ReadyForDeliveryGroupService {
 
     List<OrderDTO> getOrdersForGroup(Long groupId, UUID agentId);
 
+    DeliveryRouteDTO getDeliveryRoute(Long groupId, boolean startAtWarehouse);
+
+    DeliveryRouteDTO getDeliveryRouteForAgent(Long groupId, UUID agentId, boolean startAtWarehouse);
+
     DeliveryGroupDto startDelivery(Long groupId, UUID agentId);
 
     DeliveryGroupDto finishDelivery(Long groupId, UUID agentId);
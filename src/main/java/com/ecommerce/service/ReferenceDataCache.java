@@ -0,0 +1,174 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.ReferenceDataCacheProperties;
+import com.ecommerce.entity.ReferenceDataInvalidation;
+import com.ecommerce.enums.ReferenceDataRegion;
+import com.ecommerce.repository.ReferenceDataInvalidationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache for slowly changing reference data (warehouses, categories,
+ * brands, shipping and reward configuration, attribute types).
+ *
+ * Entries expire after the region's TTL and are dropped explicitly by the
+ * services that write the underlying rows. Invalidation takes effect when the
+ * writing transaction commits; when the cross-node channel is enabled it is
+ * also recorded in reference_data_invalidations for the other nodes to apply.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataCache {
+
+    private final ReferenceDataCacheProperties properties;
+    private final ReferenceDataInvalidationRepository invalidationRepository;
+    private final SchedulerLeaseService schedulerLeaseService;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<ReferenceDataRegion, Region> regions = createRegions();
+
+    /**
+     * Return the cached value for the key, loading and caching it on a miss.
+     * Null results are cached too. A value loaded while the region was being
+     * invalidated is returned but not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReferenceDataRegion region, Object key, Supplier<T> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+
+        Region cache = regions.get(region);
+        Entry entry = cache.entries.get(key);
+        long now = System.nanoTime();
+        if (entry != null && now - entry.expiresAtNanos < 0) {
+            cache.hits.increment();
+            return (T) entry.value;
+        }
+
+        cache.misses.increment();
+        long generation = cache.generation.get();
+        T value = loader.get();
+
+        if (cache.generation.get() == generation) {
+            if (cache.entries.size() >= properties.getMaxEntriesPerRegion()) {
+                cache.entries.clear();
+            }
+            long ttlNanos = TimeUnit.SECONDS.toNanos(properties.ttlSecondsFor(region));
+            cache.entries.put(key, new Entry(value, System.nanoTime() + ttlNanos));
+        }
+        return value;
+    }
+
+    /**
+     * Drop every entry of the region once the current transaction commits
+     * (immediately when there is none) and broadcast the change to other nodes.
+     */
+    public void invalidate(ReferenceDataRegion region) {
+        // Evict now so this transaction's own reads miss, and again after
+        // commit so a concurrent reader cannot re-cache the old rows
+        evictLocal(region);
+        runAfterCommit(() -> {
+            evictLocal(region);
+            broadcast(region);
+        });
+    }
+
+    /**
+     * Drop every entry of the region on this node only
+     */
+    public void evictLocal(ReferenceDataRegion region) {
+        Region cache = regions.get(region);
+        cache.generation.incrementAndGet();
+        cache.entries.clear();
+        cache.invalidations.increment();
+    }
+
+    /**
+     * Per-region hit/miss counters and current sizes
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map.Entry<ReferenceDataRegion, Region> e : regions.entrySet()) {
+            Region cache = e.getValue();
+            long hits = cache.hits.sum();
+            long misses = cache.misses.sum();
+            Map<String, Object> regionStats = new LinkedHashMap<>();
+            regionStats.put("size", cache.entries.size());
+            regionStats.put("hits", hits);
+            regionStats.put("misses", misses);
+            regionStats.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            regionStats.put("invalidations", cache.invalidations.sum());
+            regionStats.put("ttlSeconds", properties.ttlSecondsFor(e.getKey()));
+            stats.put(e.getKey().name(), regionStats);
+        }
+        return stats;
+    }
+
+    private void broadcast(ReferenceDataRegion region) {
+        if (!properties.getCrossNode().isEnabled()) {
+            return;
+        }
+        try {
+            ReferenceDataInvalidation invalidation = new ReferenceDataInvalidation();
+            invalidation.setRegion(region);
+            invalidation.setOrigin(schedulerLeaseService.getInstanceId());
+
+            // Runs after the caller's commit, so it needs a transaction of its own
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transaction.executeWithoutResult(status -> invalidationRepository.save(invalidation));
+        } catch (Exception e) {
+            // Other nodes still converge when their entries reach the TTL
+            log.warn("Could not broadcast {} cache invalidation: {}", region, e.getMessage());
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Map<ReferenceDataRegion, Region> createRegions() {
+        Map<ReferenceDataRegion, Region> regions = new EnumMap<>(ReferenceDataRegion.class);
+        for (ReferenceDataRegion region : ReferenceDataRegion.values()) {
+            regions.put(region, new Region());
+        }
+        return regions;
+    }
+
+    private static final class Region {
+        final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+        final AtomicLong generation = new AtomicLong();
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder invalidations = new LongAdder();
+    }
+
+    private record Entry(Object value, long expiresAtNanos) {
+    }
+}
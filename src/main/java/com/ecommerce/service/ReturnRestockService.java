@@ -0,0 +1,205 @@
+package com.ecommerce.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ecommerce.entity.OrderItemBatch;
+import com.ecommerce.entity.ReturnItem;
+import com.ecommerce.entity.StockBatch;
+import com.ecommerce.repository.StockRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Puts returned units back into the stock batches they were taken from.
+ *
+ * Each returned item is first allocated over its order item batches without
+ * touching the database. A whole pickup is then applied at once: increments
+ * are summed per stock batch and written as one JDBC batch of relative
+ * {@code quantity = quantity + ?} updates in ascending batch id order, so
+ * concurrent checkouts on the same batches never lose an update and two
+ * pickups always lock rows in the same order. The quantity counters of the
+ * affected stock rows are refreshed once at the end.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReturnRestockService {
+
+    /**
+     * Same rules as {@link StockBatch#updateStatus()}, applied to the new
+     * quantity; the increment is bound twice because the CASE sees the row as
+     * it was before the update
+     */
+    static final String INCREMENT_SQL = "UPDATE stock_batches SET quantity = quantity + ?, "
+            + "status = CASE "
+            + "    WHEN status = 'RECALLED' THEN status "
+            + "    WHEN quantity + ? <= 0 THEN 'EMPTY' "
+            + "    WHEN expiry_date IS NOT NULL AND expiry_date < NOW() THEN 'EXPIRED' "
+            + "    ELSE 'ACTIVE' "
+            + "END, "
+            + "updated_at = NOW() "
+            + "WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockRepository stockRepository;
+
+    /**
+     * Split the returned quantity of an item over the batches its order item
+     * drew from, in the order given, never putting back more than a batch gave
+     */
+    public Allocation allocate(ReturnItem returnItem, List<OrderItemBatch> orderItemBatches) {
+        Allocation allocation = new Allocation(returnItem.getId(), returnItem.getReturnQuantity());
+        int remaining = returnItem.getReturnQuantity();
+        for (OrderItemBatch orderItemBatch : orderItemBatches) {
+            if (remaining <= 0) {
+                break;
+            }
+            int quantity = Math.min(remaining, orderItemBatch.getQuantityUsed());
+            if (quantity <= 0) {
+                continue;
+            }
+            StockBatch stockBatch = orderItemBatch.getStockBatch();
+            allocation.add(stockBatch.getId(), stockBatch.getStock().getId(), quantity, stockBatch.getBatchNumber(),
+                    orderItemBatch.getWarehouse() != null ? orderItemBatch.getWarehouse().getName() : "");
+            remaining -= quantity;
+        }
+        allocation.unallocated = remaining;
+        return allocation;
+    }
+
+    /**
+     * Apply the allocations of one pickup in a single transaction
+     *
+     * @return ids of the stock batches that were restocked; a batch deleted
+     *         since the order was placed is missing from the result
+     */
+    @Transactional
+    public Set<Long> apply(Collection<Allocation> allocations) {
+        Map<Long, Integer> increments = new TreeMap<>();
+        Set<Long> stockIds = new TreeSet<>();
+        for (Allocation allocation : allocations) {
+            allocation.increments.forEach((batchId, quantity) -> increments.merge(batchId, quantity, Integer::sum));
+            stockIds.addAll(allocation.stockIds);
+        }
+        return restock(increments, stockIds);
+    }
+
+    /**
+     * Add units back to stock batches with relative updates in ascending
+     * batch id order, then refresh the quantity counters of the given stock
+     * rows. Callers outside a pickup, such as releasing a checkout's batch
+     * locks, share it so every writer putting units back locks batches the
+     * same way.
+     *
+     * @return ids of the batches that still existed and were restocked
+     */
+    @Transactional
+    public Set<Long> restock(Map<Long, Integer> increments, Collection<Long> stockIds) {
+        if (increments.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(new TreeMap<>(increments).entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(INCREMENT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setInt(1, row.getValue());
+            ps.setInt(2, row.getValue());
+            ps.setLong(3, row.getKey());
+        });
+
+        Set<Long> restocked = new HashSet<>();
+        int index = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                if (count != 0) {
+                    restocked.add(rows.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        if (restocked.size() < rows.size()) {
+            log.warn("{} of {} stock batches could not be restocked", rows.size() - restocked.size(), rows.size());
+        }
+
+        if (!stockIds.isEmpty()) {
+            stockRepository.refreshQuantitiesFromBatches(stockIds);
+        }
+        log.debug("Restocked {} stock batches across {} stock rows", restocked.size(), stockIds.size());
+        return restocked;
+    }
+
+    /**
+     * Where the returned units of one item go, before they are applied
+     */
+    public static final class Allocation {
+
+        private final Long returnItemId;
+        private final int requested;
+        private final Map<Long, Integer> increments = new LinkedHashMap<>();
+        private final Set<Long> stockIds = new HashSet<>();
+        private final List<String> batchNumbers = new ArrayList<>();
+        private String warehouseName = "";
+        private int unallocated;
+
+        private Allocation(Long returnItemId, int requested) {
+            this.returnItemId = returnItemId;
+            this.requested = requested;
+        }
+
+        private void add(Long batchId, Long stockId, int quantity, String batchNumber, String warehouse) {
+            increments.merge(batchId, quantity, Integer::sum);
+            stockIds.add(stockId);
+            batchNumbers.add(batchNumber);
+            if (warehouseName.isEmpty() && warehouse != null) {
+                warehouseName = warehouse;
+            }
+        }
+
+        public Long getReturnItemId() {
+            return returnItemId;
+        }
+
+        public Map<Long, Integer> getIncrements() {
+            return Collections.unmodifiableMap(increments);
+        }
+
+        public String getWarehouseName() {
+            return warehouseName;
+        }
+
+        public String getBatchNumbers() {
+            return String.join(", ", batchNumbers);
+        }
+
+        /**
+         * Units of this item that were not put back, given the batches that
+         * {@link ReturnRestockService#apply(Collection)} actually restocked
+         */
+        public int unrestocked(Set<Long> restockedBatchIds) {
+            int missing = unallocated;
+            for (Map.Entry<Long, Integer> increment : increments.entrySet()) {
+                if (!restockedBatchIds.contains(increment.getKey())) {
+                    missing += increment.getValue();
+                }
+            }
+            return missing;
+        }
+
+        public int getRequested() {
+            return requested;
+        }
+    }
+}
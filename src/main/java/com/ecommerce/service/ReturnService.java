@@ -6,15 +6,16 @@ import com.ecommerce.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -39,6 +40,7 @@ public class ReturnService {
     private final CloudinaryService cloudinaryService;
     private final OrderTrackingTokenRepository orderTrackingTokenRepository;
     private final OrderActivityLogService activityLogService;
+    private final KeysetPaginator keysetPaginator;
 
     private static final int DEFAULT_RETURN_DAYS = 15;
     private static final int MAX_IMAGES = 5;
@@ -338,60 +340,52 @@ public class ReturnService {
         log.info("Retrieving return requests with filters - status: {}, customerType: {}, search: {}",
                 status, customerType, search);
 
-        // Get all return requests using standard findAll to avoid query issues
-        List<ReturnRequest> allRequestsList = returnRequestRepository.findAll();
-
-        // Apply filtering in Java
-        List<ReturnRequest> filteredRequests = allRequestsList.stream()
-                .filter(rr -> {
-                    // Status filter
-                    if (status != null && !rr.getStatus().equals(status)) {
-                        return false;
-                    }
-
-                    // Customer type filter
-                    if (customerType != null && !"ALL".equals(customerType)) {
-                        if ("REGISTERED".equals(customerType) && rr.getCustomerId() == null) {
-                            return false;
-                        }
-                        if ("GUEST".equals(customerType) && rr.getCustomerId() != null) {
-                            return false;
-                        }
-                    }
-
-                    // Search filter
-                    if (search != null && !search.trim().isEmpty()) {
-                        String searchLower = search.toLowerCase();
-                        boolean matches = false;
-
-                        // Search in order code (with safe access)
-                        try {
-                            if (rr.getShopOrder() != null && rr.getShopOrder().getShopOrderCode() != null) {
-                                matches |= rr.getShopOrder().getShopOrderCode().toLowerCase().contains(searchLower);
-                            }
-                        } catch (Exception e) {
-                            // Ignore lazy loading exceptions for search
-                        }
-
-                        if (!matches) {
-                            return false;
-                        }
-                    }
-
-                    return true;
-                })
-                .sorted((rr1, rr2) -> rr2.getSubmittedAt().compareTo(rr1.getSubmittedAt()))
-                .collect(Collectors.toList());
+        Specification<ReturnRequest> spec = ReturnRequestSpecifications.withFilters(
+                status, customerType, search, dateFrom, dateTo);
 
-        // Create a new Page with filtered results
-        int start = Math.min((int) pageable.getOffset(), filteredRequests.size());
-        int end = Math.min((start + pageable.getPageSize()), filteredRequests.size());
-        List<ReturnRequest> pageContent = start < filteredRequests.size() ? filteredRequests.subList(start, end)
-                : new ArrayList<>();
+        // Newest first, with id as a stable tie-breaker for equal timestamps
+        Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Direction.DESC, "submittedAt").and(Sort.by(Sort.Direction.DESC, "id")));
 
-        Page<ReturnRequest> filteredPage = new PageImpl<>(pageContent, pageable, filteredRequests.size());
+        return returnRequestRepository.findAll(spec, sortedPageable).map(this::convertToDTO);
+    }
 
-        return filteredPage.map(this::convertToDTO);
+    /**
+     * Keyset-paginated variant of {@link #getAllReturnRequestsWithFilters}.
+     * Deep pages cost the same as the first one since no OFFSET or COUNT is
+     * involved.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ReturnRequestDTO> getReturnRequestsAfterCursor(
+            ReturnRequest.ReturnStatus status,
+            String customerType,
+            String search,
+            String dateFrom,
+            String dateTo,
+            String cursor,
+            int size) {
+
+        int limit = Math.min(Math.max(size, 1), 100);
+        Specification<ReturnRequest> spec = ReturnRequestSpecifications.withFilters(
+                status, customerType, search, dateFrom, dateTo);
+
+        List<ReturnRequest> rows = keysetPaginator.fetch(ReturnRequest.class, spec, "submittedAt", "id",
+                KeysetCursor.decode(cursor), true, limit);
+
+        boolean hasNext = rows.size() > limit;
+        List<ReturnRequest> page = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            ReturnRequest last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getSubmittedAt(), last.getId()).encode();
+        }
+
+        return CursorPageDTO.<ReturnRequestDTO>builder()
+                .content(page.stream().map(this::convertToDTO).collect(Collectors.toList()))
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
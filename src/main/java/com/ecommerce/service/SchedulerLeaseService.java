@@ -0,0 +1,52 @@
+package com.ecommerce.service;
+
+import com.ecommerce.repository.SchedulerLeaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Hands out database-backed leases so a scheduled job runs on a single node
+ * per period even when several application instances are deployed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SchedulerLeaseService {
+
+    private final SchedulerLeaseRepository schedulerLeaseRepository;
+
+    private final String instanceId = resolveInstanceId();
+
+    /**
+     * Try to take the named lease for the given duration. The lease is not
+     * released after the job finishes; letting it run out keeps other nodes
+     * from repeating the same work within the period.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean tryAcquire(String name, Duration duration) {
+        boolean acquired = schedulerLeaseRepository.tryAcquire(name, instanceId, duration.toSeconds()) > 0;
+        log.debug("Scheduler lease {} {} by {}", name, acquired ? "acquired" : "held elsewhere, skipped", instanceId);
+        return acquired;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    private static String resolveInstanceId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown-host";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,298 @@
+package com.ecommerce.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ecommerce.repository.BrandRepository;
+import com.ecommerce.repository.CategoryRepository;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.util.PrefixSuggestionIndex;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Search-as-you-type suggestions served from memory.
+ *
+ * Product names, brands, categories and product keywords are held in an
+ * immutable {@link PrefixSuggestionIndex}, weighted by recent sales, so a
+ * lookup never touches the database. Product writes call
+ * {@link #productChanged(UUID)}; the changed products are reloaded in one
+ * query by {@link #applyPendingChanges()} and a new index is swapped in. A
+ * periodic {@link #rebuildAll()} reloads everything, which also picks up
+ * brand and category changes and fresh sales figures.
+ *
+ * When app.search-suggestions.elasticsearch.enabled is true the entries are
+ * also published to an Elasticsearch completion index and served from there,
+ * with the in-memory index as the fallback.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestionService {
+
+    private static final int MAX_PER_TYPE = 5;
+    private static final int SALES_WINDOW_DAYS = 90;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final BrandRepository brandRepository;
+    private final ElasticsearchSuggestionBackend elasticsearchBackend;
+
+    @Value("${app.search-suggestions.elasticsearch.enabled:false}")
+    private boolean elasticsearchEnabled;
+
+    // Source data the index is built from; only touched by the rebuild methods
+    private final Map<UUID, ProductSource> products = new HashMap<>();
+    private final Map<Long, String> categories = new HashMap<>();
+    private final Map<UUID, String> brands = new HashMap<>();
+
+    private final Set<UUID> pendingProducts = ConcurrentHashMap.newKeySet();
+    private volatile PrefixSuggestionIndex<SuggestionEntry> index = PrefixSuggestionIndex.empty();
+
+    /**
+     * Suggestions for a partially typed query, heaviest first, with at most
+     * five of each type
+     */
+    public List<Map<String, Object>> suggest(String query, int limit) {
+        List<Map<String, Object>> candidates = null;
+        if (elasticsearchEnabled) {
+            candidates = elasticsearchBackend.suggest(query, limit * 3).orElse(null);
+        }
+        if (candidates == null) {
+            candidates = new ArrayList<>();
+            for (SuggestionEntry entry : index.search(query, limit * 3)) {
+                candidates.add(entry.payload());
+            }
+        }
+
+        List<Map<String, Object>> suggestions = new ArrayList<>(limit);
+        Map<Object, Integer> perType = new HashMap<>();
+        for (Map<String, Object> candidate : candidates) {
+            if (perType.merge(candidate.get("type"), 1, Integer::sum) <= MAX_PER_TYPE) {
+                suggestions.add(candidate);
+                if (suggestions.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    /**
+     * Queue a product for reindexing once the current transaction commits
+     * (immediately when there is none)
+     */
+    public void productChanged(UUID productId) {
+        if (productId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingProducts.add(productId);
+                }
+            });
+        } else {
+            pendingProducts.add(productId);
+        }
+    }
+
+    /**
+     * Reload the queued products and swap in a new index
+     *
+     * @return the number of products reloaded
+     */
+    @Transactional(readOnly = true)
+    public synchronized int applyPendingChanges() {
+        if (pendingProducts.isEmpty()) {
+            return 0;
+        }
+        List<UUID> changed = new ArrayList<>(pendingProducts);
+        pendingProducts.removeAll(changed);
+
+        // Products that are gone or hidden have no row and drop out of the index
+        Map<UUID, Long> unitsSold = new HashMap<>();
+        for (UUID productId : changed) {
+            ProductSource previous = products.remove(productId);
+            unitsSold.put(productId, previous != null ? previous.unitsSold() : 0L);
+        }
+        for (Object[] row : productRepository.findSuggestionSourcesByIds(changed)) {
+            ProductSource source = toProductSource(row, unitsSold.getOrDefault((UUID) row[0], 0L));
+            products.put(source.productId(), source);
+            rememberBrandAndCategory(source);
+        }
+
+        rebuildIndex();
+        log.debug("Reindexed {} changed products for search suggestions", changed.size());
+        return changed.size();
+    }
+
+    /**
+     * Reload every product, brand and category with current sales figures
+     */
+    @Transactional(readOnly = true)
+    public synchronized void rebuildAll() {
+        long started = System.currentTimeMillis();
+
+        Map<UUID, Long> unitsSold = new HashMap<>();
+        for (Object[] row : productRepository
+                .sumUnitsSoldByProductSince(LocalDateTime.now().minusDays(SALES_WINDOW_DAYS))) {
+            if (row[0] != null && row[1] != null) {
+                unitsSold.put((UUID) row[0], ((Number) row[1]).longValue());
+            }
+        }
+
+        products.clear();
+        categories.clear();
+        brands.clear();
+        for (Object[] row : categoryRepository.findActiveIdsAndNames()) {
+            categories.put((Long) row[0], (String) row[1]);
+        }
+        for (Object[] row : brandRepository.findActiveIdsAndNames()) {
+            brands.put((UUID) row[0], (String) row[1]);
+        }
+        // Changes queued before this point are covered by the full reload
+        pendingProducts.clear();
+        for (Object[] row : productRepository.findSuggestionSources()) {
+            ProductSource source = toProductSource(row, unitsSold.getOrDefault((UUID) row[0], 0L));
+            products.put(source.productId(), source);
+        }
+
+        rebuildIndex();
+        log.info("Built search suggestion index with {} entries from {} products in {} ms",
+                index.size(), products.size(), System.currentTimeMillis() - started);
+    }
+
+    private void rebuildIndex() {
+        Map<UUID, Long> brandWeights = new HashMap<>();
+        Map<Long, Long> categoryWeights = new HashMap<>();
+        Map<String, Long> keywordWeights = new HashMap<>();
+        Map<String, String> keywordTexts = new HashMap<>();
+
+        List<SuggestionEntry> entries = new ArrayList<>();
+        for (ProductSource product : products.values()) {
+            long weight = 1 + product.unitsSold();
+            if (product.name() != null && !product.name().isBlank()) {
+                entries.add(SuggestionEntry.of("suggestion-" + product.productId(), "suggestion", product.name(),
+                        weight, Map.of("searchTerm", product.name(), "productId", product.productId().toString())));
+            }
+            if (product.brandId() != null) {
+                brandWeights.merge(product.brandId(), weight, Long::sum);
+            }
+            if (product.categoryId() != null) {
+                categoryWeights.merge(product.categoryId(), weight, Long::sum);
+            }
+            for (String keyword : product.keywords()) {
+                String key = PrefixSuggestionIndex.normalize(keyword);
+                if (!key.isEmpty()) {
+                    keywordWeights.merge(key, weight, Long::sum);
+                    keywordTexts.putIfAbsent(key, keyword);
+                }
+            }
+        }
+        for (Map.Entry<Long, String> category : categories.entrySet()) {
+            if (category.getValue() == null) {
+                continue;
+            }
+            entries.add(SuggestionEntry.of("category-" + category.getKey(), "category", category.getValue(),
+                    1 + categoryWeights.getOrDefault(category.getKey(), 0L),
+                    Map.of("categoryId", category.getKey().toString())));
+        }
+        for (Map.Entry<UUID, String> brand : brands.entrySet()) {
+            if (brand.getValue() == null) {
+                continue;
+            }
+            entries.add(SuggestionEntry.of("brand-" + brand.getKey(), "brand", brand.getValue(),
+                    1 + brandWeights.getOrDefault(brand.getKey(), 0L),
+                    Map.of("brandId", brand.getKey().toString())));
+        }
+        for (Map.Entry<String, Long> keyword : keywordWeights.entrySet()) {
+            String text = keywordTexts.get(keyword.getKey());
+            entries.add(SuggestionEntry.of("keyword-" + keyword.getKey(), "keyword", text, keyword.getValue(),
+                    Map.of("searchTerm", text)));
+        }
+
+        PrefixSuggestionIndex.Builder<SuggestionEntry> builder = PrefixSuggestionIndex.builder();
+        for (SuggestionEntry entry : entries) {
+            builder.add(entry, entry.text(), entry.weight());
+        }
+        index = builder.build();
+
+        if (elasticsearchEnabled) {
+            elasticsearchBackend.publish(entries);
+        }
+    }
+
+    // Brands and categories are otherwise only refreshed by the full rebuild;
+    // make sure a product's own brand and category can be suggested right away
+    private void rememberBrandAndCategory(ProductSource source) {
+        if (source.brandId() != null && source.brandName() != null) {
+            brands.putIfAbsent(source.brandId(), source.brandName());
+        }
+        if (source.categoryId() != null && source.categoryName() != null) {
+            categories.putIfAbsent(source.categoryId(), source.categoryName());
+        }
+    }
+
+    private ProductSource toProductSource(Object[] row, long unitsSold) {
+        Set<String> keywords = new LinkedHashSet<>();
+        addKeywords(keywords, (String) row[6]);
+        addKeywords(keywords, (String) row[7]);
+        return new ProductSource((UUID) row[0], (String) row[1], (UUID) row[2], (String) row[3], (Long) row[4],
+                (String) row[5], List.copyOf(keywords), unitsSold);
+    }
+
+    private void addKeywords(Set<String> keywords, String commaSeparated) {
+        if (commaSeparated == null) {
+            return;
+        }
+        Set<String> seen = new HashSet<>();
+        for (String keyword : keywords) {
+            seen.add(PrefixSuggestionIndex.normalize(keyword));
+        }
+        for (String keyword : commaSeparated.split(",")) {
+            String trimmed = keyword.trim();
+            if (!trimmed.isEmpty() && seen.add(PrefixSuggestionIndex.normalize(trimmed))) {
+                keywords.add(trimmed);
+            }
+        }
+    }
+
+    private record ProductSource(UUID productId, String name, UUID brandId, String brandName, Long categoryId,
+            String categoryName, Collection<String> keywords, long unitsSold) {
+    }
+
+    /**
+     * One suggestion with its precomputed response payload
+     */
+    public record SuggestionEntry(String id, String type, String text, long weight, Map<String, Object> payload) {
+
+        static SuggestionEntry of(String id, String type, String text, long weight, Map<String, Object> extra) {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("id", id);
+            payload.put("text", text);
+            payload.put("type", type);
+            payload.putAll(extra);
+            return new SuggestionEntry(id, type, text, weight, Collections.unmodifiableMap(payload));
+        }
+    }
+}
@@ -86,6 +86,13 @@ public interface ShippingCostService {
     com.ecommerce.dto.ShippingDetailsDTO calculateEnhancedShippingDetails(com.ecommerce.dto.AddressDto deliveryAddress,
             java.util.List<com.ecommerce.dto.CartItemDTO> items, BigDecimal orderValue, UUID shopId);
 
+    /**
+     * Price several carts or destinations in one call. Results are returned in
+     * request order; a quote that cannot be priced carries an error instead
+     */
+    java.util.List<com.ecommerce.dto.ShippingQuoteDTO> quoteShipping(
+            java.util.List<com.ecommerce.dto.CalculateOrderShippingRequest> requests);
+
     /**
      * Toggle shipping cost active status (only one can be active at a time)
      */
@@ -0,0 +1,477 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.AddressDto;
+import com.ecommerce.dto.CalculateOrderShippingRequest;
+import com.ecommerce.dto.CartItemDTO;
+import com.ecommerce.dto.ShippingDetailsDTO;
+import com.ecommerce.dto.ShippingQuoteDTO;
+import com.ecommerce.entity.ShippingCost;
+import com.ecommerce.entity.Warehouse;
+import com.ecommerce.enums.ReferenceDataRegion;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductVariantRepository;
+import com.ecommerce.repository.ShippingCostRepository;
+import com.ecommerce.repository.StockBatchRepository;
+import com.ecommerce.repository.WarehouseRepository;
+import com.ecommerce.util.DistanceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prices shipping for carts without running a FEFO allocation.
+ *
+ * The warehouse distance matrix and the active rate card of each shop are held
+ * in the reference-data cache, and the warehouses that would fulfil a cart are
+ * estimated from per-warehouse stock totals, taking the nearest warehouse
+ * first exactly as EnhancedMultiWarehouseAllocator does. The pricing formula
+ * is unchanged: base fee + cost per km over
+ * Σ(warehouse → hub) + (hub → customer) + cost per kg + international fee.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ShippingQuoteEngine {
+
+    private static final BigDecimal DEFAULT_ITEM_WEIGHT_KG = new BigDecimal("0.1");
+    private static final Duration GEOCODE_TTL = Duration.ofHours(24);
+    private static final int GEOCODE_CACHE_LIMIT = 10_000;
+
+    private static final String DISTANCE_MATRIX_KEY = "distance-matrix";
+
+    // Key used for the rate card that applies when no shop is given
+    private static final UUID ANY_SHOP = new UUID(0L, 0L);
+
+    private final WarehouseRepository warehouseRepository;
+    private final ShippingCostRepository shippingCostRepository;
+    private final StockBatchRepository stockBatchRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final GeocodingService geocodingService;
+    private final ReferenceDataCache referenceDataCache;
+
+    private final Map<String, CachedLocation> geocodes = new ConcurrentHashMap<>();
+
+    /**
+     * Price a single cart. Throws when the cart cannot be fulfilled from the
+     * available stock, matching the previous allocation-based behaviour.
+     */
+    @Transactional(readOnly = true)
+    public ShippingDetailsDTO quote(AddressDto deliveryAddress, List<CartItemDTO> items,
+            BigDecimal orderValue, UUID shopId) {
+        QuoteContext context = loadContext(List.of(items));
+        return price(deliveryAddress, items, orderValue, shopId, context);
+    }
+
+    /**
+     * Price many carts or destinations in one call. Stock totals and weights
+     * for every item are loaded once for the whole batch; a failure on one
+     * quote is reported on that quote and does not affect the others.
+     */
+    @Transactional(readOnly = true)
+    public List<ShippingQuoteDTO> quoteAll(List<CalculateOrderShippingRequest> requests) {
+        List<List<CartItemDTO>> carts = new ArrayList<>();
+        for (CalculateOrderShippingRequest request : requests) {
+            carts.add(request.getItems() != null ? request.getItems() : List.of());
+        }
+        QuoteContext context = loadContext(carts);
+
+        List<ShippingQuoteDTO> quotes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CalculateOrderShippingRequest request = requests.get(i);
+            try {
+                ShippingDetailsDTO details = price(request.getDeliveryAddress(), carts.get(i),
+                        request.getOrderValue(), request.getShopId(), context);
+                quotes.add(ShippingQuoteDTO.builder().index(i).shippingDetails(details).build());
+            } catch (Exception e) {
+                log.debug("Shipping quote {} failed: {}", i, e.getMessage());
+                quotes.add(ShippingQuoteDTO.builder().index(i).error(e.getMessage()).build());
+            }
+        }
+        return quotes;
+    }
+
+    // ==================== PRICING ====================
+
+    private ShippingDetailsDTO price(AddressDto deliveryAddress, List<CartItemDTO> items,
+            BigDecimal orderValue, UUID shopId, QuoteContext context) {
+
+        if (deliveryAddress == null) {
+            throw new IllegalArgumentException("Delivery address is required");
+        }
+
+        RateCard rateCard = getRateCard(shopId);
+        if (rateCard == null) {
+            log.warn("No active shipping cost configuration found{}", shopId != null ? " for shop " + shopId : "");
+            return buildEmptyShippingDetails();
+        }
+        if (rateCard.qualifiesForFreeShipping(orderValue)) {
+            return buildFreeShippingDetails();
+        }
+
+        double[] customer = getCustomerLocation(deliveryAddress);
+        WarehouseMatrix matrix = getWarehouseMatrix();
+        if (matrix.size() == 0) {
+            throw new RuntimeException("No warehouses available for stock allocation");
+        }
+
+        double[] toCustomer = new double[matrix.size()];
+        Integer[] byDistance = new Integer[matrix.size()];
+        for (int w = 0; w < matrix.size(); w++) {
+            toCustomer[w] = DistanceCalculator.getDistanceFromLatLonInKm(
+                    customer[0], customer[1], matrix.latitudes[w], matrix.longitudes[w]);
+            byDistance[w] = w;
+        }
+        Arrays.sort(byDistance, Comparator.comparingDouble(w -> toCustomer[w]));
+
+        Set<Integer> involved = estimateInvolvedWarehouses(items, byDistance, matrix, context);
+
+        // Hub is the involved warehouse nearest the customer
+        int hub = -1;
+        for (int w : byDistance) {
+            if (involved.contains(w)) {
+                hub = w;
+                break;
+            }
+        }
+
+        double warehouseToHub = 0.0;
+        double furthestDistance = 0.0;
+        int furthest = hub;
+        boolean international = false;
+        for (int w : involved) {
+            String country = matrix.countries[w];
+            if (country == null || !country.equalsIgnoreCase(deliveryAddress.getCountry())) {
+                international = true;
+            }
+            if (w == hub) {
+                continue;
+            }
+            double distance = matrix.distances[w][hub];
+            warehouseToHub += distance;
+            if (distance > furthestDistance) {
+                furthestDistance = distance;
+                furthest = w;
+            }
+        }
+        double totalDistance = warehouseToHub + toCustomer[hub];
+
+        BigDecimal totalWeight = BigDecimal.ZERO;
+        for (CartItemDTO item : items) {
+            BigDecimal weight = context.weights.getOrDefault(StockKey.of(item), DEFAULT_ITEM_WEIGHT_KG);
+            totalWeight = totalWeight.add(weight.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+
+        BigDecimal baseFee = rateCard.baseFee != null ? rateCard.baseFee : BigDecimal.ZERO;
+        BigDecimal distanceCost = rateCard.distanceKmCost != null
+                ? rateCard.distanceKmCost.multiply(BigDecimal.valueOf(totalDistance))
+                : BigDecimal.ZERO;
+        BigDecimal weightCost = rateCard.weightKgCost != null && totalWeight.compareTo(BigDecimal.ZERO) > 0
+                ? rateCard.weightKgCost.multiply(totalWeight)
+                : BigDecimal.ZERO;
+        BigDecimal internationalFee = international && rateCard.internationalFee != null
+                ? rateCard.internationalFee
+                : BigDecimal.ZERO;
+
+        return ShippingDetailsDTO.builder()
+                .shippingCost(baseFee.add(distanceCost).add(weightCost).add(internationalFee))
+                .distanceKm(totalDistance)
+                .costPerKm(rateCard.distanceKmCost)
+                .selectedWarehouseName(matrix.names[furthest])
+                .selectedWarehouseCountry(matrix.countries[furthest])
+                .isInternationalShipping(international)
+                .baseFee(baseFee)
+                .distanceCost(distanceCost)
+                .weightCost(weightCost)
+                .internationalFee(internationalFee)
+                .totalWeight(totalWeight)
+                .build();
+    }
+
+    /**
+     * Walk warehouses nearest-first and take what each can supply until every
+     * item is covered. Quantities taken by earlier items of the same cart are
+     * not offered again.
+     */
+    private Set<Integer> estimateInvolvedWarehouses(List<CartItemDTO> items, Integer[] byDistance,
+            WarehouseMatrix matrix, QuoteContext context) {
+
+        Map<StockKey, Map<Long, Integer>> taken = new HashMap<>();
+        Set<Integer> involved = new HashSet<>();
+
+        for (CartItemDTO item : items) {
+            StockKey key = StockKey.of(item);
+            Map<Long, Integer> available = context.stock.getOrDefault(key, Map.of());
+            Map<Long, Integer> takenForKey = taken.computeIfAbsent(key, k -> new HashMap<>());
+            int remaining = item.getQuantity() != null ? item.getQuantity() : 0;
+
+            for (int w : byDistance) {
+                if (remaining <= 0) {
+                    break;
+                }
+                Long warehouseId = matrix.ids[w];
+                int free = available.getOrDefault(warehouseId, 0) - takenForKey.getOrDefault(warehouseId, 0);
+                if (free <= 0) {
+                    continue;
+                }
+                int allocated = Math.min(free, remaining);
+                takenForKey.merge(warehouseId, allocated, Integer::sum);
+                remaining -= allocated;
+                involved.add(w);
+            }
+
+            if (remaining > 0) {
+                throw new IllegalStateException("Insufficient stock across all warehouses for "
+                        + (item.getSku() != null ? item.getSku() : key) + ". Missing " + remaining + " units");
+            }
+        }
+
+        if (involved.isEmpty()) {
+            throw new RuntimeException("No warehouses available for stock allocation");
+        }
+        return involved;
+    }
+
+    // ==================== CACHED INPUTS ====================
+
+    private RateCard getRateCard(UUID shopId) {
+        return referenceDataCache.get(ReferenceDataRegion.SHIPPING_COSTS,
+                shopId != null ? shopId : ANY_SHOP, () -> {
+                    List<ShippingCost> active = shopId != null
+                            ? shippingCostRepository.findByShopShopIdAndIsActiveTrue(shopId)
+                            : shippingCostRepository.findByIsActiveTrue();
+                    return active.isEmpty() ? null : RateCard.from(active.get(0));
+                });
+    }
+
+    private WarehouseMatrix getWarehouseMatrix() {
+        return referenceDataCache.get(ReferenceDataRegion.WAREHOUSES, DISTANCE_MATRIX_KEY, () -> {
+            WarehouseMatrix matrix = WarehouseMatrix.build(warehouseRepository.findByIsActiveTrue());
+            log.info("Rebuilt warehouse distance matrix for {} warehouses", matrix.size());
+            return matrix;
+        });
+    }
+
+    private double[] getCustomerLocation(AddressDto address) {
+        if (address.getLatitude() != null && address.getLongitude() != null) {
+            return new double[] { address.getLatitude(), address.getLongitude() };
+        }
+
+        String key = String.join("|",
+                Objects.toString(address.getStreetAddress(), ""),
+                Objects.toString(address.getCity(), ""),
+                Objects.toString(address.getState(), ""),
+                Objects.toString(address.getCountry(), "")).toLowerCase(Locale.ROOT);
+        CachedLocation cached = geocodes.get(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached.coordinates;
+        }
+
+        Map<String, Double> coords = geocodingService.getCoordinates(address);
+        if (coords == null) {
+            log.error("Could not determine customer location for address: {}", address);
+            throw new RuntimeException("Could not determine customer location");
+        }
+
+        double[] location = new double[] { coords.get("latitude"), coords.get("longitude") };
+        if (geocodes.size() >= GEOCODE_CACHE_LIMIT) {
+            geocodes.clear();
+        }
+        geocodes.put(key, new CachedLocation(location, System.nanoTime()));
+        return location;
+    }
+
+    /**
+     * Load per-warehouse stock totals and weights for every item across all
+     * carts with two grouped queries each (products and variants).
+     */
+    private QuoteContext loadContext(List<List<CartItemDTO>> carts) {
+        Set<UUID> productIds = new HashSet<>();
+        Set<Long> variantIds = new HashSet<>();
+        for (List<CartItemDTO> items : carts) {
+            for (CartItemDTO item : items) {
+                if (item.getVariantId() != null) {
+                    variantIds.add(item.getVariantId());
+                } else if (item.getProductId() != null) {
+                    productIds.add(item.getProductId());
+                }
+            }
+        }
+
+        QuoteContext context = new QuoteContext();
+        LocalDateTime now = LocalDateTime.now();
+        if (!productIds.isEmpty()) {
+            for (Object[] row : stockBatchRepository.sumAvailableByWarehouseForProducts(productIds, now)) {
+                context.addStock(StockKey.product((UUID) row[1]), (Long) row[0], ((Number) row[2]).intValue());
+            }
+            for (Object[] row : productRepository.findWeightsByProductIds(productIds)) {
+                context.addWeight(StockKey.product((UUID) row[0]), (BigDecimal) row[1]);
+            }
+        }
+        if (!variantIds.isEmpty()) {
+            for (Object[] row : stockBatchRepository.sumAvailableByWarehouseForVariants(variantIds, now)) {
+                context.addStock(StockKey.variant((Long) row[1]), (Long) row[0], ((Number) row[2]).intValue());
+            }
+            for (Object[] row : productVariantRepository.findWeightsByVariantIds(variantIds)) {
+                context.addWeight(StockKey.variant((Long) row[0]), (BigDecimal) row[1]);
+            }
+        }
+        return context;
+    }
+
+    private ShippingDetailsDTO buildEmptyShippingDetails() {
+        return ShippingDetailsDTO.builder()
+                .shippingCost(BigDecimal.ZERO)
+                .distanceKm(0.0)
+                .costPerKm(BigDecimal.ZERO)
+                .selectedWarehouseName("No warehouse")
+                .selectedWarehouseCountry("Unknown")
+                .isInternationalShipping(false)
+                .baseFee(BigDecimal.ZERO)
+                .distanceCost(BigDecimal.ZERO)
+                .weightCost(BigDecimal.ZERO)
+                .internationalFee(BigDecimal.ZERO)
+                .totalWeight(BigDecimal.ZERO)
+                .build();
+    }
+
+    private ShippingDetailsDTO buildFreeShippingDetails() {
+        return ShippingDetailsDTO.builder()
+                .shippingCost(BigDecimal.ZERO)
+                .distanceKm(0.0)
+                .costPerKm(BigDecimal.ZERO)
+                .selectedWarehouseName("Free shipping")
+                .selectedWarehouseCountry("N/A")
+                .isInternationalShipping(false)
+                .baseFee(BigDecimal.ZERO)
+                .distanceCost(BigDecimal.ZERO)
+                .weightCost(BigDecimal.ZERO)
+                .internationalFee(BigDecimal.ZERO)
+                .totalWeight(BigDecimal.ZERO)
+                .build();
+    }
+
+    // ==================== HOLDERS ====================
+
+    /**
+     * Identifies stock of a variant, or of a product sold without variants
+     */
+    private record StockKey(UUID productId, Long variantId) {
+        static StockKey of(CartItemDTO item) {
+            return item.getVariantId() != null ? variant(item.getVariantId()) : product(item.getProductId());
+        }
+
+        static StockKey product(UUID productId) {
+            return new StockKey(productId, null);
+        }
+
+        static StockKey variant(Long variantId) {
+            return new StockKey(null, variantId);
+        }
+    }
+
+    /**
+     * Stock totals and weights loaded for one quote call
+     */
+    private static class QuoteContext {
+        final Map<StockKey, Map<Long, Integer>> stock = new HashMap<>();
+        final Map<StockKey, BigDecimal> weights = new HashMap<>();
+
+        void addStock(StockKey key, Long warehouseId, int quantity) {
+            stock.computeIfAbsent(key, k -> new HashMap<>()).merge(warehouseId, quantity, Integer::sum);
+        }
+
+        void addWeight(StockKey key, BigDecimal weight) {
+            if (weight != null && weight.compareTo(BigDecimal.ZERO) > 0) {
+                weights.put(key, weight);
+            }
+        }
+    }
+
+    /**
+     * Immutable copy of the fields of an active ShippingCost used for pricing
+     */
+    private record RateCard(BigDecimal baseFee, BigDecimal distanceKmCost, BigDecimal weightKgCost,
+            BigDecimal internationalFee, BigDecimal freeShippingThreshold) {
+
+        static RateCard from(ShippingCost shippingCost) {
+            return new RateCard(shippingCost.getBaseFee(), shippingCost.getDistanceKmCost(),
+                    shippingCost.getWeightKgCost(), shippingCost.getInternationalFee(),
+                    shippingCost.getFreeShippingThreshold());
+        }
+
+        boolean qualifiesForFreeShipping(BigDecimal orderValue) {
+            return freeShippingThreshold != null
+                    && freeShippingThreshold.compareTo(BigDecimal.ZERO) > 0
+                    && orderValue != null
+                    && orderValue.compareTo(freeShippingThreshold) >= 0;
+        }
+    }
+
+    private record CachedLocation(double[] coordinates, long loadedAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - loadedAtNanos > GEOCODE_TTL.toNanos();
+        }
+    }
+
+    /**
+     * Active warehouses with their pairwise haversine distances. Warehouses
+     * without coordinates are left out, as they cannot be priced.
+     */
+    private static final class WarehouseMatrix {
+        final Long[] ids;
+        final String[] names;
+        final String[] countries;
+        final double[] latitudes;
+        final double[] longitudes;
+        final double[][] distances;
+
+        private WarehouseMatrix(List<Warehouse> warehouses) {
+            int n = warehouses.size();
+            ids = new Long[n];
+            names = new String[n];
+            countries = new String[n];
+            latitudes = new double[n];
+            longitudes = new double[n];
+            for (int i = 0; i < n; i++) {
+                Warehouse warehouse = warehouses.get(i);
+                ids[i] = warehouse.getId();
+                names[i] = warehouse.getName();
+                countries[i] = warehouse.getCountry();
+                latitudes[i] = warehouse.getLatitude().doubleValue();
+                longitudes[i] = warehouse.getLongitude().doubleValue();
+            }
+
+            distances = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    double distance = DistanceCalculator.getDistanceFromLatLonInKm(
+                            latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                    distances[i][j] = distance;
+                    distances[j][i] = distance;
+                }
+            }
+        }
+
+        static WarehouseMatrix build(List<Warehouse> warehouses) {
+            List<Warehouse> located = new ArrayList<>();
+            for (Warehouse warehouse : warehouses) {
+                if (warehouse.getLatitude() != null && warehouse.getLongitude() != null) {
+                    located.add(warehouse);
+                }
+            }
+            return new WarehouseMatrix(located);
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+}
@@ -5,6 +5,9 @@ import com.ecommerce.dto.CreateStockBatchRequest;
 import com.ecommerce.dto.CreateVariantBatchRequest;
 import com.ecommerce.dto.UpdateStockBatchRequest;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
 import java.util.List;
 import java.util.UUID;
 
@@ -101,4 +104,15 @@ public interface StockBatchService {
      * @return List of expiring stock batch DTOs
      */
     List<StockBatchDTO> getBatchesExpiringSoon(int daysThreshold);
+
+    /**
+     * Get a page of batches that are expiring soon, filtered and paged in the
+     * database
+     * 
+     * @param daysThreshold Number of days to consider as "soon"
+     * @param warehouseId   Optional warehouse to restrict to
+     * @param pageable      Page request (sort is fixed to expiry date)
+     * @return Page of expiring stock batch DTOs
+     */
+    Page<StockBatchDTO> getBatchesExpiringSoon(int daysThreshold, Long warehouseId, Pageable pageable);
 }
\ No newline at end of file
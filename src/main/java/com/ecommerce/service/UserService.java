@@ -3,12 +3,16 @@ package com.ecommerce.service;
 import com.ecommerce.dto.CreateUserDTO;
 import com.ecommerce.dto.UpdateUserDto;
 import com.ecommerce.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface UserService {
     User createUserWithRole(CreateUserDTO dto);
 
     java.util.List<User> getAllAgentsAndEmployees();
 
+    Page<User> getAgentsAndEmployees(Pageable pageable);
+
     User getUserById(String id);
 
     User updateUser(String id, UpdateUserDto dto);
@@ -211,14 +211,8 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         Double totalOrdersVs = percentChange(prevTotalOrders, totalOrders);
 
         // New customers (Platform wide)
-        long newCustomers = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && !u.getCreatedAt().isBefore(from)
-                        && u.getCreatedAt().isBefore(to))
-                .count();
-        long prevNewCustomers = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && !u.getCreatedAt().isBefore(prevFrom)
-                        && u.getCreatedAt().isBefore(prevTo))
-                .count();
+        long newCustomers = userRepository.countCreatedBetween(from, to);
+        long prevNewCustomers = userRepository.countCreatedBetween(prevFrom, prevTo);
         Double newCustomersVs = percentChange(prevNewCustomers, newCustomers);
 
         // Revenue (Using MoneyFlow for global)
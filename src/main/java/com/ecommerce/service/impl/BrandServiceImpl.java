@@ -6,9 +6,11 @@ import com.ecommerce.dto.CreateBrandDTO;
 import com.ecommerce.dto.UpdateBrandDTO;
 import com.ecommerce.entity.Brand;
 import com.ecommerce.entity.Shop;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.BrandRepository;
 import com.ecommerce.repository.ShopRepository;
 import com.ecommerce.service.BrandService;
+import com.ecommerce.service.ReferenceDataCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,11 +35,14 @@ public class BrandServiceImpl implements BrandService {
 
     private final BrandRepository brandRepository;
     private final ShopRepository shopRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     @Autowired
-    public BrandServiceImpl(BrandRepository brandRepository, ShopRepository shopRepository) {
+    public BrandServiceImpl(BrandRepository brandRepository, ShopRepository shopRepository,
+            ReferenceDataCache referenceDataCache) {
         this.brandRepository = brandRepository;
         this.shopRepository = shopRepository;
+        this.referenceDataCache = referenceDataCache;
     }
 
     @Override
@@ -70,6 +75,7 @@ public class BrandServiceImpl implements BrandService {
 
         // Save brand
         Brand savedBrand = brandRepository.save(brand);
+        referenceDataCache.invalidate(ReferenceDataRegion.BRANDS);
         log.info("Brand created successfully with ID: {}", savedBrand.getBrandId());
 
         return convertToDTO(savedBrand);
@@ -128,6 +134,7 @@ public class BrandServiceImpl implements BrandService {
 
         // Save updated brand
         Brand updatedBrand = brandRepository.save(existingBrand);
+        referenceDataCache.invalidate(ReferenceDataRegion.BRANDS);
         log.info("Brand updated successfully with ID: {}", updatedBrand.getBrandId());
 
         return convertToDTO(updatedBrand);
@@ -150,6 +157,7 @@ public class BrandServiceImpl implements BrandService {
         }
 
         brandRepository.deleteById(id);
+        referenceDataCache.invalidate(ReferenceDataRegion.BRANDS);
         log.info("Brand deleted successfully with ID: {}", id);
     }
 
@@ -194,6 +202,11 @@ public class BrandServiceImpl implements BrandService {
     @Override
     @Transactional(readOnly = true)
     public List<BrandDTO> getActiveBrands(UUID shopId) {
+        return referenceDataCache.get(ReferenceDataRegion.BRANDS, "active:" + shopId,
+                () -> loadActiveBrands(shopId));
+    }
+
+    private List<BrandDTO> loadActiveBrands(UUID shopId) {
         log.debug("Fetching all active brands, shopId: {}", shopId);
 
         Specification<Brand> spec = Specification.where((root, query, cb) -> cb.isTrue(root.get("isActive")));
@@ -207,12 +220,17 @@ public class BrandServiceImpl implements BrandService {
         List<Brand> activeBrands = brandRepository.findAll(spec);
         return activeBrands.stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BrandDTO> getFeaturedBrands(UUID shopId) {
+        return referenceDataCache.get(ReferenceDataRegion.BRANDS, "featured:" + shopId,
+                () -> loadFeaturedBrands(shopId));
+    }
+
+    private List<BrandDTO> loadFeaturedBrands(UUID shopId) {
         log.debug("Fetching all featured brands, shopId: {}", shopId);
 
         Specification<Brand> spec = Specification.where((root, query, cb) -> cb.isTrue(root.get("isFeatured")));
@@ -226,7 +244,7 @@ public class BrandServiceImpl implements BrandService {
         List<Brand> featuredBrands = brandRepository.findAll(spec);
         return featuredBrands.stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
@@ -10,28 +10,29 @@ import com.ecommerce.entity.Cart;
 import com.ecommerce.entity.CartItem;
 import com.ecommerce.entity.Product;
 import com.ecommerce.entity.ProductVariant;
-import com.ecommerce.entity.ProductImage;
-import com.ecommerce.entity.ProductVariantImage;
 import com.ecommerce.entity.User;
 import com.ecommerce.repository.CartItemRepository;
 import com.ecommerce.repository.CartRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.ProductVariantRepository;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.CartReadModel;
 import com.ecommerce.service.CartService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -45,6 +46,7 @@ public class CartServiceImpl implements CartService {
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
     private final ProductVariantRepository productVariantRepository;
+    private final CartReadModel cartReadModel;
 
     @Override
     @Transactional
@@ -53,6 +55,7 @@ public class CartServiceImpl implements CartService {
                 .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
 
         Cart cart = getOrCreateUserCart(user);
+        cartReadModel.cartChanged(userId);
         CartItem existingItem = null;
 
         if (addToCartDTO.isVariantBased()) {
@@ -167,6 +170,7 @@ public class CartServiceImpl implements CartService {
 
         cartItem.setQuantity(updateCartItemDTO.getQuantity());
         CartItem updatedItem = cartItemRepository.save(cartItem);
+        cartReadModel.cartChanged(userId);
         return mapCartItemToDTO(updatedItem);
     }
 
@@ -187,35 +191,44 @@ public class CartServiceImpl implements CartService {
         }
 
         cartItemRepository.delete(cartItem);
+        cartReadModel.cartChanged(userId);
         return true;
     }
 
     @Override
-    @Transactional
     public CartDTO viewCart(UUID userId, Pageable pageable) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
+        CartReadModel.CartView cart = getCartView(userId);
 
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Cart not found for user: " + userId));
+        // The whole cart comes from one snapshot, so sort and page it here
+        List<CartReadModel.CartLine> lines = new ArrayList<>(cart.lines());
+        Comparator<CartReadModel.CartLine> order = lineOrder(pageable.getSort());
+        if (order != null) {
+            lines.sort(order);
+        }
+        List<CartReadModel.CartLine> pageLines = lines;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), lines.size());
+            pageLines = lines.subList(from, Math.min(from + pageable.getPageSize(), lines.size()));
+        }
 
-        Page<CartItem> cartItemsPage = cartItemRepository.findByCartId(cart.getId(), pageable);
-        List<CartItemDTO> cartItemDTOs = cartItemsPage.getContent().stream()
-                .map(this::mapCartItemToDTO)
+        List<CartItemDTO> cartItemDTOs = pageLines.stream()
+                .map(this::mapCartLineToDTO)
                 .collect(Collectors.toList());
 
-        BigDecimal subtotal = calculateSubtotal(cartItemsPage.getContent());
-        int totalItems = (int) cartItemsPage.getTotalElements();
+        BigDecimal subtotal = cartItemDTOs.stream()
+                .map(CartItemDTO::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        int totalItems = lines.size();
 
         return CartDTO.builder()
-                .cartId(cart.getId())
+                .cartId(cart.cartId())
                 .userId(userId)
                 .items(cartItemDTOs)
                 .totalItems(totalItems)
                 .subtotal(subtotal)
                 .total(subtotal)
-                .createdAt(cart.getCreatedAt())
-                .updatedAt(cart.getUpdatedAt())
+                .createdAt(cart.createdAt())
+                .updatedAt(cart.updatedAt())
                 .isEmpty(totalItems == 0)
                 .build();
     }
@@ -230,6 +243,7 @@ public class CartServiceImpl implements CartService {
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found for user: " + userId));
 
         cartItemRepository.deleteByCartId(cart.getId());
+        cartReadModel.cartChanged(userId);
         return true;
     }
 
@@ -253,16 +267,23 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional
     public boolean hasItems(UUID userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new EntityNotFoundException("User not found with ID: " + userId));
-
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new EntityNotFoundException("Cart not found for user: " + userId));
+        return !getCartView(userId).lines().isEmpty();
+    }
 
-        long itemCount = cartItemRepository.countByCartId(cart.getId());
-        return itemCount > 0;
+    /**
+     * The user's cart from the read model, with the errors of the entity
+     * lookups it replaces
+     */
+    private CartReadModel.CartView getCartView(UUID userId) {
+        CartReadModel.CartView cart = cartReadModel.getCart(userId);
+        if (cart == null) {
+            if (!userRepository.existsById(userId)) {
+                throw new EntityNotFoundException("User not found with ID: " + userId);
+            }
+            throw new EntityNotFoundException("Cart not found for user: " + userId);
+        }
+        return cart;
     }
 
     private Cart getOrCreateUserCart(User user) {
@@ -346,121 +367,140 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
 
-    private BigDecimal calculateSubtotal(List<CartItem> cartItems) {
-        return cartItems.stream()
-                .map(item -> item.getEffectivePrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    /**
+     * Order of cart lines for a sort on CartItem properties; unknown
+     * properties sort by the time the item was added
+     */
+    private static Comparator<CartReadModel.CartLine> lineOrder(Sort sort) {
+        Comparator<CartReadModel.CartLine> order = null;
+        for (Sort.Order sortOrder : sort) {
+            Comparator<CartReadModel.CartLine> comparator = switch (sortOrder.getProperty()) {
+                case "id" -> Comparator.comparing(CartReadModel.CartLine::itemId);
+                case "quantity" -> Comparator.comparingInt(CartReadModel.CartLine::quantity);
+                case "price" -> Comparator.comparing(CartReadModel.CartLine::effectivePrice);
+                default -> Comparator.comparing(CartReadModel.CartLine::addedAt,
+                        Comparator.nullsFirst(Comparator.naturalOrder()));
+            };
+            if (sortOrder.isDescending()) {
+                comparator = comparator.reversed();
+            }
+            order = order == null ? comparator : order.thenComparing(comparator);
+        }
+        return order;
+    }
+
+    private CartItemDTO mapCartLineToDTO(CartReadModel.CartLine line) {
+        BigDecimal totalPrice = line.effectivePrice().multiply(BigDecimal.valueOf(line.quantity()));
+
+        return CartItemDTO.builder()
+                .id(line.itemId())
+                .productId(line.productId())
+                .variantId(line.variantId())
+                .sku(line.isVariantBased() ? line.variantSku() : line.productSku())
+                .productName(line.isVariantBased() ? line.productName() + " - " + line.variantName()
+                        : line.productName())
+                .productImage(line.isVariantBased() ? line.variantImage() : line.productImage())
+                .quantity(line.quantity())
+                .price(line.effectivePrice()) // Current price with discount
+                .originalPrice(line.originalPrice()) // Original price before discount
+                .totalPrice(totalPrice)
+                .addedAt(line.addedAt())
+                .inStock(line.availableStock() > 0)
+                .availableStock(line.availableStock())
+                .isVariantBased(line.isVariantBased())
+                .discountPercentage(line.discountPercentage())
+                .discountName(line.discountName())
+                .discountAmount(line.originalPrice().subtract(line.effectivePrice()))
+                .hasDiscount(line.hasDiscount())
+                .build();
     }
 
     @Override
     public CartProductsResponseDTO getCartProductsInfo(CartProductsRequestDTO request) {
         try {
+            List<UUID> productIds = new ArrayList<>();
+            List<Long> variantIds = new ArrayList<>();
+            for (CartProductsRequestDTO.CartItemRequestDTO item : request.getItems()) {
+                if (item.getVariantId() != null) {
+                    variantIds.add(item.getVariantId());
+                } else {
+                    try {
+                        productIds.add(UUID.fromString(item.getProductId()));
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Invalid product ID format: {}", item.getProductId());
+                    }
+                }
+            }
+
+            // Every product and variant of the request is priced in one read
+            Map<Long, CartReadModel.CartLine> variantLines = new HashMap<>();
+            Map<UUID, CartReadModel.CartLine> productLines = new HashMap<>();
+            for (CartReadModel.CartLine line : cartReadModel.getLines(productIds, variantIds)) {
+                if (line.isVariantBased()) {
+                    variantLines.put(line.variantId(), line);
+                } else {
+                    productLines.put(line.productId(), line);
+                }
+            }
+
             List<CartProductsResponseDTO.CartProductDTO> cartProducts = new ArrayList<>();
             BigDecimal subtotal = BigDecimal.ZERO;
             int totalItems = 0;
 
             for (CartProductsRequestDTO.CartItemRequestDTO item : request.getItems()) {
-                try {
-                    CartProductsResponseDTO.CartProductDTO cartProduct;
-
-                    if (item.getVariantId() != null) {
-                        // Handle variant - get product from variant
-                        ProductVariant variant = productVariantRepository.findById(item.getVariantId())
-                                .orElseThrow(() -> new EntityNotFoundException(
-                                        "Variant not found with ID: " + item.getVariantId()));
-
-                        Product product = variant.getProduct();
-
-                        // Get variant images, fallback to product images
-                        String imageUrl = getVariantOrProductImage(variant, product);
-
-                        // Build variant attributes
-                        List<CartProductsResponseDTO.CartProductDTO.VariantAttributeDTO> attributes = variant
-                                .getAttributeValues() != null ? variant.getAttributeValues().stream()
-                                        .map(attr -> CartProductsResponseDTO.CartProductDTO.VariantAttributeDTO
-                                                .builder()
-                                                .attributeTypeName(
-                                                        attr.getAttributeValue().getAttributeType().getName())
-                                                .attributeValue(attr.getAttributeValue().getValue())
-                                                .build())
-                                        .collect(Collectors.toList()) : new ArrayList<>();
-
-                        // Calculate discount information for variant
-                        BigDecimal variantOriginalPrice = variant.getPrice();
-                        BigDecimal variantEffectivePrice = getVariantEffectivePrice(variant);
-                        BigDecimal variantDiscountPercentage = getVariantDiscountPercentage(variant);
-                        String variantDiscountName = getVariantDiscountName(variant);
-
-                        cartProduct = CartProductsResponseDTO.CartProductDTO.builder()
-                                .itemId(item.getItemId())
-                                .productId(product.getProductId().toString())
-                                .variantId(variant.getId())
-                                .productName(product.getProductName())
-                                .productDescription(product.getDescription())
-                                .price(variantEffectivePrice) // Use effective price with discount
-                                .previousPrice(variantDiscountPercentage.compareTo(BigDecimal.ZERO) > 0
-                                        ? variantOriginalPrice
-                                        : null)
-                                .productImage(imageUrl)
-                                .quantity(item.getQuantity())
-                                .availableStock(variant.getTotalStockQuantity())
-                                .totalPrice(variantEffectivePrice.multiply(BigDecimal.valueOf(item.getQuantity())))
-                                .averageRating(product.getAverageRating())
-                                .reviewCount(product.getReviewCount())
-                                .variantSku(variant.getVariantSku())
-                                .variantAttributes(attributes)
-                                .build();
-                    } else {
-                        UUID productId;
-                        try {
-                            productId = UUID.fromString(item.getProductId());
-                        } catch (IllegalArgumentException e) {
-                            log.warn("Invalid product ID format: {}", item.getProductId());
-                            continue;
-                        }
-
-                        Product product = productRepository.findById(productId)
-                                .orElseThrow(() -> new EntityNotFoundException(
-                                        "Product not found with ID: " + item.getProductId()));
-
-                        String imageUrl = getProductMainImage(product);
-
-                        // Calculate discount information for product
-                        BigDecimal productOriginalPrice = product.getPrice();
-                        BigDecimal productEffectivePrice = getProductEffectivePrice(product);
-                        BigDecimal productDiscountPercentage = getProductDiscountPercentage(product);
-                        String productDiscountName = getProductDiscountName(product);
-
-                        cartProduct = CartProductsResponseDTO.CartProductDTO.builder()
-                                .itemId(item.getItemId())
-                                .productId(product.getProductId().toString())
-                                .variantId(null)
-                                .productName(product.getProductName())
-                                .productDescription(product.getDescription())
-                                .price(productEffectivePrice) // Use effective price with discount
-                                .previousPrice(productDiscountPercentage.compareTo(BigDecimal.ZERO) > 0
-                                        ? productOriginalPrice
-                                        : null)
-                                .productImage(imageUrl)
-                                .quantity(item.getQuantity())
-                                .availableStock(product.getTotalStockQuantity())
-                                .totalPrice(productEffectivePrice.multiply(BigDecimal.valueOf(item.getQuantity())))
-                                .averageRating(product.getAverageRating())
-                                .reviewCount(product.getReviewCount())
-                                .variantSku(null)
-                                .variantAttributes(new ArrayList<>())
-                                .build();
+                CartReadModel.CartLine line;
+                if (item.getVariantId() != null) {
+                    line = variantLines.get(item.getVariantId());
+                } else {
+                    UUID productId;
+                    try {
+                        productId = UUID.fromString(item.getProductId());
+                    } catch (IllegalArgumentException e) {
+                        continue;
                     }
+                    line = productLines.get(productId);
+                }
 
-                    cartProducts.add(cartProduct);
-                    subtotal = subtotal.add(cartProduct.getTotalPrice());
-                    totalItems += item.getQuantity();
-
-                } catch (EntityNotFoundException e) {
-                    log.warn("Product or variant not found for cart item: {}", e.getMessage());
+                if (line == null) {
+                    log.warn("Product or variant not found for cart item: product {}, variant {}",
+                            item.getProductId(), item.getVariantId());
                     // Skip this item and continue with others
                     continue;
                 }
+
+                // Variant images fall back to the product's
+                String imageUrl = line.variantImage() != null ? line.variantImage()
+                        : line.productImage() != null ? line.productImage() : "";
+
+                List<CartProductsResponseDTO.CartProductDTO.VariantAttributeDTO> attributes = line.attributes()
+                        .stream()
+                        .map(attr -> CartProductsResponseDTO.CartProductDTO.VariantAttributeDTO.builder()
+                                .attributeTypeName(attr.typeName())
+                                .attributeValue(attr.value())
+                                .build())
+                        .collect(Collectors.toList());
+
+                CartProductsResponseDTO.CartProductDTO cartProduct = CartProductsResponseDTO.CartProductDTO.builder()
+                        .itemId(item.getItemId())
+                        .productId(line.productId().toString())
+                        .variantId(line.variantId())
+                        .productName(line.productName())
+                        .productDescription(line.description())
+                        .price(line.effectivePrice()) // Use effective price with discount
+                        .previousPrice(line.hasDiscount() ? line.originalPrice() : null)
+                        .productImage(imageUrl)
+                        .quantity(item.getQuantity())
+                        .availableStock(line.availableStock())
+                        .totalPrice(line.effectivePrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                        .averageRating(line.averageRating())
+                        .reviewCount(line.reviewCount())
+                        .variantSku(line.variantSku())
+                        .variantAttributes(attributes)
+                        .build();
+
+                cartProducts.add(cartProduct);
+                subtotal = subtotal.add(cartProduct.getTotalPrice());
+                totalItems += item.getQuantity();
             }
 
             return CartProductsResponseDTO.builder()
@@ -474,131 +514,4 @@ public class CartServiceImpl implements CartService {
             throw new RuntimeException("Failed to get cart products information", e);
         }
     }
-
-    private String getVariantOrProductImage(ProductVariant variant, Product product) {
-        // Try to get variant primary image first
-        if (variant.getImages() != null && !variant.getImages().isEmpty()) {
-            return variant.getImages().stream()
-                    .filter(ProductVariantImage::isPrimary)
-                    .findFirst()
-                    .map(ProductVariantImage::getImageUrl)
-                    .orElse(variant.getImages().get(0).getImageUrl());
-        }
-
-        // Fallback to product image
-        return getProductMainImage(product);
-    }
-
-    private String getProductMainImage(Product product) {
-        if (product.getImages() != null && !product.getImages().isEmpty()) {
-            return product.getImages().stream()
-                    .filter(ProductImage::isPrimary)
-                    .findFirst()
-                    .map(ProductImage::getImageUrl)
-                    .orElse(product.getImages().get(0).getImageUrl());
-        }
-        return ""; // Return empty string if no image found
-    }
-
-    /**
-     * Calculates the effective price for a variant considering discounts
-     */
-    private BigDecimal getVariantEffectivePrice(ProductVariant variant) {
-        // Check if variant has its own discount
-        if (variant.getDiscount() != null && isDiscountActive(variant.getDiscount())) {
-            return calculateDiscountedPrice(variant.getPrice(), variant.getDiscount().getPercentage());
-        }
-        // If product has discount, apply it to variant
-        if (variant.getProduct().getDiscount() != null && isDiscountActive(variant.getProduct().getDiscount())) {
-            return calculateDiscountedPrice(variant.getPrice(), variant.getProduct().getDiscount().getPercentage());
-        }
-        return variant.getPrice();
-    }
-
-    /**
-     * Calculates the effective price for a product considering discounts
-     */
-    private BigDecimal getProductEffectivePrice(Product product) {
-        // Check if product has discount
-        if (product.getDiscount() != null && isDiscountActive(product.getDiscount())) {
-            return calculateDiscountedPrice(product.getPrice(), product.getDiscount().getPercentage());
-        }
-        return product.getPrice();
-    }
-
-    /**
-     * Gets the discount percentage for a variant
-     */
-    private BigDecimal getVariantDiscountPercentage(ProductVariant variant) {
-        // Check if variant has its own discount
-        if (variant.getDiscount() != null && isDiscountActive(variant.getDiscount())) {
-            return variant.getDiscount().getPercentage();
-        }
-        // If product has discount, return product discount percentage
-        if (variant.getProduct().getDiscount() != null && isDiscountActive(variant.getProduct().getDiscount())) {
-            return variant.getProduct().getDiscount().getPercentage();
-        }
-        return BigDecimal.ZERO;
-    }
-
-    /**
-     * Gets the discount percentage for a product
-     */
-    private BigDecimal getProductDiscountPercentage(Product product) {
-        if (product.getDiscount() != null && isDiscountActive(product.getDiscount())) {
-            return product.getDiscount().getPercentage();
-        }
-        return BigDecimal.ZERO;
-    }
-
-    /**
-     * Gets the discount name for a variant
-     */
-    private String getVariantDiscountName(ProductVariant variant) {
-        // Check if variant has its own discount
-        if (variant.getDiscount() != null && isDiscountActive(variant.getDiscount())) {
-            return variant.getDiscount().getName();
-        }
-        // If product has discount, return product discount name
-        if (variant.getProduct().getDiscount() != null && isDiscountActive(variant.getProduct().getDiscount())) {
-            return variant.getProduct().getDiscount().getName();
-        }
-        return null;
-    }
-
-    /**
-     * Gets the discount name for a product
-     */
-    private String getProductDiscountName(Product product) {
-        if (product.getDiscount() != null && isDiscountActive(product.getDiscount())) {
-            return product.getDiscount().getName();
-        }
-        return null;
-    }
-
-    /**
-     * Checks if a discount is currently active based on its date range
-     */
-    private boolean isDiscountActive(com.ecommerce.entity.Discount discount) {
-        if (discount == null || !discount.isActive()) {
-            return false;
-        }
-
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-        return (discount.getStartDate() == null || now.isAfter(discount.getStartDate())
-                || now.isEqual(discount.getStartDate())) &&
-                (discount.getEndDate() == null || now.isBefore(discount.getEndDate())
-                        || now.isEqual(discount.getEndDate()));
-    }
-
-    /**
-     * Calculates the discounted price based on original price and discount
-     * percentage
-     */
-    private BigDecimal calculateDiscountedPrice(BigDecimal originalPrice, BigDecimal discountPercentage) {
-        if (originalPrice == null || discountPercentage == null) {
-            return originalPrice;
-        }
-        return originalPrice.multiply(BigDecimal.ONE.subtract(discountPercentage.divide(BigDecimal.valueOf(100))));
-    }
 }
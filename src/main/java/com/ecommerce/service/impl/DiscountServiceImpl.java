@@ -8,9 +8,11 @@ import com.ecommerce.entity.Product;
 import com.ecommerce.entity.ProductVariant;
 import com.ecommerce.entity.Shop;
 import com.ecommerce.repository.DiscountRepository;
+import com.ecommerce.repository.DiscountSpecifications;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.ProductVariantRepository;
 import com.ecommerce.repository.ShopRepository;
+import com.ecommerce.service.CartReadModel;
 import com.ecommerce.service.DiscountService;
 import com.ecommerce.service.ShopAuthorizationService;
 import jakarta.persistence.EntityNotFoundException;
@@ -18,6 +20,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -36,6 +39,7 @@ public class DiscountServiceImpl implements DiscountService {
     private final ProductVariantRepository productVariantRepository;
     private final ShopRepository shopRepository;
     private final ShopAuthorizationService shopAuthorizationService;
+    private final CartReadModel cartReadModel;
 
     @Override
     public DiscountDTO createDiscount(UUID vendorId, CreateDiscountDTO createDiscountDTO) {
@@ -158,6 +162,8 @@ public class DiscountServiceImpl implements DiscountService {
         }
 
         Discount updatedDiscount = discountRepository.save(discount);
+        // Cart prices of every product and variant on the discount change
+        cartReadModel.invalidateAll();
         log.info("Discount updated successfully with ID: {}", updatedDiscount.getDiscountId());
 
         return mapToDTO(updatedDiscount);
@@ -199,6 +205,7 @@ public class DiscountServiceImpl implements DiscountService {
         }
 
         discountRepository.deleteById(discountId);
+        cartReadModel.invalidateAll();
         log.info("Discount deleted successfully with ID: {} (removed from {} products and {} variants)",
                 discountId, productsWithDiscount.size(), variantsWithDiscount.size());
 
@@ -309,9 +316,13 @@ public class DiscountServiceImpl implements DiscountService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Discount> getAllDiscountEntities() {
-        log.info("Fetching all discount entities");
-        return discountRepository.findAll();
+    public Page<DiscountDTO> searchDiscounts(UUID shopId, Boolean active, String search, Pageable pageable) {
+        log.info("Searching discounts for shop: {} (active: {}, search: {})", shopId, active, search);
+
+        Specification<Discount> spec = Specification.where(DiscountSpecifications.forShop(shopId))
+                .and(DiscountSpecifications.isActive(active))
+                .and(DiscountSpecifications.nameOrCodeContains(search));
+        return discountRepository.findAll(spec, pageable).map(this::mapToDTO);
     }
 
     @Override
@@ -319,5 +330,6 @@ public class DiscountServiceImpl implements DiscountService {
     public void saveAllDiscounts(List<Discount> discounts) {
         log.info("Saving {} discount entities", discounts.size());
         discountRepository.saveAll(discounts);
+        cartReadModel.invalidateAll();
     }
 }
@@ -5,22 +5,35 @@ import com.ecommerce.dto.MoneyFlowAggregationDTO;
 import com.ecommerce.dto.MoneyFlowDTO;
 import com.ecommerce.dto.MoneyFlowResponseDTO;
 import com.ecommerce.entity.MoneyFlow;
+import com.ecommerce.entity.MoneyFlowBalance;
+import com.ecommerce.entity.MoneyFlowCheckpoint;
 import com.ecommerce.enums.MoneyFlowType;
+import com.ecommerce.repository.MoneyFlowBalanceRepository;
+import com.ecommerce.repository.MoneyFlowCheckpointRepository;
 import com.ecommerce.repository.MoneyFlowRepository;
+import com.ecommerce.repository.MoneyFlowRollupRepository;
 import com.ecommerce.service.MoneyFlowService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -30,6 +43,9 @@ import java.util.stream.Collectors;
 public class MoneyFlowServiceImpl implements MoneyFlowService {
 
     private final MoneyFlowRepository moneyFlowRepository;
+    private final MoneyFlowBalanceRepository moneyFlowBalanceRepository;
+    private final MoneyFlowCheckpointRepository moneyFlowCheckpointRepository;
+    private final MoneyFlowRollupRepository moneyFlowRollupRepository;
 
     @Override
     @Transactional(propagation = org.springframework.transaction.annotation.Propagation.REQUIRES_NEW)
@@ -37,14 +53,9 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
         log.info("Creating new money flow: type={}, amount={}", 
                 createMoneyFlowDTO.getType(), createMoneyFlowDTO.getAmount());
 
-        BigDecimal currentBalance = getCurrentBalance();
-
-        BigDecimal newBalance;
-        if (createMoneyFlowDTO.getType() == MoneyFlowType.IN) {
-            newBalance = currentBalance.add(createMoneyFlowDTO.getAmount());
-        } else {
-            newBalance = currentBalance.subtract(createMoneyFlowDTO.getAmount());
-        }
+        // The counter row is updated before the ledger insert so its row lock
+        // orders concurrent writers and each gets the balance after its own entry
+        BigDecimal newBalance = applyToBalance(createMoneyFlowDTO.getType(), createMoneyFlowDTO.getAmount(), 1);
 
         // Create money flow entity
         MoneyFlow moneyFlow = new MoneyFlow();
@@ -54,6 +65,7 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
         moneyFlow.setRemainingBalance(newBalance);
 
         MoneyFlow saved = moneyFlowRepository.save(moneyFlow);
+        applyToRollups(saved, saved.getAmount(), 1);
         log.info("Money flow created successfully with ID: {}, new balance: {}", saved.getId(), newBalance);
 
         return saved;
@@ -61,7 +73,7 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
 
     @Override
     @Transactional(readOnly = true)
-    public MoneyFlowResponseDTO getMoneyFlow(LocalDateTime start, LocalDateTime end) {
+    public MoneyFlowResponseDTO getMoneyFlow(LocalDateTime start, LocalDateTime end, boolean includeTransactions) {
         log.info("Fetching money flow data from {} to {}", start, end);
 
         // Determine granularity based on time range
@@ -70,29 +82,40 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
 
         log.info("Determined granularity: {} for duration: {} hours", granularity, duration.toHours());
 
-        List<MoneyFlowAggregationDTO> aggregations;
+        // Minute, hour and day totals are stored; coarser ones are summed from days
+        String source = granularity.equals("minute") || granularity.equals("hour") ? granularity : "day";
+        List<Object[]> buckets = moneyFlowRollupRepository.sumBuckets(source, granularity, start, end);
+
+        // Individual transactions are only offered for the short ranges shown
+        // by minute or hour; larger ranges drill down per bucket instead
+        Map<LocalDateTime, List<MoneyFlowDTO>> transactionsByBucket = null;
+        if (includeTransactions && granularity.equals(source) && !granularity.equals("day")) {
+            transactionsByBucket = new HashMap<>();
+            for (MoneyFlow moneyFlow : moneyFlowRepository.findByCreatedAtBetweenOrderByCreatedAtAsc(start, end)) {
+                transactionsByBucket
+                        .computeIfAbsent(truncateToBucket(moneyFlow.getCreatedAt(), granularity),
+                                k -> new ArrayList<>())
+                        .add(mapToDTO(moneyFlow));
+            }
+        }
 
-        switch (granularity) {
-            case "minute":
-                aggregations = aggregateByMinute(start, end);
-                break;
-            case "hour":
-                aggregations = aggregateByHour(start, end);
-                break;
-            case "day":
-                aggregations = aggregateByDay(start, end);
-                break;
-            case "week":
-                aggregations = aggregateByWeek(start, end);
-                break;
-            case "month":
-                aggregations = aggregateByMonth(start, end);
-                break;
-            case "year":
-                aggregations = aggregateByYear(start, end);
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid granularity: " + granularity);
+        List<MoneyFlowAggregationDTO> aggregations = new ArrayList<>();
+        for (Object[] row : buckets) {
+            LocalDateTime bucketStart = toLocalDateTime(row[0]);
+            BigDecimal totalInflow = (BigDecimal) row[1];
+            BigDecimal totalOutflow = (BigDecimal) row[2];
+
+            aggregations.add(MoneyFlowAggregationDTO.builder()
+                    .period(formatPeriod(bucketStart, granularity))
+                    .bucketStart(bucketStart)
+                    .totalInflow(totalInflow)
+                    .totalOutflow(totalOutflow)
+                    .netBalance(totalInflow.subtract(totalOutflow))
+                    .transactionCount(((Number) row[3]).longValue())
+                    .transactions(transactionsByBucket != null
+                            ? transactionsByBucket.getOrDefault(bucketStart, new ArrayList<>())
+                            : null)
+                    .build());
         }
 
         return MoneyFlowResponseDTO.builder()
@@ -103,6 +126,20 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MoneyFlowDTO> getBucketTransactions(String granularity, LocalDateTime bucketStart,
+            Pageable pageable) {
+        String unit = granularity.toLowerCase(Locale.ROOT);
+        LocalDateTime start = truncateToBucket(bucketStart, unit);
+        LocalDateTime end = nextBucket(start, unit);
+        log.info("Fetching {} transactions from {} to {}, page {}", unit, start, end, pageable.getPageNumber());
+
+        return moneyFlowRepository
+                .findByCreatedAtGreaterThanEqualAndCreatedAtLessThanOrderByCreatedAtAscIdAsc(start, end, pageable)
+                .map(this::mapToDTO);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<MoneyFlowDTO> getTransactions(LocalDateTime start, LocalDateTime end) {
@@ -117,9 +154,11 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getCurrentBalance() {
-        return moneyFlowRepository.findTopByOrderByCreatedAtDesc()
-                .map(MoneyFlow::getRemainingBalance)
-                .orElse(BigDecimal.ZERO);
+        return moneyFlowBalanceRepository.findById(MoneyFlowBalance.SINGLETON_ID)
+                .map(MoneyFlowBalance::getBalance)
+                .orElseGet(() -> moneyFlowRepository.findTopByOrderByCreatedAtDesc()
+                        .map(MoneyFlow::getRemainingBalance)
+                        .orElse(BigDecimal.ZERO));
     }
 
     @Override
@@ -134,26 +173,88 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
     }
 
     @Override
+    @Transactional
     public void delete(Long id) {
         log.info("Deleting money flow with ID: {}", id);
         
-        if (!moneyFlowRepository.existsById(id)) {
-            throw new EntityNotFoundException("Money flow not found with ID: " + id);
-        }
+        MoneyFlow moneyFlow = moneyFlowRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Money flow not found with ID: " + id));
         
-        moneyFlowRepository.deleteById(id);
+        // Reverse the entry's effect on the running balance
+        applyToBalance(moneyFlow.getType(), moneyFlow.getAmount().negate(), -1);
+        applyToRollups(moneyFlow, moneyFlow.getAmount().negate(), -1);
+        moneyFlowRepository.delete(moneyFlow);
         log.info("Money flow deleted successfully with ID: {}", id);
     }
     
     @Override
     @Transactional(readOnly = true)
     public BigDecimal getNetRevenue() {
-       
-        BigDecimal totalInflow = moneyFlowRepository.sumTotalInflow();
-        BigDecimal totalOutflow = moneyFlowRepository.sumTotalOutflow();
-        BigDecimal netRevenue = totalInflow.subtract(totalOutflow);
-        
-        return netRevenue;
+        return moneyFlowBalanceRepository.findById(MoneyFlowBalance.SINGLETON_ID)
+                .map(counter -> counter.getTotalInflow().subtract(counter.getTotalOutflow()))
+                .orElseGet(() -> moneyFlowRepository.sumTotalInflow()
+                        .subtract(moneyFlowRepository.sumTotalOutflow()));
+    }
+
+    @Override
+    @Transactional
+    public MoneyFlowCheckpoint createCheckpoint() {
+        moneyFlowBalanceRepository.initializeFromLedger();
+
+        // Locking the counter waits out in-flight writers; every ledger row
+        // visible afterwards is already included in the counter
+        MoneyFlowBalance counter = moneyFlowBalanceRepository.findByIdForUpdate(MoneyFlowBalance.SINGLETON_ID)
+                .orElseThrow(() -> new IllegalStateException("Money flow balance counter is missing"));
+        Long lastEntryId = moneyFlowRepository.findMaxId().orElse(0L);
+
+        BigDecimal drift = moneyFlowCheckpointRepository.findTopByOrderByIdDesc()
+                .map(previous -> counter.getBalance().subtract(previous.getBalance()
+                        .add(moneyFlowRepository.sumNetBetweenIds(previous.getLastEntryId(), lastEntryId))))
+                .orElse(BigDecimal.ZERO);
+        if (drift.signum() != 0) {
+            log.warn("Money flow balance drifted by {} since the previous checkpoint", drift);
+        }
+
+        MoneyFlowCheckpoint checkpoint = new MoneyFlowCheckpoint();
+        checkpoint.setBalance(counter.getBalance());
+        checkpoint.setTotalInflow(counter.getTotalInflow());
+        checkpoint.setTotalOutflow(counter.getTotalOutflow());
+        checkpoint.setLastEntryId(lastEntryId);
+        checkpoint.setDrift(drift);
+
+        MoneyFlowCheckpoint saved = moneyFlowCheckpointRepository.save(checkpoint);
+        log.info("Money flow checkpoint {} recorded: balance={}, lastEntryId={}",
+                saved.getId(), saved.getBalance(), lastEntryId);
+        return saved;
+    }
+
+    /**
+     * Add a signed amount to the balance counter, creating the counter from
+     * the existing ledger on first use
+     */
+    private BigDecimal applyToBalance(MoneyFlowType type, BigDecimal amount, long entries) {
+        BigDecimal inflow = type == MoneyFlowType.IN ? amount : BigDecimal.ZERO;
+        BigDecimal outflow = type == MoneyFlowType.OUT ? amount : BigDecimal.ZERO;
+
+        BigDecimal balance = moneyFlowBalanceRepository.addToBalance(inflow, outflow, entries);
+        if (balance == null) {
+            moneyFlowBalanceRepository.initializeFromLedger();
+            balance = moneyFlowBalanceRepository.addToBalance(inflow, outflow, entries);
+        }
+        if (balance == null) {
+            throw new IllegalStateException("Money flow balance counter could not be initialized");
+        }
+        return balance;
+    }
+
+    /**
+     * Add a signed amount of a ledger entry to its minute, hour and day buckets
+     */
+    private void applyToRollups(MoneyFlow moneyFlow, BigDecimal amount, long entries) {
+        BigDecimal inflow = moneyFlow.getType() == MoneyFlowType.IN ? amount : BigDecimal.ZERO;
+        BigDecimal outflow = moneyFlow.getType() == MoneyFlowType.OUT ? amount : BigDecimal.ZERO;
+        LocalDateTime at = moneyFlow.getCreatedAt() != null ? moneyFlow.getCreatedAt() : LocalDateTime.now();
+        moneyFlowRollupRepository.addToBuckets(at, inflow, outflow, entries);
     }
 
     /**
@@ -179,151 +280,75 @@ public class MoneyFlowServiceImpl implements MoneyFlowService {
     }
 
     /**
-     * Aggregate by minute with detailed transactions
+     * Start of the bucket containing a time; weeks start on Monday
      */
-    private List<MoneyFlowAggregationDTO> aggregateByMinute(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> aggregateResults = moneyFlowRepository.aggregateByMinute(start, end);
-        List<Object[]> detailedResults = moneyFlowRepository.getDetailedTransactionsByMinute(start, end);
-
-        // Group detailed transactions by period
-        Map<String, List<MoneyFlowDTO>> transactionsByPeriod = new HashMap<>();
-        for (Object[] row : detailedResults) {
-            String period = (String) row[0];
-            MoneyFlowDTO dto = mapDetailedRowToDTO(row);
-            transactionsByPeriod.computeIfAbsent(period, k -> new ArrayList<>()).add(dto);
-        }
-
-        // Build aggregations with transactions
-        List<MoneyFlowAggregationDTO> aggregations = new ArrayList<>();
-        for (Object[] row : aggregateResults) {
-            String period = (String) row[0];
-            BigDecimal totalInflow = (BigDecimal) row[1];
-            BigDecimal totalOutflow = (BigDecimal) row[2];
-            BigDecimal netBalance = totalInflow.subtract(totalOutflow);
-
-            aggregations.add(MoneyFlowAggregationDTO.builder()
-                    .period(period)
-                    .totalInflow(totalInflow)
-                    .totalOutflow(totalOutflow)
-                    .netBalance(netBalance)
-                    .transactions(transactionsByPeriod.getOrDefault(period, new ArrayList<>()))
-                    .build());
+    private LocalDateTime truncateToBucket(LocalDateTime time, String granularity) {
+        switch (granularity) {
+            case "minute":
+                return time.truncatedTo(ChronoUnit.MINUTES);
+            case "hour":
+                return time.truncatedTo(ChronoUnit.HOURS);
+            case "day":
+                return time.truncatedTo(ChronoUnit.DAYS);
+            case "week":
+                return time.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month":
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+            case "year":
+                return time.truncatedTo(ChronoUnit.DAYS).withDayOfYear(1);
+            default:
+                throw new IllegalArgumentException("Invalid granularity: " + granularity);
         }
-
-        return aggregations;
     }
 
-    /**
-     * Aggregate by hour with detailed transactions
-     */
-    private List<MoneyFlowAggregationDTO> aggregateByHour(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> aggregateResults = moneyFlowRepository.aggregateByHour(start, end);
-        List<Object[]> detailedResults = moneyFlowRepository.getDetailedTransactionsByHour(start, end);
-
-        // Group detailed transactions by period
-        Map<String, List<MoneyFlowDTO>> transactionsByPeriod = new HashMap<>();
-        for (Object[] row : detailedResults) {
-            String period = (String) row[0];
-            MoneyFlowDTO dto = mapDetailedRowToDTO(row);
-            transactionsByPeriod.computeIfAbsent(period, k -> new ArrayList<>()).add(dto);
-        }
-
-        // Build aggregations with transactions
-        List<MoneyFlowAggregationDTO> aggregations = new ArrayList<>();
-        for (Object[] row : aggregateResults) {
-            String period = (String) row[0];
-            BigDecimal totalInflow = (BigDecimal) row[1];
-            BigDecimal totalOutflow = (BigDecimal) row[2];
-            BigDecimal netBalance = totalInflow.subtract(totalOutflow);
-
-            aggregations.add(MoneyFlowAggregationDTO.builder()
-                    .period(period)
-                    .totalInflow(totalInflow)
-                    .totalOutflow(totalOutflow)
-                    .netBalance(netBalance)
-                    .transactions(transactionsByPeriod.getOrDefault(period, new ArrayList<>()))
-                    .build());
+    private LocalDateTime nextBucket(LocalDateTime bucketStart, String granularity) {
+        switch (granularity) {
+            case "minute":
+                return bucketStart.plusMinutes(1);
+            case "hour":
+                return bucketStart.plusHours(1);
+            case "day":
+                return bucketStart.plusDays(1);
+            case "week":
+                return bucketStart.plusWeeks(1);
+            case "month":
+                return bucketStart.plusMonths(1);
+            case "year":
+                return bucketStart.plusYears(1);
+            default:
+                throw new IllegalArgumentException("Invalid granularity: " + granularity);
         }
-
-        return aggregations;
-    }
-
-    /**
-     * Aggregate by day (no detailed transactions)
-     */
-    private List<MoneyFlowAggregationDTO> aggregateByDay(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> results = moneyFlowRepository.aggregateByDay(start, end);
-        return buildAggregations(results);
-    }
-
-    /**
-     * Aggregate by week (no detailed transactions)
-     */
-    private List<MoneyFlowAggregationDTO> aggregateByWeek(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> results = moneyFlowRepository.aggregateByWeek(start, end);
-        return buildAggregations(results);
     }
 
     /**
-     * Aggregate by month (no detailed transactions)
+     * Period label of a bucket, e.g. "2025-10-15 19:35", "2025-10-15 19:00",
+     * "2025-10-15", "2025-W42", "2025-10" or "2025"
      */
-    private List<MoneyFlowAggregationDTO> aggregateByMonth(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> results = moneyFlowRepository.aggregateByMonth(start, end);
-        return buildAggregations(results);
-    }
-
-    /**
-     * Aggregate by year (no detailed transactions)
-     */
-    private List<MoneyFlowAggregationDTO> aggregateByYear(LocalDateTime start, LocalDateTime end) {
-        List<Object[]> results = moneyFlowRepository.aggregateByYear(start, end);
-        return buildAggregations(results);
-    }
-
-    /**
-     * Build aggregations from query results (without detailed transactions)
-     */
-    private List<MoneyFlowAggregationDTO> buildAggregations(List<Object[]> results) {
-        List<MoneyFlowAggregationDTO> aggregations = new ArrayList<>();
-        
-        for (Object[] row : results) {
-            String period = (String) row[0];
-            BigDecimal totalInflow = (BigDecimal) row[1];
-            BigDecimal totalOutflow = (BigDecimal) row[2];
-            BigDecimal netBalance = totalInflow.subtract(totalOutflow);
-
-            aggregations.add(MoneyFlowAggregationDTO.builder()
-                    .period(period)
-                    .totalInflow(totalInflow)
-                    .totalOutflow(totalOutflow)
-                    .netBalance(netBalance)
-                    .transactions(null) // No detailed transactions for larger granularities
-                    .build());
+    private String formatPeriod(LocalDateTime bucketStart, String granularity) {
+        switch (granularity) {
+            case "minute":
+                return bucketStart.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
+            case "hour":
+                return bucketStart.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00"));
+            case "day":
+                return bucketStart.format(DateTimeFormatter.ISO_LOCAL_DATE);
+            case "week":
+                return String.format("%d-W%02d", bucketStart.get(IsoFields.WEEK_BASED_YEAR),
+                        bucketStart.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            case "month":
+                return bucketStart.format(DateTimeFormatter.ofPattern("yyyy-MM"));
+            case "year":
+                return String.valueOf(bucketStart.getYear());
+            default:
+                throw new IllegalArgumentException("Invalid granularity: " + granularity);
         }
-
-        return aggregations;
     }
 
-    /**
-     * Map detailed query row to MoneyFlowDTO
-     */
-    private MoneyFlowDTO mapDetailedRowToDTO(Object[] row) {
-        // row format: period, id, description, type, amount, remaining_balance, created_at
-        Long id = ((Number) row[1]).longValue();
-        String description = (String) row[2];
-        String typeStr = (String) row[3];
-        BigDecimal amount = (BigDecimal) row[4];
-        BigDecimal remainingBalance = (BigDecimal) row[5];
-        LocalDateTime createdAt = ((Timestamp) row[6]).toLocalDateTime();
-
-        return MoneyFlowDTO.builder()
-                .id(id)
-                .description(description)
-                .type(MoneyFlowType.valueOf(typeStr))
-                .amount(amount)
-                .remainingBalance(remainingBalance)
-                .createdAt(createdAt)
-                .build();
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
     }
 
     /**
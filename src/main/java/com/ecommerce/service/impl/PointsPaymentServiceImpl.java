@@ -46,6 +46,7 @@ public class PointsPaymentServiceImpl implements PointsPaymentService {
     private final ShopRepository shopRepository;
     private final RewardSystemRepository rewardSystemRepository;
     private final CheckoutService checkoutService;
+    private final PointsBalanceService pointsBalanceService;
 
     @Override
     public PointsPaymentPreviewDTO previewPointsPayment(PointsPaymentRequest request) {
@@ -668,8 +669,7 @@ public class PointsPaymentServiceImpl implements PointsPaymentService {
 
     private Integer getAvailablePointsForShop(UUID userId, UUID shopId) {
         try {
-            Integer balance = userPointsRepository.calculateCurrentBalanceByShop(userId, shopId);
-            return balance != null ? Math.max(0, balance) : 0;
+            return Math.max(0, pointsBalanceService.getShopBalance(userId, shopId));
         } catch (Exception e) {
             log.warn("Failed to get points for user {} shop {}: {}", userId, shopId, e.getMessage());
             return 0;
@@ -688,8 +688,8 @@ public class PointsPaymentServiceImpl implements PointsPaymentService {
 
     private void createPointsRecord(User user, UUID shopId, Long orderId, Integer pointsChange,
             BigDecimal pointsValue, String description) {
-        Integer current = getAvailablePointsForShop(user.getId(), shopId);
-        Integer balanceAfter = current + pointsChange;
+        // Spends only go through while the shop balance still covers them
+        Integer balanceAfter = pointsBalanceService.applyChange(user.getId(), shopId, pointsChange);
 
         UserPoints record = new UserPoints();
         record.setUser(user);
@@ -8,6 +8,7 @@ import com.ecommerce.entity.ProductVariant;
 import com.ecommerce.repository.DiscountRepository;
 import com.ecommerce.repository.ProductRepository;
 import com.ecommerce.repository.ProductVariantRepository;
+import com.ecommerce.service.CartReadModel;
 import com.ecommerce.service.ProductDiscountService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +35,7 @@ public class ProductDiscountServiceImpl implements ProductDiscountService {
     private final ProductRepository productRepository;
     private final ProductVariantRepository productVariantRepository;
     private final DiscountRepository discountRepository;
+    private final CartReadModel cartReadModel;
 
     @Override
     @Transactional
@@ -109,6 +111,7 @@ public class ProductDiscountServiceImpl implements ProductDiscountService {
 
             product.setDiscount(discount);
             productRepository.save(product);
+            cartReadModel.productChanged(product.getProductId());
         }
 
         log.info("Successfully assigned discount to {} products", productIds.size());
@@ -138,6 +141,7 @@ public class ProductDiscountServiceImpl implements ProductDiscountService {
             }
 
             variant.setDiscount(discount);
+            cartReadModel.productChanged(variant.getProduct().getProductId());
         }
 
         productVariantRepository.saveAll(variants);
@@ -158,6 +162,7 @@ public class ProductDiscountServiceImpl implements ProductDiscountService {
 
             product.setDiscount(null);
             productRepository.save(product);
+            cartReadModel.productChanged(product.getProductId());
         }
 
         log.info("Successfully removed discount from {} products", productIds.size());
@@ -182,6 +187,7 @@ public class ProductDiscountServiceImpl implements ProductDiscountService {
             }
 
             variant.setDiscount(null);
+            cartReadModel.productChanged(variant.getProduct().getProductId());
         }
 
         productVariantRepository.saveAll(variants);
@@ -41,12 +41,13 @@ import com.ecommerce.entity.*;
 
 import com.ecommerce.repository.*;
 
+import com.ecommerce.enums.CatalogIdentifierKind;
+
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.query_dsl.MultiMatchQuery;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
-import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.indices.CreateIndexRequest;
 import co.elastic.clients.elasticsearch.indices.ExistsRequest;
 
@@ -54,11 +55,17 @@ import jakarta.annotation.PostConstruct;
 
 import com.ecommerce.Exception.ProductDeletionException;
 
+import com.ecommerce.service.CartReadModel;
+import com.ecommerce.service.CatalogIdentifierService;
 import com.ecommerce.service.CloudinaryService;
 
 import com.ecommerce.service.ProductService;
 
 import com.ecommerce.service.ProductAvailabilityService;
+import com.ecommerce.service.ProductKeywordIndexService;
+import com.ecommerce.service.ProductSimilarityService;
+import com.ecommerce.service.ReferenceDataCache;
+import com.ecommerce.service.SearchSuggestionService;
 
 import jakarta.persistence.EntityNotFoundException;
 
@@ -157,6 +164,13 @@ public class ProductServiceImpl implements ProductService {
 
     private final com.ecommerce.repository.ShopRepository shopRepository;
 
+    private final ReferenceDataCache referenceDataCache;
+    private final SearchSuggestionService searchSuggestionService;
+    private final ProductKeywordIndexService productKeywordIndexService;
+    private final ProductSimilarityService productSimilarityService;
+    private final CatalogIdentifierService catalogIdentifierService;
+    private final CartReadModel cartReadModel;
+
     @Override
     @Transactional
     public Map<String, Object> createEmptyProduct(String name, UUID shopId) {
@@ -169,8 +183,8 @@ public class ProductServiceImpl implements ProductService {
 
             Product product = new Product();
             product.setProductName(name);
-            product.setSku(generateTemporarySku(name));
-            product.setSlug(generateUniqueSlug(name));
+            product.setSku(catalogIdentifierService.reserveTemporarySku(name));
+            product.setSlug(catalogIdentifierService.reserveSlug(name));
             product.setPrice(new java.math.BigDecimal("0.01"));
             product.setStatus(com.ecommerce.enums.ProductStatus.DRAFT);
             product.setCompletionPercentage(0);
@@ -195,24 +209,6 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
-    private String generateTemporarySku(String name) {
-        String baseSku = name.toUpperCase()
-                .replaceAll("[^A-Z0-9]", "")
-                .substring(0, Math.min(name.length(), 8));
-        return "TEMP-" + baseSku + "-" + System.currentTimeMillis();
-    }
-
-    private String generateUniqueSlug(String name) {
-        String baseSlug = name.toLowerCase()
-                .replaceAll("\\s+", "-")
-                .replaceAll("[^a-z0-9-]", "")
-                .replaceAll("-+", "-")
-                .trim();
-
-        long timestamp = System.currentTimeMillis();
-        return baseSlug + "-" + timestamp;
-    }
-
     @Override
     public boolean productHasVariants(UUID productId) {
         try {
@@ -255,6 +251,7 @@ public class ProductServiceImpl implements ProductService {
             log.info("Removing all stock for product {}", productId);
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+            cartReadModel.productChanged(productId);
 
             List<Stock> stocks = stockRepository.findByProduct(product);
             for (Stock stock : stocks) {
@@ -280,6 +277,7 @@ public class ProductServiceImpl implements ProductService {
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+            cartReadModel.productChanged(productId);
 
             if (product.getVariants() != null && !product.getVariants().isEmpty()) {
                 throw new IllegalArgumentException("Product has variants. Use assignVariantStockWithBatches instead.");
@@ -376,6 +374,7 @@ public class ProductServiceImpl implements ProductService {
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+            cartReadModel.productChanged(productId);
 
             if (product.getVariants() != null && !product.getVariants().isEmpty()) {
                 throw new IllegalArgumentException(
@@ -467,6 +466,7 @@ public class ProductServiceImpl implements ProductService {
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+            cartReadModel.productChanged(productId);
 
             Warehouse warehouse = warehouseRepository.findById(warehouseId)
                     .orElseThrow(() -> new IllegalArgumentException("Warehouse not found"));
@@ -535,6 +535,7 @@ public class ProductServiceImpl implements ProductService {
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new IllegalArgumentException("Product not found"));
+            cartReadModel.productChanged(productId);
 
             ProductVariant variant = product.getVariants().stream()
                     .filter(v -> v.getId().equals(variantId))
@@ -637,22 +638,6 @@ public class ProductServiceImpl implements ProductService {
 
     }
 
-    private void validateSkuUniqueness(String sku) {
-
-        if (sku == null || sku.trim().isEmpty()) {
-
-            return;
-
-        }
-
-        if (productRepository.findBySku(sku).isPresent()) {
-
-            throw new IllegalArgumentException("Product with SKU " + sku + " already exists");
-
-        }
-
-    }
-
     private Brand validateAndGetBrand(UUID brandId) {
 
         Brand brand = brandRepository.findById(brandId)
@@ -720,9 +705,11 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public ProductBasicInfoDTO updateProductBasicInfo(UUID productId, ProductBasicInfoUpdateDTO updateDTO) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+        cartReadModel.productChanged(productId);
 
         // Validate that at least one field is provided for update
         boolean hasUpdates = updateDTO.getProductName() != null ||
@@ -751,12 +738,18 @@ public class ProductServiceImpl implements ProductService {
             throw new IllegalArgumentException("At least one field must be provided for update");
         }
 
-        // Check if SKU is being changed and if it's unique
+        // Claim a changed SKU or slug before giving up the old one
         if (updateDTO.getSku() != null && !product.getSku().equals(updateDTO.getSku())) {
-            Optional<Product> existingProductWithSku = productRepository.findBySku(updateDTO.getSku());
-            if (existingProductWithSku.isPresent()) {
+            if (!catalogIdentifierService.reserve(CatalogIdentifierKind.PRODUCT_SKU, updateDTO.getSku())) {
                 throw new IllegalArgumentException("SKU '" + updateDTO.getSku() + "' already exists");
             }
+            catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SKU, product.getSku());
+        }
+        if (updateDTO.getSlug() != null && !updateDTO.getSlug().equals(product.getSlug())) {
+            if (!catalogIdentifierService.reserve(CatalogIdentifierKind.PRODUCT_SLUG, updateDTO.getSlug())) {
+                throw new IllegalArgumentException("Slug '" + updateDTO.getSlug() + "' already exists");
+            }
+            catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SLUG, product.getSlug());
         }
 
         // Update basic product fields only if provided
@@ -849,6 +842,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Save the updated product
         Product savedProduct = productRepository.save(product);
+        searchSuggestionService.productChanged(productId);
 
         // Return the updated basic info
         return mapProductToBasicInfoDTO(savedProduct);
@@ -891,6 +885,7 @@ public class ProductServiceImpl implements ProductService {
             Product existingProduct = productRepository.findById(productId)
 
                     .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            cartReadModel.productChanged(productId);
 
             // Update basic product fields if provided
 
@@ -934,6 +929,10 @@ public class ProductServiceImpl implements ProductService {
 
             Product savedProduct = productRepository.save(existingProduct);
 
+            if (updateProductDTO.getMetaKeywords() != null || updateProductDTO.getSearchKeywords() != null) {
+                productKeywordIndexService.syncKeywords(savedProduct.getProductDetail());
+            }
+
             log.info("Product basic fields updated successfully for ID: {}", productId);
 
             // Process new variants if provided
@@ -954,6 +953,7 @@ public class ProductServiceImpl implements ProductService {
 
             // Index product in Elasticsearch
             indexProductInElasticsearch(refreshedProduct);
+            searchSuggestionService.productChanged(productId);
 
             return mapProductToDTO(refreshedProduct);
 
@@ -982,6 +982,7 @@ public class ProductServiceImpl implements ProductService {
             Product product = productRepository.findById(productId)
 
                     .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            cartReadModel.productChanged(productId);
 
             log.info("Found product: {} for deletion", product.getProductName());
 
@@ -1004,10 +1005,14 @@ public class ProductServiceImpl implements ProductService {
             // Delete product detail
 
             deleteProductDetail(product);
+            productKeywordIndexService.removeProduct(productId);
 
-            // Finally, delete the product itself
+            // Finally, delete the product itself and free its SKU and slug
 
             productRepository.delete(product);
+            catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SKU, product.getSku());
+            catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SLUG, product.getSlug());
+            searchSuggestionService.productChanged(productId);
 
             log.info("Product deleted successfully with ID: {}", productId);
 
@@ -1166,6 +1171,14 @@ public class ProductServiceImpl implements ProductService {
 
         }
 
+        catalogIdentifierService.release(CatalogIdentifierKind.VARIANT_SKU, product.getVariants().stream()
+
+                .map(ProductVariant::getVariantSku)
+
+                .filter(Objects::nonNull)
+
+                .toList());
+
         log.info("Successfully deleted all product variants");
 
     }
@@ -1306,27 +1319,7 @@ public class ProductServiceImpl implements ProductService {
             if (isTextSearch && !hasShopFilter) {
                 return searchProductsWithElasticsearch(searchDTO, page, size, sortBy, sortDirection);
             } else {
-                Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ? Sort.Direction.ASC
-                        : Sort.Direction.DESC;
-                Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-                Specification<Product> spec = buildProductSearchSpecification(searchDTO);
-                Page<Product> productPage = productRepository.findAll(spec, pageable);
-
-                List<Product> filteredProducts = productPage.getContent();
-                if (searchDTO.getAverageRatingMin() != null || searchDTO.getAverageRatingMax() != null) {
-                    filteredProducts = applyRatingFilter(filteredProducts, searchDTO.getAverageRatingMin(),
-                            searchDTO.getAverageRatingMax());
-                }
-
-                // If rating filter was applied, content might have changed
-                List<ManyProductsDto> dtoList = filteredProducts.stream()
-                        .map(this::mapProductToManyProductsDto)
-                        .collect(Collectors.toList());
-
-                Page<ManyProductsDto> result = new PageImpl<>(dtoList, pageable, productPage.getTotalElements());
-                log.info("Search completed. Found {} products matching criteria on this page, total elements: {}",
-                        dtoList.size(), result.getTotalElements());
-                return result;
+                return searchProductsInDatabase(searchDTO, page, size, sortBy, sortDirection);
             }
 
         } catch (Exception e) {
@@ -1461,51 +1454,59 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
-    private Page<ManyProductsDto> searchProductsWithJPA(ProductSearchDTO searchDTO, int page, int size, String sortBy,
-            String sortDirection) {
-        try {
-            Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
-            Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
-
-            String searchTerm = searchDTO.getName() != null ? searchDTO.getName() : searchDTO.getSearchKeyword();
-
-            // Use enhanced search with comma-separated keyword handling
-            List<Product> allMatchingProducts = findProductsWithCommaSeparatedKeywords(searchTerm);
-
-            // Apply additional filters
-            List<Product> filteredProducts = applyAdditionalFilters(allMatchingProducts, searchDTO);
-
-            // Apply sorting
-            filteredProducts = applySorting(filteredProducts, sortBy, sortDirection);
+    /**
+     * Search products with the full search specification. Text terms are
+     * matched against product fields and the normalized product keywords in
+     * the same query, so filtering, sorting and pagination all happen in the
+     * database. A sortBy of "relevance" ranks text matches instead of sorting
+     * by a column.
+     */
+    private Page<ManyProductsDto> searchProductsInDatabase(ProductSearchDTO searchDTO, int page, int size,
+            String sortBy, String sortDirection) {
+        Specification<Product> spec = buildProductSearchSpecification(searchDTO);
+        String searchTerm = getTextSearchTerm(searchDTO);
 
-            // Apply pagination
-            int totalElements = filteredProducts.size();
-            int startIndex = page * size;
-            int endIndex = Math.min(startIndex + size, totalElements);
+        Pageable pageable;
+        if ("relevance".equalsIgnoreCase(sortBy) && searchTerm != null) {
+            pageable = PageRequest.of(page, size);
+            spec = spec.and(orderByTextRelevance(searchTerm));
+        } else {
+            Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ? Sort.Direction.ASC
+                    : Sort.Direction.DESC;
+            pageable = PageRequest.of(page, size, Sort.by(direction, resolveSortProperty(sortBy)));
+        }
+        Page<Product> productPage = productRepository.findAll(spec, pageable);
 
-            List<Product> pageProducts = startIndex < totalElements ? filteredProducts.subList(startIndex, endIndex)
-                    : Collections.emptyList();
+        List<Product> filteredProducts = productPage.getContent();
+        if (searchDTO.getAverageRatingMin() != null || searchDTO.getAverageRatingMax() != null) {
+            filteredProducts = applyRatingFilter(filteredProducts, searchDTO.getAverageRatingMin(),
+                    searchDTO.getAverageRatingMax());
+        }
 
-            // Map to DTOs
-            List<ManyProductsDto> dtoList = pageProducts.stream()
-                    .map(this::mapProductToManyProductsDto)
-                    .collect(Collectors.toList());
+        // If rating filter was applied, content might have changed
+        List<ManyProductsDto> dtoList = filteredProducts.stream()
+                .map(this::mapProductToManyProductsDto)
+                .collect(Collectors.toList());
 
-            Page<ManyProductsDto> result = new org.springframework.data.domain.PageImpl<>(
-                    dtoList, pageable, totalElements);
+        Page<ManyProductsDto> result = new PageImpl<>(dtoList, pageable, productPage.getTotalElements());
+        log.info("Search completed. Found {} products matching criteria on this page, total elements: {}",
+                dtoList.size(), result.getTotalElements());
+        return result;
+    }
 
-            log.info("JPA enhanced search with comma-separated keywords completed. Found {} products matching criteria",
-                    result.getTotalElements());
-            return result;
+    private Page<ManyProductsDto> searchProductsWithJPA(ProductSearchDTO searchDTO, int page, int size, String sortBy,
+            String sortDirection) {
+        try {
+            return searchProductsInDatabase(searchDTO, page, size, sortBy, sortDirection);
 
         } catch (Exception e) {
-            log.error("JPA enhanced search failed, trying basic search: {}", e.getMessage());
+            log.error("JPA search failed, trying basic search: {}", e.getMessage());
             // Fallback to basic search
             try {
                 String searchTerm = searchDTO.getName() != null ? searchDTO.getName() : searchDTO.getSearchKeyword();
                 Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ? Sort.Direction.ASC
                         : Sort.Direction.DESC;
-                Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+                Pageable pageable = PageRequest.of(page, size, Sort.by(direction, resolveSortProperty(sortBy)));
 
                 Page<Product> productPage = productRepository
                         .findByProductNameContainingIgnoreCaseOrShortDescriptionContainingIgnoreCase(
@@ -1563,156 +1564,85 @@ public class ProductServiceImpl implements ProductService {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * Enhanced search method that properly handles comma-separated keywords
-     * in metaKeywords and searchKeywords fields
-     */
-    private List<Product> findProductsWithCommaSeparatedKeywords(String searchTerm) {
-        try {
-            log.debug("Searching products with comma-separated keyword handling for term: {}", searchTerm);
-
-            // First, get products that match basic fields (name, description, etc.)
-            List<Product> basicMatches = productRepository.findProductsForKeywordSearch(searchTerm);
-
-            // Then, find products that match comma-separated keywords
-            List<Product> keywordMatches = findProductsMatchingCommaSeparatedKeywords(searchTerm);
-
-            // Combine and deduplicate results
-            Set<Product> allMatches = new HashSet<>();
-            allMatches.addAll(basicMatches);
-            allMatches.addAll(keywordMatches);
-
-            List<Product> result = new ArrayList<>(allMatches);
-            log.debug("Found {} products matching search term '{}'", result.size(), searchTerm);
-
-            return result;
-
-        } catch (Exception e) {
-            log.error("Error in comma-separated keyword search: {}", e.getMessage(), e);
-            // Fallback to basic search
-            return productRepository.findProductsForKeywordSearch(searchTerm);
-        }
-    }
-
-    /**
-     * Find products that match comma-separated keywords in metaKeywords and
-     * searchKeywords
-     */
-    private List<Product> findProductsMatchingCommaSeparatedKeywords(String searchTerm) {
-        List<Product> matchingProducts = new ArrayList<>();
-        String lowerSearchTerm = searchTerm.toLowerCase().trim();
-
-        try {
-            // Get all active products with their details
-            List<Product> allProducts = productRepository.findAll().stream()
-                    .filter(Product::isActive)
-                    .collect(Collectors.toList());
-
-            for (Product product : allProducts) {
-                if (product.getProductDetail() != null) {
-                    ProductDetail detail = product.getProductDetail();
-
-                    // Check metaKeywords
-                    if (detail.getMetaKeywords() != null && !detail.getMetaKeywords().trim().isEmpty()) {
-                        if (matchesCommaSeparatedKeywords(detail.getMetaKeywords(), lowerSearchTerm)) {
-                            matchingProducts.add(product);
-                            continue; // Avoid adding the same product twice
-                        }
-                    }
-
-                    // Check searchKeywords
-                    if (detail.getSearchKeywords() != null && !detail.getSearchKeywords().trim().isEmpty()) {
-                        if (matchesCommaSeparatedKeywords(detail.getSearchKeywords(), lowerSearchTerm)) {
-                            matchingProducts.add(product);
-                        }
-                    }
-                }
-            }
-
-            log.debug("Found {} products matching comma-separated keywords for term '{}'",
-                    matchingProducts.size(), searchTerm);
-
-        } catch (Exception e) {
-            log.error("Error finding products with comma-separated keywords: {}", e.getMessage(), e);
-        }
-
-        return matchingProducts;
-    }
-
-    /**
-     * Check if any keyword in a comma-separated string matches the search term
-     */
-    private boolean matchesCommaSeparatedKeywords(String keywordsString, String searchTerm) {
-        if (keywordsString == null || keywordsString.trim().isEmpty()) {
-            return false;
-        }
-
-        try {
-            // Split by comma and check each keyword
-            String[] keywords = keywordsString.split(",");
-            for (String keyword : keywords) {
-                String trimmedKeyword = keyword.trim().toLowerCase();
-                if (!trimmedKeyword.isEmpty() && trimmedKeyword.contains(searchTerm)) {
-                    return true;
-                }
-            }
-        } catch (Exception e) {
-            log.warn("Error processing comma-separated keywords '{}': {}", keywordsString, e.getMessage());
-        }
-
-        return false;
-    }
-
-    /**
-     * Apply sorting to a list of products
-     */
-    private List<Product> applySorting(List<Product> products, String sortBy, String sortDirection) {
-        try {
-            Comparator<Product> comparator = getProductComparator(sortBy, sortDirection);
-            return products.stream()
-                    .sorted(comparator)
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.warn("Error applying sorting, using default sort: {}", e.getMessage());
-            return products.stream()
-                    .sorted(Comparator.comparing(Product::getCreatedAt).reversed())
-                    .collect(Collectors.toList());
-        }
+    private String getTextSearchTerm(ProductSearchDTO searchDTO) {
+        String term = searchDTO.getName() != null && !searchDTO.getName().trim().isEmpty()
+                ? searchDTO.getName()
+                : searchDTO.getSearchKeyword();
+        return term != null && !term.trim().isEmpty() ? term.trim() : null;
     }
 
     /**
-     * Get comparator for product sorting
+     * Map the sort names accepted by the search endpoints to entity properties
      */
-    private Comparator<Product> getProductComparator(String sortBy, String sortDirection) {
-        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
-
-        Comparator<Product> comparator;
+    private String resolveSortProperty(String sortBy) {
         switch (sortBy.toLowerCase()) {
             case "name":
             case "productname":
-                comparator = Comparator.comparing(Product::getProductName);
-                break;
-            case "price":
-                comparator = Comparator.comparing(Product::getPrice);
-                break;
+                return "productName";
             case "createdat":
             case "created_at":
-                comparator = Comparator.comparing(Product::getCreatedAt);
-                break;
+                return "createdAt";
             case "updatedat":
             case "updated_at":
-                comparator = Comparator.comparing(Product::getUpdatedAt);
-                break;
-            case "averagerating":
-            case "average_rating":
-                comparator = Comparator.comparing(Product::getAverageRating);
-                break;
+                return "updatedAt";
             default:
-                comparator = Comparator.comparing(Product::getCreatedAt);
-                break;
+                return sortBy;
         }
+    }
 
-        return ascending ? comparator : comparator.reversed();
+    /**
+     * Text match across the searchable product fields and the product's
+     * normalized keywords
+     */
+    private Predicate textSearchPredicate(String searchTerm, Root<Product> root, CriteriaQuery<?> query,
+            CriteriaBuilder criteriaBuilder) {
+        String pattern = "%" + ProductKeywordIndexService.normalize(searchTerm) + "%";
+        Join<Product, ProductDetail> detailJoin = root.join("productDetail", JoinType.LEFT);
+
+        Subquery<Long> keywordMatch = query.subquery(Long.class);
+        Root<ProductKeyword> keyword = keywordMatch.from(ProductKeyword.class);
+        keywordMatch.select(keyword.get("id"))
+                .where(criteriaBuilder.equal(keyword.get("productId"), root.get("productId")),
+                        criteriaBuilder.like(keyword.get("keyword"), pattern));
+
+        return criteriaBuilder.or(
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")), pattern),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("shortDescription")), pattern),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("sku")), pattern),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("barcode")), pattern),
+                criteriaBuilder.like(criteriaBuilder.lower(root.get("slug")), pattern),
+                criteriaBuilder.like(criteriaBuilder.lower(detailJoin.get("description")), pattern),
+                criteriaBuilder.like(criteriaBuilder.lower(detailJoin.get("metaDescription")), pattern),
+                criteriaBuilder.exists(keywordMatch));
+    }
+
+    /**
+     * Orders text search results by how well they match: exact name, name
+     * prefix, exact keyword, name substring, then anything else, newest first
+     * within each rank. The count query is left unordered.
+     */
+    private Specification<Product> orderByTextRelevance(String searchTerm) {
+        String term = ProductKeywordIndexService.normalize(searchTerm);
+        return (root, query, criteriaBuilder) -> {
+            if (Long.class.equals(query.getResultType()) || long.class.equals(query.getResultType())) {
+                return null;
+            }
+            Subquery<Long> exactKeyword = query.subquery(Long.class);
+            Root<ProductKeyword> keyword = exactKeyword.from(ProductKeyword.class);
+            exactKeyword.select(keyword.get("id"))
+                    .where(criteriaBuilder.equal(keyword.get("productId"), root.get("productId")),
+                            criteriaBuilder.equal(keyword.get("keyword"), term));
+
+            Expression<String> name = criteriaBuilder.lower(root.get("productName"));
+            Expression<Integer> rank = criteriaBuilder.<Integer>selectCase()
+                    .when(criteriaBuilder.equal(name, term), 4)
+                    .when(criteriaBuilder.like(name, term + "%"), 3)
+                    .when(criteriaBuilder.exists(exactKeyword), 2)
+                    .when(criteriaBuilder.like(name, "%" + term + "%"), 1)
+                    .otherwise(0);
+            query.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.desc(root.get("createdAt")));
+            return null;
+        };
     }
 
     /**
@@ -1723,6 +1653,12 @@ public class ProductServiceImpl implements ProductService {
 
     private Specification<Product> buildProductSearchSpecification(ProductSearchDTO searchDTO) {
 
+        // Path of the category whose whole subtree is searched, if requested
+        String categorySubtreePath = searchDTO.getCategoryId() != null
+                && Boolean.TRUE.equals(searchDTO.getIncludeSubcategories())
+                        ? categoryRepository.findById(searchDTO.getCategoryId()).map(Category::getPath).orElse(null)
+                        : null;
+
         return (root, query, criteriaBuilder) -> {
 
             List<Predicate> predicates = new ArrayList<>();
@@ -1743,9 +1679,7 @@ public class ProductServiceImpl implements ProductService {
 
             if (searchDTO.getName() != null && !searchDTO.getName().trim().isEmpty()) {
 
-                predicates.add(criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")),
-
-                        "%" + searchDTO.getName().toLowerCase() + "%"));
+                predicates.add(textSearchPredicate(searchDTO.getName(), root, query, criteriaBuilder));
 
             }
 
@@ -1855,7 +1789,10 @@ public class ProductServiceImpl implements ProductService {
 
             // Category filters
 
-            if (searchDTO.getCategoryId() != null) {
+            if (categorySubtreePath != null) {
+                predicates.add(criteriaBuilder.like(root.get("category").get("path"), categorySubtreePath + "%"));
+
+            } else if (searchDTO.getCategoryId() != null) {
                 predicates.add(criteriaBuilder.equal(root.get("category").get("id"), searchDTO.getCategoryId()));
 
             }
@@ -2064,26 +2001,7 @@ public class ProductServiceImpl implements ProductService {
 
             if (searchDTO.getSearchKeyword() != null && !searchDTO.getSearchKeyword().trim().isEmpty()) {
 
-                String keyword = searchDTO.getSearchKeyword().toLowerCase();
-                Join<Product, ProductDetail> detailJoin = root.join("productDetail", JoinType.LEFT);
-
-                Predicate namePredicate = criteriaBuilder.like(criteriaBuilder.lower(root.get("productName")),
-
-                        "%" + keyword + "%");
-
-                Predicate descPredicate = criteriaBuilder
-
-                        .like(criteriaBuilder.lower(detailJoin.get("description")), "%" + keyword + "%");
-
-                Predicate skuPredicate = criteriaBuilder.like(criteriaBuilder.lower(root.get("sku")),
-
-                        "%" + keyword + "%");
-
-                Predicate barcodePredicate = criteriaBuilder.like(criteriaBuilder.lower(root.get("barcode")),
-
-                        "%" + keyword + "%");
-
-                predicates.add(criteriaBuilder.or(namePredicate, descPredicate, skuPredicate, barcodePredicate));
+                predicates.add(textSearchPredicate(searchDTO.getSearchKeyword(), root, query, criteriaBuilder));
 
             }
 
@@ -2341,6 +2259,7 @@ public class ProductServiceImpl implements ProductService {
                             ProductAttributeType newType = new ProductAttributeType();
                             newType.setName(attributeName);
                             newType.setRequired(false);
+                            referenceDataCache.invalidate(com.ecommerce.enums.ReferenceDataRegion.PRODUCT_ATTRIBUTES);
                             return productAttributeTypeRepository.save(newType);
                         });
 
@@ -2355,6 +2274,7 @@ public class ProductServiceImpl implements ProductService {
                             ProductAttributeValue newValue = new ProductAttributeValue();
                             newValue.setAttributeType(attributeType);
                             newValue.setValue(attributeValue);
+                            referenceDataCache.invalidate(com.ecommerce.enums.ReferenceDataRegion.PRODUCT_ATTRIBUTES);
                             return productAttributeValueRepository.save(newValue);
                         });
 
@@ -2548,15 +2468,29 @@ public class ProductServiceImpl implements ProductService {
 
         }
 
-        if (updateDTO.getSlug() != null) {
+        if (updateDTO.getSlug() != null && !updateDTO.getSlug().equals(product.getSlug())) {
+
+            if (!catalogIdentifierService.reserve(CatalogIdentifierKind.PRODUCT_SLUG, updateDTO.getSlug())) {
+
+                throw new IllegalArgumentException("Slug '" + updateDTO.getSlug() + "' already exists");
+
+            }
+
+            catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SLUG, product.getSlug());
 
             product.setSlug(updateDTO.getSlug());
 
-        } else if (updateDTO.getName() != null) {
+        } else if (updateDTO.getSlug() == null && updateDTO.getName() != null
+
+                && !CatalogIdentifierService.isSlugFor(product.getSlug(), updateDTO.getName())) {
 
             // Generate new slug if name changed but slug not provided
 
-            product.setSlug(generateSlug(updateDTO.getName()));
+            String previousSlug = product.getSlug();
+
+            product.setSlug(catalogIdentifierService.reserveSlug(updateDTO.getName()));
+
+            catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SLUG, previousSlug);
 
         }
 
@@ -2688,21 +2622,29 @@ public class ProductServiceImpl implements ProductService {
 
             log.info("Processing {} new variants for product ID: {}", newVariants.size(), product.getProductId());
 
-            for (int i = 0; i < newVariants.size(); i++) {
+            // Claim all variant SKUs at once
 
-                CreateProductVariantDTO variantDTO = newVariants.get(i);
+            List<String> variantSkus = newVariants.stream()
 
-                // Validate variant SKU uniqueness
+                    .map(CreateProductVariantDTO::getVariantSku)
 
-                if (variantDTO.getVariantSku() != null &&
+                    .filter(Objects::nonNull)
 
-                        productVariantRepository.findByVariantSku(variantDTO.getVariantSku()).isPresent()) {
+                    .toList();
 
-                    throw new IllegalArgumentException(
+            Set<String> takenSkus = catalogIdentifierService.reserve(CatalogIdentifierKind.VARIANT_SKU, variantSkus);
 
-                            "Variant with SKU " + variantDTO.getVariantSku() + " already exists");
+            if (!takenSkus.isEmpty()) {
 
-                }
+                throw new IllegalArgumentException(
+
+                        "Variant with SKU " + takenSkus.iterator().next() + " already exists");
+
+            }
+
+            for (int i = 0; i < newVariants.size(); i++) {
+
+                CreateProductVariantDTO variantDTO = newVariants.get(i);
 
                 // Create and save variant
 
@@ -2878,20 +2820,6 @@ public class ProductServiceImpl implements ProductService {
 
     }
 
-    private String generateSlug(String name) {
-
-        return name.toLowerCase()
-
-                .replaceAll("[^a-z0-9\\s-]", "")
-
-                .replaceAll("\\s+", "-")
-
-                .replaceAll("-+", "-")
-
-                .trim();
-
-    }
-
     private ProductDTO mapProductToDTO(Product product) {
 
         ProductDTO dto = new ProductDTO();
@@ -3431,6 +3359,7 @@ public class ProductServiceImpl implements ProductService {
             Product product = productRepository.findById(productId)
 
                     .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            cartReadModel.productChanged(productId);
 
             // Verify variant exists and belongs to the product
 
@@ -3461,6 +3390,7 @@ public class ProductServiceImpl implements ProductService {
             // Delete the variant itself
 
             productVariantRepository.delete(variant);
+            catalogIdentifierService.release(CatalogIdentifierKind.VARIANT_SKU, variant.getVariantSku());
 
             log.info("Successfully deleted product variant. Product ID: {}, Variant ID: {}", productId, variantId);
 
@@ -3747,189 +3677,8 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<Map<String, Object>> getSearchSuggestions(String query) {
-        try {
-            List<Map<String, Object>> suggestions = new ArrayList<>();
-
-            // Ensure products index exists
-            if (!ensureProductsIndexExists()) {
-                log.warn("Elasticsearch not available, falling back to database search");
-                return getFallbackSearchSuggestions(query);
-            }
-
-            // Get search term suggestions with typo tolerance
-            suggestions.addAll(getSearchTermSuggestions(query));
-
-            // Get category suggestions
-            suggestions.addAll(getCategorySuggestions(query));
-
-            // Get brand suggestions
-            suggestions.addAll(getBrandSuggestions(query));
-
-            // Get keyword suggestions from meta keywords
-            suggestions.addAll(getKeywordSuggestions(query));
-
-            // Limit total suggestions to 10
-            return suggestions.stream().limit(10).collect(Collectors.toList());
-
-        } catch (Exception e) {
-            log.error("Error getting Elasticsearch search suggestions for query: {}", query, e);
-            return getFallbackSearchSuggestions(query);
-        }
-    }
-
-    private List<Map<String, Object>> getSearchTermSuggestions(String query) {
-        List<Map<String, Object>> suggestions = new ArrayList<>();
-
-        try {
-            // Create multi-match query with typo tolerance for search terms
-            Query multiMatchQuery = MultiMatchQuery.of(m -> m
-                    .query(query)
-                    .fields("productName^3", "shortDescription^2", "metaKeywords", "searchKeywords",
-                            "metaKeywordsArray^2", "searchKeywordsArray^2")
-                    .fuzziness("AUTO")
-                    .type(co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType.BestFields))._toQuery();
-
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                    .index("products")
-                    .query(multiMatchQuery)
-                    .size(5));
-
-            SearchResponse<Map> searchResponse = elasticsearchClient.search(searchRequest, Map.class);
-
-            Set<String> uniqueTerms = new HashSet<>();
-            for (Hit<Map> hit : searchResponse.hits().hits()) {
-                Map<String, Object> source = hit.source();
-                if (source != null) {
-                    String productName = (String) source.get("productName");
-                    if (productName != null && !uniqueTerms.contains(productName.toLowerCase())) {
-                        uniqueTerms.add(productName.toLowerCase());
-
-                        Map<String, Object> suggestion = new HashMap<>();
-                        suggestion.put("id", "suggestion-" + productName.hashCode());
-                        suggestion.put("text", productName);
-                        suggestion.put("type", "suggestion");
-                        suggestion.put("searchTerm", productName);
-                        suggestions.add(suggestion);
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error getting search term suggestions: {}", e.getMessage());
-        }
-
-        return suggestions;
-    }
-
-    private List<Map<String, Object>> getCategorySuggestions(String query) {
-        List<Map<String, Object>> suggestions = new ArrayList<>();
-
-        try {
-            List<Category> categories = categoryRepository.findTop5ByNameContainingIgnoreCase(query.toLowerCase());
-            for (Category category : categories) {
-                Map<String, Object> suggestion = new HashMap<>();
-                suggestion.put("id", "category-" + category.getId());
-                suggestion.put("text", category.getName());
-                suggestion.put("type", "category");
-                suggestion.put("categoryId", category.getId().toString());
-                suggestions.add(suggestion);
-            }
-        } catch (Exception e) {
-            log.error("Error getting category suggestions: {}", e.getMessage());
-        }
-
-        return suggestions;
-    }
-
-    private List<Map<String, Object>> getBrandSuggestions(String query) {
-        List<Map<String, Object>> suggestions = new ArrayList<>();
-
-        try {
-            List<Brand> brands = brandRepository.findTop5ByBrandNameContainingIgnoreCase(query.toLowerCase());
-            for (Brand brand : brands) {
-                Map<String, Object> suggestion = new HashMap<>();
-                suggestion.put("id", "brand-" + brand.getBrandId());
-                suggestion.put("text", brand.getBrandName());
-                suggestion.put("type", "brand");
-                suggestion.put("brandId", brand.getBrandId().toString());
-                suggestions.add(suggestion);
-            }
-        } catch (Exception e) {
-            log.error("Error getting brand suggestions: {}", e.getMessage());
-        }
-
-        return suggestions;
-    }
-
-    private List<Map<String, Object>> getKeywordSuggestions(String query) {
-        List<Map<String, Object>> suggestions = new ArrayList<>();
-
-        try {
-            // Get both metaKeywords and searchKeywords
-            List<String> metaKeywordsStrings = productRepository.findDistinctMetaKeywordsByQuery(query.toLowerCase());
-            Set<String> uniqueKeywords = new HashSet<>();
-
-            // Process metaKeywords
-            for (String metaKeywordsString : metaKeywordsStrings) {
-                if (metaKeywordsString != null && !metaKeywordsString.trim().isEmpty()) {
-                    String[] keywords = metaKeywordsString.split(",");
-                    for (String keyword : keywords) {
-                        String trimmedKeyword = keyword.trim();
-                        if (!trimmedKeyword.isEmpty() &&
-                                trimmedKeyword.toLowerCase().contains(query.toLowerCase()) &&
-                                !uniqueKeywords.contains(trimmedKeyword.toLowerCase()) &&
-                                uniqueKeywords.size() < 5) {
-                            uniqueKeywords.add(trimmedKeyword.toLowerCase());
-
-                            Map<String, Object> suggestion = new HashMap<>();
-                            suggestion.put("id", "meta-keyword-" + trimmedKeyword.hashCode());
-                            suggestion.put("text", trimmedKeyword);
-                            suggestion.put("type", "keyword");
-                            suggestion.put("searchTerm", trimmedKeyword);
-                            suggestion.put("source", "metaKeywords");
-                            suggestions.add(suggestion);
-                        }
-                    }
-                }
-            }
-
-            // Also get searchKeywords suggestions
-            List<Product> productsWithSearchKeywords = productRepository.findAll().stream()
-                    .filter(Product::isActive)
-                    .filter(p -> p.getProductDetail() != null &&
-                            p.getProductDetail().getSearchKeywords() != null &&
-                            !p.getProductDetail().getSearchKeywords().trim().isEmpty())
-                    .collect(Collectors.toList());
-
-            for (Product product : productsWithSearchKeywords) {
-                String searchKeywordsString = product.getProductDetail().getSearchKeywords();
-                if (searchKeywordsString != null && !searchKeywordsString.trim().isEmpty()) {
-                    String[] keywords = searchKeywordsString.split(",");
-                    for (String keyword : keywords) {
-                        String trimmedKeyword = keyword.trim();
-                        if (!trimmedKeyword.isEmpty() &&
-                                trimmedKeyword.toLowerCase().contains(query.toLowerCase()) &&
-                                !uniqueKeywords.contains(trimmedKeyword.toLowerCase()) &&
-                                uniqueKeywords.size() < 5) {
-                            uniqueKeywords.add(trimmedKeyword.toLowerCase());
-
-                            Map<String, Object> suggestion = new HashMap<>();
-                            suggestion.put("id", "search-keyword-" + trimmedKeyword.hashCode());
-                            suggestion.put("text", trimmedKeyword);
-                            suggestion.put("type", "keyword");
-                            suggestion.put("searchTerm", trimmedKeyword);
-                            suggestion.put("source", "searchKeywords");
-                            suggestions.add(suggestion);
-                        }
-                    }
-                }
-            }
-
-        } catch (Exception e) {
-            log.error("Error getting keyword suggestions: {}", e.getMessage());
-        }
-
-        return suggestions;
+        // Served from the in-memory suggestion index, no database access
+        return searchSuggestionService.suggest(query, 10);
     }
 
     private boolean ensureProductsIndexExists() {
@@ -3964,32 +3713,6 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
-    private List<Map<String, Object>> getFallbackSearchSuggestions(String query) {
-        try {
-            List<Map<String, Object>> suggestions = new ArrayList<>();
-            String lowerQuery = query.toLowerCase().trim();
-
-            // Get product suggestions based on name and meta keywords
-            List<Product> products = productRepository
-                    .findTop10ByProductNameContainingIgnoreCaseOrProductDetail_MetaKeywordsContainingIgnoreCase(
-                            lowerQuery, lowerQuery);
-
-            for (Product product : products) {
-                Map<String, Object> suggestion = new HashMap<>();
-                suggestion.put("id", "product-" + product.getProductId());
-                suggestion.put("text", product.getProductName());
-                suggestion.put("type", "product");
-                suggestion.put("productId", product.getProductId().toString());
-                suggestions.add(suggestion);
-            }
-
-            return suggestions;
-        } catch (Exception e) {
-            log.error("Error in fallback search suggestions", e);
-            return new ArrayList<>();
-        }
-    }
-
     /**
      * Creates Stock entities for a product based on warehouse assignments
      * 
@@ -4442,7 +4165,10 @@ public class ProductServiceImpl implements ProductService {
                     break;
                 case "mixed":
                 default:
-                    similarProducts = getSimilarProductsMixed(currentProduct, pageable, request.isIncludeOutOfStock());
+                    similarProducts = getSimilarProductsFromModel(currentProduct, pageable,
+                            request.isIncludeOutOfStock())
+                            .orElseGet(() -> getSimilarProductsMixed(currentProduct, pageable,
+                                    request.isIncludeOutOfStock()));
                     break;
             }
 
@@ -4510,6 +4236,43 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    /**
+     * Similar products from the precomputed similarity model, in model order.
+     * Empty when the model has nothing usable for the product, so the caller
+     * can fall back to the query-based mix.
+     */
+    private Optional<Page<Product>> getSimilarProductsFromModel(Product currentProduct, Pageable pageable,
+            boolean includeOutOfStock) {
+        List<UUID> neighbourIds = productSimilarityService.getNeighbours(currentProduct.getProductId());
+        if (neighbourIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Set<UUID> inStock = includeOutOfStock ? null
+                : new HashSet<>(productRepository.findInStockProductIds(neighbourIds));
+        Map<UUID, Product> productsById = productRepository.findAllById(neighbourIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, product -> product));
+
+        // The model is refreshed in the background; drop products hidden since
+        List<Product> neighbours = new ArrayList<>();
+        for (UUID neighbourId : neighbourIds) {
+            Product product = productsById.get(neighbourId);
+            if (product != null && product.isActive() && (inStock == null || inStock.contains(neighbourId))) {
+                neighbours.add(product);
+            }
+        }
+        if (neighbours.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int start = (int) pageable.getOffset();
+        if (start >= neighbours.size()) {
+            return Optional.of(new PageImpl<>(Collections.emptyList(), pageable, neighbours.size()));
+        }
+        int end = Math.min(start + pageable.getPageSize(), neighbours.size());
+        return Optional.of(new PageImpl<>(neighbours.subList(start, end), pageable, neighbours.size()));
+    }
+
     private Page<Product> getSimilarProductsMixed(Product currentProduct, Pageable pageable,
             boolean includeOutOfStock) {
         List<Product> similarProducts = new ArrayList<>();
@@ -4639,6 +4402,7 @@ public class ProductServiceImpl implements ProductService {
 
         // Save the updated product
         Product savedProduct = productRepository.save(product);
+        cartReadModel.productChanged(productId);
 
         // Return the updated pricing info
         return mapProductToPricingDTO(savedProduct);
@@ -4702,6 +4466,7 @@ public class ProductServiceImpl implements ProductService {
     public void deleteProductImage(UUID productId, Long imageId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+        cartReadModel.productChanged(productId);
 
         ProductImage image = productImageRepository.findById(imageId)
                 .orElseThrow(() -> new EntityNotFoundException("Image not found with ID: " + imageId));
@@ -4752,6 +4517,7 @@ public class ProductServiceImpl implements ProductService {
     public void setPrimaryImage(UUID productId, Long imageId) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+        cartReadModel.productChanged(productId);
 
         ProductImage targetImage = productImageRepository.findById(imageId)
                 .orElseThrow(() -> new EntityNotFoundException("Image not found with ID: " + imageId));
@@ -4794,6 +4560,7 @@ public class ProductServiceImpl implements ProductService {
     public List<ProductMediaDTO> uploadProductImages(UUID productId, List<MultipartFile> images) {
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+        cartReadModel.productChanged(productId);
 
         if (images == null || images.isEmpty()) {
             throw new IllegalArgumentException("At least one image must be provided");
@@ -4983,12 +4750,14 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public ProductVariantDTO updateProductVariant(UUID productId, Long variantId, Map<String, Object> updates) {
         try {
             log.info("Updating variant {} for product {}", variantId, productId);
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            cartReadModel.productChanged(productId);
 
             ProductVariant variant = productVariantRepository.findById(variantId)
                     .orElseThrow(() -> new EntityNotFoundException("Product variant not found with ID: " + variantId));
@@ -5001,12 +4770,12 @@ public class ProductServiceImpl implements ProductService {
 
             if (updates.containsKey("variantSku")) {
                 String variantSku = (String) updates.get("variantSku");
-                if (variantSku != null && !variantSku.trim().isEmpty()) {
-                    Optional<ProductVariant> existingVariant = productVariantRepository
-                            .findByVariantSku(variantSku.trim());
-                    if (existingVariant.isPresent() && !existingVariant.get().getId().equals(variantId)) {
+                if (variantSku != null && !variantSku.trim().isEmpty()
+                        && !variantSku.trim().equals(variant.getVariantSku())) {
+                    if (!catalogIdentifierService.reserve(CatalogIdentifierKind.VARIANT_SKU, variantSku.trim())) {
                         throw new IllegalArgumentException("SKU already exists for another variant");
                     }
+                    catalogIdentifierService.release(CatalogIdentifierKind.VARIANT_SKU, variant.getVariantSku());
                     variant.setVariantSku(variantSku.trim());
                     hasChanges = true;
                 }
@@ -5101,6 +4870,7 @@ public class ProductServiceImpl implements ProductService {
             productVariantImageRepository.delete(variantImage);
             productVariantRepository.save(variant);
 
+            cartReadModel.productChanged(productId);
             log.info("Successfully deleted image {} from variant {} of product {}", imageId, variantId, productId);
 
         } catch (Exception e) {
@@ -5135,6 +4905,7 @@ public class ProductServiceImpl implements ProductService {
 
             productVariantRepository.save(variant);
 
+            cartReadModel.productChanged(productId);
             log.info("Successfully set image {} as primary for variant {} of product {}", imageId, variantId,
                     productId);
 
@@ -5199,6 +4970,7 @@ public class ProductServiceImpl implements ProductService {
                 uploadedImages.add(mapProductVariantImageToDTO(savedImage));
             }
 
+            cartReadModel.productChanged(productId);
             log.info("Successfully uploaded {} images for variant {} of product {}", uploadedImages.size(), variantId,
                     productId);
             return uploadedImages;
@@ -5238,6 +5010,7 @@ public class ProductServiceImpl implements ProductService {
             variantAttributeValueRepository.delete(variantAttribute);
             productVariantRepository.save(variant);
 
+            cartReadModel.productChanged(productId);
             log.info("Successfully removed attribute {} from variant {} of product {}", attributeValueId, variantId,
                     productId);
 
@@ -5279,6 +5052,7 @@ public class ProductServiceImpl implements ProductService {
                     attributeType = new ProductAttributeType();
                     attributeType.setName(attributeTypeName);
                     attributeType = productAttributeTypeRepository.save(attributeType);
+                    referenceDataCache.invalidate(com.ecommerce.enums.ReferenceDataRegion.PRODUCT_ATTRIBUTES);
                     log.info("Created new attribute type: {}", attributeTypeName);
                 }
 
@@ -5293,6 +5067,7 @@ public class ProductServiceImpl implements ProductService {
                     newAttributeValue.setAttributeType(attributeType);
                     newAttributeValue.setValue(attributeValue);
                     attributeValueEntity = productAttributeValueRepository.save(newAttributeValue);
+                    referenceDataCache.invalidate(com.ecommerce.enums.ReferenceDataRegion.PRODUCT_ATTRIBUTES);
                     log.info("Created new attribute value: {} for type: {}", attributeValue, attributeTypeName);
                 } else {
                     attributeValueEntity = existingValue;
@@ -5328,6 +5103,7 @@ public class ProductServiceImpl implements ProductService {
                 }
             }
 
+            cartReadModel.productChanged(productId);
             log.info("Successfully added {} attributes to variant {} of product {}", addedAttributes.size(), variantId,
                     productId);
             return addedAttributes;
@@ -5340,16 +5116,17 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional
     public ProductVariantDTO createProductVariant(UUID productId, CreateVariantRequest request) {
         try {
             log.info("Creating new variant for product {}", productId);
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            cartReadModel.productChanged(productId);
 
-            Optional<ProductVariant> existingVariant = productVariantRepository
-                    .findByVariantSku(request.getVariantSku());
-            if (existingVariant.isPresent()) {
+            if (request.getVariantSku() != null
+                    && !catalogIdentifierService.reserve(CatalogIdentifierKind.VARIANT_SKU, request.getVariantSku())) {
                 throw new IllegalArgumentException("SKU already exists for another variant");
             }
 
@@ -5523,6 +5300,7 @@ public class ProductServiceImpl implements ProductService {
 
             Product product = productRepository.findById(productId)
                     .orElseThrow(() -> new EntityNotFoundException("Product not found with ID: " + productId));
+            cartReadModel.productChanged(productId);
 
             ProductDetail productDetail = product.getProductDetail();
             if (productDetail == null) {
@@ -5608,6 +5386,10 @@ public class ProductServiceImpl implements ProductService {
 
             productDetailRepository.save(productDetail);
             productRepository.save(product);
+            if (updateDTO.getMetaKeywords() != null || updateDTO.getSearchKeywords() != null) {
+                productKeywordIndexService.syncKeywords(productDetail);
+            }
+            searchSuggestionService.productChanged(productId);
 
             log.info("Successfully updated product details for product ID: {}", productId);
 
@@ -5704,13 +5486,17 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    public Page<ManyProductsDto> getProductsByCategoryForCustomers(Long categoryId, Pageable pageable) {
+    public Page<ManyProductsDto> getProductsByCategoryForCustomers(Long categoryId, boolean includeSubcategories,
+            Pageable pageable) {
         try {
-            log.info("Getting products by category {} for customers with pagination: {}", categoryId, pageable);
+            log.info("Getting products by category {} (subcategories: {}) for customers with pagination: {}",
+                    categoryId, includeSubcategories, pageable);
             Category category = categoryRepository.findById(categoryId)
                     .orElseThrow(() -> new EntityNotFoundException("Category not found with ID: " + categoryId));
 
-            Page<Product> products = productRepository.findByCategoryForCustomersWithStock(category, pageable);
+            Page<Product> products = includeSubcategories && category.getPath() != null
+                    ? productRepository.findByCategorySubtreeForCustomersWithStock(category.getPath(), pageable)
+                    : productRepository.findByCategoryForCustomersWithStock(category, pageable);
             return products.map(this::convertToManyProductsDto);
         } catch (Exception e) {
             log.error("Error getting products by category for customers: {}", e.getMessage(), e);
@@ -11,6 +11,7 @@ import com.ecommerce.repository.ShopOrderRepository;
 import com.ecommerce.repository.ReadyForDeliveryGroupRepository;
 import com.ecommerce.repository.UserRepository;
 import com.ecommerce.repository.ShopRepository;
+import com.ecommerce.service.DeliveryRouteService;
 import com.ecommerce.service.ReadyForDeliveryGroupService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
@@ -24,6 +25,9 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,6 +46,7 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
     private final UserRepository userRepository;
     private final ShopRepository shopRepository;
     private final com.ecommerce.service.OrderActivityLogService activityLogService;
+    private final DeliveryRouteService deliveryRouteService;
 
     @Override
     @Transactional
@@ -288,6 +293,7 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
                 ? group.getDeliverer().getPhoneNumber()
                 : "N/A";
 
+        List<Long> addedOrderIds = new ArrayList<>(orderIds.size());
         for (Long orderId : orderIds) {
             ShopOrder shopOrder = findShopOrder(orderId, group.getShop().getShopId());
 
@@ -303,17 +309,18 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
             }
 
             group.addShopOrder(shopOrder);
-
-            // LOG ACTIVITY: Added to Delivery Group
-            activityLogService.logAddedToDeliveryGroup(
-                    shopOrder.getOrder().getOrderId(),
-                    group.getDeliveryGroupName(),
-                    deliveryAgentName,
-                    deliveryAgentPhone,
-                    groupId);
+            addedOrderIds.add(shopOrder.getOrder().getOrderId());
         }
 
         groupRepository.save(group);
+
+        // LOG ACTIVITY: Added to Delivery Group
+        activityLogService.logAddedToDeliveryGroupBatch(
+                addedOrderIds,
+                group.getDeliveryGroupName(),
+                deliveryAgentName,
+                deliveryAgentPhone,
+                groupId);
     }
 
     private ReadyForDeliveryGroupDTO mapToDTO(ReadyForDeliveryGroup group) {
@@ -383,52 +390,118 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
     public BulkAddResult addOrdersToGroupBulk(Long groupId, List<Long> orderIds) {
         log.info("Bulk adding {} orders to group: {}", orderIds.size(), groupId);
 
-        ReadyForDeliveryGroup group = groupRepository.findByIdWithOrders(groupId)
+        // Only the group row and its deliverer; the existing orders are not needed
+        ReadyForDeliveryGroup group = groupRepository.findByIdWithDeliverer(groupId)
                 .orElseThrow(() -> new EntityNotFoundException("Group not found with ID: " + groupId));
 
         if (group.getHasDeliveryStarted()) {
             throw new IllegalStateException("Cannot add orders to a group that has already started delivery");
         }
 
+        UUID shopId = group.getShop().getShopId();
         List<BulkAddResult.SkippedOrder> skippedOrders = new ArrayList<>();
-        int successfullyAdded = 0;
+        if (orderIds.isEmpty()) {
+            return buildBulkAddResult(orderIds, 0, skippedOrders);
+        }
+
+        // Load every candidate in one query and resolve IDs the same way findShopOrder does
+        Set<Long> requestedIds = new LinkedHashSet<>(orderIds);
+        Map<Long, ShopOrder> byShopOrderId = new HashMap<>();
+        Map<Long, ShopOrder> byOrderIdInShop = new HashMap<>();
+        for (ShopOrder candidate : shopOrderRepository.findBulkAssignmentCandidates(requestedIds, shopId)) {
+            if (requestedIds.contains(candidate.getId())) {
+                byShopOrderId.put(candidate.getId(), candidate);
+            }
+            if (shopId.equals(candidate.getShop().getShopId())
+                    && requestedIds.contains(candidate.getOrder().getOrderId())) {
+                byOrderIdInShop.put(candidate.getOrder().getOrderId(), candidate);
+            }
+        }
 
+        Map<Long, ShopOrder> toAssign = new LinkedHashMap<>();
+        Map<Long, Long> requestedIdByShopOrderId = new HashMap<>();
         for (Long orderId : orderIds) {
-            try {
-                ShopOrder shopOrder = findShopOrder(orderId, group.getShop().getShopId());
+            ShopOrder shopOrder = byShopOrderId.get(orderId);
+            if (shopOrder == null || !shopId.equals(shopOrder.getShop().getShopId())) {
+                shopOrder = byOrderIdInShop.getOrDefault(orderId, shopOrder);
+            }
 
-                if (shopOrder.getReadyForDeliveryGroup() != null) {
-                    skippedOrders.add(BulkAddResult.SkippedOrder.builder()
-                            .orderId(orderId)
-                            .reason("already_in_group")
-                            .details("Shop order is already assigned to group: "
-                                    + shopOrder.getReadyForDeliveryGroup().getDeliveryGroupName())
-                            .build());
-                } else if (!group.getShop().getShopId().equals(shopOrder.getShop().getShopId())) {
-                    skippedOrders.add(BulkAddResult.SkippedOrder.builder()
-                            .orderId(orderId)
-                            .reason("wrong_shop")
-                            .details("Shop order belongs to a different shop than the delivery group")
-                            .build());
-                } else {
-                    group.addShopOrder(shopOrder);
-                    successfullyAdded++;
-                }
-            } catch (Exception e) {
+            if (shopOrder == null) {
                 skippedOrders.add(BulkAddResult.SkippedOrder.builder()
                         .orderId(orderId)
                         .reason("error")
-                        .details(e.getMessage())
+                        .details("Shop order not found for Order ID: " + orderId + " and shop ID: " + shopId)
                         .build());
+            } else if (shopOrder.getReadyForDeliveryGroup() != null) {
+                skippedOrders.add(BulkAddResult.SkippedOrder.builder()
+                        .orderId(orderId)
+                        .reason("already_in_group")
+                        .details("Shop order is already assigned to group: "
+                                + shopOrder.getReadyForDeliveryGroup().getDeliveryGroupName())
+                        .build());
+            } else if (!shopId.equals(shopOrder.getShop().getShopId())) {
+                skippedOrders.add(BulkAddResult.SkippedOrder.builder()
+                        .orderId(orderId)
+                        .reason("wrong_shop")
+                        .details("Shop order belongs to a different shop than the delivery group")
+                        .build());
+            } else if (toAssign.containsKey(shopOrder.getId())) {
+                skippedOrders.add(BulkAddResult.SkippedOrder.builder()
+                        .orderId(orderId)
+                        .reason("already_in_group")
+                        .details("Shop order is already assigned to group: " + group.getDeliveryGroupName())
+                        .build());
+            } else {
+                toAssign.put(shopOrder.getId(), shopOrder);
+                requestedIdByShopOrderId.put(shopOrder.getId(), orderId);
             }
         }
 
-        if (successfullyAdded > 0) {
-            groupRepository.save(group);
+        int successfullyAdded = 0;
+        if (!toAssign.isEmpty()) {
+            // The UPDATE re-checks ready_group_id IS NULL, so an order grabbed by a
+            // concurrent request since the read above is skipped, not reassigned
+            Set<Long> assigned = new HashSet<>(
+                    shopOrderRepository.assignToGroupIfUnassigned(groupId, toAssign.keySet()));
+            successfullyAdded = assigned.size();
+
+            List<Long> assignedOrderIds = new ArrayList<>(assigned.size());
+            for (ShopOrder shopOrder : toAssign.values()) {
+                if (assigned.contains(shopOrder.getId())) {
+                    assignedOrderIds.add(shopOrder.getOrder().getOrderId());
+                } else {
+                    skippedOrders.add(BulkAddResult.SkippedOrder.builder()
+                            .orderId(requestedIdByShopOrderId.get(shopOrder.getId()))
+                            .reason("already_in_group")
+                            .details("Shop order was assigned to another group, or this group started delivery, "
+                                    + "while the request was running")
+                            .build());
+                }
+            }
+
+            String deliveryAgentName = group.getDeliverer() != null
+                    ? group.getDeliverer().getFirstName() + " " + group.getDeliverer().getLastName()
+                    : "Unassigned";
+            String deliveryAgentPhone = group.getDeliverer() != null && group.getDeliverer().getPhoneNumber() != null
+                    ? group.getDeliverer().getPhoneNumber()
+                    : "N/A";
+
+            // LOG ACTIVITY: Added to Delivery Group
+            activityLogService.logAddedToDeliveryGroupBatch(
+                    assignedOrderIds,
+                    group.getDeliveryGroupName(),
+                    deliveryAgentName,
+                    deliveryAgentPhone,
+                    groupId);
         }
 
         log.info("Bulk add completed: {} added, {} skipped", successfullyAdded, skippedOrders.size());
 
+        return buildBulkAddResult(orderIds, successfullyAdded, skippedOrders);
+    }
+
+    private BulkAddResult buildBulkAddResult(List<Long> orderIds, int successfullyAdded,
+            List<BulkAddResult.SkippedOrder> skippedOrders) {
         return BulkAddResult.builder()
                 .totalRequested(orderIds.size())
                 .successfullyAdded(successfullyAdded)
@@ -603,7 +676,7 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
         stats.setTotalOrders(totalOrders);
 
         List<DeliveryGroupDto> currentGroupDtos = currentGroups.stream()
-                .map(this::mapToDeliveryGroupDto)
+                .map(this::mapToDeliveryGroupDtoWithRoute)
                 .collect(java.util.stream.Collectors.toList());
 
         List<DeliveryGroupDto> completedGroupDtos = completedGroups.stream()
@@ -629,11 +702,53 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
             throw new IllegalStateException("Agent does not have access to this group");
         }
 
+        // Return orders in the order the agent should deliver them
+        Map<Long, Integer> routePosition = routePositions(deliveryRouteService.planRoute(groupId, true));
         return group.getShopOrders().stream()
+                .sorted(java.util.Comparator.comparing(so -> routePosition.getOrDefault(so.getId(), Integer.MAX_VALUE)))
                 .map(this::mapToOrderDTO)
                 .collect(java.util.stream.Collectors.toList());
     }
 
+    @Override
+    public DeliveryRouteDTO getDeliveryRoute(Long groupId, boolean startAtWarehouse) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new EntityNotFoundException("Delivery group not found");
+        }
+        return deliveryRouteService.planRoute(groupId, startAtWarehouse);
+    }
+
+    @Override
+    public DeliveryRouteDTO getDeliveryRouteForAgent(Long groupId, UUID agentId, boolean startAtWarehouse) {
+        ReadyForDeliveryGroup group = groupRepository.findByIdWithDeliverer(groupId)
+                .orElseThrow(() -> new EntityNotFoundException("Delivery group not found"));
+
+        // Verify the agent owns this group
+        if (group.getDeliverer() == null || !group.getDeliverer().getId().equals(agentId)) {
+            throw new IllegalStateException("Agent does not have access to this group");
+        }
+
+        return deliveryRouteService.planRoute(groupId, startAtWarehouse);
+    }
+
+    private DeliveryGroupDto mapToDeliveryGroupDtoWithRoute(ReadyForDeliveryGroup group) {
+        DeliveryGroupDto dto = mapToDeliveryGroupDto(group);
+        DeliveryRouteDTO route = deliveryRouteService.planRoute(group.getDeliveryGroupId(), true);
+        dto.setOrderIds(route.getStops().stream()
+                .map(DeliveryRouteStopDTO::getShopOrderId)
+                .collect(Collectors.toList()));
+        dto.setRouteDistanceKm(route.getTotalDistanceKm());
+        return dto;
+    }
+
+    private Map<Long, Integer> routePositions(DeliveryRouteDTO route) {
+        Map<Long, Integer> positions = new HashMap<>();
+        for (DeliveryRouteStopDTO stop : route.getStops()) {
+            positions.put(stop.getShopOrderId(), stop.getSequence());
+        }
+        return positions;
+    }
+
     @Override
     public DeliveryGroupDto startDelivery(Long groupId, UUID agentId) {
         log.info("Starting delivery for group {} by agent {}", groupId, agentId);
@@ -660,13 +775,13 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
         ReadyForDeliveryGroup groupWithOrders = groupRepository.findByIdWithOrders(groupId)
                 .orElseThrow(() -> new EntityNotFoundException("Delivery group not found"));
 
-        for (ShopOrder so : groupWithOrders.getShopOrders()) {
-            activityLogService.logDeliveryStarted(
-                    so.getOrder().getOrderId(),
-                    group.getDeliveryGroupName(),
-                    deliveryAgentName,
-                    agentId.toString());
-        }
+        activityLogService.logDeliveryStartedBatch(
+                groupWithOrders.getShopOrders().stream()
+                        .map(so -> so.getOrder().getOrderId())
+                        .collect(Collectors.toList()),
+                group.getDeliveryGroupName(),
+                deliveryAgentName,
+                agentId.toString());
 
         return mapToDeliveryGroupDto(savedGroup);
     }
@@ -957,13 +1072,13 @@ public class ReadyForDeliveryGroupServiceImpl implements ReadyForDeliveryGroupSe
                 ? group.getDeliverer().getFirstName() + " " + group.getDeliverer().getLastName()
                 : "Delivery Agent";
 
-        for (ShopOrder so : shopOrders) {
-            activityLogService.logDeliveryStarted(
-                    so.getOrder().getOrderId(),
-                    group.getDeliveryGroupName(),
-                    agentName,
-                    group.getDeliverer() != null ? group.getDeliverer().getId().toString() : null);
-        }
+        activityLogService.logDeliveryStartedBatch(
+                shopOrders.stream()
+                        .map(so -> so.getOrder().getOrderId())
+                        .collect(Collectors.toList()),
+                group.getDeliveryGroupName(),
+                agentName,
+                group.getDeliverer() != null ? group.getDeliverer().getId().toString() : null);
 
         // Send email notifications to customers (async)
         sendDeliveryStartNotifications(group);
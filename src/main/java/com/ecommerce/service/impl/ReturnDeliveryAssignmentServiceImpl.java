@@ -18,7 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -242,23 +244,31 @@ public class ReturnDeliveryAssignmentServiceImpl implements ReturnDeliveryAssign
             throw new IllegalArgumentException("User is not a delivery agent: " + deliveryAgentId);
         }
 
-        // Get workload statistics
-        int totalAssigned = returnRequestRepository.countByDeliveryAgentId(deliveryAgentId);
-        int pendingPickups = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                deliveryAgentId, DeliveryStatus.ASSIGNED);
-        int scheduledPickups = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                deliveryAgentId, DeliveryStatus.PICKUP_SCHEDULED);
-        int inProgressPickups = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                deliveryAgentId, DeliveryStatus.PICKUP_IN_PROGRESS);
-        int completedToday = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatusAndPickupCompletedAtAfter(
-                deliveryAgentId, DeliveryStatus.PICKUP_COMPLETED, LocalDateTime.now().truncatedTo(ChronoUnit.DAYS));
-        int failedToday = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatusAndPickupStartedAtAfter(
-                deliveryAgentId, DeliveryStatus.PICKUP_FAILED, LocalDateTime.now().truncatedTo(ChronoUnit.DAYS));
-
-        int totalCompleted = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                deliveryAgentId, DeliveryStatus.PICKUP_COMPLETED);
-        int totalFailed = returnRequestRepository.countByDeliveryAgentIdAndDeliveryStatus(
-                deliveryAgentId, DeliveryStatus.PICKUP_FAILED);
+        // Get workload statistics from one grouped query
+        int totalAssigned = 0;
+        int completedToday = 0;
+        int failedToday = 0;
+        Map<DeliveryStatus, Integer> byStatus = new EnumMap<>(DeliveryStatus.class);
+        for (Object[] row : returnRequestRepository.countAgentDeliveryBreakdown(
+                deliveryAgentId, LocalDateTime.now().truncatedTo(ChronoUnit.DAYS))) {
+            int count = ((Number) row[1]).intValue();
+            totalAssigned += count;
+            if (row[0] == null) {
+                continue;
+            }
+            DeliveryStatus status = DeliveryStatus.valueOf((String) row[0]);
+            byStatus.put(status, count);
+            if (status == DeliveryStatus.PICKUP_COMPLETED) {
+                completedToday = ((Number) row[3]).intValue();
+            } else if (status == DeliveryStatus.PICKUP_FAILED) {
+                failedToday = ((Number) row[2]).intValue();
+            }
+        }
+        int pendingPickups = byStatus.getOrDefault(DeliveryStatus.ASSIGNED, 0);
+        int scheduledPickups = byStatus.getOrDefault(DeliveryStatus.PICKUP_SCHEDULED, 0);
+        int inProgressPickups = byStatus.getOrDefault(DeliveryStatus.PICKUP_IN_PROGRESS, 0);
+        int totalCompleted = byStatus.getOrDefault(DeliveryStatus.PICKUP_COMPLETED, 0);
+        int totalFailed = byStatus.getOrDefault(DeliveryStatus.PICKUP_FAILED, 0);
 
         // Calculate success rate
         double successRate = 0.0;
@@ -286,19 +296,43 @@ public class ReturnDeliveryAssignmentServiceImpl implements ReturnDeliveryAssign
     @Override
     @Transactional(readOnly = true)
     public DeliveryStatsDTO getDeliveryStatistics() {
-        // Get overall statistics
-        long totalReturns = returnRequestRepository.countByStatus(ReturnRequest.ReturnStatus.APPROVED);
-        long assignedReturns = returnRequestRepository.countByDeliveryAgentIdIsNotNull();
+        // Overall, per delivery status and today's counts from one grouped query
+        LocalDateTime startOfDay = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
+        long totalReturns = 0;
+        long assignedReturns = 0;
+        long todayPickups = 0;
+        long todayCompletions = 0;
+        long todayFailures = 0;
+        Map<DeliveryStatus, Long> byStatus = new EnumMap<>(DeliveryStatus.class);
+        for (Object[] row : returnRequestRepository.countDeliveryBreakdown(startOfDay)) {
+            long count = ((Number) row[3]).longValue();
+            long startedToday = ((Number) row[4]).longValue();
+            DeliveryStatus deliveryStatus = row[1] != null ? DeliveryStatus.valueOf((String) row[1]) : null;
+            if (ReturnRequest.ReturnStatus.APPROVED.name().equals(row[0])) {
+                totalReturns += count;
+            }
+            if (Boolean.TRUE.equals(row[2])) {
+                assignedReturns += count;
+            }
+            if (deliveryStatus != null) {
+                byStatus.merge(deliveryStatus, count, Long::sum);
+            }
+            if (deliveryStatus == DeliveryStatus.PICKUP_FAILED) {
+                todayFailures += startedToday;
+            }
+            todayPickups += startedToday;
+            todayCompletions += ((Number) row[5]).longValue();
+        }
         long unassignedReturns = totalReturns - assignedReturns;
 
         // Get status breakdown
-        long notAssigned = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.NOT_ASSIGNED);
-        long assigned = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.ASSIGNED);
-        long scheduled = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.PICKUP_SCHEDULED);
-        long inProgress = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.PICKUP_IN_PROGRESS);
-        long completed = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.PICKUP_COMPLETED);
-        long failed = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.PICKUP_FAILED);
-        long cancelled = returnRequestRepository.countByDeliveryStatus(DeliveryStatus.CANCELLED);
+        long notAssigned = byStatus.getOrDefault(DeliveryStatus.NOT_ASSIGNED, 0L);
+        long assigned = byStatus.getOrDefault(DeliveryStatus.ASSIGNED, 0L);
+        long scheduled = byStatus.getOrDefault(DeliveryStatus.PICKUP_SCHEDULED, 0L);
+        long inProgress = byStatus.getOrDefault(DeliveryStatus.PICKUP_IN_PROGRESS, 0L);
+        long completed = byStatus.getOrDefault(DeliveryStatus.PICKUP_COMPLETED, 0L);
+        long failed = byStatus.getOrDefault(DeliveryStatus.PICKUP_FAILED, 0L);
+        long cancelled = byStatus.getOrDefault(DeliveryStatus.CANCELLED, 0L);
 
         // Calculate success rate
         double successRate = 0.0;
@@ -309,13 +343,6 @@ public class ReturnDeliveryAssignmentServiceImpl implements ReturnDeliveryAssign
         // Get agent statistics
         int totalAgents = userRepository.countByRole(UserRole.DELIVERY_AGENT);
 
-        // Get today's statistics
-        LocalDateTime startOfDay = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS);
-        long todayPickups = returnRequestRepository.countByPickupStartedAtAfter(startOfDay);
-        long todayCompletions = returnRequestRepository.countByPickupCompletedAtAfter(startOfDay);
-        long todayFailures = returnRequestRepository.countByDeliveryStatusAndPickupStartedAtAfter(
-                DeliveryStatus.PICKUP_FAILED, startOfDay);
-
         return DeliveryStatsDTO.builder()
                 .totalReturnRequests(totalReturns)
                 .assignedReturns(assignedReturns)
@@ -7,10 +7,13 @@ import com.ecommerce.entity.RewardSystem;
 import com.ecommerce.entity.Shop;
 import com.ecommerce.entity.User;
 import com.ecommerce.entity.UserPoints;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.RewardSystemRepository;
 import com.ecommerce.repository.ShopRepository;
 import com.ecommerce.repository.UserPointsRepository;
 import com.ecommerce.repository.UserRepository;
+import com.ecommerce.service.PointsBalanceService;
+import com.ecommerce.service.ReferenceDataCache;
 import com.ecommerce.service.RewardService;
 import com.ecommerce.service.ShopAuthorizationService;
 import lombok.RequiredArgsConstructor;
@@ -38,11 +41,16 @@ import com.ecommerce.entity.RewardRange;
 @Transactional
 public class RewardServiceImpl implements RewardService {
 
+    // Cache key for the platform-wide active system
+    private static final String ANY_SHOP = "any-shop";
+
     private final RewardSystemRepository rewardSystemRepository;
     private final UserPointsRepository userPointsRepository;
     private final UserRepository userRepository;
     private final ShopRepository shopRepository;
     private final ShopAuthorizationService shopAuthorizationService;
+    private final ReferenceDataCache referenceDataCache;
+    private final PointsBalanceService pointsBalanceService;
 
     @Override
     public RewardSystemDTO getActiveRewardSystem(UUID shopId) {
@@ -144,7 +152,7 @@ public class RewardServiceImpl implements RewardService {
             RewardSystem existing = rewardSystemRepository.findByIdAndShopShopId(rewardSystemDTO.getId(), shopId)
                     .orElseThrow(() -> new RuntimeException("Reward system not found"));
             updateRewardSystem(existing, rewardSystemDTO);
-            return convertToDTO(rewardSystemRepository.save(existing));
+            return convertToDTO(persistRewardSystem(existing));
         } else {
             if (rewardSystemDTO.getIsActive()) {
                 deactivateCurrentSystem(shopId);
@@ -159,7 +167,7 @@ public class RewardServiceImpl implements RewardService {
                 newSystem.setRewardRanges(ranges);
             }
 
-            return convertToDTO(rewardSystemRepository.save(newSystem));
+            return convertToDTO(persistRewardSystem(newSystem));
         }
     }
 
@@ -173,7 +181,7 @@ public class RewardServiceImpl implements RewardService {
         system.setIsActive(true);
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -184,7 +192,7 @@ public class RewardServiceImpl implements RewardService {
         system.setIsSystemEnabled(enabled);
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -198,7 +206,7 @@ public class RewardServiceImpl implements RewardService {
         }
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -209,7 +217,7 @@ public class RewardServiceImpl implements RewardService {
         system.setIsPurchasePointsEnabled(enabled);
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -220,7 +228,7 @@ public class RewardServiceImpl implements RewardService {
         system.setIsQuantityBasedEnabled(enabled);
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -231,7 +239,7 @@ public class RewardServiceImpl implements RewardService {
         system.setIsAmountBasedEnabled(enabled);
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -246,7 +254,7 @@ public class RewardServiceImpl implements RewardService {
         }
         system.setUpdatedAt(LocalDateTime.now());
 
-        return convertToDTO(rewardSystemRepository.save(system));
+        return convertToDTO(persistRewardSystem(system));
     }
 
     @Override
@@ -353,7 +361,8 @@ public class RewardServiceImpl implements RewardService {
 
     private RewardSystem getActiveRewardSystemEntity(UUID shopId) {
         logDebugToFile("Getting active reward system for shop");
-        return rewardSystemRepository.findByShopShopIdAndIsActiveTrue(shopId).orElse(null);
+        return referenceDataCache.get(ReferenceDataRegion.REWARD_SYSTEMS, shopId,
+                () -> rewardSystemRepository.findByShopShopIdAndIsActiveTrue(shopId).orElse(null));
     }
 
     @Override
@@ -389,12 +398,8 @@ public class RewardServiceImpl implements RewardService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Calculate current balance for THIS shop
-        Integer currentBalance = userPointsRepository.calculateCurrentBalanceByShop(userId, shop.getShopId());
-        if (currentBalance == null) {
-            currentBalance = 0;
-        }
-        Integer newBalance = currentBalance + pointsEarned;
+        // Update the balance for THIS shop before writing the ledger row
+        Integer newBalance = pointsBalanceService.applyChange(userId, shop.getShopId(), pointsEarned);
 
         // Create audit trail record
         UserPoints userPoints = new UserPoints();
@@ -431,12 +436,7 @@ public class RewardServiceImpl implements RewardService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Calculate current balance from UserPoints records
-        Integer currentBalance = userPointsRepository.calculateCurrentBalance(userId);
-        if (currentBalance == null) {
-            currentBalance = 0;
-        }
-        Integer newBalance = currentBalance + reviewPoints;
+        Integer newBalance = pointsBalanceService.applyChange(userId, null, reviewPoints);
 
         // Create audit trail record
         UserPoints userPoints = new UserPoints();
@@ -464,12 +464,8 @@ public class RewardServiceImpl implements RewardService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Calculate current balance from UserPoints records
-        Integer currentBalance = userPointsRepository.calculateCurrentBalance(userId);
-        if (currentBalance == null) {
-            currentBalance = 0;
-        }
-        Integer newBalance = currentBalance - points;
+        // Re-checked under the balance row locks, so concurrent spends cannot overdraw
+        Integer newBalance = pointsBalanceService.applyChange(userId, null, -points);
 
         // Create audit trail record
         UserPoints userPoints = new UserPoints();
@@ -502,11 +498,7 @@ public class RewardServiceImpl implements RewardService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        Integer currentBalance = userPointsRepository.calculateCurrentBalance(userId);
-        if (currentBalance == null) {
-            currentBalance = 0;
-        }
-        Integer newBalance = currentBalance + points;
+        Integer newBalance = pointsBalanceService.applyChange(userId, null, points);
 
         UserPoints userPoints = new UserPoints();
         userPoints.setUser(user);
@@ -531,8 +523,7 @@ public class RewardServiceImpl implements RewardService {
 
     @Override
     public Integer getUserCurrentPoints(UUID userId) {
-        Integer balance = userPointsRepository.calculateCurrentBalance(userId);
-        return balance != null ? balance : 0;
+        return pointsBalanceService.getBalance(userId);
     }
 
     @Override
@@ -541,8 +532,8 @@ public class RewardServiceImpl implements RewardService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         Integer currentPoints = getUserCurrentPoints(userId);
-        Integer totalEarned = userPointsRepository.calculateTotalPointsEarned(userId);
-        Integer totalSpent = userPointsRepository.calculateTotalPointsSpent(userId);
+        Integer totalEarned = pointsBalanceService.getTotalEarned(userId);
+        Integer totalSpent = pointsBalanceService.getTotalSpent(userId);
 
         RewardSystem activeSystem = getActiveRewardSystemEntity();
         BigDecimal pointValue = activeSystem != null ? activeSystem.getPointValue() : BigDecimal.ZERO;
@@ -588,8 +579,7 @@ public class RewardServiceImpl implements RewardService {
 
     @Override
     public boolean hasEnoughPoints(UUID userId, Integer requiredPoints) {
-        Integer currentBalance = userPointsRepository.calculateCurrentBalance(userId);
-        return currentBalance != null && currentBalance >= requiredPoints;
+        return pointsBalanceService.getBalance(userId) >= requiredPoints;
     }
 
     @Override
@@ -617,7 +607,18 @@ public class RewardServiceImpl implements RewardService {
     }
 
     private RewardSystem getActiveRewardSystemEntity() {
-        return rewardSystemRepository.findByIsActiveTrue().orElse(null);
+        return referenceDataCache.get(ReferenceDataRegion.REWARD_SYSTEMS, ANY_SHOP,
+                () -> rewardSystemRepository.findByIsActiveTrue().orElse(null));
+    }
+
+    /**
+     * Every reward system write goes through here so cached active systems
+     * are dropped once it commits
+     */
+    private RewardSystem persistRewardSystem(RewardSystem rewardSystem) {
+        RewardSystem saved = rewardSystemRepository.save(rewardSystem);
+        referenceDataCache.invalidate(ReferenceDataRegion.REWARD_SYSTEMS);
+        return saved;
     }
 
     private void deactivateCurrentSystem(UUID shopId) {
@@ -626,7 +627,7 @@ public class RewardServiceImpl implements RewardService {
             RewardSystem active = currentActive.get();
             active.setIsActive(false);
             active.setUpdatedAt(LocalDateTime.now());
-            rewardSystemRepository.save(active);
+            persistRewardSystem(active);
         }
     }
 
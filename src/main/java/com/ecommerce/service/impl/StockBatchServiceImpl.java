@@ -9,15 +9,21 @@ import com.ecommerce.entity.Stock;
 import com.ecommerce.entity.Product;
 import com.ecommerce.enums.BatchStatus;
 import com.ecommerce.repository.StockBatchRepository;
+import com.ecommerce.repository.StockBatchSpecifications;
 import com.ecommerce.repository.StockRepository;
 import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.service.CartReadModel;
 import com.ecommerce.service.StockBatchService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -31,6 +37,7 @@ public class StockBatchServiceImpl implements StockBatchService {
         private final StockBatchRepository stockBatchRepository;
         private final StockRepository stockRepository;
         private final ProductRepository productRepository;
+        private final CartReadModel cartReadModel;
 
         @Override
         public StockBatchDTO createStockBatchForVariant(Long variantId, Long warehouseId,
@@ -64,6 +71,7 @@ public class StockBatchServiceImpl implements StockBatchService {
 
                 // Save the batch
                 StockBatch savedBatch = stockBatchRepository.save(stockBatch);
+                cartReadModel.stockChanged(List.of(savedBatch));
                 log.info("Successfully created stock batch with ID: {} for variant: {} and warehouse: {}",
                                 savedBatch.getId(), variantId, warehouseId);
                 return mapToDTO(savedBatch);
@@ -97,6 +105,7 @@ public class StockBatchServiceImpl implements StockBatchService {
 
                 // Save the batch
                 StockBatch savedBatch = stockBatchRepository.save(stockBatch);
+                cartReadModel.stockChanged(List.of(savedBatch));
 
                 log.info("Successfully created stock batch with ID: {}", savedBatch.getId());
                 return mapToDTO(savedBatch);
@@ -193,6 +202,7 @@ public class StockBatchServiceImpl implements StockBatchService {
 
                 // Save the updated batch
                 StockBatch savedBatch = stockBatchRepository.save(stockBatch);
+                cartReadModel.stockChanged(List.of(savedBatch));
 
                 log.info("Successfully updated stock batch with ID: {}", savedBatch.getId());
                 return mapToDTO(savedBatch);
@@ -210,6 +220,7 @@ public class StockBatchServiceImpl implements StockBatchService {
 
                 // Delete the batch
                 stockBatchRepository.delete(stockBatch);
+                cartReadModel.stockChanged(List.of(stockBatch));
 
                 log.info("Successfully deleted stock batch with ID: {}", batchId);
         }
@@ -227,6 +238,7 @@ public class StockBatchServiceImpl implements StockBatchService {
 
                 // Save the updated batch
                 StockBatch savedBatch = stockBatchRepository.save(stockBatch);
+                cartReadModel.stockChanged(List.of(savedBatch));
 
                 log.info("Successfully recalled stock batch with ID: {}", savedBatch.getId());
                 return mapToDTO(savedBatch);
@@ -237,17 +249,30 @@ public class StockBatchServiceImpl implements StockBatchService {
         public List<StockBatchDTO> getBatchesExpiringSoon(int daysThreshold) {
                 log.info("Retrieving batches expiring within {} days", daysThreshold);
 
-                LocalDate thresholdDate = LocalDate.now().plusDays(daysThreshold);
-
-                List<StockBatch> batches = stockBatchRepository.findAll().stream()
-                                .filter(batch -> batch.isExpiringSoon(daysThreshold))
-                                .collect(Collectors.toList());
+                List<StockBatch> batches = stockBatchRepository.findAll(
+                                StockBatchSpecifications.expiringWithin(daysThreshold),
+                                Sort.by(Sort.Direction.ASC, "expiryDate").and(Sort.by(Sort.Direction.ASC, "id")));
 
                 return batches.stream()
                                 .map(this::mapToDTO)
                                 .collect(Collectors.toList());
         }
 
+        @Override
+        @Transactional(readOnly = true)
+        public Page<StockBatchDTO> getBatchesExpiringSoon(int daysThreshold, Long warehouseId, Pageable pageable) {
+                log.info("Retrieving page {} of batches expiring within {} days (warehouse: {})",
+                                pageable.getPageNumber(), daysThreshold, warehouseId);
+
+                Specification<StockBatch> spec = Specification
+                                .where(StockBatchSpecifications.expiringWithin(daysThreshold))
+                                .and(StockBatchSpecifications.inWarehouse(warehouseId));
+                Pageable sortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                                Sort.by(Sort.Direction.ASC, "expiryDate").and(Sort.by(Sort.Direction.ASC, "id")));
+
+                return stockBatchRepository.findAll(spec, sortedPageable).map(this::mapToDTO);
+        }
+
 
         /**
          * Map StockBatch entity to StockBatchDTO
@@ -14,6 +14,7 @@ import com.ecommerce.entity.StockBatch;
 import com.ecommerce.entity.ProductVariantImage;
 import com.ecommerce.entity.ProductImage;
 import com.ecommerce.entity.OrderItemBatch;
+import com.ecommerce.enums.ReferenceDataRegion;
 import com.ecommerce.repository.WarehouseRepository;
 import com.ecommerce.repository.WarehouseImageRepository;
 import com.ecommerce.repository.StockRepository;
@@ -24,6 +25,7 @@ import com.ecommerce.repository.OrderItemBatchRepository;
 import com.ecommerce.repository.ShopRepository;
 import com.ecommerce.service.CloudinaryService;
 import com.ecommerce.service.ShopAuthorizationService;
+import com.ecommerce.service.ReferenceDataCache;
 import com.ecommerce.service.WarehouseService;
 import com.ecommerce.entity.Shop;
 import jakarta.persistence.EntityNotFoundException;
@@ -59,6 +61,7 @@ public class WarehouseServiceImpl implements WarehouseService {
     private final CloudinaryService cloudinaryService;
     private final ShopRepository shopRepository;
     private final ShopAuthorizationService shopAuthorizationService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Override
     @Transactional
@@ -95,6 +98,7 @@ public class WarehouseServiceImpl implements WarehouseService {
             }
 
             Warehouse savedWarehouse = warehouseRepository.save(warehouse);
+            referenceDataCache.invalidate(ReferenceDataRegion.WAREHOUSES);
             log.info("Warehouse created with ID: {}", savedWarehouse.getId());
 
             if (warehouseImages != null && !warehouseImages.isEmpty()) {
@@ -196,6 +200,7 @@ public class WarehouseServiceImpl implements WarehouseService {
             }
 
             Warehouse savedWarehouse = warehouseRepository.save(warehouse);
+            referenceDataCache.invalidate(ReferenceDataRegion.WAREHOUSES);
 
             if (newImages != null && !newImages.isEmpty()) {
                 processWarehouseImages(savedWarehouse, newImages);
@@ -227,6 +232,7 @@ public class WarehouseServiceImpl implements WarehouseService {
 
             deleteWarehouseImages(warehouse);
             warehouseRepository.delete(warehouse);
+            referenceDataCache.invalidate(ReferenceDataRegion.WAREHOUSES);
 
             log.info("Warehouse deleted successfully with ID: {}", warehouseId);
             return true;
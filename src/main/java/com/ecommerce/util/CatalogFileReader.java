@@ -0,0 +1,210 @@
+package com.ecommerce.util;
+
+import com.ecommerce.enums.ImportFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads the records of a catalog import file one at a time, as maps from
+ * lower-cased column name to trimmed value. Empty values are left out.
+ *
+ * CSV files start with a header row and follow RFC 4180, so quoted values
+ * may hold commas, quotes and line breaks. NDJSON files hold one flat JSON
+ * object per line; blank lines are skipped. Records are numbered from 1 in
+ * file order, not counting the CSV header.
+ */
+public class CatalogFileReader implements Closeable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final Reader reader;
+    private final ImportFormat format;
+    private List<String> header;
+    private long recordNumber;
+    private int pushedBack = -1;
+
+    public CatalogFileReader(InputStream in, ImportFormat format) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        this.format = format;
+    }
+
+    /**
+     * @return the next record, or null at the end of the file. A record that
+     *         cannot be read carries an error and no values.
+     * @throws IllegalArgumentException if the rest of the file cannot be read
+     */
+    public Record next() throws IOException {
+        return format == ImportFormat.CSV ? nextCsv() : nextNdjson();
+    }
+
+    /**
+     * Skip the given number of records, e.g. to resume after a committed chunk
+     */
+    public void skip(long records) throws IOException {
+        for (long i = 0; i < records; i++) {
+            if (next() == null) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Record nextCsv() throws IOException {
+        if (header == null) {
+            List<String> columns = readCsvLine();
+            if (columns == null) {
+                return null;
+            }
+            header = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                header.add(column.trim().toLowerCase(Locale.ROOT).replace("\uFEFF", ""));
+            }
+        }
+        while (true) {
+            List<String> cells = readCsvLine();
+            if (cells == null) {
+                return null;
+            }
+            if (cells.size() == 1 && cells.get(0).isBlank()) {
+                continue;
+            }
+            recordNumber++;
+            if (cells.size() > header.size()) {
+                return Record.malformed(recordNumber, cells.size() + " values but the header names "
+                        + header.size() + " columns");
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                String value = cells.get(i).trim();
+                if (!value.isEmpty()) {
+                    values.put(header.get(i), value);
+                }
+            }
+            return new Record(recordNumber, values, null);
+        }
+    }
+
+    /**
+     * @return the cells of the next CSV line, or null at the end of the file
+     */
+    private List<String> readCsvLine() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("Unterminated quoted value after record " + recordNumber);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        pushedBack = next;
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"' && cell.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int next = read();
+                if (next != '\n') {
+                    pushedBack = next;
+                }
+                break;
+            } else {
+                cell.append((char) c);
+            }
+            c = read();
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -1) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private Record nextNdjson() throws IOException {
+        BufferedReader lines = (BufferedReader) reader;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            recordNumber++;
+            JsonNode node;
+            try {
+                node = JSON.readTree(line);
+            } catch (IOException e) {
+                return Record.malformed(recordNumber, "not valid JSON");
+            }
+            if (node == null || !node.isObject()) {
+                return Record.malformed(recordNumber, "not a JSON object");
+            }
+            Map<String, String> values = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getValue().isNull() || field.getValue().isContainerNode()) {
+                    continue;
+                }
+                String value = field.getValue().asText().trim();
+                if (!value.isEmpty()) {
+                    values.put(field.getKey().trim().toLowerCase(Locale.ROOT), value);
+                }
+            }
+            return new Record(recordNumber, values, null);
+        }
+        return null;
+    }
+
+    /**
+     * One record of the file and its position in it
+     */
+    public record Record(long number, Map<String, String> values, String error) {
+
+        static Record malformed(long number, String error) {
+            return new Record(number, Map.of(), error);
+        }
+
+        public String get(String column) {
+            return values.get(column);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.ecommerce.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable table of each product's nearest neighbours, best first.
+ *
+ * Products are numbered by row; a row holds the row numbers of its neighbours
+ * and their scores in primitive arrays, so a table of K neighbours for every
+ * product costs a few bytes per neighbour. Rows are replaced copy-on-write with
+ * {@link #withRows(Map, Map)}, sharing every untouched row with the original.
+ */
+public final class NeighbourTable {
+
+    private static final int[] NO_NEIGHBOURS = new int[0];
+    private static final float[] NO_SCORES = new float[0];
+
+    private final Map<UUID, Integer> rows;
+    private final UUID[] products;
+    private final int[][] neighbours;
+    private final float[][] scores;
+
+    private NeighbourTable(Map<UUID, Integer> rows, UUID[] products, int[][] neighbours, float[][] scores) {
+        this.rows = rows;
+        this.products = products;
+        this.neighbours = neighbours;
+        this.scores = scores;
+    }
+
+    public static NeighbourTable empty() {
+        return new NeighbourTable(Map.of(), new UUID[0], new int[0][], new float[0][]);
+    }
+
+    /**
+     * A table over the given products with no neighbours yet
+     */
+    public static NeighbourTable of(UUID[] products) {
+        Map<UUID, Integer> rows = new HashMap<>(products.length * 2);
+        for (int i = 0; i < products.length; i++) {
+            rows.put(products[i], i);
+        }
+        int[][] neighbours = new int[products.length][];
+        float[][] scores = new float[products.length][];
+        Arrays.fill(neighbours, NO_NEIGHBOURS);
+        Arrays.fill(scores, NO_SCORES);
+        return new NeighbourTable(Collections.unmodifiableMap(rows), products.clone(), neighbours, scores);
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * Row number of a product, or -1 when the table does not know it
+     */
+    public int rowOf(UUID productId) {
+        Integer row = rows.get(productId);
+        return row != null ? row : -1;
+    }
+
+    /**
+     * Neighbours of a product, best first; empty when it has none or is unknown
+     */
+    public List<UUID> neighboursOf(UUID productId) {
+        int row = rowOf(productId);
+        if (row < 0 || neighbours[row].length == 0) {
+            return List.of();
+        }
+        List<UUID> result = new ArrayList<>(neighbours[row].length);
+        for (int neighbour : neighbours[row]) {
+            result.add(products[neighbour]);
+        }
+        return result;
+    }
+
+    /**
+     * A copy of this table with the given rows replaced. Neighbour and score
+     * arrays of a row must have the same length.
+     */
+    public NeighbourTable withRows(Map<Integer, int[]> newNeighbours, Map<Integer, float[]> newScores) {
+        int[][] neighbourRows = neighbours.clone();
+        float[][] scoreRows = scores.clone();
+        for (Map.Entry<Integer, int[]> row : newNeighbours.entrySet()) {
+            float[] rowScores = newScores.get(row.getKey());
+            if (rowScores == null || rowScores.length != row.getValue().length) {
+                throw new IllegalArgumentException("Scores missing or mismatched for row " + row.getKey());
+            }
+            neighbourRows[row.getKey()] = row.getValue();
+            scoreRows[row.getKey()] = rowScores;
+        }
+        return new NeighbourTable(rows, products, neighbourRows, scoreRows);
+    }
+}
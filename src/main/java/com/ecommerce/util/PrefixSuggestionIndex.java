@@ -0,0 +1,233 @@
+package com.ecommerce.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index for search-as-you-type.
+ *
+ * Each entry is indexed under its normalized text and under every word suffix
+ * of it ("apple iphone 15", "iphone 15", "15"), so a query matches the start of
+ * any word. The keys are kept in one sorted array, so a prefix selects a
+ * contiguous range found by two binary searches. A max segment tree over the
+ * key weights then yields the heaviest keys of the range one at a time, which
+ * makes a lookup O(limit * log n) however wide the range is.
+ *
+ * Instances are never modified; build a new one to change the contents.
+ */
+public final class PrefixSuggestionIndex<T> {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final List<T> entries;
+    private final long[] weights;
+    private final String[] keys;
+    private final int[] keyEntries;
+    // Iterative segment tree: node i >= n is key i - n, every node holds the
+    // position of the heaviest key below it
+    private final int[] tree;
+
+    private PrefixSuggestionIndex(List<T> entries, long[] weights, String[] keys, int[] keyEntries) {
+        this.entries = entries;
+        this.weights = weights;
+        this.keys = keys;
+        this.keyEntries = keyEntries;
+        this.tree = buildTree();
+    }
+
+    public static <T> PrefixSuggestionIndex<T> empty() {
+        return new PrefixSuggestionIndex<>(List.of(), new long[0], new String[0], new int[0]);
+    }
+
+    /**
+     * Lower-cases, strips accents and collapses everything that is not a letter
+     * or digit into single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return NON_WORD.matcher(MARKS.matcher(decomposed).replaceAll("")).replaceAll(" ")
+                .trim()
+                .toLowerCase(Locale.ROOT);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Entries with a word starting with the prefix, heaviest first. An entry is
+     * returned at most once however many of its words match.
+     */
+    public List<T> search(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0 || keys.length == 0) {
+            return List.of();
+        }
+
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        int[] top = topEntries(from, to, limit);
+
+        List<T> results = new ArrayList<>(Math.min(limit, top.length));
+        for (int i = 0; i < top.length && i < limit; i++) {
+            results.add(entries.get(top[i]));
+        }
+        return results;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Heaviest distinct entries among keys[from, to), heaviest first. Ranges
+     * are split around their heaviest key and the pieces kept in a queue
+     * ordered by their own heaviest key.
+     */
+    private int[] topEntries(int from, int to, int limit) {
+        if (from >= to) {
+            return new int[0];
+        }
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compareKeys(a[2], b[2]));
+        ranges.add(new int[] { from, to, heaviestKey(from, to) });
+
+        int[] top = new int[limit];
+        int count = 0;
+        Set<Integer> seen = new HashSet<>();
+        while (count < limit && !ranges.isEmpty()) {
+            int[] range = ranges.poll();
+            int position = range[2];
+            if (seen.add(keyEntries[position])) {
+                top[count++] = keyEntries[position];
+            }
+            if (range[0] < position) {
+                ranges.add(new int[] { range[0], position, heaviestKey(range[0], position) });
+            }
+            if (position + 1 < range[1]) {
+                ranges.add(new int[] { position + 1, range[1], heaviestKey(position + 1, range[1]) });
+            }
+        }
+        return count == limit ? top : Arrays.copyOf(top, count);
+    }
+
+    // Position of the heaviest key in [from, to)
+    private int heaviestKey(int from, int to) {
+        int n = keys.length;
+        int best = from;
+        for (int l = from + n, r = to + n; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                best = heavier(best, tree[l++]);
+            }
+            if ((r & 1) == 1) {
+                best = heavier(best, tree[--r]);
+            }
+        }
+        return best;
+    }
+
+    private int[] buildTree() {
+        int n = keys.length;
+        int[] nodes = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            nodes[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            nodes[i] = heavier(nodes[2 * i], nodes[2 * i + 1]);
+        }
+        return nodes;
+    }
+
+    private int heavier(int keyA, int keyB) {
+        return compareKeys(keyA, keyB) <= 0 ? keyA : keyB;
+    }
+
+    // Heavier entry first; on equal weight the earlier added entry wins
+    private int compareKeys(int keyA, int keyB) {
+        int a = keyEntries[keyA];
+        int b = keyEntries[keyB];
+        int byWeight = Long.compare(weights[b], weights[a]);
+        return byWeight != 0 ? byWeight : Integer.compare(a, b);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static final class Builder<T> {
+
+        private final List<T> entries = new ArrayList<>();
+        private final List<Long> weights = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> keyEntries = new ArrayList<>();
+
+        /**
+         * Add an entry found by the words of the given text. Text that
+         * normalizes to nothing is ignored.
+         */
+        public Builder<T> add(T entry, String text, long weight) {
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return this;
+            }
+            int index = entries.size();
+            entries.add(entry);
+            weights.add(weight);
+
+            Set<String> seen = new HashSet<>();
+            int start = 0;
+            while (start >= 0) {
+                String key = normalized.substring(start);
+                if (seen.add(key)) {
+                    keys.add(key);
+                    keyEntries.add(index);
+                }
+                int space = normalized.indexOf(' ', start);
+                start = space < 0 ? -1 : space + 1;
+            }
+            return this;
+        }
+
+        public PrefixSuggestionIndex<T> build() {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keys.get(a).compareTo(keys.get(b)));
+
+            String[] sortedKeys = new String[order.length];
+            int[] sortedEntries = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedEntries[i] = keyEntries.get(order[i]);
+            }
+            long[] weightArray = new long[weights.size()];
+            for (int i = 0; i < weightArray.length; i++) {
+                weightArray[i] = weights.get(i);
+            }
+            return new PrefixSuggestionIndex<>(Collections.unmodifiableList(new ArrayList<>(entries)),
+                    weightArray, sortedKeys, sortedEntries);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.ecommerce.util;
+
+/**
+ * Orders delivery stops into a short open route (the agent does not return).
+ *
+ * A nearest-neighbour tour seeds the route, which is then improved with 2-opt
+ * (segment reversal) and Or-opt (moving runs of one to three stops, optionally
+ * reversed) until neither finds an improving move. Everything works on a flat
+ * row-major distance matrix, so a few hundred stops take a few milliseconds.
+ */
+public final class RouteSequencer {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_IMPROVEMENT_ROUNDS = 50;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+
+    private RouteSequencer() {
+    }
+
+    /**
+     * Sequence stops given by coordinates. When a start point is given the
+     * route leaves from there; otherwise it may start at any stop.
+     *
+     * @return the visiting order as indexes into the stop arrays, with leg and total distances in km
+     */
+    public static Route sequence(double[] latitudes, double[] longitudes, Double startLatitude, Double startLongitude) {
+        int stops = latitudes.length;
+        boolean fixedStart = startLatitude != null && startLongitude != null;
+        int offset = fixedStart ? 1 : 0;
+        int n = stops + offset;
+
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        if (fixedStart) {
+            lat[0] = startLatitude;
+            lon[0] = startLongitude;
+        }
+        System.arraycopy(latitudes, 0, lat, offset, stops);
+        System.arraycopy(longitudes, 0, lon, offset, stops);
+
+        double[] matrix = distanceMatrix(lat, lon);
+        int[] path = sequence(matrix, n, fixedStart);
+
+        int[] order = new int[stops];
+        double[] legs = new double[stops];
+        double total = 0.0;
+        for (int i = offset; i < n; i++) {
+            order[i - offset] = path[i] - offset;
+            legs[i - offset] = i > 0 ? matrix[path[i - 1] * n + path[i]] : 0.0;
+            total += legs[i - offset];
+        }
+        return new Route(order, legs, total);
+    }
+
+    /**
+     * Sequence the n nodes of a flat row-major distance matrix. With fixedStart
+     * node 0 stays first.
+     *
+     * @return the nodes in visiting order
+     */
+    public static int[] sequence(double[] matrix, int n, boolean fixedStart) {
+        if (n <= 2) {
+            int[] path = new int[n];
+            for (int i = 0; i < n; i++) {
+                path[i] = i;
+            }
+            return path;
+        }
+
+        int[] path = nearestNeighbour(matrix, n, fixedStart ? 0 : outermostNode(matrix, n));
+        int first = fixedStart ? 1 : 0;
+        for (int round = 0; round < MAX_IMPROVEMENT_ROUNDS; round++) {
+            boolean improved = twoOpt(matrix, n, path, first);
+            improved |= orOpt(matrix, n, path, first);
+            if (!improved) {
+                break;
+            }
+        }
+        return path;
+    }
+
+    /**
+     * Total length of an open path over a flat distance matrix
+     */
+    public static double pathLength(double[] matrix, int n, int[] path) {
+        double total = 0.0;
+        for (int i = 1; i < path.length; i++) {
+            total += matrix[path[i - 1] * n + path[i]];
+        }
+        return total;
+    }
+
+    public static double[] distanceMatrix(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        double[] matrix = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double d = DistanceCalculator.getDistanceFromLatLonInKm(
+                        latitudes[i], longitudes[i], latitudes[j], longitudes[j]);
+                matrix[i * n + j] = d;
+                matrix[j * n + i] = d;
+            }
+        }
+        return matrix;
+    }
+
+    // Without a fixed start, begin from the stop furthest from all others so
+    // the route sweeps across the area instead of starting in the middle
+    private static int outermostNode(double[] matrix, int n) {
+        int best = 0;
+        double bestSum = -1.0;
+        for (int i = 0; i < n; i++) {
+            double sum = 0.0;
+            int row = i * n;
+            for (int j = 0; j < n; j++) {
+                sum += matrix[row + j];
+            }
+            if (sum > bestSum) {
+                bestSum = sum;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static int[] nearestNeighbour(double[] matrix, int n, int start) {
+        int[] path = new int[n];
+        boolean[] visited = new boolean[n];
+        path[0] = start;
+        visited[start] = true;
+        for (int i = 1; i < n; i++) {
+            int row = path[i - 1] * n;
+            int next = -1;
+            double nextDistance = Double.MAX_VALUE;
+            for (int j = 0; j < n; j++) {
+                if (!visited[j] && matrix[row + j] < nextDistance) {
+                    nextDistance = matrix[row + j];
+                    next = j;
+                }
+            }
+            path[i] = next;
+            visited[next] = true;
+        }
+        return path;
+    }
+
+    /**
+     * Reverse path[i..k] whenever that shortens the route. For an open path the
+     * edge after k is absent when k is the last position, and the edge before i
+     * is absent when i is 0 (only allowed without a fixed start).
+     */
+    private static boolean twoOpt(double[] matrix, int n, int[] path, int first) {
+        boolean improvedAny = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = first; i < n - 1; i++) {
+                int before = i > 0 ? path[i - 1] : -1;
+                for (int k = i + 1; k < n; k++) {
+                    int after = k < n - 1 ? path[k + 1] : -1;
+                    double delta = edge(matrix, n, before, path[k]) + edge(matrix, n, path[i], after)
+                            - edge(matrix, n, before, path[i]) - edge(matrix, n, path[k], after);
+                    if (delta < -EPSILON) {
+                        reverse(path, i, k);
+                        improved = true;
+                        improvedAny = true;
+                    }
+                }
+            }
+        }
+        return improvedAny;
+    }
+
+    /**
+     * Move runs of up to three consecutive stops to the best other position,
+     * trying both orientations.
+     */
+    private static boolean orOpt(double[] matrix, int n, int[] path, int first) {
+        boolean improvedAny = false;
+        int[] buffer = new int[n];
+        for (int length = 1; length <= MAX_OR_OPT_SEGMENT; length++) {
+            for (int i = first; i + length <= n; i++) {
+                int segStart = path[i];
+                int segEnd = path[i + length - 1];
+                int before = i > 0 ? path[i - 1] : -1;
+                int after = i + length < n ? path[i + length] : -1;
+                double removeGain = edge(matrix, n, before, segStart) + edge(matrix, n, segEnd, after)
+                        - edge(matrix, n, before, after);
+                if (removeGain <= EPSILON) {
+                    continue;
+                }
+
+                int bestPosition = -2;
+                boolean bestReversed = false;
+                double bestDelta = -EPSILON;
+                // Insert between path[j] and path[j + 1]; j = -1 means at the front
+                for (int j = first - 1; j < n; j++) {
+                    if (j >= i - 1 && j < i + length) {
+                        continue;
+                    }
+                    int left = j >= 0 ? path[j] : -1;
+                    int right = j + 1 < n ? path[j + 1] : -1;
+                    double base = edge(matrix, n, left, right);
+                    double forward = edge(matrix, n, left, segStart) + edge(matrix, n, segEnd, right) - base;
+                    double backward = edge(matrix, n, left, segEnd) + edge(matrix, n, segStart, right) - base;
+                    if (forward - removeGain < bestDelta) {
+                        bestDelta = forward - removeGain;
+                        bestPosition = j;
+                        bestReversed = false;
+                    }
+                    if (backward - removeGain < bestDelta) {
+                        bestDelta = backward - removeGain;
+                        bestPosition = j;
+                        bestReversed = true;
+                    }
+                }
+
+                if (bestPosition != -2) {
+                    moveSegment(path, buffer, i, length, bestPosition, bestReversed);
+                    improvedAny = true;
+                }
+            }
+        }
+        return improvedAny;
+    }
+
+    private static void moveSegment(int[] path, int[] buffer, int start, int length, int after, boolean reversed) {
+        int n = path.length;
+        int size = 0;
+        if (after == -1) {
+            size = copySegment(path, buffer, size, start, length, reversed);
+        }
+        for (int p = 0; p < n; p++) {
+            if (p >= start && p < start + length) {
+                continue;
+            }
+            buffer[size++] = path[p];
+            if (p == after) {
+                size = copySegment(path, buffer, size, start, length, reversed);
+            }
+        }
+        System.arraycopy(buffer, 0, path, 0, n);
+    }
+
+    private static int copySegment(int[] path, int[] buffer, int size, int start, int length, boolean reversed) {
+        for (int s = 0; s < length; s++) {
+            buffer[size++] = reversed ? path[start + length - 1 - s] : path[start + s];
+        }
+        return size;
+    }
+
+    private static double edge(double[] matrix, int n, int from, int to) {
+        return from < 0 || to < 0 ? 0.0 : matrix[from * n + to];
+    }
+
+    private static void reverse(int[] path, int i, int k) {
+        while (i < k) {
+            int tmp = path[i];
+            path[i++] = path[k];
+            path[k--] = tmp;
+        }
+    }
+
+    /**
+     * A sequenced route. legDistancesKm[i] is the distance from the previous
+     * point (or the start) to the i-th stop in visiting order.
+     */
+    public record Route(int[] order, double[] legDistancesKm, double totalDistanceKm) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code capacity} tokens and gaining one
+ * every {@code refillIntervalNanos}.
+ *
+ * The whole state is a single long: the time at which the bucket will be full
+ * again. Taking a token pushes that time one interval further, and a token is
+ * available while it stays within {@code capacity} intervals of now. Every
+ * update is one compare-and-set, so concurrent callers never block each other.
+ * Times are {@link System#nanoTime()} readings supplied by the caller.
+ */
+public final class TokenBucket {
+
+    private final int capacity;
+    private final long refillIntervalNanos;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, long refillIntervalNanos, long nowNanos) {
+        if (capacity < 1 || refillIntervalNanos < 1) {
+            throw new IllegalArgumentException("Capacity and refill interval must be positive");
+        }
+        this.capacity = capacity;
+        this.refillIntervalNanos = refillIntervalNanos;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Take one token if available.
+     *
+     * @return 0 when a token was taken, otherwise the nanoseconds until one
+     *         will be
+     */
+    public long tryTake(long nowNanos) {
+        long window = capacity * refillIntervalNanos;
+        while (true) {
+            long current = fullAt.get();
+            long base = current - nowNanos > 0 ? current : nowNanos;
+            long next = base + refillIntervalNanos;
+            long wait = next - nowNanos - window;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Whole tokens left at the given time
+     */
+    public int available(long nowNanos) {
+        long used = fullAt.get() - nowNanos;
+        if (used <= 0) {
+            return capacity;
+        }
+        long missing = (used + refillIntervalNanos - 1) / refillIntervalNanos;
+        return (int) Math.max(0, capacity - missing);
+    }
+
+    /**
+     * A full bucket holds no state worth keeping: dropping it and creating a
+     * new one later behaves the same
+     */
+    public boolean isFull(long nowNanos) {
+        return fullAt.get() - nowNanos <= 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getRefillIntervalNanos() {
+        return refillIntervalNanos;
+    }
+}
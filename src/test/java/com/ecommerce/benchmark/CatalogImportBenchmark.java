@@ -0,0 +1,207 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.enums.CatalogIdentifierKind;
+import com.ecommerce.enums.ImportFormat;
+import com.ecommerce.service.CatalogIdentifierService;
+import com.ecommerce.service.CatalogImportWriter;
+import com.ecommerce.service.ProductStatusCalculationService;
+import com.ecommerce.util.CatalogFileReader;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Parsing, validation and statement building of a 20k SKU vendor catalogue
+ * (10k products with two variants each, stocked in one warehouse), with the
+ * database replaced by a JdbcTemplate and identifier claims that only count
+ * statements. The statements counter shows that a chunk costs the same dozen
+ * round trips whatever its size; the time is what the import adds on top of
+ * the database's own insert cost.
+ *
+ * Run with the main method after test-compile, for example from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogImportBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final UUID SHOP_ID = UUID.randomUUID();
+
+    @Param({ "100", "500", "2000" })
+    private int chunkSize;
+
+    private byte[] file;
+    private CountingJdbcTemplate jdbcTemplate;
+    private CatalogImportWriter writer;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Statements {
+        public long statements;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder csv = new StringBuilder("product_sku,product_name,price,description,meta_keywords,"
+                + "variant_sku,variant_price,attributes,warehouse_id,quantity,batch_number\n");
+        String[] sizes = { "M", "L" };
+        for (int p = 0; p < PRODUCTS; p++) {
+            for (String size : sizes) {
+                csv.append("SKU-").append(p).append(",Imported product ").append(p)
+                        .append(",24.99,\"Soft cotton, regular fit\",\"cotton, shirt\",SKU-").append(p).append('-')
+                        .append(size).append(",24.99,Color:Colour ").append(p % 20).append("|Size:").append(size)
+                        .append(",1,").append(10 + p % 50).append(",B-").append(p).append('\n');
+            }
+        }
+        file = csv.toString().getBytes(StandardCharsets.UTF_8);
+        jdbcTemplate = new CountingJdbcTemplate();
+        writer = new CatalogImportWriter(jdbcTemplate, new ProductStatusCalculationService(),
+                new CountingIdentifierService(jdbcTemplate));
+    }
+
+    @Benchmark
+    public long importCatalogue(Statements counter) throws IOException {
+        jdbcTemplate.statements = 0;
+        CatalogImportWriter.ImportContext context = writer.loadContext(1L, SHOP_ID, true);
+        long products = 0;
+        try (CatalogFileReader reader = new CatalogFileReader(new ByteArrayInputStream(file), ImportFormat.CSV)) {
+            List<CatalogImportWriter.ProductRows> chunk = new ArrayList<>(chunkSize);
+            List<CatalogFileReader.Record> rows = new ArrayList<>();
+            CatalogFileReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (!rows.isEmpty() && !rows.get(0).get("product_sku").equals(record.get("product_sku"))) {
+                    chunk.add(new CatalogImportWriter.ProductRows(rows));
+                    rows = new ArrayList<>();
+                    if (chunk.size() == chunkSize) {
+                        products += writer.writeChunk(context, chunk).products();
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                rows.add(record);
+            }
+            chunk.add(new CatalogImportWriter.ProductRows(rows));
+            products += writer.writeChunk(context, chunk).products();
+        }
+        counter.statements += jdbcTemplate.statements;
+        return products;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CatalogImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * Claims against an empty catalogue: every SKU is free and every slug is
+     * its base. A claim is one statement, a slug claim two - the suffix
+     * lookup and the insert.
+     */
+    private static final class CountingIdentifierService extends CatalogIdentifierService {
+
+        private final CountingJdbcTemplate jdbcTemplate;
+
+        CountingIdentifierService(CountingJdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public Set<String> reserve(CatalogIdentifierKind kind, Collection<String> values) {
+            jdbcTemplate.statements++;
+            return Set.of();
+        }
+
+        @Override
+        public void release(CatalogIdentifierKind kind, Collection<String> values) {
+            if (!values.isEmpty()) {
+                jdbcTemplate.statements++;
+            }
+        }
+
+        @Override
+        public List<String> reserveSlugs(List<String> texts) {
+            jdbcTemplate.statements += 2;
+            return texts.stream().map(CatalogIdentifierService::slugify).toList();
+        }
+    }
+
+    /**
+     * Answers the writer's queries the way an empty catalogue would, and
+     * counts what would have gone to the database
+     */
+    private static final class CountingJdbcTemplate extends JdbcTemplate {
+
+        private long statements;
+        private long nextId;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            statements++;
+            if (sql.contains("FROM warehouses")) {
+                return (List<T>) List.of(1L);
+            }
+            if (sql.contains("nextval")) {
+                long first = nextId + 1;
+                nextId += (Integer) args[1];
+                return (List<T>) LongStream.rangeClosed(first, nextId).boxed().toList();
+            }
+            return List.of();
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+            statements++;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            statements++;
+            return 1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+            statements++;
+            return (T) Long.valueOf(++nextId);
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            statements++;
+            return new int[batchArgs.size()];
+        }
+    }
+}
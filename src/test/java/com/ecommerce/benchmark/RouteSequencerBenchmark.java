@@ -0,0 +1,71 @@
+package com.ecommerce.benchmark;
+
+import com.ecommerce.util.RouteSequencer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route sequencing cost for delivery groups of typical sizes, with stops
+ * spread over a city-sized area (about 20 x 20 km) and a warehouse start.
+ *
+ * Run with the main method after test-compile, for example from the IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteSequencerBenchmark {
+
+    @Param({ "25", "100", "300" })
+    private int stops;
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] matrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        latitudes = new double[stops];
+        longitudes = new double[stops];
+        for (int i = 0; i < stops; i++) {
+            latitudes[i] = -2.05 + random.nextDouble() * 0.18;
+            longitudes[i] = 29.98 + random.nextDouble() * 0.18;
+        }
+        matrix = RouteSequencer.distanceMatrix(latitudes, longitudes);
+    }
+
+    @Benchmark
+    public RouteSequencer.Route sequenceFromWarehouse() {
+        return RouteSequencer.sequence(latitudes, longitudes, -1.95, 30.06);
+    }
+
+    @Benchmark
+    public int[] sequencePrecomputedMatrix() {
+        return RouteSequencer.sequence(matrix, stops, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RouteSequencerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,262 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.Enum.UserRole;
+import com.ecommerce.entity.Cart;
+import com.ecommerce.entity.CartItem;
+import com.ecommerce.entity.Discount;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.ProductAttributeType;
+import com.ecommerce.entity.ProductAttributeValue;
+import com.ecommerce.entity.ProductImage;
+import com.ecommerce.entity.ProductVariant;
+import com.ecommerce.entity.Shop;
+import com.ecommerce.entity.Stock;
+import com.ecommerce.entity.StockBatch;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.Warehouse;
+import com.ecommerce.service.CartReadModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CartReadModel against PostgreSQL: the line query must price a stored cart
+ * from the real joins - primary image, active discount, the variant's
+ * attributes and only the ACTIVE batches as stock - and a snapshot must
+ * outlive unreported writes but not a reported one once it commits.
+ */
+class CartReadModelIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private CartReadModel cartReadModel;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private String run;
+    private Fixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+        fixture = createFixture();
+    }
+
+    @Test
+    void cartIsPricedFromItsProductsVariantsAndStock() {
+        CartReadModel.CartView cart = cartReadModel.getCart(fixture.customerId());
+
+        assertEquals(fixture.cartId(), cart.cartId());
+        assertEquals(2, cart.lines().size());
+
+        CartReadModel.CartLine mug = cart.lines().get(0);
+        assertEquals(fixture.mugId(), mug.productId());
+        assertFalse(mug.isVariantBased());
+        assertEquals(2, mug.quantity());
+        assertEquals(0, new BigDecimal("12.00").compareTo(mug.originalPrice()));
+        assertEquals(0, new BigDecimal("9.60").compareTo(mug.effectivePrice()));
+        assertEquals("Sale " + run, mug.discountName());
+        assertEquals("mug-" + run + ".jpg", mug.productImage());
+        // The recalled batch is not for sale
+        assertEquals(8, mug.availableStock());
+        assertNotNull(mug.priceChangesAt());
+
+        CartReadModel.CartLine shirt = cart.lines().get(1);
+        assertEquals(fixture.shirtId(), shirt.productId());
+        assertEquals(fixture.variantId(), shirt.variantId());
+        assertEquals("SHIRT-RED-" + run, shirt.variantSku());
+        assertEquals(0, new BigDecimal("40.00").compareTo(shirt.effectivePrice()));
+        assertFalse(shirt.hasDiscount());
+        assertEquals(List.of(new CartReadModel.VariantAttribute("Color-" + run, "Red")), shirt.attributes());
+        assertEquals("Red", shirt.variantName());
+        assertEquals(6, shirt.availableStock());
+
+        assertNull(cartReadModel.getCart(UUID.randomUUID()));
+    }
+
+    @Test
+    void snapshotIsDroppedWhenAReportedWriteCommits() {
+        assertEquals(0, new BigDecimal("12.00").compareTo(mugLine().originalPrice()));
+
+        // Not reported, so the snapshot stands until its TTL
+        jdbcTemplate.update("UPDATE products SET price = 15.00 WHERE product_id = ?", fixture.mugId());
+        assertEquals(0, new BigDecimal("12.00").compareTo(mugLine().originalPrice()));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE products SET price = 20.00 WHERE product_id = ?", fixture.mugId());
+            cartReadModel.productChanged(fixture.mugId());
+        });
+        CartReadModel.CartLine mug = mugLine();
+        assertEquals(0, new BigDecimal("20.00").compareTo(mug.originalPrice()));
+        assertEquals(0, new BigDecimal("16.00").compareTo(mug.effectivePrice()));
+    }
+
+    @Test
+    void linesAreReadForProductsAndVariantsThatExist() {
+        List<CartReadModel.CartLine> lines = cartReadModel.getLines(
+                List.of(fixture.mugId(), UUID.randomUUID()), List.of(fixture.variantId(), -1L));
+
+        assertEquals(2, lines.size());
+        CartReadModel.CartLine shirt = lines.stream().filter(CartReadModel.CartLine::isVariantBased)
+                .findFirst().orElseThrow();
+        assertEquals("Red", shirt.variantName());
+        assertNull(shirt.itemId());
+    }
+
+    private CartReadModel.CartLine mugLine() {
+        return cartReadModel.getCart(fixture.customerId()).lines().get(0);
+    }
+
+    /**
+     * A discounted mug with two images and three batches, one of them
+     * recalled, and a red shirt variant with stock of its own, both in one
+     * customer's cart
+     */
+    private Fixture createFixture() {
+        Fixture fixture = transactionTemplate.execute(status -> {
+            User owner = user("owner", UserRole.VENDOR);
+            User customer = user("customer", UserRole.CUSTOMER);
+
+            Shop shop = new Shop();
+            shop.setName("Cart shop " + run);
+            shop.setOwner(owner);
+            entityManager.persist(shop);
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("Cart warehouse " + run);
+            warehouse.setAddress("1 Dock Road");
+            warehouse.setCity("Kigali");
+            warehouse.setState("Kigali");
+            warehouse.setZipCode("00000");
+            warehouse.setCountry("Rwanda");
+            warehouse.setShop(shop);
+            entityManager.persist(warehouse);
+
+            Discount discount = new Discount();
+            discount.setName("Sale " + run);
+            discount.setPercentage(new BigDecimal("20.00"));
+            discount.setStartDate(LocalDateTime.now().minusDays(1));
+            discount.setEndDate(LocalDateTime.now().plusDays(5));
+            discount.setShop(shop);
+            entityManager.persist(discount);
+
+            Product mug = product(shop, "Mug", "12.00");
+            mug.setDiscount(discount);
+            image(mug, "mug-side-" + run + ".jpg", false);
+            image(mug, "mug-" + run + ".jpg", true);
+            Stock mugStock = new Stock();
+            mugStock.setWarehouse(warehouse);
+            mugStock.setProduct(mug);
+            entityManager.persist(mugStock);
+            batch(mugStock, "M1", 5);
+            batch(mugStock, "M2", 3);
+            StockBatch recalled = batch(mugStock, "M3", 4);
+
+            Product shirt = product(shop, "Shirt", "30.00");
+            ProductVariant red = new ProductVariant();
+            red.setProduct(shirt);
+            red.setVariantSku("SHIRT-RED-" + run);
+            red.setPrice(new BigDecimal("40.00"));
+            entityManager.persist(red);
+            Stock redStock = new Stock();
+            redStock.setWarehouse(warehouse);
+            redStock.setProductVariant(red);
+            entityManager.persist(redStock);
+            batch(redStock, "R1", 6);
+
+            ProductAttributeType color = new ProductAttributeType();
+            color.setName("Color-" + run);
+            entityManager.persist(color);
+            ProductAttributeValue redValue = new ProductAttributeValue();
+            redValue.setValue("Red");
+            redValue.setAttributeType(color);
+            entityManager.persist(redValue);
+
+            Cart cart = new Cart();
+            cart.setUser(customer);
+            entityManager.persist(cart);
+            CartItem mugItem = new CartItem();
+            mugItem.setCart(cart);
+            mugItem.setProduct(mug);
+            mugItem.setQuantity(2);
+            entityManager.persist(mugItem);
+            CartItem shirtItem = new CartItem();
+            shirtItem.setCart(cart);
+            shirtItem.setProductVariant(red);
+            shirtItem.setQuantity(1);
+            entityManager.persist(shirtItem);
+
+            return new Fixture(customer.getId(), cart.getId(), mug.getProductId(), shirt.getProductId(),
+                    red.getId(), recalled.getId(), redValue.getAttributeValueId());
+        });
+
+        jdbcTemplate.update("UPDATE stock_batches SET status = 'RECALLED' WHERE id = ?", fixture.recalledBatchId());
+        jdbcTemplate.update("INSERT INTO variant_attribute_values (variant_id, attribute_value_id) VALUES (?, ?)",
+                fixture.variantId(), fixture.attributeValueId());
+        // The mug was added first
+        jdbcTemplate.update("UPDATE cart_items SET added_at = added_at - INTERVAL '1 minute' "
+                + "WHERE cart_id = ? AND product_id = ?", fixture.cartId(), fixture.mugId());
+        return fixture;
+    }
+
+    private User user(String role, UserRole userRole) {
+        User user = User.builder()
+                .firstName("Cart")
+                .lastName(role)
+                .userEmail(role + "-" + run + "@cart.test")
+                .password("not-a-real-password")
+                .role(userRole)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private Product product(Shop shop, String name, String price) {
+        Product product = new Product();
+        product.setProductName(name + " " + run);
+        product.setSku(name.toUpperCase() + "-" + run);
+        product.setPrice(new BigDecimal(price));
+        product.setShop(shop);
+        entityManager.persist(product);
+        return product;
+    }
+
+    private void image(Product product, String url, boolean primary) {
+        ProductImage image = new ProductImage();
+        image.setProduct(product);
+        image.setImageUrl(url);
+        image.setPrimary(primary);
+        entityManager.persist(image);
+    }
+
+    private StockBatch batch(Stock stock, String batchNumber, int quantity) {
+        StockBatch batch = new StockBatch();
+        batch.setStock(stock);
+        batch.setBatchNumber(batchNumber + "-" + run);
+        batch.setQuantity(quantity);
+        batch.setExpiryDate(LocalDateTime.now().plusMonths(6));
+        entityManager.persist(batch);
+        return batch;
+    }
+
+    private record Fixture(UUID customerId, Long cartId, UUID mugId, UUID shirtId, Long variantId,
+            Long recalledBatchId, Long attributeValueId) {
+    }
+}
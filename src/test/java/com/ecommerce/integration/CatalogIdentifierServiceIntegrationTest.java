@@ -0,0 +1,136 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.enums.CatalogIdentifierKind;
+import com.ecommerce.service.CatalogIdentifierService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Slug and SKU claims against PostgreSQL: the ON CONFLICT insert on
+ * catalog_identifiers reports what was already held, claims go away with a
+ * rolled back transaction, the LIKE ANY lookup finds the suffixes in use,
+ * and writers racing for the same name all end up with different slugs.
+ */
+class CatalogIdentifierServiceIntegrationTest extends PostgresIntegrationTest {
+
+    // Within the retries a writer gets when it loses its candidates
+    private static final int WRITERS = 4;
+    private static final int NAMES_PER_WRITER = 3;
+
+    @Autowired
+    private CatalogIdentifierService catalogIdentifierService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String run;
+
+    @BeforeEach
+    void setUp() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    @Test
+    void reserveReportsTheValuesAlreadyHeld() {
+        List<String> skus = List.of("A-" + run, "B-" + run);
+
+        Set<String> first = reserve(CatalogIdentifierKind.PRODUCT_SKU, skus);
+        Set<String> second = reserve(CatalogIdentifierKind.PRODUCT_SKU, List.of("B-" + run, "C-" + run));
+
+        assertEquals(Set.of(), first);
+        assertEquals(Set.of("B-" + run), second);
+        // Kinds are claimed apart: a variant may reuse a product's SKU
+        assertEquals(Set.of(), reserve(CatalogIdentifierKind.VARIANT_SKU, skus));
+
+        transactionTemplate.executeWithoutResult(status ->
+                catalogIdentifierService.release(CatalogIdentifierKind.PRODUCT_SKU, skus));
+        assertEquals(0, held(CatalogIdentifierKind.PRODUCT_SKU, "A-" + run));
+        assertEquals(1, held(CatalogIdentifierKind.PRODUCT_SKU, "C-" + run));
+    }
+
+    @Test
+    void claimsOfARolledBackTransactionAreReleased() {
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogIdentifierService.reserve(CatalogIdentifierKind.PRODUCT_SKU, List.of("R-" + run));
+            catalogIdentifierService.reserveSlugs(List.of("Rolled " + run));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, held(CatalogIdentifierKind.PRODUCT_SKU, "R-" + run));
+        assertEquals(0, held(CatalogIdentifierKind.PRODUCT_SLUG, "rolled-" + run));
+    }
+
+    @Test
+    void slugsTakeTheSuffixAfterTheHighestInUse() {
+        String base = "lamp-" + run;
+        reserve(CatalogIdentifierKind.PRODUCT_SLUG, List.of(base, base + "-7", base + "-shade", base + "-2x"));
+
+        List<String> slugs = transactionTemplate.execute(status ->
+                catalogIdentifierService.reserveSlugs(List.of("Lamp " + run, "Desk " + run, "LAMP  " + run)));
+
+        assertEquals(List.of(base + "-8", "desk-" + run, base + "-9"), slugs);
+        assertEquals(1, held(CatalogIdentifierKind.PRODUCT_SLUG, base + "-8"));
+        assertEquals(1, held(CatalogIdentifierKind.PRODUCT_SLUG, base + "-9"));
+    }
+
+    @Test
+    void racingWritersGetDifferentSlugsForTheSameName() throws Exception {
+        String name = "Chair " + run;
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status -> catalogIdentifierService.reserveSlugs(
+                            Collections.nCopies(NAMES_PER_WRITER, name)));
+                }));
+            }
+            start.countDown();
+            Set<String> slugs = new HashSet<>();
+            for (Future<List<String>> future : futures) {
+                slugs.addAll(future.get(60, TimeUnit.SECONDS));
+            }
+
+            assertEquals(WRITERS * NAMES_PER_WRITER, slugs.size(), "slugs handed out twice: " + slugs);
+            assertTrue(slugs.contains("chair-" + run));
+        } finally {
+            executor.shutdownNow();
+        }
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM catalog_identifiers WHERE kind = 'PRODUCT_SLUG' AND value LIKE ?",
+                Integer.class, "chair-" + run + "%");
+        assertEquals(WRITERS * NAMES_PER_WRITER, rows);
+    }
+
+    private Set<String> reserve(CatalogIdentifierKind kind, List<String> values) {
+        return transactionTemplate.execute(status -> catalogIdentifierService.reserve(kind, values));
+    }
+
+    private int held(CatalogIdentifierKind kind, String value) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM catalog_identifiers WHERE kind = ? AND value = ?", Integer.class,
+                kind.name(), value);
+    }
+}
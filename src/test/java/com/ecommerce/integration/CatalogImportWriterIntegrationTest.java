@@ -0,0 +1,230 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.Enum.UserRole;
+import com.ecommerce.entity.ProductImportJob;
+import com.ecommerce.entity.Shop;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.Warehouse;
+import com.ecommerce.enums.CatalogIdentifierKind;
+import com.ecommerce.enums.ImportFormat;
+import com.ecommerce.service.CatalogIdentifierService;
+import com.ecommerce.service.CatalogImportWriter;
+import com.ecommerce.util.CatalogFileReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CatalogImportWriter against PostgreSQL: the batched inserts of a chunk must
+ * match the schema the entities and migrations build, the ids drawn from the
+ * sequences must tie variants, stocks and batches together, and products
+ * rejected over SKUs held elsewhere must leave no rows or claims behind.
+ */
+class CatalogImportWriterIntegrationTest extends PostgresIntegrationTest {
+
+    private static final String HEADER = "product_sku,product_name,price,description,meta_keywords,variant_sku,"
+            + "variant_price,attributes,warehouse_id,quantity,batch_number\n";
+
+    @Autowired
+    private CatalogImportWriter catalogImportWriter;
+
+    @Autowired
+    private CatalogIdentifierService catalogIdentifierService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private String run;
+    private Fixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        run = UUID.randomUUID().toString().substring(0, 8);
+        fixture = createFixture();
+    }
+
+    @Test
+    void chunkIsStoredWithItsVariantsStocksAndClaims() throws Exception {
+        long warehouse = fixture.warehouseId();
+        String csv = HEADER
+                + "MUG-" + run + ",Plain mug " + run + ",12.50,Stoneware,\"mug,kitchen\",,,," + warehouse
+                + ",5,B1\n"
+                + "MUG-" + run + ",,,,,,,," + warehouse + ",7,B2\n"
+                + "SHIRT-" + run + ",Shirt " + run + ",,,,RED-" + run + ",21.50,Fabric-" + run + ":Red,"
+                + warehouse + ",3,B1\n"
+                + "SHIRT-" + run + ",,,,,BLUE-" + run + ",19.00,Fabric-" + run + ":Blue," + warehouse + ",4,B1\n";
+
+        CatalogImportWriter.ChunkResult result = write(csv, true);
+
+        assertEquals(new CatalogImportWriter.ChunkResult(2, 2, 0), result);
+
+        Map<String, Object> mug = product("MUG-" + run);
+        assertEquals("plain-mug-" + run, mug.get("slug"));
+        assertEquals(fixture.shopId(), mug.get("shop_id"));
+        assertEquals(true, mug.get("is_active"));
+        assertNotNull(mug.get("status"));
+        assertEquals("Stoneware", jdbcTemplate.queryForObject(
+                "SELECT description FROM product_details WHERE product_id = ?", String.class, mug.get("product_id")));
+        assertEquals(Set.of("mug", "kitchen"), new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT keyword FROM product_keywords WHERE product_id = ?", String.class, mug.get("product_id"))));
+        Map<String, Object> mugStock = jdbcTemplate.queryForMap(
+                "SELECT id, quantity FROM stocks WHERE product_id = ?", mug.get("product_id"));
+        assertEquals(12, ((Number) mugStock.get("quantity")).intValue());
+        assertEquals(List.of(5, 7), jdbcTemplate.queryForList("SELECT quantity FROM stock_batches "
+                + "WHERE stock_id = ? AND status = 'ACTIVE' ORDER BY batch_number", Integer.class, mugStock.get("id")));
+
+        // Listed from its cheapest variant
+        Map<String, Object> shirt = product("SHIRT-" + run);
+        assertEquals(0, new BigDecimal("19.00").compareTo((BigDecimal) shirt.get("price")));
+        for (String[] variant : new String[][] { { "RED-" + run, "Red", "3" }, { "BLUE-" + run, "Blue", "4" } }) {
+            Map<String, Object> row = jdbcTemplate.queryForMap("SELECT v.id, v.product_id, pav.value, s.quantity "
+                    + "FROM product_variants v "
+                    + "JOIN variant_attribute_values vav ON vav.variant_id = v.id "
+                    + "JOIN product_attribute_values pav ON pav.attribute_value_id = vav.attribute_value_id "
+                    + "JOIN stocks s ON s.variant_id = v.id "
+                    + "WHERE v.variant_sku = ?", variant[0]);
+            assertEquals(shirt.get("product_id"), row.get("product_id"));
+            assertEquals(variant[1], row.get("value"));
+            assertEquals(Integer.parseInt(variant[2]), ((Number) row.get("quantity")).intValue());
+        }
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM product_attribute_types WHERE name = ?", Integer.class, "Fabric-" + run));
+
+        assertClaimed(CatalogIdentifierKind.PRODUCT_SKU, "MUG-" + run, true);
+        assertClaimed(CatalogIdentifierKind.PRODUCT_SKU, "SHIRT-" + run, true);
+        assertClaimed(CatalogIdentifierKind.VARIANT_SKU, "RED-" + run, true);
+        assertClaimed(CatalogIdentifierKind.VARIANT_SKU, "BLUE-" + run, true);
+        assertClaimed(CatalogIdentifierKind.PRODUCT_SLUG, "shirt-" + run, true);
+    }
+
+    @Test
+    void productsWithTakenSkusAreReportedAndLeaveNothingBehind() throws Exception {
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogIdentifierService.reserve(CatalogIdentifierKind.PRODUCT_SKU, List.of("TAKEN-" + run));
+            catalogIdentifierService.reserve(CatalogIdentifierKind.VARIANT_SKU, List.of("V-TAKEN-" + run));
+        });
+        String csv = HEADER
+                + "OK-" + run + ",Fine product " + run + ",10,,,,,,,,\n"
+                + "TAKEN-" + run + ",Existing product " + run + ",10,,,,,,,,\n"
+                + "FRESH-" + run + ",Fresh product " + run + ",10,,,V-TAKEN-" + run + ",,,,,\n";
+
+        CatalogImportWriter.ChunkResult result = write(csv, false);
+
+        assertEquals(new CatalogImportWriter.ChunkResult(1, 0, 2), result);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM products WHERE sku IN (?, ?, ?)", Integer.class,
+                "OK-" + run, "TAKEN-" + run, "FRESH-" + run));
+        assertEquals(false, product("OK-" + run).get("is_active"));
+
+        List<Map<String, Object>> errors = jdbcTemplate.queryForList(
+                "SELECT source_row, sku, message FROM product_import_errors WHERE job_id = ? ORDER BY source_row",
+                fixture.jobId());
+        assertEquals(List.of(2L, 3L), errors.stream().map(e -> ((Number) e.get("source_row")).longValue()).toList());
+        assertTrue(((String) errors.get(0).get("message")).contains("TAKEN-" + run + " already exists"));
+        assertTrue(((String) errors.get(1).get("message")).contains("V-TAKEN-" + run + " already exists"));
+
+        // The SKU claimed for the product rejected over its variant is given back
+        assertClaimed(CatalogIdentifierKind.PRODUCT_SKU, "FRESH-" + run, false);
+        assertClaimed(CatalogIdentifierKind.PRODUCT_SKU, "OK-" + run, true);
+    }
+
+    private CatalogImportWriter.ChunkResult write(String csv, boolean publish) throws Exception {
+        List<CatalogImportWriter.ProductRows> chunk = read(csv);
+        return transactionTemplate.execute(status -> {
+            CatalogImportWriter.ImportContext context = catalogImportWriter.loadContext(fixture.jobId(),
+                    fixture.shopId(), publish);
+            return catalogImportWriter.writeChunk(context, chunk);
+        });
+    }
+
+    private Map<String, Object> product(String sku) {
+        return jdbcTemplate.queryForMap(
+                "SELECT product_id, slug, shop_id, price, is_active, status FROM products WHERE sku = ?", sku);
+    }
+
+    private void assertClaimed(CatalogIdentifierKind kind, String value, boolean claimed) {
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM catalog_identifiers WHERE kind = ? AND value = ?", Integer.class,
+                kind.name(), value);
+        assertEquals(claimed ? 1 : 0, rows, kind + " " + value);
+    }
+
+    private Fixture createFixture() {
+        return transactionTemplate.execute(status -> {
+            User owner = User.builder()
+                    .firstName("Import")
+                    .lastName("owner")
+                    .userEmail("owner-" + run + "@import.test")
+                    .password("not-a-real-password")
+                    .role(UserRole.VENDOR)
+                    .build();
+            entityManager.persist(owner);
+
+            Shop shop = new Shop();
+            shop.setName("Import shop " + run);
+            shop.setOwner(owner);
+            entityManager.persist(shop);
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("Import warehouse " + run);
+            warehouse.setAddress("1 Dock Road");
+            warehouse.setCity("Kigali");
+            warehouse.setState("Kigali");
+            warehouse.setZipCode("00000");
+            warehouse.setCountry("Rwanda");
+            warehouse.setShop(shop);
+            entityManager.persist(warehouse);
+
+            ProductImportJob job = new ProductImportJob();
+            job.setShopId(shop.getShopId());
+            job.setFileName("catalog-" + run + ".csv");
+            job.setFormat(ImportFormat.CSV);
+            entityManager.persist(job);
+
+            return new Fixture(shop.getShopId(), warehouse.getId(), job.getId());
+        });
+    }
+
+    private static List<CatalogImportWriter.ProductRows> read(String csv) throws Exception {
+        List<CatalogImportWriter.ProductRows> chunk = new ArrayList<>();
+        try (CatalogFileReader reader = new CatalogFileReader(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV)) {
+            List<CatalogFileReader.Record> rows = new ArrayList<>();
+            CatalogFileReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (!rows.isEmpty() && !rows.get(0).get("product_sku").equals(record.get("product_sku"))) {
+                    chunk.add(new CatalogImportWriter.ProductRows(rows));
+                    rows = new ArrayList<>();
+                }
+                rows.add(record);
+            }
+            chunk.add(new CatalogImportWriter.ProductRows(rows));
+        }
+        return chunk;
+    }
+
+    private record Fixture(UUID shopId, Long warehouseId, Long jobId) {
+    }
+}
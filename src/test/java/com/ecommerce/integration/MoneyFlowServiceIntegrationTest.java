@@ -0,0 +1,174 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.dto.CreateMoneyFlowDTO;
+import com.ecommerce.entity.MoneyFlow;
+import com.ecommerce.enums.MoneyFlowType;
+import com.ecommerce.service.MoneyFlowService;
+import com.ecommerce.service.SystemResetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent MoneyFlowService.save calls against PostgreSQL. The counter row
+ * must end equal to the ledger it summarises, and since each writer holds the
+ * counter's row lock until it commits, ledger ids follow the lock order: every
+ * entry's remaining balance is the one before it plus its own movement, with
+ * no two writers recording the same balance. A reset empties the ledger along
+ * with its counter and checkpoints, so the next entry starts again from zero.
+ */
+class MoneyFlowServiceIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int SAVES_PER_THREAD = 50;
+
+    @Autowired
+    private MoneyFlowService moneyFlowService;
+
+    @Autowired
+    private SystemResetService systemResetService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentInflowsGetDistinctConsecutiveBalances() throws Exception {
+        String run = UUID.randomUUID().toString();
+        runConcurrently(run, i -> MoneyFlowType.IN);
+
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT remaining_balance FROM money_flow WHERE description LIKE ? ORDER BY id",
+                BigDecimal.class, run + "%");
+        int total = THREADS * SAVES_PER_THREAD;
+        assertEquals(total, balances.size());
+        Set<BigDecimal> distinct = new HashSet<>();
+        balances.forEach(balance -> distinct.add(balance.stripTrailingZeros()));
+        assertEquals(total, distinct.size(), "two payments were recorded against the same balance");
+
+        assertLedgerChain(run);
+        assertCounterMatchesLedger();
+    }
+
+    @Test
+    void concurrentPaymentsAndRefundsEndOnLedgerTotal() throws Exception {
+        String run = UUID.randomUUID().toString();
+        runConcurrently(run, i -> i % 3 == 0 ? MoneyFlowType.OUT : MoneyFlowType.IN);
+
+        assertLedgerChain(run);
+        assertCounterMatchesLedger();
+    }
+
+    @Test
+    void entryAfterAResetStartsFromZero() {
+        String run = UUID.randomUUID().toString();
+        save(run + " before", MoneyFlowType.IN, new BigDecimal("75.00"));
+        save(run + " before", MoneyFlowType.OUT, new BigDecimal("20.00"));
+        Long checkpointId = moneyFlowService.createCheckpoint().getId();
+
+        systemResetService.deleteAllMoneyFlows();
+
+        Map<String, Object> counter = jdbcTemplate.queryForMap(
+                "SELECT balance, total_inflow, total_outflow, entry_count FROM money_flow_balance WHERE id = 1");
+        for (String column : List.of("balance", "total_inflow", "total_outflow")) {
+            assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) counter.get(column)), column + " was not reset");
+        }
+        assertEquals(0L, ((Number) counter.get("entry_count")).longValue());
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM money_flow_checkpoints WHERE id <= ?", Integer.class, checkpointId));
+
+        MoneyFlow entry = save(run + " after", MoneyFlowType.IN, new BigDecimal("12.50"));
+
+        assertEquals(0, new BigDecimal("12.50").compareTo(entry.getRemainingBalance()));
+        assertEquals(0, new BigDecimal("12.50").compareTo(moneyFlowService.getCurrentBalance()));
+        assertCounterMatchesLedger();
+    }
+
+    /**
+     * From the first entry of the run on, each ledger row (ours or any other
+     * writer's) carries the previous row's balance plus its own movement
+     */
+    private void assertLedgerChain(String run) {
+        Long firstId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM money_flow WHERE description LIKE ?", Long.class, run + "%");
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, type, amount, remaining_balance FROM money_flow WHERE id >= "
+                        + "COALESCE((SELECT MAX(id) FROM money_flow WHERE id < ?), 0) ORDER BY id", firstId);
+        if (((Number) rows.get(0).get("id")).longValue() == firstId) {
+            // The run started the ledger; its first balance is its own movement
+            rows = new ArrayList<>(rows);
+            rows.add(0, Map.of("id", 0L, "remaining_balance", BigDecimal.ZERO));
+        }
+        for (int i = 1; i < rows.size(); i++) {
+            BigDecimal previous = (BigDecimal) rows.get(i - 1).get("remaining_balance");
+            Map<String, Object> row = rows.get(i);
+            BigDecimal amount = (BigDecimal) row.get("amount");
+            BigDecimal expected = "IN".equals(row.get("type")) ? previous.add(amount) : previous.subtract(amount);
+            assertEquals(0, expected.compareTo((BigDecimal) row.get("remaining_balance")),
+                    "entry " + row.get("id") + " did not follow the entry before it");
+        }
+    }
+
+    private void assertCounterMatchesLedger() {
+        Map<String, Object> counter = jdbcTemplate.queryForMap(
+                "SELECT balance, total_inflow, total_outflow, entry_count FROM money_flow_balance WHERE id = 1");
+        Map<String, Object> ledger = jdbcTemplate.queryForMap("SELECT "
+                + "COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE -amount END), 0) AS balance, "
+                + "COALESCE(SUM(CASE WHEN type = 'IN' THEN amount ELSE 0 END), 0) AS total_inflow, "
+                + "COALESCE(SUM(CASE WHEN type = 'OUT' THEN amount ELSE 0 END), 0) AS total_outflow, "
+                + "COUNT(*) AS entry_count FROM money_flow");
+        for (String column : List.of("balance", "total_inflow", "total_outflow")) {
+            assertEquals(0, ((BigDecimal) ledger.get(column)).compareTo((BigDecimal) counter.get(column)),
+                    column + " of the counter row differs from the ledger");
+        }
+        assertEquals(((Number) ledger.get("entry_count")).longValue(),
+                ((Number) counter.get("entry_count")).longValue());
+        assertEquals(0, ((BigDecimal) counter.get("balance")).compareTo(moneyFlowService.getCurrentBalance()));
+    }
+
+    private MoneyFlow save(String description, MoneyFlowType type, BigDecimal amount) {
+        return moneyFlowService.save(CreateMoneyFlowDTO.builder()
+                .description(description)
+                .type(type)
+                .amount(amount)
+                .build());
+    }
+
+    private void runConcurrently(String run, IntFunction<MoneyFlowType> typeFor) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < SAVES_PER_THREAD; i++) {
+                        save(run + " entry " + i, typeFor.apply(i), BigDecimal.ONE);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderActivityLog;
+import com.ecommerce.service.OrderActivityLogWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The activity log outbox against PostgreSQL: entries are stored with the
+ * transaction that logged them, and the flush moves them to
+ * order_activity_logs, dropping only the rows the log table rejects. The
+ * flush scheduler runs alongside, so a test only asserts where its rows end
+ * up, not which flush moved them.
+ */
+class OrderActivityLogWriterIntegrationTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private OrderActivityLogWriter writer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void committedEntriesReachTheLogWithEveryColumn() throws Exception {
+        Long orderId = createOrder();
+
+        transactionTemplate.executeWithoutResult(status -> writer.write(entries(orderId, 3)));
+        assertEquals(3, outboxRows(orderId) + logRows(orderId));
+
+        flush(orderId);
+
+        assertEquals(0, outboxRows(orderId));
+        assertEquals(3, logRows(orderId));
+        Map<String, Object> row = jdbcTemplate.queryForList(
+                "SELECT * FROM order_activity_logs WHERE order_id = ? ORDER BY timestamp", orderId).get(0);
+        assertEquals(orderId, ((Number) row.get("order_id_value")).longValue());
+        assertEquals("DELIVERY_STARTED", row.get("activity_type"));
+        assertEquals("Delivery Started", row.get("title"));
+        assertEquals("Started 0", row.get("description"));
+        assertEquals("DELIVERY_AGENT", row.get("actor_type"));
+        assertEquals("agent-1", row.get("actor_id"));
+        assertEquals("Agent", row.get("actor_name"));
+        assertEquals("{\"stop\":0}", row.get("metadata"));
+        assertEquals("group-1", row.get("reference_id"));
+        assertEquals("DELIVERY_GROUP", row.get("reference_type"));
+        assertEquals(row.get("timestamp"), row.get("created_at"));
+    }
+
+    @Test
+    void entriesOfARolledBackTransactionAreNeverStored() throws Exception {
+        Long orderId = createOrder();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.write(entries(orderId, 2));
+            status.setRollbackOnly();
+        });
+        flush(orderId);
+
+        assertEquals(0, outboxRows(orderId));
+        assertEquals(0, logRows(orderId));
+    }
+
+    @Test
+    void aRejectedRowIsDroppedAndTheRestOfItsBatchMoved() throws Exception {
+        Long orderId = createOrder();
+        Long missingOrderId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(order_id), 0) + 1000000 FROM orders", Long.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            writer.write(entries(orderId, 2));
+            writer.write(entries(missingOrderId, 1));
+            writer.write(entries(orderId, 1));
+        });
+        flush(orderId, missingOrderId);
+
+        assertEquals(3, logRows(orderId));
+        assertEquals(0, outboxRows(orderId));
+        assertEquals(0, outboxRows(missingOrderId));
+        assertEquals(0, logRows(missingOrderId));
+    }
+
+    /**
+     * Flush until the given orders have nothing left in the outbox. A flush
+     * returns at once while the scheduler's is running, and that one may have
+     * started before our rows were there.
+     */
+    private void flush(Long... orderIds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            writer.flush();
+            if (Arrays.stream(orderIds).allMatch(orderId -> outboxRows(orderId) == 0)
+                    || System.nanoTime() > deadline) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private Long createOrder() {
+        return transactionTemplate.execute(status -> {
+            Order order = new Order();
+            entityManager.persist(order);
+            return order.getOrderId();
+        });
+    }
+
+    private int outboxRows(Long orderId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_activity_log_outbox WHERE order_id = ?", Integer.class, orderId);
+    }
+
+    private int logRows(Long orderId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_activity_logs WHERE order_id_value = ?", Integer.class, orderId);
+    }
+
+    private static List<OrderActivityLogWriter.Entry> entries(Long orderId, int count) {
+        LocalDateTime start = LocalDateTime.now().withNano(0);
+        return IntStream.range(0, count)
+                .mapToObj(i -> new OrderActivityLogWriter.Entry(orderId,
+                        OrderActivityLog.ActivityType.DELIVERY_STARTED, "Delivery Started", "Started " + i,
+                        start.plusSeconds(i), "DELIVERY_AGENT", "agent-1", "Agent", "{\"stop\":" + i + "}",
+                        "group-1", "DELIVERY_GROUP"))
+                .toList();
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.config.RateLimitProperties;
+import com.ecommerce.service.RateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The shared rate limit store against PostgreSQL. Two limiters stand in for
+ * two application nodes: each would allow a full burst on its own, but the
+ * upsert on rate_limit_buckets has to hold the client to one burst across
+ * both, also when their requests race.
+ */
+class RateLimiterIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int CAPACITY = 5;
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 25;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.getSharedStore().setEnabled(true);
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPaths(List.of("/api/v1/orders/track/**"));
+        policy.setCapacity(CAPACITY);
+        policy.setRefillPerMinute(1);
+        properties.getPolicies().put("tracking", policy);
+    }
+
+    @Test
+    void nodesShareOneBurstPerClient() {
+        RateLimiter first = new RateLimiter(properties, jdbcTemplate);
+        RateLimiter second = new RateLimiter(properties, jdbcTemplate);
+        String key = "ip:" + UUID.randomUUID();
+
+        int allowed = 0;
+        for (int i = 0; i < 4 * CAPACITY; i++) {
+            if ((i % 2 == 0 ? first : second).tryAcquire("tracking", key).allowed()) {
+                allowed++;
+            }
+        }
+
+        assertEquals(CAPACITY, allowed);
+        assertEquals(0L, first.getStats().get("sharedStoreErrors"));
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM rate_limit_buckets WHERE bucket_key = ?", Integer.class, "tracking:" + key);
+        assertEquals(1, rows);
+    }
+
+    @Test
+    void racingNodesNeverGoPastTheSharedBucket() throws Exception {
+        RateLimiter[] nodes = { new RateLimiter(properties, jdbcTemplate), new RateLimiter(properties, jdbcTemplate) };
+        String key = "ip:" + UUID.randomUUID();
+        AtomicInteger allowed = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                RateLimiter node = nodes[t % nodes.length];
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        if (node.tryAcquire("tracking", key).allowed()) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // One refill may land while the threads run
+        assertTrue(allowed.get() >= CAPACITY && allowed.get() <= CAPACITY + 1,
+                allowed.get() + " requests got through");
+    }
+
+    @Test
+    void sweepDeletesRefilledSharedBuckets() throws Exception {
+        properties.getPolicies().get("tracking").setRefillPerMinute(6_000);
+        RateLimiter rateLimiter = new RateLimiter(properties, jdbcTemplate);
+        String key = "ip:" + UUID.randomUUID();
+
+        assertTrue(rateLimiter.tryAcquire("tracking", key).allowed());
+        // Refills one token every 10ms, so the bucket is full again long before this
+        Thread.sleep(100);
+        rateLimiter.sweep();
+
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM rate_limit_buckets WHERE bucket_key = ?", Integer.class, "tracking:" + key);
+        assertEquals(0, rows);
+    }
+}
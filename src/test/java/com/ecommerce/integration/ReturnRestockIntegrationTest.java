@@ -0,0 +1,375 @@
+package com.ecommerce.integration;
+
+import com.ecommerce.Enum.UserRole;
+import com.ecommerce.dto.ReturnPickupRequestDTO;
+import com.ecommerce.dto.ReturnPickupResponseDTO;
+import com.ecommerce.entity.Order;
+import com.ecommerce.entity.OrderItem;
+import com.ecommerce.entity.OrderItemBatch;
+import com.ecommerce.entity.Product;
+import com.ecommerce.entity.ReturnItem;
+import com.ecommerce.entity.ReturnRequest;
+import com.ecommerce.entity.Shop;
+import com.ecommerce.entity.ShopOrder;
+import com.ecommerce.entity.Stock;
+import com.ecommerce.entity.StockBatch;
+import com.ecommerce.entity.User;
+import com.ecommerce.entity.Warehouse;
+import com.ecommerce.service.EnhancedStockLockService;
+import com.ecommerce.service.ReturnPickupService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Return pickups and checkouts racing on the same stock batches in
+ * PostgreSQL. Checkouts go through EnhancedStockLockService, which reserves
+ * units by rewriting the batch quantity through JPA, and pickups through
+ * ReturnPickupServiceImpl, which puts units back with relative batch
+ * updates. Every unit either side moved must show up in stock_batches, the
+ * stocks counter must match the active batches after the last pickup, and an
+ * expired batch must stay EXPIRED when units are put back into it. Abandoned
+ * checkouts releasing their locks during pickups must give back every unit.
+ */
+class ReturnRestockIntegrationTest extends PostgresIntegrationTest {
+
+    private static final int INITIAL_QUANTITY = 1_000;
+    private static final int EXPIRED_QUANTITY = 10;
+    private static final int PICKUPS = 20;
+    private static final int CHECKOUTS = 20;
+    private static final int THREADS = 8;
+
+    // Units each pickup returns to batches a, b, c and the expired one
+    private static final int[] RETURNED = { 2, 1, 1, 1 };
+    // Units each checkout takes from batches a and c
+    private static final int TAKEN_FROM_A = 3;
+    private static final int TAKEN_FROM_C = 2;
+
+    @Autowired
+    private ReturnPickupService returnPickupService;
+
+    @Autowired
+    private EnhancedStockLockService enhancedStockLockService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentCheckoutsAndPickupsKeepEveryUnit() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Fixture fixture = createFixture(run, PICKUPS + 1);
+
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < PICKUPS; i++) {
+            int pickup = i;
+            tasks.add(() -> pickUp(fixture, pickup));
+        }
+        for (int i = 0; i < CHECKOUTS; i++) {
+            String sessionId = run + "-checkout-" + i;
+            tasks.add(() -> checkOut(fixture, sessionId));
+        }
+        Collections.shuffle(tasks);
+        runConcurrently(tasks);
+
+        // Checkouts leave the stocks counter alone; the last pickup refreshes it
+        pickUp(fixture, PICKUPS);
+
+        int returned = PICKUPS + 1;
+        assertBatch(fixture.batchIds().get(0), INITIAL_QUANTITY + returned * RETURNED[0] - CHECKOUTS * TAKEN_FROM_A,
+                "ACTIVE");
+        assertBatch(fixture.batchIds().get(1), INITIAL_QUANTITY + returned * RETURNED[1], "ACTIVE");
+        assertBatch(fixture.batchIds().get(2), INITIAL_QUANTITY + returned * RETURNED[2] - CHECKOUTS * TAKEN_FROM_C,
+                "ACTIVE");
+        assertBatch(fixture.batchIds().get(3), EXPIRED_QUANTITY + returned * RETURNED[3], "EXPIRED");
+
+        Integer activeTotal = jdbcTemplate.queryForObject(
+                "SELECT SUM(quantity) FROM stock_batches WHERE stock_id = ? AND status = 'ACTIVE'",
+                Integer.class, fixture.stockId());
+        Integer counter = jdbcTemplate.queryForObject(
+                "SELECT quantity FROM stocks WHERE id = ?", Integer.class, fixture.stockId());
+        assertEquals(activeTotal, counter, "stocks.quantity differs from its active batches");
+
+        Integer openLocks = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stock_batch_locks WHERE session_id LIKE ?", Integer.class, run + "%");
+        assertEquals(0, openLocks);
+    }
+
+    @Test
+    void concurrentUnlocksAndPickupsKeepEveryUnit() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Fixture fixture = createFixture(run, PICKUPS + 1);
+        List<String> sessionIds = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            String sessionId = run + "-abandoned-" + i;
+            lock(fixture, sessionId);
+            sessionIds.add(sessionId);
+        }
+
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int i = 0; i < PICKUPS; i++) {
+            int pickup = i;
+            tasks.add(() -> pickUp(fixture, pickup));
+        }
+        for (String sessionId : sessionIds) {
+            tasks.add(() -> {
+                enhancedStockLockService.unlockAllBatches(sessionId);
+                return null;
+            });
+        }
+        Collections.shuffle(tasks);
+        runConcurrently(tasks);
+
+        // Refreshes racing each other may leave the counter one step behind
+        pickUp(fixture, PICKUPS);
+
+        // Every abandoned checkout gave its units back
+        int returned = PICKUPS + 1;
+        assertBatch(fixture.batchIds().get(0), INITIAL_QUANTITY + returned * RETURNED[0], "ACTIVE");
+        assertBatch(fixture.batchIds().get(1), INITIAL_QUANTITY + returned * RETURNED[1], "ACTIVE");
+        assertBatch(fixture.batchIds().get(2), INITIAL_QUANTITY + returned * RETURNED[2], "ACTIVE");
+        assertBatch(fixture.batchIds().get(3), EXPIRED_QUANTITY + returned * RETURNED[3], "EXPIRED");
+
+        Integer counter = jdbcTemplate.queryForObject(
+                "SELECT quantity FROM stocks WHERE id = ?", Integer.class, fixture.stockId());
+        assertEquals(3 * INITIAL_QUANTITY + returned * (RETURNED[0] + RETURNED[1] + RETURNED[2]), counter);
+
+        Integer openLocks = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM stock_batch_locks WHERE session_id LIKE ?", Integer.class, run + "%");
+        assertEquals(0, openLocks);
+    }
+
+    @Test
+    void restockingAnExpiredBatchMarksItExpired() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        Fixture fixture = createFixture(run, 1);
+
+        pickUp(fixture, 0);
+
+        assertBatch(fixture.batchIds().get(3), EXPIRED_QUANTITY + RETURNED[3], "EXPIRED");
+        assertBatch(fixture.batchIds().get(0), INITIAL_QUANTITY + RETURNED[0], "ACTIVE");
+        Integer counter = jdbcTemplate.queryForObject(
+                "SELECT quantity FROM stocks WHERE id = ?", Integer.class, fixture.stockId());
+        assertEquals(3 * INITIAL_QUANTITY + RETURNED[0] + RETURNED[1] + RETURNED[2], counter);
+    }
+
+    private Object pickUp(Fixture fixture, int pickup) {
+        ReturnPickupRequestDTO request = new ReturnPickupRequestDTO(fixture.returnRequestIds().get(pickup),
+                List.of(new ReturnPickupRequestDTO.ReturnItemPickupDTO(fixture.returnItemIds().get(pickup),
+                        ReturnPickupRequestDTO.ReturnItemPickupStatus.UNDAMAGED, null)));
+        // The controller runs the pickup with the session held open, so its
+        // lazy associations load; a transaction gives the test the same
+        ReturnPickupResponseDTO response = transactionTemplate.execute(
+                status -> returnPickupService.processReturnPickup(request, fixture.agentId()));
+        for (ReturnPickupResponseDTO.ReturnItemProcessingResult result : response.getItemResults()) {
+            assertTrue(result.isRestockedSuccessfully(), result.getMessage());
+        }
+        return null;
+    }
+
+    private Object checkOut(Fixture fixture, String sessionId) {
+        lock(fixture, sessionId);
+        enhancedStockLockService.confirmBatchLocks(sessionId);
+        return null;
+    }
+
+    private void lock(Fixture fixture, String sessionId) {
+        // Requested against the id order, as a cart may list them
+        List<EnhancedStockLockService.BatchLockRequest> requests = List.of(
+                new EnhancedStockLockService.BatchLockRequest(fixture.batchIds().get(2), TAKEN_FROM_C,
+                        fixture.warehouseId(), "Restock product", null),
+                new EnhancedStockLockService.BatchLockRequest(fixture.batchIds().get(0), TAKEN_FROM_A,
+                        fixture.warehouseId(), "Restock product", null));
+        assertTrue(enhancedStockLockService.lockStockBatches(sessionId, requests), "checkout could not lock stock");
+    }
+
+    private void assertBatch(Long batchId, int quantity, String status) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT quantity, status FROM stock_batches WHERE id = ?", batchId);
+        assertEquals(quantity, ((Number) row.get("quantity")).intValue(), "quantity of batch " + batchId);
+        assertEquals(status, row.get("status"), "status of batch " + batchId);
+    }
+
+    private void runConcurrently(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        try {
+            for (Callable<Object> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One product in one warehouse with three live batches and one whose
+     * expiry passed while it was still ACTIVE, and an approved, assigned
+     * return request per pickup, each returning units to all four batches
+     */
+    private Fixture createFixture(String run, int pickups) {
+        Fixture fixture = transactionTemplate.execute(status -> {
+            User owner = user(run, "owner", UserRole.VENDOR);
+            User agent = user(run, "agent", UserRole.DELIVERY_AGENT);
+
+            Shop shop = new Shop();
+            shop.setName("Restock shop " + run);
+            shop.setOwner(owner);
+            entityManager.persist(shop);
+
+            Warehouse warehouse = new Warehouse();
+            warehouse.setName("Restock warehouse " + run);
+            warehouse.setAddress("1 Dock Road");
+            warehouse.setCity("Kigali");
+            warehouse.setState("Kigali");
+            warehouse.setZipCode("00000");
+            warehouse.setCountry("Rwanda");
+            warehouse.setShop(shop);
+            entityManager.persist(warehouse);
+
+            Product product = new Product();
+            product.setProductName("Restock product " + run);
+            product.setSku("RESTOCK-" + run);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setShop(shop);
+            entityManager.persist(product);
+
+            Stock stock = new Stock();
+            stock.setWarehouse(warehouse);
+            stock.setProduct(product);
+            stock.setQuantity(3 * INITIAL_QUANTITY);
+            entityManager.persist(stock);
+
+            LocalDateTime later = LocalDateTime.now().plusMonths(6);
+            List<StockBatch> batches = List.of(
+                    batch(stock, run + "-A", INITIAL_QUANTITY, later),
+                    batch(stock, run + "-B", INITIAL_QUANTITY, later.plusDays(1)),
+                    batch(stock, run + "-C", INITIAL_QUANTITY, later.plusDays(2)),
+                    batch(stock, run + "-X", EXPIRED_QUANTITY, later.plusDays(3)));
+
+            Order order = new Order();
+            order.setUser(owner);
+            entityManager.persist(order);
+
+            ShopOrder shopOrder = new ShopOrder();
+            shopOrder.setOrder(order);
+            shopOrder.setShop(shop);
+            shopOrder.setStatus(ShopOrder.ShopOrderStatus.DELIVERED);
+            entityManager.persist(shopOrder);
+
+            List<Long> returnRequestIds = new ArrayList<>();
+            List<Long> returnItemIds = new ArrayList<>();
+            int returnQuantity = 0;
+            for (int quantity : RETURNED) {
+                returnQuantity += quantity;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < pickups; i++) {
+                OrderItem orderItem = new OrderItem();
+                orderItem.setShopOrder(shopOrder);
+                orderItem.setProduct(product);
+                orderItem.setQuantity(returnQuantity);
+                orderItem.setPrice(product.getPrice());
+                entityManager.persist(orderItem);
+                for (int b = 0; b < batches.size(); b++) {
+                    OrderItemBatch orderItemBatch = new OrderItemBatch();
+                    orderItemBatch.setOrderItem(orderItem);
+                    orderItemBatch.setStockBatch(batches.get(b));
+                    orderItemBatch.setWarehouse(warehouse);
+                    orderItemBatch.setQuantityUsed(RETURNED[b]);
+                    entityManager.persist(orderItemBatch);
+                }
+
+                ReturnRequest returnRequest = new ReturnRequest();
+                returnRequest.setShopOrderId(shopOrder.getId());
+                returnRequest.setCustomerId(owner.getId());
+                returnRequest.setReason("Restock test " + run);
+                returnRequest.setStatus(ReturnRequest.ReturnStatus.APPROVED);
+                returnRequest.setDecisionAt(now);
+                returnRequest.setDeliveryStatus(ReturnRequest.DeliveryStatus.ASSIGNED);
+                returnRequest.setDeliveryAgentId(agent.getId());
+                returnRequest.setAssignedAt(now);
+                entityManager.persist(returnRequest);
+
+                ReturnItem returnItem = new ReturnItem();
+                returnItem.setReturnRequest(returnRequest);
+                returnItem.setOrderItem(orderItem);
+                returnItem.setProduct(product);
+                returnItem.setReturnQuantity(returnQuantity);
+                // Keeps the pickup from trying to refund a payment the order never had
+                returnItem.setIsReturnable(false);
+                entityManager.persist(returnItem);
+
+                returnRequestIds.add(returnRequest.getId());
+                returnItemIds.add(returnItem.getId());
+            }
+
+            return new Fixture(agent.getId(), warehouse.getId(), stock.getId(),
+                    batches.stream().map(StockBatch::getId).toList(), returnRequestIds, returnItemIds);
+        });
+
+        // Expired without anything having marked it so, as the status is only
+        // recomputed when the entity is written
+        jdbcTemplate.update("UPDATE stock_batches SET expiry_date = NOW() - INTERVAL '1 day' WHERE id = ?",
+                fixture.batchIds().get(3));
+        return fixture;
+    }
+
+    private User user(String run, String role, UserRole userRole) {
+        User user = User.builder()
+                .firstName("Restock")
+                .lastName(role)
+                .userEmail(role + "-" + run + "@restock.test")
+                .password("not-a-real-password")
+                .role(userRole)
+                .build();
+        entityManager.persist(user);
+        return user;
+    }
+
+    private StockBatch batch(Stock stock, String batchNumber, int quantity, LocalDateTime expiryDate) {
+        StockBatch batch = new StockBatch();
+        batch.setStock(stock);
+        batch.setBatchNumber(batchNumber);
+        batch.setQuantity(quantity);
+        batch.setExpiryDate(expiryDate);
+        entityManager.persist(batch);
+        return batch;
+    }
+
+    private record Fixture(UUID agentId, Long warehouseId, Long stockId, List<Long> batchIds,
+            List<Long> returnRequestIds, List<Long> returnItemIds) {
+    }
+}
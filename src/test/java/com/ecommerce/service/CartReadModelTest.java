@@ -0,0 +1,229 @@
+package com.ecommerce.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cart snapshots over a JdbcTemplate that answers the line queries from
+ * in-memory rows: a cart is read in two queries and then served from its
+ * snapshot until the cart or one of its products changes, and lines are
+ * priced with the variant's discount ahead of the product's.
+ */
+@ExtendWith(MockitoExtension.class)
+class CartReadModelTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+    private static final UUID SHIRT_ID = UUID.randomUUID();
+    private static final UUID MUG_ID = UUID.randomUUID();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CartReadModel cartReadModel;
+    private final List<Map<String, Object>> cartRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        cartReadModel = new CartReadModel(jdbcTemplate, 60, 100);
+        LocalDateTime now = LocalDateTime.now();
+
+        // A shirt variant with its own 10% discount over the product's 50%,
+        // and a mug whose discount has been switched off
+        Map<String, Object> shirt = line(1L, SHIRT_ID, "Shirt", new BigDecimal("30.00"));
+        shirt.put("variant_id", 5L);
+        shirt.put("variant_sku", "SHIRT-RED");
+        shirt.put("variant_price", new BigDecimal("40.00"));
+        shirt.put("quantity", 2);
+        discount(shirt, "vd", "Variant sale", "10.00", true, now.minusDays(1), now.plusDays(3));
+        discount(shirt, "pd", "Summer sale", "50.00", true, now.minusDays(1), now.plusDays(1));
+        cartRows.add(shirt);
+
+        Map<String, Object> mug = line(2L, MUG_ID, "Mug", new BigDecimal("12.00"));
+        mug.put("quantity", 1);
+        mug.put("product_image", "mug.jpg");
+        discount(mug, "pd", "Old sale", "20.00", false, now.minusDays(10), null);
+        cartRows.add(mug);
+
+        lenient().doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : cartRows) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq(CartReadModel.CART_SQL), any(RowCallbackHandler.class), eq(USER_ID));
+        lenient().doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(2);
+            handler.processRow(resultSet(Map.of("variant_id", 5L, "name", "Color", "value", "Red")));
+            handler.processRow(resultSet(Map.of("variant_id", 5L, "name", "Size", "value", "M")));
+            return null;
+        }).when(jdbcTemplate).query(eq(CartReadModel.ATTRIBUTES_SQL), any(PreparedStatementSetter.class),
+                any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void linesArePricedWithTheVariantDiscountFirst() {
+        CartReadModel.CartView cart = cartReadModel.getCart(USER_ID);
+
+        assertEquals(10L, cart.cartId());
+        assertEquals(2, cart.lines().size());
+
+        CartReadModel.CartLine shirt = cart.lines().get(0);
+        assertTrue(shirt.isVariantBased());
+        assertEquals(0, new BigDecimal("36.00").compareTo(shirt.effectivePrice()));
+        assertEquals(new BigDecimal("40.00"), shirt.originalPrice());
+        assertEquals("Variant sale", shirt.discountName());
+        assertEquals("Red - M", shirt.variantName());
+        assertEquals(List.of("Color", "Size"), shirt.attributes().stream()
+                .map(CartReadModel.VariantAttribute::typeName).toList());
+
+        CartReadModel.CartLine mug = cart.lines().get(1);
+        assertFalse(mug.isVariantBased());
+        assertFalse(mug.hasDiscount());
+        assertEquals(new BigDecimal("12.00"), mug.effectivePrice());
+        assertNull(mug.discountName());
+        assertEquals("mug.jpg", mug.productImage());
+        assertTrue(mug.attributes().isEmpty());
+    }
+
+    @Test
+    void snapshotIsKeptUntilOneOfItsProductsChanges() {
+        cartReadModel.getCart(USER_ID);
+        cartReadModel.getCart(USER_ID);
+        cartReadModel.productChanged(UUID.randomUUID());
+        cartReadModel.getCart(USER_ID);
+        verify(jdbcTemplate, times(1)).query(eq(CartReadModel.CART_SQL), any(RowCallbackHandler.class),
+                eq(USER_ID));
+
+        cartReadModel.productChanged(MUG_ID);
+        cartReadModel.getCart(USER_ID);
+        verify(jdbcTemplate, times(2)).query(eq(CartReadModel.CART_SQL), any(RowCallbackHandler.class),
+                eq(USER_ID));
+        // One attributes query per read, whatever the number of variants
+        verify(jdbcTemplate, times(2)).query(eq(CartReadModel.ATTRIBUTES_SQL), any(PreparedStatementSetter.class),
+                any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void cartChangesDropTheSnapshot() {
+        cartReadModel.getCart(USER_ID);
+        cartRows.remove(1);
+        cartReadModel.cartChanged(USER_ID);
+
+        assertEquals(1, cartReadModel.getCart(USER_ID).lines().size());
+    }
+
+    @Test
+    void evictedCartsLeaveNoEntriesInTheProductIndex() {
+        cartReadModel.getCart(USER_ID);
+        assertEquals(2, cartReadModel.getIndexedProducts());
+
+        cartReadModel.cartChanged(USER_ID);
+        assertEquals(0, cartReadModel.getIndexedProducts());
+
+        // Dropped over the mug, the cart leaves the shirt's entry too
+        cartReadModel.getCart(USER_ID);
+        cartReadModel.productChanged(MUG_ID);
+        assertEquals(0, cartReadModel.getIndexedProducts());
+
+        // Reloaded without the mug, the cart is indexed under the shirt only
+        cartReadModel.getCart(USER_ID);
+        cartRows.remove(1);
+        cartReadModel.productChanged(SHIRT_ID);
+        cartReadModel.getCart(USER_ID);
+        assertEquals(1, cartReadModel.getIndexedProducts());
+        cartReadModel.productChanged(MUG_ID);
+        assertEquals(1, cartReadModel.getCart(USER_ID).lines().size());
+        verify(jdbcTemplate, times(4)).query(eq(CartReadModel.CART_SQL), any(RowCallbackHandler.class),
+                eq(USER_ID));
+    }
+
+    @Test
+    void priceChangesWhenTheFirstOfItsDiscountsEnds() {
+        CartReadModel.CartLine shirt = cartReadModel.getCart(USER_ID).lines().get(0);
+
+        // The product's sale ends first; the snapshot must not outlive it
+        LocalDateTime productSaleEnd = (LocalDateTime) cartRows.get(0).get("pd_end");
+        assertEquals(productSaleEnd.plusNanos(1000), shirt.priceChangesAt());
+    }
+
+    private static Map<String, Object> line(long itemId, UUID productId, String name, BigDecimal price) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("cart_id", 10L);
+        row.put("cart_created_at", LocalDateTime.now().minusDays(2));
+        row.put("item_id", itemId);
+        row.put("added_at", LocalDateTime.now().minusHours(itemId));
+        row.put("product_id", productId);
+        row.put("product_name", name);
+        row.put("product_sku", name.toUpperCase());
+        row.put("product_price", price);
+        row.put("available_stock", 7);
+        return row;
+    }
+
+    private static void discount(Map<String, Object> row, String prefix, String name, String percentage,
+            boolean active, LocalDateTime start, LocalDateTime end) {
+        row.put(prefix + "_name", name);
+        row.put(prefix + "_percentage", new BigDecimal(percentage));
+        row.put(prefix + "_active", active);
+        row.put(prefix + "_start", start);
+        row.put(prefix + "_end", end);
+    }
+
+    /**
+     * A ResultSet positioned on the given row, read by column name
+     */
+    private static ResultSet resultSet(Map<String, Object> row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class, withSettings().strictness(Strictness.LENIENT));
+        Object[] last = new Object[1];
+        when(rs.getString(anyString())).thenAnswer(i -> last[0] = row.get(i.<String>getArgument(0)));
+        when(rs.getObject(anyString())).thenAnswer(i -> last[0] = row.get(i.<String>getArgument(0)));
+        when(rs.getObject(anyString(), eq(UUID.class))).thenAnswer(i -> last[0] = row.get(i.<String>getArgument(0)));
+        when(rs.getBigDecimal(anyString())).thenAnswer(i -> last[0] = row.get(i.<String>getArgument(0)));
+        when(rs.getLong(anyString())).thenAnswer(i -> {
+            last[0] = row.get(i.<String>getArgument(0));
+            return last[0] != null ? ((Number) last[0]).longValue() : 0L;
+        });
+        when(rs.getInt(anyString())).thenAnswer(i -> {
+            last[0] = row.get(i.<String>getArgument(0));
+            return last[0] != null ? ((Number) last[0]).intValue() : 0;
+        });
+        when(rs.getDouble(anyString())).thenAnswer(i -> {
+            last[0] = row.get(i.<String>getArgument(0));
+            return last[0] != null ? ((Number) last[0]).doubleValue() : 0.0;
+        });
+        when(rs.getBoolean(anyString())).thenAnswer(i -> {
+            last[0] = row.get(i.<String>getArgument(0));
+            return Boolean.TRUE.equals(last[0]);
+        });
+        when(rs.getTimestamp(anyString())).thenAnswer(i -> {
+            last[0] = row.get(i.<String>getArgument(0));
+            return last[0] != null ? Timestamp.valueOf((LocalDateTime) last[0]) : null;
+        });
+        when(rs.wasNull()).thenAnswer(i -> last[0] == null);
+        return rs;
+    }
+}
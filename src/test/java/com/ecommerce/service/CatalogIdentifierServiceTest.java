@@ -0,0 +1,140 @@
+package com.ecommerce.service;
+
+import com.ecommerce.enums.CatalogIdentifierKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Slug and SKU claims against a JdbcTemplate that holds the claimed values
+ * in memory: suffixes come from one prefix lookup per attempt, and
+ * candidates lost to another writer are worked out again.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogIdentifierServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CatalogIdentifierService service;
+    private final Set<String> held = new HashSet<>();
+    // Values another writer claims just before each of our claims, if any
+    private final Deque<List<String>> concurrentClaims = new ArrayDeque<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new CatalogIdentifierService(jdbcTemplate);
+
+        lenient().when(jdbcTemplate.query(eq(CatalogIdentifierService.EXISTING_WITH_PREFIX_SQL),
+                any(PreparedStatementSetter.class), any(RowMapper.class))).thenAnswer(invocation -> {
+                    List<String> patterns = arrayOf(invocation.getArgument(1));
+                    return held.stream()
+                            .filter(value -> patterns.stream()
+                                    .anyMatch(p -> value.startsWith(p.substring(0, p.length() - 1))))
+                            .toList();
+                });
+        lenient().when(jdbcTemplate.query(eq(CatalogIdentifierService.RESERVE_SQL),
+                any(PreparedStatementSetter.class), any(RowMapper.class))).thenAnswer(invocation -> {
+                    if (!concurrentClaims.isEmpty()) {
+                        held.addAll(concurrentClaims.pop());
+                    }
+                    List<String> reserved = new ArrayList<>();
+                    for (String value : arrayOf(invocation.getArgument(1))) {
+                        if (held.add(value)) {
+                            reserved.add(value);
+                        }
+                    }
+                    return reserved;
+                });
+    }
+
+    @Test
+    void slugsTakeTheNextSuffixFromOneLookup() {
+        held.addAll(List.of("shirt", "shirt-2", "shirt-7", "shirt-blue", "pants-2"));
+
+        List<String> slugs = service.reserveSlugs(List.of("Shirt", "  Shirt ", "Pants", "!!"));
+
+        assertEquals(List.of("shirt-8", "shirt-9", "pants", "product"), slugs);
+        verify(jdbcTemplate, times(1)).query(eq(CatalogIdentifierService.EXISTING_WITH_PREFIX_SQL),
+                any(PreparedStatementSetter.class), any(RowMapper.class));
+        verify(jdbcTemplate, times(1)).query(eq(CatalogIdentifierService.RESERVE_SQL),
+                any(PreparedStatementSetter.class), any(RowMapper.class));
+    }
+
+    @Test
+    void candidatesClaimedConcurrentlyAreWorkedOutAgain() {
+        held.add("shirt");
+        concurrentClaims.add(List.of("shirt-2"));
+
+        List<String> slugs = service.reserveSlugs(List.of("Shirt", "Pants"));
+
+        assertEquals(List.of("shirt-3", "pants"), slugs);
+        verify(jdbcTemplate, times(2)).query(eq(CatalogIdentifierService.RESERVE_SQL),
+                any(PreparedStatementSetter.class), any(RowMapper.class));
+    }
+
+    @Test
+    void temporarySkusAreSuffixedLikeSlugs() {
+        held.add("TEMP-BLUESHIR");
+
+        assertEquals("TEMP-BLUESHIR-2", service.reserveTemporarySku("Blue shirt, cotton"));
+        assertEquals("TEMP-PRODUCT", service.reserveTemporarySku("***"));
+    }
+
+    @Test
+    void reserveReportsTheValuesAlreadyTaken() {
+        held.add("SKU-2");
+
+        assertEquals(Set.of("SKU-2"), service.reserve(CatalogIdentifierKind.VARIANT_SKU, List.of("SKU-1", "SKU-2")));
+        assertFalse(service.reserve(CatalogIdentifierKind.VARIANT_SKU, "SKU-1"));
+        assertTrue(service.reserve(CatalogIdentifierKind.VARIANT_SKU, "SKU-3"));
+    }
+
+    @Test
+    void slugsMadeFromANameAreRecognised() {
+        assertTrue(CatalogIdentifierService.isSlugFor("blue-shirt", "Blue Shirt"));
+        assertTrue(CatalogIdentifierService.isSlugFor("blue-shirt-12", "Blue Shirt"));
+        assertFalse(CatalogIdentifierService.isSlugFor("blue-shirt-xl", "Blue Shirt"));
+        assertFalse(CatalogIdentifierService.isSlugFor("blue-shirt", "Red Shirt"));
+    }
+
+    /**
+     * The array a statement setter binds, read through mocked JDBC objects
+     */
+    private static List<String> arrayOf(PreparedStatementSetter setter) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        List<String> values = new ArrayList<>();
+        when(statement.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(eq("text"), any())).thenAnswer(invocation -> {
+            for (Object value : (Object[]) invocation.getArgument(1)) {
+                values.add((String) value);
+            }
+            return mock(Array.class);
+        });
+        setter.setValues(statement);
+        return values;
+    }
+}
@@ -0,0 +1,198 @@
+package com.ecommerce.service;
+
+import com.ecommerce.enums.CatalogIdentifierKind;
+import com.ecommerce.enums.ImportFormat;
+import com.ecommerce.util.CatalogFileReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Feeds CSV through CatalogFileReader into CatalogImportWriter with the
+ * JdbcTemplate recording what it is asked to run and the identifier claims
+ * answered from in-memory sets. A chunk must cost a fixed
+ * number of statements whatever its size, and rejected products must be
+ * reported without holding back the rest of the chunk.
+ */
+@ExtendWith(MockitoExtension.class)
+class CatalogImportWriterTest {
+
+    private static final UUID SHOP_ID = UUID.randomUUID();
+    private static final String HEADER = "product_sku,product_name,price,description,variant_sku,variant_price,"
+            + "attributes,warehouse_id,quantity,batch_number\n";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CatalogIdentifierService catalogIdentifierService;
+
+    private CatalogImportWriter writer;
+    private final Map<String, List<Object[]>> batches = new HashMap<>();
+    private final List<String> existingProductSkus = new ArrayList<>();
+    private final List<String> existingVariantSkus = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        writer = new CatalogImportWriter(jdbcTemplate, new ProductStatusCalculationService(),
+                catalogIdentifierService);
+
+        lenient().when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(SHOP_ID))).thenReturn(List.of(1L));
+        lenient().when(jdbcTemplate.queryForList(eq(CatalogImportWriter.NEXT_IDS_SQL), eq(Long.class), anyString(),
+                anyInt())).thenAnswer(invocation -> {
+                    int count = invocation.getArgument(3);
+                    return LongStream.rangeClosed(1, count).boxed().toList();
+                });
+        lenient().when(catalogIdentifierService.reserve(eq(CatalogIdentifierKind.PRODUCT_SKU), anyCollection()))
+                .thenAnswer(i -> taken(i.getArgument(1), existingProductSkus));
+        lenient().when(catalogIdentifierService.reserve(eq(CatalogIdentifierKind.VARIANT_SKU), anyCollection()))
+                .thenAnswer(i -> taken(i.getArgument(1), existingVariantSkus));
+        lenient().when(catalogIdentifierService.reserveSlugs(anyList())).thenAnswer(invocation -> {
+            List<String> names = invocation.getArgument(0);
+            return names.stream().map(CatalogIdentifierService::slugify).toList();
+        });
+        lenient().when(jdbcTemplate.queryForObject(contains("FROM product_attribute_types"), eq(Long.class),
+                anyString())).thenReturn(7L);
+        AtomicLong valueIds = new AtomicLong(100);
+        lenient().when(jdbcTemplate.queryForObject(contains("INTO product_attribute_values"), eq(Long.class),
+                anyLong(), anyString())).thenAnswer(i -> valueIds.incrementAndGet());
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batches.computeIfAbsent(invocation.getArgument(0), sql -> new ArrayList<>()).addAll(rows);
+            return new int[rows.size()];
+        });
+    }
+
+    @Test
+    void chunkIsWrittenWithOneBatchPerTable() throws Exception {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int p = 0; p < 200; p++) {
+            for (String color : new String[] { "Red", "Blue" }) {
+                csv.append("SKU-").append(p).append(",Shirt ").append(p).append(",19.99,\"Cotton, soft\",")
+                        .append("SKU-").append(p).append('-').append(color).append(",21.50,Color:").append(color)
+                        .append(",1,10,B-").append(p).append('\n');
+            }
+        }
+        CatalogImportWriter.ImportContext context = writer.loadContext(1L, SHOP_ID, true);
+
+        CatalogImportWriter.ChunkResult result = writer.writeChunk(context, read(csv.toString()));
+
+        assertEquals(new CatalogImportWriter.ChunkResult(200, 400, 0), result);
+        assertEquals(200, batches.get(CatalogImportWriter.INSERT_PRODUCT_SQL).size());
+        assertEquals(200, batches.get(CatalogImportWriter.INSERT_DETAIL_SQL).size());
+        assertEquals(400, batches.get(CatalogImportWriter.INSERT_VARIANT_SQL).size());
+        assertEquals(400, batches.get(CatalogImportWriter.INSERT_VARIANT_ATTRIBUTE_SQL).size());
+        assertEquals(400, batches.get(CatalogImportWriter.INSERT_STOCK_SQL).size());
+        assertEquals(400, batches.get(CatalogImportWriter.INSERT_BATCH_SQL).size());
+        assertEquals("Cotton, soft", batches.get(CatalogImportWriter.INSERT_DETAIL_SQL).get(0)[1]);
+        assertEquals("shirt-0", batches.get(CatalogImportWriter.INSERT_PRODUCT_SQL).get(0)[11]);
+
+        // Every table in one batch, one claim per kind of identifier, and the
+        // attribute type and its two values created once
+        verify(catalogIdentifierService, times(2)).reserve(any(CatalogIdentifierKind.class), anyCollection());
+        verify(catalogIdentifierService, times(1)).reserveSlugs(anyList());
+        verify(jdbcTemplate, times(6)).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, times(2)).queryForList(eq(CatalogImportWriter.NEXT_IDS_SQL), eq(Long.class),
+                anyString(), anyInt());
+        verify(jdbcTemplate, times(1)).queryForObject(contains("FROM product_attribute_types"), eq(Long.class),
+                anyString());
+        verify(jdbcTemplate, times(2)).queryForObject(contains("INTO product_attribute_values"), eq(Long.class),
+                anyLong(), anyString());
+    }
+
+    @Test
+    void rejectedProductsAreReportedAndTheRestImported() throws Exception {
+        existingProductSkus.add("TAKEN");
+        existingVariantSkus.add("V-TAKEN");
+        String csv = HEADER
+                + "OK,Good product,10,,,,,1,5,B-1\n"
+                + "OK,,,,,,,1,3,B-2\n"
+                + "NO-PRICE,Free product,0,,,,,,,\n"
+                + "TAKEN,Existing product,10,,,,,,,\n"
+                + "ELSEWHERE,Foreign stock,10,,,,,2,5,\n"
+                + "DUP-BATCH,Twice,10,,,,,1,5,B-1\n"
+                + "DUP-BATCH,,,,,,,1,5,B-1\n"
+                + "OK,Again,10,,,,,,,\n"
+                + "FRESH,Fresh product,10,,V-TAKEN,,,,,\n";
+        CatalogImportWriter.ImportContext context = writer.loadContext(1L, SHOP_ID, false);
+
+        CatalogImportWriter.ChunkResult result = writer.writeChunk(context, read(csv));
+
+        assertEquals(new CatalogImportWriter.ChunkResult(1, 0, 7), result);
+        List<Object[]> stocks = batches.get(CatalogImportWriter.INSERT_STOCK_SQL);
+        assertEquals(1, stocks.size());
+        assertEquals(8, stocks.get(0)[4]);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> errors = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(CatalogImportWriter.INSERT_ERROR_SQL), errors.capture());
+        Map<Long, String> messages = new HashMap<>();
+        for (Object[] error : errors.getValue()) {
+            messages.put((Long) error[1], (String) error[3]);
+        }
+        assertEquals(6, messages.size());
+        assertTrue(messages.get(3L).contains("price"));
+        assertTrue(messages.get(4L).contains("already exists"));
+        assertTrue(messages.get(5L).contains("does not belong to the shop"));
+        assertTrue(messages.get(7L).contains("appears twice"));
+        assertTrue(messages.get(8L).contains("more than once"));
+        assertTrue(messages.get(9L).contains("V-TAKEN already exists"));
+
+        // The SKU claimed for the product rejected over its variant is given back
+        verify(catalogIdentifierService).release(CatalogIdentifierKind.PRODUCT_SKU, List.of("FRESH"));
+        verify(catalogIdentifierService).release(CatalogIdentifierKind.VARIANT_SKU, List.of());
+    }
+
+    private static List<CatalogImportWriter.ProductRows> read(String csv) throws Exception {
+        List<CatalogImportWriter.ProductRows> chunk = new ArrayList<>();
+        try (CatalogFileReader reader = new CatalogFileReader(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ImportFormat.CSV)) {
+            List<CatalogFileReader.Record> rows = new ArrayList<>();
+            CatalogFileReader.Record record;
+            while ((record = reader.next()) != null) {
+                if (!rows.isEmpty() && !rows.get(0).get("product_sku").equals(record.get("product_sku"))) {
+                    chunk.add(new CatalogImportWriter.ProductRows(rows));
+                    rows = new ArrayList<>();
+                }
+                rows.add(record);
+            }
+            chunk.add(new CatalogImportWriter.ProductRows(rows));
+        }
+        return chunk;
+    }
+
+    private static Set<String> taken(Collection<String> values, Collection<String> existing) {
+        return values.stream().filter(existing::contains).collect(Collectors.toSet());
+    }
+
+    private static String contains(String text) {
+        return org.mockito.ArgumentMatchers.contains(text);
+    }
+}
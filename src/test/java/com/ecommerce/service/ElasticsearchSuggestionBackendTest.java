@@ -0,0 +1,119 @@
+package com.ecommerce.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Publishes suggestion entries against a mocked Elasticsearch client that
+ * records every bulk request, to check which documents each publish indexes
+ * and deletes, also after a bulk that failed half way.
+ */
+@ExtendWith(MockitoExtension.class)
+class ElasticsearchSuggestionBackendTest {
+
+    @Mock
+    private ElasticsearchClient elasticsearchClient;
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    private final List<BulkRequest> bulks = new ArrayList<>();
+
+    private ElasticsearchSuggestionBackend backend;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        when(elasticsearchClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.exists(any(Function.class))).thenReturn(new BooleanResponse(true));
+        backend = new ElasticsearchSuggestionBackend(elasticsearchClient);
+    }
+
+    @Test
+    void onlyChangedAndRemovedEntriesAreSent() throws IOException {
+        acceptBulks();
+
+        backend.publish(List.of(entry("p1", "Red mug", 3), entry("p2", "Blue mug", 1)));
+        backend.publish(List.of(entry("p1", "Red mug", 5)));
+
+        assertEquals(2, bulks.size());
+        assertEquals(Set.of("p1", "p2"), indexed(bulks.get(0)));
+        assertEquals(Set.of("p1"), indexed(bulks.get(1)));
+        assertEquals(Set.of("p2"), deleted(bulks.get(1)));
+
+        backend.publish(List.of(entry("p1", "Red mug", 5)));
+        assertEquals(2, bulks.size(), "an unchanged publish sent a bulk");
+    }
+
+    @Test
+    void productRemovedAfterAFailedPublishIsDeleted() throws IOException {
+        acceptBulks();
+        backend.publish(List.of(entry("p1", "Red mug", 3), entry("p2", "Blue mug", 1)));
+
+        // The bulk adding p3 times out; it may or may not have been indexed
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+            bulks.add(invocation.getArgument(0));
+            throw new IOException("Read timed out");
+        });
+        backend.publish(List.of(entry("p1", "Red mug", 3), entry("p2", "Blue mug", 1), entry("p3", "Green mug", 2)));
+        assertEquals(Set.of("p3"), indexed(bulks.get(1)));
+
+        // p2 and p3 are gone by the next publish
+        acceptBulks();
+        backend.publish(List.of(entry("p1", "Red mug", 3)));
+
+        BulkRequest resync = bulks.get(2);
+        assertEquals(Set.of("p2", "p3"), deleted(resync));
+        // p1 was confirmed before the failure and has not changed
+        assertEquals(Set.of(), indexed(resync));
+
+        backend.publish(List.of(entry("p1", "Red mug", 3)));
+        assertEquals(3, bulks.size(), "the resync was not taken as confirmed");
+    }
+
+    private void acceptBulks() throws IOException {
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+            bulks.add(invocation.getArgument(0));
+            return BulkResponse.of(b -> b.errors(false).items(List.of()).took(1));
+        });
+    }
+
+    private static Set<String> indexed(BulkRequest request) {
+        return request.operations().stream()
+                .filter(BulkOperation::isIndex)
+                .map(op -> op.index().id())
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> deleted(BulkRequest request) {
+        return request.operations().stream()
+                .filter(BulkOperation::isDelete)
+                .map(op -> op.delete().id())
+                .collect(Collectors.toSet());
+    }
+
+    private static SearchSuggestionService.SuggestionEntry entry(String id, String text, long weight) {
+        return new SearchSuggestionService.SuggestionEntry(id, "product", text, weight, Map.of("id", id));
+    }
+}
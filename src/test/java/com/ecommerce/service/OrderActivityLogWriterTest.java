@@ -0,0 +1,180 @@
+package com.ecommerce.service;
+
+import com.ecommerce.entity.OrderActivityLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives OrderActivityLogWriter through the transaction synchronization
+ * callbacks a transaction manager would make, with the JdbcTemplate recording
+ * the batches it is asked to add to the outbox and answering the statements
+ * that move them on.
+ */
+@ExtendWith(MockitoExtension.class)
+class OrderActivityLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<List<Object>> batches = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void entriesOfATransactionGoToTheOutboxInOneBatchBeforeItCommits() {
+        recordBatches();
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 500);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(entries(1, 2, 3));
+        writer.write(entries(4, 5));
+        verifyNoInteractions(jdbcTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(false));
+        // Written inside the transaction, so it commits or rolls back with it
+        assertEquals(List.of(5), batches.stream().map(List::size).toList());
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(1, batches.size());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void entriesOfARolledBackTransactionAreDiscarded() {
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 500);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(entries(1, 2, 3));
+        complete(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void aReadOnlyTransactionWritesAfterCommitInATransactionOfItsOwn() {
+        recordBatches();
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 500);
+
+        TransactionSynchronizationManager.initSynchronization();
+        writer.write(entries(1, 2));
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.beforeCommit(true));
+        assertTrue(batches.isEmpty());
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(List.of(2), batches.stream().map(List::size).toList());
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    void anUnavailableOutboxNeverFailsACallerOutsideATransaction() {
+        when(jdbcTemplate.batchUpdate(eq(OrderActivityLogWriter.OUTBOX_INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 500);
+
+        assertDoesNotThrow(() -> writer.write(entries(1, 2, 3)));
+
+        assertEquals(3, writer.getDropped());
+    }
+
+    @Test
+    void flushMovesFullBatchesUntilTheOutboxIsEmpty() {
+        when(jdbcTemplate.update(OrderActivityLogWriter.MOVE_BATCH_SQL, 2)).thenReturn(2, 2, 1);
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 2);
+
+        assertEquals(5, writer.flush());
+        verify(jdbcTemplate, times(3)).update(OrderActivityLogWriter.MOVE_BATCH_SQL, 2);
+    }
+
+    @Test
+    void rowsTheLogRejectsAreDroppedWithoutBlockingTheRest() {
+        when(jdbcTemplate.update(OrderActivityLogWriter.MOVE_BATCH_SQL, 10))
+                .thenThrow(new DataIntegrityViolationException("order 2 does not exist"));
+        when(jdbcTemplate.queryForList(OrderActivityLogWriter.NEXT_IDS_SQL, Long.class, 10))
+                .thenReturn(List.of(1L, 2L, 3L));
+        when(jdbcTemplate.update(OrderActivityLogWriter.MOVE_ONE_SQL, 2L))
+                .thenThrow(new DataIntegrityViolationException("order 2 does not exist"));
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 10);
+
+        assertEquals(3, writer.flush());
+
+        verify(jdbcTemplate).update(OrderActivityLogWriter.MOVE_ONE_SQL, 1L);
+        verify(jdbcTemplate).update(OrderActivityLogWriter.MOVE_ONE_SQL, 3L);
+        verify(jdbcTemplate).update(OrderActivityLogWriter.DELETE_ONE_SQL, 2L);
+        assertEquals(1, writer.getDropped());
+    }
+
+    @Test
+    void otherFailuresLeaveTheRowsInTheOutbox() {
+        when(jdbcTemplate.update(OrderActivityLogWriter.MOVE_BATCH_SQL, 10))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        OrderActivityLogWriter writer = new OrderActivityLogWriter(jdbcTemplate, transactionManager, 10);
+
+        assertEquals(0, writer.flush());
+
+        verify(jdbcTemplate, never()).update(eq(OrderActivityLogWriter.DELETE_ONE_SQL), any(Object[].class));
+        assertEquals(0, writer.getDropped());
+    }
+
+    private void recordBatches() {
+        when(jdbcTemplate.batchUpdate(eq(OrderActivityLogWriter.OUTBOX_INSERT_SQL), anyCollection(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class))).thenAnswer(invocation -> {
+                    Collection<Object> rows = invocation.getArgument(1);
+                    batches.add(new ArrayList<>(rows));
+                    return new int[][] { new int[rows.size()] };
+                });
+    }
+
+    private void complete(List<TransactionSynchronization> synchronizations, int status) {
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    private static List<OrderActivityLogWriter.Entry> entries(long... orderIds) {
+        return LongStream.of(orderIds)
+                .mapToObj(orderId -> new OrderActivityLogWriter.Entry(orderId,
+                        OrderActivityLog.ActivityType.DELIVERY_STARTED, "Delivery Started", "Started",
+                        LocalDateTime.now(), "DELIVERY_AGENT", null, "Agent", null, "Group", "DELIVERY_GROUP"))
+                .toList();
+    }
+}
@@ -0,0 +1,232 @@
+package com.ecommerce.service;
+
+import com.ecommerce.config.RateLimitProperties;
+import com.ecommerce.enums.RateLimitKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the rate limiter with one abusive client hammering a policy from
+ * many threads while legitimate clients make requests within their budget.
+ * The abuser must be held to its bucket, legitimate clients must never be
+ * rejected, and their decision latency must stay flat while the abuse runs.
+ */
+@ExtendWith(MockitoExtension.class)
+class RateLimiterLoadTest {
+
+    private static final int CAPACITY = 20;
+    private static final int ABUSIVE_THREADS = 8;
+    private static final int LEGITIMATE_CLIENTS = 50;
+    private static final int REQUESTS_PER_CLIENT = 15;
+    private static final long ABUSE_MILLIS = 1_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private RateLimitProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPaths(List.of("/api/v1/orders/track/**"));
+        policy.setMethods(List.of("GET"));
+        policy.setCapacity(CAPACITY);
+        policy.setRefillPerMinute(60);
+        properties.getPolicies().put("tracking", policy);
+    }
+
+    @Test
+    void abusiveClientIsHeldToItsBucketWhileOthersKeepTheirBudget() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter(properties, jdbcTemplate);
+        AtomicInteger abusiveAllowed = new AtomicInteger();
+        AtomicInteger abusiveRejected = new AtomicInteger();
+        AtomicInteger legitimateRejected = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean abusing = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(ABUSIVE_THREADS + 4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> abusers = new ArrayList<>();
+        try {
+            for (int t = 0; t < ABUSIVE_THREADS; t++) {
+                abusers.add(executor.submit(() -> {
+                    start.await();
+                    while (abusing.get()) {
+                        if (rateLimiter.tryAcquire("tracking", "ip:203.0.113.66").allowed()) {
+                            abusiveAllowed.incrementAndGet();
+                        } else {
+                            abusiveRejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            List<Future<?>> legitimate = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int worker = t;
+                legitimate.add(executor.submit(() -> {
+                    start.await();
+                    for (int client = worker; client < LEGITIMATE_CLIENTS; client += 4) {
+                        for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                            long began = System.nanoTime();
+                            boolean allowed = rateLimiter.tryAcquire("tracking", "ip:198.51.100." + client).allowed();
+                            latencies.add(System.nanoTime() - began);
+                            if (!allowed) {
+                                legitimateRejected.incrementAndGet();
+                            }
+                        }
+                        Thread.sleep(ABUSE_MILLIS / LEGITIMATE_CLIENTS);
+                    }
+                    return null;
+                }));
+            }
+
+            long began = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : legitimate) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            Thread.sleep(Math.max(0, ABUSE_MILLIS - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began)));
+            abusing.set(false);
+            for (Future<?> future : abusers) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - began) + 1;
+
+            assertEquals(0, legitimateRejected.get(), "legitimate clients were throttled");
+            // The burst plus one token per second of refill, never more
+            assertTrue(abusiveAllowed.get() <= CAPACITY + elapsedSeconds,
+                    "abuser got " + abusiveAllowed.get() + " requests through");
+            assertTrue(abusiveRejected.get() > 0);
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            long p99 = sorted.get((int) (sorted.size() * 0.99) - 1);
+            assertTrue(p99 < TimeUnit.MILLISECONDS.toNanos(5), "p99 decision latency " + p99 + "ns");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Map<String, Object> policy = policyStats(rateLimiter);
+        assertEquals((long) abusiveRejected.get(), policy.get("rejected"));
+    }
+
+    @Test
+    void keyMapStaysBoundedUnderAFloodOfNewClients() {
+        properties.setMaxKeys(100);
+        // Slow refill, so no bucket is full again while the flood runs
+        properties.getPolicies().get("tracking").setRefillPerMinute(1);
+        RateLimiter rateLimiter = new RateLimiter(properties, jdbcTemplate);
+
+        int allowed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (rateLimiter.tryAcquire("tracking", "ip:10.0." + (i / 256) + "." + (i % 256)).allowed()) {
+                allowed++;
+            }
+        }
+
+        Map<String, Object> stats = rateLimiter.getStats();
+        assertTrue((int) stats.get("trackedKeys") <= 100);
+        assertTrue((long) stats.get("overflowed") > 0);
+        // Keys past the bound share one bucket, so the flood cannot mint fresh budgets
+        assertTrue(allowed <= 100 + CAPACITY + 1, "flood got " + allowed + " requests through");
+    }
+
+    @Test
+    void aFloodOfTokensIsHeldByTheAddressPolicyAndKeepsToItsOwnKeys() {
+        properties.setMaxKeys(100);
+        properties.getPolicies().get("tracking").setKeyBy(RateLimitKey.TOKEN);
+        properties.getPolicies().get("tracking").setMaxKeys(50);
+        properties.getPolicies().get("tracking").setRefillPerMinute(1);
+        RateLimitProperties.Policy byAddress = new RateLimitProperties.Policy();
+        byAddress.setPaths(List.of("/api/v1/orders/track/**"));
+        byAddress.setCapacity(CAPACITY);
+        byAddress.setRefillPerMinute(1);
+        properties.getPolicies().put("tracking-ip", byAddress);
+        RateLimiter rateLimiter = new RateLimiter(properties, jdbcTemplate);
+
+        assertEquals(2, rateLimiter.routesFor("GET", "/api/v1/orders/track/orders").size());
+
+        // Every request passes both policies, as in RateLimitFilter
+        int allowed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (rateLimiter.tryAcquire("tracking", "token:guess-" + i).allowed()
+                    && rateLimiter.tryAcquire("tracking-ip", "ip:203.0.113.7").allowed()) {
+                allowed++;
+            }
+        }
+        assertTrue(allowed <= CAPACITY + 1, "token flood got " + allowed + " requests through");
+
+        Map<String, Object> tokens = policyStats(rateLimiter, "tracking");
+        assertTrue((int) tokens.get("trackedKeys") <= 50);
+        assertTrue((long) tokens.get("overflowed") > 0);
+
+        // The token keys did not use up the address policy's keys
+        for (int client = 0; client < 40; client++) {
+            assertTrue(rateLimiter.tryAcquire("tracking-ip", "ip:198.51.100." + client).allowed());
+        }
+        assertEquals(0L, policyStats(rateLimiter, "tracking-ip").get("overflowed"));
+    }
+
+    @Test
+    void routesOnlyMatchConfiguredPathsAndMethods() {
+        RateLimiter rateLimiter = new RateLimiter(properties, jdbcTemplate);
+
+        assertEquals(1, rateLimiter.routesFor("GET", "/api/v1/orders/track/orders").size());
+        assertTrue(rateLimiter.routesFor("POST", "/api/v1/orders/track/orders").isEmpty());
+        assertTrue(rateLimiter.routesFor("GET", "/api/v1/products").isEmpty());
+    }
+
+    @Test
+    void sharedStoreRejectsWhenTheSharedBucketIsEmptyAndFailsOpen() {
+        properties.getSharedStore().setEnabled(true);
+        RateLimiter rateLimiter = new RateLimiter(properties, jdbcTemplate);
+
+        when(jdbcTemplate.query(eq(RateLimiter.SHARED_TAKE_SQL), any(RowMapper.class), any(Object[].class)))
+                .thenReturn(List.of())
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        RateLimiter.Decision emptyShared = rateLimiter.tryAcquire("tracking", "ip:192.0.2.1");
+        assertFalse(emptyShared.allowed());
+        assertTrue(emptyShared.retryAfterSeconds() >= 1);
+
+        RateLimiter.Decision storeDown = rateLimiter.tryAcquire("tracking", "ip:192.0.2.1");
+        assertTrue(storeDown.allowed());
+        assertEquals(1L, rateLimiter.getStats().get("sharedStoreErrors"));
+    }
+
+    private Map<String, Object> policyStats(RateLimiter rateLimiter) {
+        return policyStats(rateLimiter, "tracking");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> policyStats(RateLimiter rateLimiter, String policy) {
+        Map<String, Object> policies = (Map<String, Object>) rateLimiter.getStats().get("policies");
+        return (Map<String, Object>) policies.get(policy);
+    }
+}
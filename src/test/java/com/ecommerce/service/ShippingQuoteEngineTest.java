@@ -0,0 +1,368 @@
+package com.ecommerce.service;
+
+import com.ecommerce.dto.AddressDto;
+import com.ecommerce.dto.CalculateOrderShippingRequest;
+import com.ecommerce.dto.CartItemDTO;
+import com.ecommerce.dto.ShippingDetailsDTO;
+import com.ecommerce.dto.ShippingQuoteDTO;
+import com.ecommerce.entity.ShippingCost;
+import com.ecommerce.entity.Warehouse;
+import com.ecommerce.enums.ReferenceDataRegion;
+import com.ecommerce.repository.ProductRepository;
+import com.ecommerce.repository.ProductVariantRepository;
+import com.ecommerce.repository.ShippingCostRepository;
+import com.ecommerce.repository.StockBatchRepository;
+import com.ecommerce.repository.WarehouseRepository;
+import com.ecommerce.util.DistanceCalculator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Quotes from ShippingQuoteEngine against the calculation ShippingCostServiceImpl
+ * ran before the engine replaced it: the warehouses the FEFO allocator would
+ * have drawn from (nearest first) are priced with the old hub formula, and
+ * the engine must arrive at the same cost, distance, warehouse and weight.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShippingQuoteEngineTest {
+
+    private static final UUID SHIRT_ID = UUID.randomUUID();
+    private static final UUID BOOK_ID = UUID.randomUUID();
+    private static final long MUG_VARIANT = 7L;
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @Mock
+    private ShippingCostRepository shippingCostRepository;
+
+    @Mock
+    private StockBatchRepository stockBatchRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductVariantRepository productVariantRepository;
+
+    @Mock
+    private GeocodingService geocodingService;
+
+    @Mock
+    private ReferenceDataCache referenceDataCache;
+
+    private ShippingQuoteEngine engine;
+
+    private Warehouse kigali;
+    private Warehouse kampala;
+    private Warehouse nairobi;
+    private ShippingCost rateCard;
+    private final List<Object[]> productStock = new ArrayList<>();
+    private final List<Object[]> variantStock = new ArrayList<>();
+    // Weights the product details hold; products without one fall back to 0.1 kg
+    private final Map<Object, BigDecimal> weights = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        engine = new ShippingQuoteEngine(warehouseRepository, shippingCostRepository, stockBatchRepository,
+                productRepository, productVariantRepository, geocodingService, referenceDataCache);
+
+        kigali = warehouse(1L, "Kigali Central", "Rwanda", "-1.9441", "30.0619");
+        kampala = warehouse(2L, "Kampala Depot", "Uganda", "0.3476", "32.5825");
+        nairobi = warehouse(3L, "Nairobi Hub", "Kenya", "-1.2921", "36.8219");
+        rateCard = ShippingCost.builder()
+                .name("Standard")
+                .baseFee(new BigDecimal("2.50"))
+                .distanceKmCost(new BigDecimal("0.015"))
+                .weightKgCost(new BigDecimal("1.20"))
+                .internationalFee(new BigDecimal("15.00"))
+                .freeShippingThreshold(new BigDecimal("500"))
+                .isActive(true)
+                .build();
+
+        lenient().when(referenceDataCache.get(any(ReferenceDataRegion.class), any(), any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+        lenient().when(warehouseRepository.findByIsActiveTrue()).thenReturn(List.of(nairobi, kigali, kampala));
+        lenient().when(shippingCostRepository.findByIsActiveTrue()).thenAnswer(i -> List.of(rateCard));
+        lenient().when(stockBatchRepository.sumAvailableByWarehouseForProducts(anyCollection(),
+                any(LocalDateTime.class))).thenReturn(productStock);
+        lenient().when(stockBatchRepository.sumAvailableByWarehouseForVariants(anyCollection(),
+                any(LocalDateTime.class))).thenReturn(variantStock);
+        lenient().when(productRepository.findWeightsByProductIds(anyCollection())).thenAnswer(i -> rows(
+                i.getArgument(0)));
+        lenient().when(productVariantRepository.findWeightsByVariantIds(anyCollection())).thenAnswer(i -> rows(
+                i.getArgument(0)));
+    }
+
+    @Test
+    void singleWarehouseCartMatchesThePreviousCalculation() {
+        productStock.add(new Object[] { kigali.getId(), SHIRT_ID, 10L });
+        productStock.add(new Object[] { nairobi.getId(), SHIRT_ID, 50L });
+        weights.put(SHIRT_ID, new BigDecimal("0.45"));
+        List<CartItemDTO> cart = List.of(product(SHIRT_ID, 3));
+
+        ShippingDetailsDTO quote = engine.quote(kigaliCustomer(), cart, new BigDecimal("80"), null);
+
+        assertSameQuote(previousCalculation(List.of(kigali), kigaliCustomer(), cart), quote);
+        assertEquals("Kigali Central", quote.getSelectedWarehouseName());
+        assertFalse(quote.getIsInternationalShipping());
+        assertEquals(0, new BigDecimal("1.35").compareTo(quote.getTotalWeight()));
+    }
+
+    @Test
+    void multiWarehouseCartMatchesThePreviousCalculation() {
+        // Kigali covers three mugs, the rest comes from the next nearest
+        // warehouse (Kampala), and the shirts stay in Kigali
+        variantStock.add(new Object[] { kigali.getId(), MUG_VARIANT, 3L });
+        variantStock.add(new Object[] { kampala.getId(), MUG_VARIANT, 10L });
+        variantStock.add(new Object[] { nairobi.getId(), MUG_VARIANT, 10L });
+        productStock.add(new Object[] { kigali.getId(), SHIRT_ID, 4L });
+        weights.put(MUG_VARIANT, new BigDecimal("0.8"));
+        weights.put(SHIRT_ID, new BigDecimal("0.45"));
+        List<CartItemDTO> cart = List.of(variant(MUG_VARIANT, 8), product(SHIRT_ID, 2));
+
+        ShippingDetailsDTO quote = engine.quote(kigaliCustomer(), cart, new BigDecimal("120"), null);
+
+        assertSameQuote(previousCalculation(List.of(kigali, kampala), kigaliCustomer(), cart), quote);
+        assertEquals("Kampala Depot", quote.getSelectedWarehouseName());
+        assertTrue(quote.getIsInternationalShipping());
+        assertEquals(0, new BigDecimal("15.00").compareTo(quote.getInternationalFee()));
+    }
+
+    @Test
+    void itemsWithoutAWeightFallBackToTheDefault() {
+        productStock.add(new Object[] { nairobi.getId(), BOOK_ID, 5L });
+        productStock.add(new Object[] { kigali.getId(), SHIRT_ID, 5L });
+        // The book's detail has no weight, the shirt's weighs nothing
+        weights.put(BOOK_ID, null);
+        weights.put(SHIRT_ID, BigDecimal.ZERO);
+        List<CartItemDTO> cart = List.of(product(BOOK_ID, 4), product(SHIRT_ID, 1));
+
+        ShippingDetailsDTO quote = engine.quote(kigaliCustomer(), cart, new BigDecimal("40"), null);
+
+        assertSameQuote(previousCalculation(List.of(nairobi, kigali), kigaliCustomer(), cart), quote);
+        assertEquals(0, new BigDecimal("0.5").compareTo(quote.getTotalWeight()));
+    }
+
+    @Test
+    void noActiveRateCardGivesAnEmptyQuote() {
+        when(shippingCostRepository.findByIsActiveTrue()).thenReturn(List.of());
+        productStock.add(new Object[] { kigali.getId(), SHIRT_ID, 10L });
+
+        ShippingDetailsDTO quote = engine.quote(kigaliCustomer(), List.of(product(SHIRT_ID, 1)),
+                new BigDecimal("80"), null);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(quote.getShippingCost()));
+        assertEquals("No warehouse", quote.getSelectedWarehouseName());
+        verifyNoInteractions(geocodingService, warehouseRepository);
+    }
+
+    @Test
+    void ordersOverTheThresholdShipFree() {
+        ShippingDetailsDTO quote = engine.quote(kigaliCustomer(), List.of(product(SHIRT_ID, 1)),
+                new BigDecimal("500"), null);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(quote.getShippingCost()));
+        assertEquals("Free shipping", quote.getSelectedWarehouseName());
+    }
+
+    @Test
+    void cartsBeyondTheStockCannotBeQuoted() {
+        productStock.add(new Object[] { kigali.getId(), SHIRT_ID, 2L });
+        productStock.add(new Object[] { kampala.getId(), SHIRT_ID, 1L });
+
+        assertThrows(IllegalStateException.class, () -> engine.quote(kigaliCustomer(),
+                List.of(product(SHIRT_ID, 4)), new BigDecimal("80"), null));
+    }
+
+    @Test
+    void quoteAllPricesEachCartAndReportsFailuresAlone() {
+        productStock.add(new Object[] { kigali.getId(), SHIRT_ID, 10L });
+        variantStock.add(new Object[] { kigali.getId(), MUG_VARIANT, 1L });
+        variantStock.add(new Object[] { nairobi.getId(), MUG_VARIANT, 6L });
+        weights.put(SHIRT_ID, new BigDecimal("0.45"));
+        List<CartItemDTO> shirts = List.of(product(SHIRT_ID, 2));
+        List<CartItemDTO> mugs = List.of(variant(MUG_VARIANT, 5));
+
+        List<ShippingQuoteDTO> quotes = engine.quoteAll(List.of(
+                request(kigaliCustomer(), shirts),
+                request(kigaliCustomer(), List.of(variant(MUG_VARIANT, 50))),
+                request(null, shirts),
+                request(kigaliCustomer(), mugs)));
+
+        assertEquals(4, quotes.size());
+        assertSameQuote(previousCalculation(List.of(kigali), kigaliCustomer(), shirts),
+                quotes.get(0).getShippingDetails());
+        assertNull(quotes.get(0).getError());
+        assertTrue(quotes.get(1).getError().contains("Insufficient stock"));
+        assertNull(quotes.get(1).getShippingDetails());
+        assertEquals("Delivery address is required", quotes.get(2).getError());
+        assertSameQuote(previousCalculation(List.of(kigali, nairobi), kigaliCustomer(), mugs),
+                quotes.get(3).getShippingDetails());
+        for (int i = 0; i < quotes.size(); i++) {
+            assertEquals(i, quotes.get(i).getIndex());
+        }
+
+        // Stock and weights for all carts are read once for the batch
+        verify(stockBatchRepository, times(1)).sumAvailableByWarehouseForProducts(anyCollection(),
+                any(LocalDateTime.class));
+        verify(stockBatchRepository, times(1)).sumAvailableByWarehouseForVariants(anyCollection(),
+                any(LocalDateTime.class));
+        verify(productVariantRepository, times(1)).findWeightsByVariantIds(anyCollection());
+    }
+
+    private static void assertSameQuote(ShippingDetailsDTO expected, ShippingDetailsDTO actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getDistanceKm(), actual.getDistanceKm(), 1e-9);
+        // Matrix distances may be measured in the other direction, so allow
+        // for the last bits of the double
+        assertClose(expected.getShippingCost(), actual.getShippingCost());
+        assertClose(expected.getDistanceCost(), actual.getDistanceCost());
+        assertEquals(0, expected.getWeightCost().compareTo(actual.getWeightCost()));
+        assertEquals(0, expected.getInternationalFee().compareTo(actual.getInternationalFee()));
+        assertEquals(0, expected.getTotalWeight().compareTo(actual.getTotalWeight()));
+        assertEquals(expected.getSelectedWarehouseName(), actual.getSelectedWarehouseName());
+        assertEquals(expected.getSelectedWarehouseCountry(), actual.getSelectedWarehouseCountry());
+        assertEquals(expected.getIsInternationalShipping(), actual.getIsInternationalShipping());
+    }
+
+    private static void assertClose(BigDecimal expected, BigDecimal actual) {
+        assertTrue(expected.subtract(actual).abs().compareTo(new BigDecimal("0.000001")) < 0,
+                "expected " + expected + " but was " + actual);
+    }
+
+    /**
+     * The hub formula ShippingCostServiceImpl applied to the warehouses its
+     * FEFO allocation drew from: hub = the one nearest the customer, distance
+     * = Σ(warehouse → hub) + (hub → customer), reported warehouse = the one
+     * furthest from the hub, and 0.1 kg for items without a positive weight
+     */
+    private ShippingDetailsDTO previousCalculation(List<Warehouse> involved, AddressDto customer,
+            List<CartItemDTO> items) {
+        Warehouse hub = null;
+        double hubToCustomer = Double.MAX_VALUE;
+        for (Warehouse warehouse : involved) {
+            double distance = DistanceCalculator.getDistanceFromLatLonInKm(customer.getLatitude(),
+                    customer.getLongitude(), warehouse.getLatitude().doubleValue(),
+                    warehouse.getLongitude().doubleValue());
+            if (distance < hubToCustomer) {
+                hubToCustomer = distance;
+                hub = warehouse;
+            }
+        }
+
+        double toHub = 0.0;
+        double furthestDistance = 0.0;
+        Warehouse furthest = hub;
+        boolean international = false;
+        for (Warehouse warehouse : involved) {
+            if (!warehouse.getCountry().equalsIgnoreCase(customer.getCountry())) {
+                international = true;
+            }
+            if (warehouse.getId().equals(hub.getId())) {
+                continue;
+            }
+            double distance = DistanceCalculator.getDistanceFromLatLonInKm(warehouse.getLatitude().doubleValue(),
+                    warehouse.getLongitude().doubleValue(), hub.getLatitude().doubleValue(),
+                    hub.getLongitude().doubleValue());
+            toHub += distance;
+            if (distance > furthestDistance) {
+                furthestDistance = distance;
+                furthest = warehouse;
+            }
+        }
+        double totalDistance = toHub + hubToCustomer;
+
+        BigDecimal totalWeight = BigDecimal.ZERO;
+        for (CartItemDTO item : items) {
+            BigDecimal weight = weights.get(item.getVariantId() != null ? item.getVariantId() : item.getProductId());
+            if (weight == null || weight.compareTo(BigDecimal.ZERO) <= 0) {
+                weight = new BigDecimal("0.1");
+            }
+            totalWeight = totalWeight.add(weight.multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+
+        BigDecimal distanceCost = rateCard.getDistanceKmCost().multiply(BigDecimal.valueOf(totalDistance));
+        BigDecimal weightCost = rateCard.getWeightKgCost().multiply(totalWeight);
+        BigDecimal internationalFee = international ? rateCard.getInternationalFee() : BigDecimal.ZERO;
+        return ShippingDetailsDTO.builder()
+                .shippingCost(rateCard.getBaseFee().add(distanceCost).add(weightCost).add(internationalFee))
+                .distanceKm(totalDistance)
+                .selectedWarehouseName(furthest.getName())
+                .selectedWarehouseCountry(furthest.getCountry())
+                .isInternationalShipping(international)
+                .distanceCost(distanceCost)
+                .weightCost(weightCost)
+                .internationalFee(internationalFee)
+                .totalWeight(totalWeight)
+                .build();
+    }
+
+    /**
+     * Weight rows as the repositories return them, for the requested ids
+     * that have a product detail
+     */
+    private List<Object[]> rows(Collection<?> ids) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Object id : ids) {
+            if (weights.containsKey(id)) {
+                rows.add(new Object[] { id, weights.get(id) });
+            }
+        }
+        return rows;
+    }
+
+    private static AddressDto kigaliCustomer() {
+        AddressDto address = new AddressDto();
+        address.setStreetAddress("KN 5 Rd");
+        address.setCity("Kigali");
+        address.setCountry("Rwanda");
+        address.setLatitude(-1.9500);
+        address.setLongitude(30.0900);
+        return address;
+    }
+
+    private static CalculateOrderShippingRequest request(AddressDto address, List<CartItemDTO> items) {
+        return CalculateOrderShippingRequest.builder()
+                .deliveryAddress(address)
+                .items(items)
+                .orderValue(new BigDecimal("60"))
+                .build();
+    }
+
+    private static CartItemDTO product(UUID productId, int quantity) {
+        return CartItemDTO.builder().productId(productId).sku("P-" + quantity).quantity(quantity).build();
+    }
+
+    private static CartItemDTO variant(long variantId, int quantity) {
+        return CartItemDTO.builder().variantId(variantId).sku("V-" + variantId).quantity(quantity).build();
+    }
+
+    private static Warehouse warehouse(Long id, String name, String country, String latitude, String longitude) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(id);
+        warehouse.setName(name);
+        warehouse.setCountry(country);
+        warehouse.setLatitude(new BigDecimal(latitude));
+        warehouse.setLongitude(new BigDecimal(longitude));
+        return warehouse;
+    }
+}